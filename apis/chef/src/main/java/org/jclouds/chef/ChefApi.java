@@ -20,6 +20,7 @@ import java.io.Closeable;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -62,6 +63,7 @@ import org.jclouds.chef.functions.ParseCookbookDefinitionListFromJson;
 import org.jclouds.chef.functions.ParseCookbookNamesFromJson;
 import org.jclouds.chef.functions.ParseCookbookVersionsFromJson;
 import org.jclouds.chef.functions.ParseKeySetFromJson;
+import org.jclouds.chef.functions.ParsePartialSearchFromJson;
 import org.jclouds.chef.functions.ParseSearchClientsFromJson;
 import org.jclouds.chef.functions.ParseSearchDatabagFromJson;
 import org.jclouds.chef.functions.ParseSearchEnvironmentsFromJson;
@@ -70,6 +72,7 @@ import org.jclouds.chef.functions.ParseSearchRolesFromJson;
 import org.jclouds.chef.functions.UriForResource;
 import org.jclouds.chef.options.CreateClientOptions;
 import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.domain.JsonBall;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Delegate;
@@ -838,6 +841,26 @@ public interface ChefApi extends Closeable {
    @ResponseParser(ParseSearchNodesFromJson.class)
    SearchResult<? extends Node> searchNodes(SearchOptions options);
 
+   /**
+    * Searches an index and returns only the given attributes of the items that
+    * match the given options.
+    * <p>
+    * This is much lighter than a regular search when only a few attributes of
+    * each item are needed, such as the name and ohai time of every node.
+    * 
+    * @param index The name of the index, such as {@code node}.
+    * @param keys The attributes to return, each mapped to its path in the
+    *        item, such as {@code ohai_time -> [automatic, ohai_time]}.
+    * @return The requested attributes of each item, keyed as in {@code keys}.
+    */
+   @SinceApiVersion("11.0.0")
+   @Named("search:partial")
+   @POST
+   @Path("/search/{index}")
+   @ResponseParser(ParsePartialSearchFromJson.class)
+   SearchResult<? extends Map<String, JsonBall>> partialSearch(@PathParam("index") String index,
+         @BinderParam(BindToJsonPayload.class) Map<String, List<String>> keys, SearchOptions options);
+
    /**
     * Searches all roles.
     * <p>
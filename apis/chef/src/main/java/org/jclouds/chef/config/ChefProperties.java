@@ -107,6 +107,17 @@ public final class ChefProperties {
     */
    public static final String CHEF_USE_OMNIBUS = "chef.use-omnibus";
 
+   /**
+    * Boolean property. Default (false).
+    * <p>
+    * Lists nodes from the search index a page at a time, instead of listing
+    * the node names and then getting each node. This is much faster on large
+    * organizations, but the search index may lag a little behind recent node
+    * updates. Stale nodes are also found with a partial search that only
+    * returns their name and ohai time.
+    */
+   public static final String CHEF_LIST_NODES_FROM_SEARCH = "chef.list-nodes-from-search";
+
    private ChefProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
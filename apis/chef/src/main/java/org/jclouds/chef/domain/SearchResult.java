@@ -26,6 +26,7 @@ import com.google.common.collect.Iterables;
 public class SearchResult<T> extends LinkedHashSet<T> {
    private static final long serialVersionUID = 4000610660948065287L;
    private long start;
+   private long total;
 
    SearchResult() {
    }
@@ -33,6 +34,13 @@ public class SearchResult<T> extends LinkedHashSet<T> {
    public SearchResult(long start, Iterable<T> results) {
       this.start = start;
       Iterables.addAll(this, results);
+      this.total = start + size();
+   }
+
+   public SearchResult(long start, long total, Iterable<T> results) {
+      this.start = start;
+      this.total = total;
+      Iterables.addAll(this, results);
    }
 
    /**
@@ -43,4 +51,12 @@ public class SearchResult<T> extends LinkedHashSet<T> {
       return start;
    }
 
+   /**
+    * 
+    * @return the number of results that match the search, across all pages
+    */
+   public long getTotal() {
+      return total;
+   }
+
 }
@@ -22,6 +22,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.jclouds.chef.ChefApi;
 import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
 import org.jclouds.logging.Logger;
 
 import java.util.List;
@@ -74,4 +76,18 @@ public abstract class BaseListNodesImpl {
       return getUnchecked(futures);
    }
 
+   /**
+    * Streams the nodes that match the query from the search index, a page at
+    * a time, instead of getting each node by name.
+    */
+   protected Iterable<? extends Node> search(String query) {
+      logger.trace(String.format("searching nodes: %s", query));
+      return SearchPages.search(query, new Function<SearchOptions, SearchResult<? extends Node>>() {
+         @Override
+         public SearchResult<? extends Node> apply(SearchOptions options) {
+            return api.searchNodes(options);
+         }
+      });
+   }
+
 }
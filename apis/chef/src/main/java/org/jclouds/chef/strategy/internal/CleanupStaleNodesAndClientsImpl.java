@@ -25,27 +25,39 @@ import static org.jclouds.chef.util.ChefUtils.fromOhaiTime;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.chef.ChefApi;
 import org.jclouds.chef.config.ChefProperties;
 import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
 import org.jclouds.chef.strategy.CleanupStaleNodesAndClients;
 import org.jclouds.chef.strategy.DeleteAllClientsInList;
 import org.jclouds.chef.strategy.DeleteAllNodesInList;
 import org.jclouds.chef.strategy.ListNodes;
 import org.jclouds.domain.JsonBall;
+import org.jclouds.json.Json;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 /**
  * 
  * Cleans up nodes and apis who have been hanging around too long.
+ * <p>
+ * When {@link ChefProperties#CHEF_LIST_NODES_FROM_SEARCH} is set, the nodes are
+ * found with a partial search that only returns their name and ohai time, a
+ * page at a time, instead of getting every node.
  */
 @Singleton
 public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClients {
@@ -53,16 +65,31 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
    @Named(ChefProperties.CHEF_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   private static final Map<String, List<String>> NAME_AND_OHAI_TIME = ImmutableMap.<String, List<String>> of(
+         "name", ImmutableList.of("name"), "ohai_time", ImmutableList.of("automatic", "ohai_time"));
+
    private final ListNodes nodeLister;
    private final DeleteAllNodesInList nodeDeleter;
    private final DeleteAllClientsInList clientDeleter;
+   private final ChefApi api;
+   private final Json json;
+   private final boolean fromSearch;
 
-   @Inject
    public CleanupStaleNodesAndClientsImpl(DeleteAllNodesInList nodeDeleter, DeleteAllClientsInList clientDeleter,
          ListNodes nodeLister) {
+      this(nodeDeleter, clientDeleter, nodeLister, null, null, false);
+   }
+
+   @Inject
+   public CleanupStaleNodesAndClientsImpl(DeleteAllNodesInList nodeDeleter, DeleteAllClientsInList clientDeleter,
+         ListNodes nodeLister, ChefApi api, Json json,
+         @Named(ChefProperties.CHEF_LIST_NODES_FROM_SEARCH) boolean fromSearch) {
       this.nodeLister = checkNotNull(nodeLister, "nodeLister");
       this.nodeDeleter = checkNotNull(nodeDeleter, "nodeDeleter");
       this.clientDeleter = checkNotNull(clientDeleter, "clientDeleter");
+      this.fromSearch = fromSearch;
+      this.api = fromSearch ? checkNotNull(api, "api") : api;
+      this.json = fromSearch ? checkNotNull(json, "json") : json;
    }
 
    @Override
@@ -70,6 +97,10 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
       final Calendar expired = Calendar.getInstance();
       expired.setTime(new Date());
       expired.add(Calendar.SECOND, -secondsStale);
+      if (fromSearch) {
+         executeFromSearch(prefix, expired);
+         return;
+      }
       Iterable<? extends Node> staleNodes = filter(
          nodeLister.execute(), and(notNull(), new Predicate<Node>() {
                @Override
@@ -80,12 +111,7 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
          new Predicate<Node>() {
              @Override
              public boolean apply(Node input) {
-                JsonBall dateLong = input.getAutomaticAttributes().get("ohai_time");
-                if (dateLong == null)
-                   return true;
-                Calendar nodeUpdate = Calendar.getInstance();
-                nodeUpdate.setTime(fromOhaiTime(dateLong));
-                return expired.after(nodeUpdate);
+                return isStale(input.getAutomaticAttributes().get("ohai_time"), expired);
              }
          }));
       Iterable<String> nodeNames = transform(staleNodes, new Function<Node, String>() {
@@ -99,4 +125,37 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
       nodeDeleter.execute(nodeNames);
       clientDeleter.execute(nodeNames);
    }
+
+   private void executeFromSearch(String prefix, Calendar expired) {
+      Iterable<Map<String, JsonBall>> nodes = SearchPages.search("name:" + SearchPages.escape(prefix) + "*",
+            new Function<SearchOptions, SearchResult<? extends Map<String, JsonBall>>>() {
+               @Override
+               public SearchResult<? extends Map<String, JsonBall>> apply(SearchOptions options) {
+                  return api.partialSearch("node", NAME_AND_OHAI_TIME, options);
+               }
+            });
+
+      // Collected before deleting anything, as deleting shifts the pages
+      ImmutableList.Builder<String> nodeNames = ImmutableList.builder();
+      for (Map<String, JsonBall> node : nodes) {
+         JsonBall name = node == null ? null : node.get("name");
+         if (name == null)
+            continue;
+         String nodeName = json.fromJson(name.toString(), String.class);
+         if (nodeName.startsWith(prefix) && isStale(node.get("ohai_time"), expired))
+            nodeNames.add(nodeName);
+      }
+      List<String> staleNodeNames = nodeNames.build();
+      logger.trace(String.format("deleting stale nodes: %s", staleNodeNames));
+      nodeDeleter.execute(staleNodeNames);
+      clientDeleter.execute(staleNodeNames);
+   }
+
+   private static boolean isStale(JsonBall dateLong, Calendar expired) {
+      if (dateLong == null)
+         return true;
+      Calendar nodeUpdate = Calendar.getInstance();
+      nodeUpdate.setTime(fromOhaiTime(dateLong));
+      return expired.after(nodeUpdate);
+   }
 }
@@ -39,19 +39,22 @@ public class ListNodesImpl extends BaseListNodesImpl implements ListNodes {
    @Named(ChefProperties.CHEF_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   private final boolean fromSearch;
+
    @Inject
-   ListNodesImpl(ChefApi api) {
+   ListNodesImpl(ChefApi api, @Named(ChefProperties.CHEF_LIST_NODES_FROM_SEARCH) boolean fromSearch) {
       super(api);
+      this.fromSearch = fromSearch;
    }
 
    @Override
    public Iterable<? extends Node> execute() {
-      return super.execute(api.listNodes());
+      return fromSearch ? search("*:*") : super.execute(api.listNodes());
    }
 
    @Override
    public Iterable<? extends Node> execute(ExecutorService executor) {
-      return this.executeConcurrently(MoreExecutors.listeningDecorator(executor));
+      return fromSearch ? search("*:*") : this.executeConcurrently(MoreExecutors.listeningDecorator(executor));
    }
 
 
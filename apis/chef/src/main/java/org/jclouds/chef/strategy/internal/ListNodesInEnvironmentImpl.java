@@ -38,19 +38,28 @@ public class ListNodesInEnvironmentImpl extends BaseListNodesImpl implements Lis
    @Named(ChefProperties.CHEF_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   private final boolean fromSearch;
+
    @Inject
-   ListNodesInEnvironmentImpl(ChefApi api) {
+   ListNodesInEnvironmentImpl(ChefApi api, @Named(ChefProperties.CHEF_LIST_NODES_FROM_SEARCH) boolean fromSearch) {
       super(api);
+      this.fromSearch = fromSearch;
    }
 
    @Override
    public Iterable<? extends Node> execute(String environmentName) {
-      return super.execute(api.listNodesInEnvironment(environmentName));
+      return fromSearch ? searchInEnvironment(environmentName) : super.execute(api
+            .listNodesInEnvironment(environmentName));
    }
 
    @Override
    public Iterable<? extends Node> execute(ExecutorService executor, String environmentName) {
-      return this.executeConcurrently(MoreExecutors.listeningDecorator(executor), environmentName);
+      return fromSearch ? searchInEnvironment(environmentName) : this.executeConcurrently(
+            MoreExecutors.listeningDecorator(executor), environmentName);
+   }
+
+   private Iterable<? extends Node> searchInEnvironment(String environmentName) {
+      return search("chef_environment:" + SearchPages.escape(environmentName));
    }
 
 
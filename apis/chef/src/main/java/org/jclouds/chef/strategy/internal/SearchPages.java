@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import java.util.Iterator;
+
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Pages through the results of a search with {@code rows} and {@code start},
+ * getting each page only once the previous one has been consumed. Paging stops
+ * once the total number of matches reported by the server has been read, as
+ * the server may return fewer rows than requested before the last page.
+ */
+final class SearchPages {
+
+   /**
+    * The number of rows requested for each page.
+    */
+   static final int ROWS = 1000;
+
+   private static final String SPECIAL_CHARACTERS = "+-&|!(){}[]^\"~*?:\\/";
+
+   static <T> Iterable<T> search(final String query,
+         final Function<SearchOptions, ? extends SearchResult<? extends T>> searchPage) {
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            return new AbstractIterator<T>() {
+               private Iterator<? extends T> page = ImmutableList.<T> of().iterator();
+               private int start;
+               private boolean lastPage;
+
+               @Override
+               protected T computeNext() {
+                  while (!page.hasNext()) {
+                     if (lastPage)
+                        return endOfData();
+                     SearchResult<? extends T> rows = searchPage.apply(new SearchOptions().query(query)
+                           .sort("name ASC").rows(ROWS).start(start));
+                     start += rows.size();
+                     lastPage = rows.isEmpty() || start >= rows.getTotal();
+                     page = rows.iterator();
+                  }
+                  return page.next();
+               }
+            };
+         }
+      };
+   }
+
+   /**
+    * Escapes the characters that have a meaning in the query syntax, so the
+    * term is matched literally.
+    */
+   static String escape(String term) {
+      StringBuilder escaped = new StringBuilder(term.length());
+      for (char c : term.toCharArray()) {
+         if (SPECIAL_CHARACTERS.indexOf(c) != -1)
+            escaped.append('\\');
+         escaped.append(c);
+      }
+      return escaped.toString();
+   }
+
+   private SearchPages() {
+   }
+}
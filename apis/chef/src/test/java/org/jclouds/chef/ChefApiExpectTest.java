@@ -19,6 +19,8 @@ package org.jclouds.chef;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.core.MediaType;
@@ -29,12 +31,15 @@ import org.jclouds.chef.domain.Role;
 import org.jclouds.chef.domain.SearchResult;
 import org.jclouds.chef.options.SearchOptions;
 import org.jclouds.date.TimeStamp;
+import org.jclouds.domain.JsonBall;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.rest.ConfiguresHttpApi;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Module;
 
 /**
@@ -194,6 +199,25 @@ public class ChefApiExpectTest extends BaseChefApiExpectTest<ChefApi> {
       assertTrue(result.isEmpty(), String.format("Expected search result to be empty but was: %s", result));
    }
 
+   public void testPartialSearchNodesReturnsRequestedAttributes() {
+      ChefApi api = requestSendsResponse(
+            signed(getHttpRequestBuilder("POST", "/search/node").addQueryParam("q", "name:web*")
+                  .payload(payloadFromStringWithContentType(
+                        "{\"name\":[\"name\"],\"ohai_time\":[\"automatic\",\"ohai_time\"]}",
+                        MediaType.APPLICATION_JSON)).build()),
+            HttpResponse.builder().statusCode(200)
+                  .payload(payloadFromResourceWithContentType("/search_node_partial.json", MediaType.APPLICATION_JSON)) //
+                  .build());
+      Map<String, List<String>> keys = ImmutableMap.<String, List<String>> of("name", ImmutableList.of("name"),
+            "ohai_time", ImmutableList.of("automatic", "ohai_time"));
+      SearchResult<? extends Map<String, JsonBall>> result = api.partialSearch("node", keys,
+            SearchOptions.Builder.query("name:web*"));
+      assertEquals(result.size(), 2);
+      Map<String, JsonBall> first = result.iterator().next();
+      assertEquals(first.get("name"), new JsonBall("web-1"));
+      assertEquals(first.get("ohai_time"), new JsonBall("1408359187.3925"));
+   }
+
    public void testSearchRolesWithOptionsReturnsValidResult() {
       ChefApi api = requestSendsResponse(
             signed(getHttpRequestBuilder("GET", "/search/role").addQueryParam("q", "name:webserver").build()),
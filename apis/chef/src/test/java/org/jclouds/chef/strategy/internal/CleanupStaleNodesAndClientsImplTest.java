@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.easymock.IAnswer;
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.chef.strategy.DeleteAllClientsInList;
+import org.jclouds.chef.strategy.DeleteAllNodesInList;
+import org.jclouds.chef.strategy.ListNodes;
+import org.jclouds.domain.JsonBall;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+
+/**
+ * Tests behavior of {@code CleanupStaleNodesAndClientsImpl}
+ */
+@Test(groups = { "unit" })
+public class CleanupStaleNodesAndClientsImplTest {
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testDeletesOnlyStaleNodesWithThePrefixFromSearch() {
+      ChefApi chef = createMock(ChefApi.class);
+      DeleteAllNodesInList nodeDeleter = createMock(DeleteAllNodesInList.class);
+      DeleteAllClientsInList clientDeleter = createMock(DeleteAllClientsInList.class);
+      ListNodes nodeLister = createMock(ListNodes.class);
+      Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+
+      long now = System.currentTimeMillis();
+      // the server returns fewer rows than requested, and a row without data
+      List<Map<String, JsonBall>> firstPage = Lists.newArrayList(
+            node("web-stale", new JsonBall(now - 7200000)), node("web-fresh", new JsonBall(now)), null);
+      SearchResult<Map<String, JsonBall>> secondPage = new SearchResult<Map<String, JsonBall>>(3, 5,
+            ImmutableList.of(node("webserver-stale", new JsonBall(now - 7200000)),
+                  ImmutableMap.of("name", new JsonBall("web-never-ran"))));
+
+      expect(chef.partialSearch(eq("node"), anyObject(Map.class), eq(page(0))))
+            .andReturn((SearchResult) new SearchResult<Map<String, JsonBall>>(0, 5, firstPage));
+      expect(chef.partialSearch(eq("node"), anyObject(Map.class), eq(page(3)))).andReturn((SearchResult) secondPage);
+      nodeDeleter.execute(ImmutableList.of("web-stale", "web-never-ran"));
+      clientDeleter.execute(ImmutableList.of("web-stale", "web-never-ran"));
+      replay(chef, nodeDeleter, clientDeleter, nodeLister);
+
+      new CleanupStaleNodesAndClientsImpl(nodeDeleter, clientDeleter, nodeLister, chef, json, true).execute("web-",
+            3600);
+
+      verify(chef, nodeDeleter, clientDeleter, nodeLister);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListsNodesUnlessSearchIsEnabled() {
+      DeleteAllNodesInList nodeDeleter = createMock(DeleteAllNodesInList.class);
+      DeleteAllClientsInList clientDeleter = createMock(DeleteAllClientsInList.class);
+      ListNodes nodeLister = createMock(ListNodes.class);
+
+      long now = System.currentTimeMillis();
+      Node stale = Node.builder().name("web-stale").environment("_default")
+            .automaticAttribute("ohai_time", new JsonBall(now - 7200000)).build();
+      Node fresh = Node.builder().name("web-fresh").environment("_default")
+            .automaticAttribute("ohai_time", new JsonBall(now)).build();
+      Node other = Node.builder().name("db-stale").environment("_default")
+            .automaticAttribute("ohai_time", new JsonBall(now - 7200000)).build();
+
+      expect(nodeLister.execute()).andReturn((Iterable) ImmutableList.of(stale, fresh, other)).anyTimes();
+      nodeDeleter.execute(anyObject(Iterable.class));
+      expectLastCall().andAnswer(new IAnswer<Void>() {
+         @Override
+         public Void answer() {
+            assertEquals(ImmutableList.copyOf((Iterable<String>) getCurrentArguments()[0]),
+                  ImmutableList.of("web-stale"));
+            return null;
+         }
+      });
+      clientDeleter.execute(anyObject(Iterable.class));
+      replay(nodeDeleter, clientDeleter, nodeLister);
+
+      new CleanupStaleNodesAndClientsImpl(nodeDeleter, clientDeleter, nodeLister).execute("web-", 3600);
+
+      verify(nodeDeleter, clientDeleter, nodeLister);
+   }
+
+   private static SearchOptions page(int start) {
+      return new SearchOptions().query("name:web\\-*").sort("name ASC").rows(SearchPages.ROWS).start(start);
+   }
+
+   private static Map<String, JsonBall> node(String name, JsonBall ohaiTime) {
+      return ImmutableMap.of("name", new JsonBall(name), "ohai_time", ohaiTime);
+   }
+}
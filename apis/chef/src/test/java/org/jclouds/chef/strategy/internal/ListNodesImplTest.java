@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests behavior of {@code ListNodesImpl}
+ */
+@Test(groups = { "unit" })
+public class ListNodesImplTest {
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListsNodesFromSearchPageByPage() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      ImmutableList.Builder<Node> firstPage = ImmutableList.builder();
+      for (int i = 0; i < SearchPages.ROWS; i++) {
+         firstPage.add(Node.builder().name("node-" + i).environment("_default").build());
+      }
+      Node last = Node.builder().name("node-last").environment("_default").build();
+
+      expect(chef.searchNodes(page(0))).andReturn(
+            (SearchResult) new SearchResult<Node>(0, SearchPages.ROWS + 1, firstPage.build()));
+      expect(chef.searchNodes(page(SearchPages.ROWS))).andReturn(
+            (SearchResult) new SearchResult<Node>(SearchPages.ROWS, SearchPages.ROWS + 1, ImmutableList.of(last)));
+      replay(chef);
+
+      List<? extends Node> nodes = ImmutableList.copyOf(new ListNodesImpl(chef, true).execute());
+
+      assertEquals(nodes.size(), SearchPages.ROWS + 1);
+      assertEquals(nodes.get(SearchPages.ROWS), last);
+      verify(chef);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testKeepsPagingWhenAPageIsShorterThanRequested() {
+      ChefApi chef = createMock(ChefApi.class);
+      Node first = Node.builder().name("node-0").environment("_default").build();
+      Node second = Node.builder().name("node-1").environment("_default").build();
+
+      // the server may cap the rows of a page below the requested number
+      expect(chef.searchNodes(page(0))).andReturn(
+            (SearchResult) new SearchResult<Node>(0, 2, ImmutableList.of(first)));
+      expect(chef.searchNodes(page(1))).andReturn(
+            (SearchResult) new SearchResult<Node>(1, 2, ImmutableList.of(second)));
+      replay(chef);
+
+      assertEquals(ImmutableList.copyOf(new ListNodesImpl(chef, true).execute()), ImmutableList.of(first, second));
+      verify(chef);
+   }
+
+   private static SearchOptions page(int start) {
+      return new SearchOptions().query("*:*").sort("name ASC").rows(SearchPages.ROWS).start(start);
+   }
+}
@@ -15,7 +15,9 @@
  * limitations under the License.
  */
 package org.jclouds.cloudstack;
+import static org.jclouds.cloudstack.config.CloudStackProperties.ASYNC_JOB_POLL_PERIOD;
 import static org.jclouds.cloudstack.config.CloudStackProperties.AUTO_GENERATE_KEYPAIRS;
+import static org.jclouds.cloudstack.config.CloudStackProperties.TRACK_ASYNC_JOBS;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
 import java.net.URI;
@@ -54,6 +56,8 @@ public class CloudStackApiMetadata extends BaseHttpApiMetadata<CloudStackApi> {
       properties.setProperty("jclouds.ssh.max-retries", "7");
       properties.setProperty("jclouds.ssh.retry-auth", "true");
       properties.setProperty(AUTO_GENERATE_KEYPAIRS, "false");
+      properties.setProperty(TRACK_ASYNC_JOBS, "false");
+      properties.setProperty(ASYNC_JOB_POLL_PERIOD, "1000");
       return properties;
    }
 
@@ -19,6 +19,7 @@ package org.jclouds.cloudstack.compute.config;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.cloudstack.config.CloudStackProperties.AUTO_GENERATE_KEYPAIRS;
+import static org.jclouds.cloudstack.config.CloudStackProperties.TRACK_ASYNC_JOBS;
 import static org.jclouds.util.Predicates2.retry;
 
 import java.util.Map;
@@ -70,6 +71,7 @@ import org.jclouds.cloudstack.functions.GetIPForwardingRulesByVirtualMachine;
 import org.jclouds.cloudstack.functions.StaticNATVirtualMachineInNetwork;
 import org.jclouds.cloudstack.functions.ZoneIdToZone;
 import org.jclouds.cloudstack.predicates.JobComplete;
+import org.jclouds.cloudstack.strategy.AsyncJobTracker;
 import org.jclouds.cloudstack.suppliers.GetCurrentUser;
 import org.jclouds.cloudstack.suppliers.NetworksForCurrentUser;
 import org.jclouds.cloudstack.suppliers.ProjectsForCurrentUser;
@@ -236,7 +238,10 @@ public class CloudStackComputeServiceContextModule extends
 
    @Provides
    @Singleton
-   protected final Predicate<String> jobComplete(JobComplete jobComplete) {
+   protected final Predicate<String> jobComplete(JobComplete jobComplete, AsyncJobTracker tracker,
+         @Named(TRACK_ASYNC_JOBS) boolean trackAsyncJobs) {
+      if (trackAsyncJobs)
+         return tracker.jobComplete(1200, SECONDS);
       return retry(jobComplete, 1200, 1, 5, SECONDS);
    }
 
@@ -46,6 +46,20 @@ public final class CloudStackProperties {
     */
    public static final String AUTO_GENERATE_KEYPAIRS = "jclouds.cloudstack.auto-generate-keypairs";
 
+   /**
+    * Whether compute operations wait for async jobs through the shared
+    * {@link org.jclouds.cloudstack.strategy.AsyncJobTracker}, which polls all pending jobs with one
+    * {@code listAsyncJobs} call, instead of polling each job with {@code queryAsyncJobResult}.
+    * Defaults to false.
+    */
+   public static final String TRACK_ASYNC_JOBS = "jclouds.cloudstack.track-async-jobs";
+
+   /**
+    * Milliseconds between two polls of the {@link org.jclouds.cloudstack.strategy.AsyncJobTracker}.
+    * Defaults to 1000.
+    */
+   public static final String ASYNC_JOB_POLL_PERIOD = "jclouds.cloudstack.async-job-poll-period";
+
    private CloudStackProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
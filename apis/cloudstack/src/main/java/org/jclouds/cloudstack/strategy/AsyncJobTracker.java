@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.cloudstack.config.CloudStackProperties.ASYNC_JOB_POLL_PERIOD;
+import static org.jclouds.cloudstack.options.ListAsyncJobsOptions.Builder.startDate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits for many async jobs at once. Instead of a {@code queryAsyncJobResult} call per job on
+ * every retry, each poll lists the jobs started since the oldest tracked one with a single
+ * {@code listAsyncJobs} call and completes the futures of the jobs that finished.
+ * <p/>
+ * Jobs that are missing from the listing, for example because it was paged or the job is older
+ * than the listed window, are queried one by one every {@value #STRAGGLER_POLLS} polls.
+ * <p/>
+ * Polling runs on a single task of the user executor, and only while jobs are tracked.
+ */
+@Singleton
+public class AsyncJobTracker {
+
+   /**
+    * Number of polls a job may be missing from the listing before it is queried on its own.
+    */
+   static final int STRAGGLER_POLLS = 5;
+
+   /**
+    * Number of individual queries that may not find a job before it is failed.
+    */
+   static final int NOT_FOUND_QUERIES = 3;
+
+   /**
+    * How far before tracking began the listing starts, to allow for jobs that were submitted
+    * before they were tracked, and for the clock of the management server.
+    */
+   static final long START_DATE_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudStackApi client;
+   private final ListeningExecutorService userExecutor;
+   private final long pollPeriodMillis;
+   private final ConcurrentMap<String, TrackedJob> tracked = Maps.newConcurrentMap();
+   private final AtomicBoolean polling = new AtomicBoolean();
+
+   @Inject
+   AsyncJobTracker(CloudStackApi client, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ASYNC_JOB_POLL_PERIOD) long pollPeriodMillis) {
+      this.client = checkNotNull(client, "client");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.pollPeriodMillis = pollPeriodMillis;
+   }
+
+   /**
+    * Tracks a job until it completes. Tracking the same job again returns the same future.
+    * 
+    * @return a future holding the job once it has succeeded, or failing with an
+    *         {@link AsyncJobException} if the job failed. Cancelling the future stops tracking the
+    *         job.
+    */
+   @SuppressWarnings("unchecked")
+   public <T> ListenableFuture<AsyncJob<T>> track(String jobId) {
+      return (ListenableFuture<AsyncJob<T>>) (ListenableFuture<?>) trackJob(jobId).future;
+   }
+
+   private TrackedJob trackJob(String jobId) {
+      checkNotNull(jobId, "jobId");
+      TrackedJob job = tracked.get(jobId);
+      if (job == null) {
+         final TrackedJob created = new TrackedJob(jobId);
+         job = tracked.putIfAbsent(jobId, created);
+         if (job == null) {
+            job = created;
+            created.future.addListener(new Runnable() {
+               @Override
+               public void run() {
+                  tracked.remove(created.id, created);
+               }
+            }, MoreExecutors.newDirectExecutorService());
+         }
+      }
+      startPolling();
+      return job;
+   }
+
+   /**
+    * A tracked alternative to retrying {@link org.jclouds.cloudstack.predicates.JobComplete}: the
+    * predicate waits up to {@code timeout} for the job to complete.
+    * 
+    * @return a predicate that is true if the job succeeded, false if it did not complete in time,
+    *         and throws an {@link AsyncJobException} if it failed. A job that did not complete in
+    *         time is no longer tracked, unless another caller of the predicate is still waiting
+    *         for it.
+    */
+   public Predicate<String> jobComplete(final long timeout, final TimeUnit unit) {
+      checkNotNull(unit, "unit");
+      return new Predicate<String>() {
+         @Override
+         public boolean apply(String jobId) {
+            TrackedJob job = trackJob(jobId);
+            job.waiters.incrementAndGet();
+            boolean timedOut = false;
+            try {
+               job.future.get(timeout, unit);
+               return true;
+            } catch (TimeoutException e) {
+               timedOut = true;
+               return false;
+            } catch (CancellationException e) {
+               return false;
+            } catch (ExecutionException e) {
+               throw propagate(e.getCause());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw propagate(e);
+            } finally {
+               if (job.waiters.decrementAndGet() == 0 && timedOut) {
+                  // cancelling stops tracking; a retry of the predicate tracks the job again
+                  job.future.cancel(false);
+               }
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "trackedJobComplete(" + timeout + " " + unit + ")";
+         }
+      };
+   }
+
+   private void startPolling() {
+      if (!polling.compareAndSet(false, true))
+         return;
+      try {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               pollWhileTracking();
+            }
+
+            @Override
+            public String toString() {
+               return "pollAsyncJobs()";
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         polling.set(false);
+         throw e;
+      }
+   }
+
+   private void pollWhileTracking() {
+      try {
+         while (true) {
+            Thread.sleep(pollPeriodMillis);
+            if (tracked.isEmpty()) {
+               polling.set(false);
+               // a job tracked just before the flag was cleared would otherwise not be polled
+               if (tracked.isEmpty() || !polling.compareAndSet(false, true))
+                  return;
+            }
+            try {
+               poll();
+            } catch (RuntimeException e) {
+               // keep polling, so that one bad poll does not leave every tracked job waiting
+               logger.error(e, "<< error polling async jobs %s", tracked.keySet());
+            }
+         }
+      } catch (InterruptedException e) {
+         polling.set(false);
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Lists the tracked jobs once and queries the stragglers.
+    */
+   @VisibleForTesting
+   void poll() {
+      List<TrackedJob> jobs = ImmutableList.copyOf(tracked.values());
+      if (jobs.isEmpty())
+         return;
+      Set<String> listed = Sets.newHashSet();
+      try {
+         for (AsyncJob<?> job : client.getAsyncJobApi().listAsyncJobs(startDate(listingStart(jobs)))) {
+            TrackedJob trackedJob = tracked.get(job.getId());
+            if (trackedJob != null) {
+               listed.add(job.getId());
+               trackedJob.update(job);
+            }
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< error listing async jobs, querying %s jobs individually", jobs.size());
+      }
+      logger.trace("<< listed %s of %s tracked jobs", listed.size(), jobs.size());
+      for (TrackedJob job : jobs) {
+         if (!job.future.isDone() && !listed.contains(job.id) && ++job.missedPolls >= STRAGGLER_POLLS)
+            query(job);
+      }
+   }
+
+   private void query(TrackedJob trackedJob) {
+      trackedJob.missedPolls = 0;
+      try {
+         AsyncJob<?> job = client.getAsyncJobApi().getAsyncJob(trackedJob.id);
+         if (job != null) {
+            trackedJob.update(job);
+         } else if (++trackedJob.notFoundQueries >= NOT_FOUND_QUERIES) {
+            trackedJob.future.setException(new AsyncJobException(String.format("job %s not found", trackedJob.id)));
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< error querying job %s", trackedJob.id);
+      }
+   }
+
+   private static Date listingStart(Iterable<TrackedJob> jobs) {
+      long oldest = Long.MAX_VALUE;
+      for (TrackedJob job : jobs)
+         oldest = Math.min(oldest, job.trackedAt);
+      return new Date(oldest - START_DATE_MARGIN_MILLIS);
+   }
+
+   private static final class TrackedJob {
+      private final String id;
+      private final long trackedAt = System.currentTimeMillis();
+      private final SettableFuture<AsyncJob<?>> future = SettableFuture.create();
+      private final AtomicInteger waiters = new AtomicInteger();
+      // only accessed by the polling task
+      private int missedPolls;
+      private int notFoundQueries;
+
+      private TrackedJob(String id) {
+         this.id = id;
+      }
+
+      private void update(AsyncJob<?> job) {
+         missedPolls = 0;
+         notFoundQueries = 0;
+         if (job.hasFailed()) {
+            future.setException(new AsyncJobException(String.format("job %s failed with exception %s", job,
+                  job.getError())));
+         } else if (job.hasSucceed()) {
+            future.set(job);
+         }
+      }
+   }
+}
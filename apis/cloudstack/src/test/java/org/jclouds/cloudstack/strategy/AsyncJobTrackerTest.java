@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.domain.AsyncJob.ResultCode;
+import org.jclouds.cloudstack.domain.AsyncJob.Status;
+import org.jclouds.cloudstack.features.AsyncJobApi;
+import org.jclouds.cloudstack.options.ListAsyncJobsOptions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "AsyncJobTrackerTest", singleThreaded = true)
+public class AsyncJobTrackerTest {
+
+   private static final Set<AsyncJob<?>> NONE = ImmutableSet.of();
+
+   private ListeningExecutorService executor;
+   private CloudStackApi client;
+   private AsyncJobApi jobApi;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      client = createMock(CloudStackApi.class);
+      jobApi = createMock(AsyncJobApi.class);
+      expect(client.getAsyncJobApi()).andReturn(jobApi).anyTimes();
+      replay(client);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   /** polls only when {@link AsyncJobTracker#poll} is called */
+   private AsyncJobTracker tracker() {
+      return new AsyncJobTracker(client, executor, TimeUnit.HOURS.toMillis(1));
+   }
+
+   private static AsyncJob<?> job(String id, Status status) {
+      return AsyncJob.<String> builder().id(id).status(status)
+            .resultCode(status == Status.FAILED ? ResultCode.FAIL : ResultCode.SUCCESS).result("result-" + id)
+            .build();
+   }
+
+   public void testOneListingCompletesManyJobs() throws Exception {
+      expect(jobApi.listAsyncJobs(isA(ListAsyncJobsOptions.class))).andReturn(ImmutableSet.<AsyncJob<?>> of(
+            job("1", Status.SUCCEEDED), job("2", Status.IN_PROGRESS), job("3", Status.SUCCEEDED),
+            job("other", Status.SUCCEEDED)));
+      expect(jobApi.listAsyncJobs(isA(ListAsyncJobsOptions.class))).andReturn(ImmutableSet.<AsyncJob<?>> of(
+            job("2", Status.FAILED)));
+      replay(jobApi);
+
+      AsyncJobTracker tracker = tracker();
+      ListenableFuture<AsyncJob<String>> one = tracker.track("1");
+      ListenableFuture<AsyncJob<String>> two = tracker.track("2");
+      ListenableFuture<AsyncJob<String>> three = tracker.track("3");
+      assertTrue(tracker.<String> track("1") == one);
+
+      tracker.poll();
+      assertEquals(one.get().getResult(), "result-1");
+      assertEquals(three.get().getResult(), "result-3");
+      assertFalse(two.isDone());
+
+      tracker.poll();
+      try {
+         two.get();
+         fail("job 2 should have failed");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof AsyncJobException, e.getCause().toString());
+      }
+      // nothing is left to poll
+      tracker.poll();
+      verify(jobApi);
+   }
+
+   public void testStragglersAreQueriedIndividually() throws Exception {
+      expect(jobApi.listAsyncJobs(isA(ListAsyncJobsOptions.class))).andReturn(NONE)
+            .times(AsyncJobTracker.STRAGGLER_POLLS);
+      expect(jobApi.getAsyncJob("1")).andReturn((AsyncJob) job("1", Status.SUCCEEDED));
+      replay(jobApi);
+
+      AsyncJobTracker tracker = tracker();
+      ListenableFuture<AsyncJob<String>> one = tracker.track("1");
+      for (int i = 0; i < AsyncJobTracker.STRAGGLER_POLLS; i++) {
+         assertFalse(one.isDone());
+         tracker.poll();
+      }
+      assertEquals(one.get().getResult(), "result-1");
+      verify(jobApi);
+   }
+
+   public void testJobCompletePredicate() throws Exception {
+      expect(jobApi.listAsyncJobs(isA(ListAsyncJobsOptions.class))).andReturn(ImmutableSet.<AsyncJob<?>> of(
+            job("1", Status.SUCCEEDED))).anyTimes();
+      replay(jobApi);
+
+      AsyncJobTracker tracker = new AsyncJobTracker(client, executor, 10);
+      assertTrue(tracker.jobComplete(10, TimeUnit.SECONDS).apply("1"));
+      assertFalse(tracker.jobComplete(100, TimeUnit.MILLISECONDS).apply("2"));
+   }
+
+   public void testTimedOutJobIsNoLongerTracked() throws Exception {
+      // no listing is expected once the job has timed out
+      replay(jobApi);
+
+      AsyncJobTracker tracker = tracker();
+      assertFalse(tracker.jobComplete(50, TimeUnit.MILLISECONDS).apply("1"));
+      tracker.poll();
+      verify(jobApi);
+   }
+
+   public void testPollingContinuesAfterAFailedPoll() throws Exception {
+      expect(jobApi.listAsyncJobs(isA(ListAsyncJobsOptions.class))).andReturn(ImmutableSet.<AsyncJob<?>> of(
+            job("1", Status.SUCCEEDED))).anyTimes();
+      replay(jobApi);
+
+      final AtomicInteger polls = new AtomicInteger();
+      AsyncJobTracker tracker = new AsyncJobTracker(client, executor, 10) {
+         @Override
+         void poll() {
+            if (polls.incrementAndGet() == 1)
+               throw new IllegalStateException("first poll fails");
+            super.poll();
+         }
+      };
+      assertTrue(tracker.jobComplete(10, TimeUnit.SECONDS).apply("1"));
+      assertTrue(polls.get() >= 2, "polls: " + polls.get());
+   }
+}
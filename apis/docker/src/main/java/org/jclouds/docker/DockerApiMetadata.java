@@ -39,6 +39,11 @@ public class DockerApiMetadata extends BaseHttpApiMetadata<DockerApi> {
 
     public static final String DOCKER_CA_CERT_PATH = "docker.cacert.path";
     public static final String DOCKER_CA_CERT_DATA = "docker.cacert.data";
+    /**
+     * When true, nodes are listed from an inventory kept current by the daemon's event stream
+     * instead of inspecting every container on each call.
+     */
+    public static final String DOCKER_CONTAINER_INVENTORY = "docker.container.inventory";
 
    @Override
    public Builder toBuilder() {
@@ -60,6 +65,7 @@ public class DockerApiMetadata extends BaseHttpApiMetadata<DockerApi> {
       properties.setProperty(TEMPLATE, "osFamily=UBUNTU,os64Bit=true");
       properties.setProperty(DOCKER_CA_CERT_PATH, "");
       properties.setProperty(DOCKER_CA_CERT_DATA, "");
+      properties.setProperty(DOCKER_CONTAINER_INVENTORY, "false");
       return properties;
    }
 
@@ -16,6 +16,8 @@
  */
 package org.jclouds.docker.compute.functions;
 
+import static org.jclouds.docker.suppliers.DockerProviderURISupplier.isUnixSocket;
+
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
@@ -133,7 +135,9 @@ public class ContainerToNodeMetadata implements Function<Container, NodeMetadata
       if (container.node().isPresent()) {
          dockerIpAddress = container.node().get().ip();
       } else {
-         dockerIpAddress = URI.create(providerMetadata.getEndpoint()).getHost();
+         URI endpoint = URI.create(providerMetadata.getEndpoint());
+         // a daemon reached through its unix socket is on this host
+         dockerIpAddress = isUnixSocket(endpoint) ? "127.0.0.1" : endpoint.getHost();
       }
       return ImmutableList.of(dockerIpAddress);
    }
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.docker.DockerApiMetadata.DOCKER_CONTAINER_INVENTORY;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.ContainerSummary;
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.options.EventOptions;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.json.Json;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Keeps the inspected state of every container on the daemon, so that listing nodes does not cost
+ * one inspect call per container.
+ * <p/>
+ * The inventory is seeded on first use by listing and inspecting all containers, after the daemon's
+ * {@code /events} stream has been opened so that no change is missed. From then on only the
+ * containers named in events are inspected again, and destroyed ones are dropped. The stream is read
+ * on a dedicated daemon thread.
+ * <p/>
+ * When the stream ends, for example because the connection hit its read timeout on a quiet daemon,
+ * it is reopened with {@code since} set to the daemon time of the last event seen, or to the start
+ * of the daemon's event buffer if there has been none. Applying an event again only inspects its
+ * container again, so the replay is harmless. If the stream cannot be reopened, or keeps ending at
+ * once without events, the inventory is seeded again on next use.
+ * <p/>
+ * Enabled by {@link org.jclouds.docker.DockerApiMetadata#DOCKER_CONTAINER_INVENTORY}.
+ */
+@Singleton
+public class ContainerInventory implements Closeable {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @VisibleForTesting
+   static final long MIN_QUIET_STREAM_MILLIS = 1000;
+
+   private final DockerApi api;
+   private final Json json;
+   private final ThreadFactory eventThreads = new ThreadFactoryBuilder().setDaemon(true)
+         .setNameFormat("docker-events-%d").build();
+   private final boolean enabled;
+   private final ConcurrentMap<String, Container> containers = new ConcurrentHashMap<String, Container>();
+   private final Object lock = new Object();
+   // guarded by lock
+   private boolean seeded;
+   private InputStream events;
+   private volatile long lastEventTime = -1;
+   private volatile boolean closed;
+
+   @Inject
+   ContainerInventory(DockerApi api, Json json, @Named(DOCKER_CONTAINER_INVENTORY) boolean enabled, Closer closer) {
+      this.api = checkNotNull(api, "api");
+      this.json = checkNotNull(json, "json");
+      this.enabled = enabled;
+      closer.addToClose(this);
+   }
+
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * @return all containers, seeding the inventory if needed
+    */
+   public Collection<Container> listContainers() {
+      ensureSeeded();
+      return ImmutableList.copyOf(containers.values());
+   }
+
+   /**
+    * @return the container, inspecting it if it is not yet known, or null if it does not exist
+    */
+   public Container getContainer(String id) {
+      ensureSeeded();
+      Container container = containers.get(id);
+      return container != null ? container : refresh(id);
+   }
+
+   /**
+    * Inspects the container again, for callers which have just changed it and cannot wait for its
+    * event.
+    *
+    * @return the container, or null if it does not exist
+    */
+   public Container refresh(String id) {
+      Container container = api.getContainerApi().inspectContainer(id);
+      if (!enabled) {
+         return container;
+      }
+      if (container == null) {
+         containers.remove(id);
+      } else {
+         containers.put(container.id(), container);
+      }
+      return container;
+   }
+
+   public void remove(String id) {
+      containers.remove(id);
+   }
+
+   @Override
+   public void close() {
+      synchronized (lock) {
+         closed = true;
+         Closeables2.closeQuietly(events);
+         events = null;
+         seeded = false;
+      }
+   }
+
+   private void ensureSeeded() {
+      synchronized (lock) {
+         if (seeded || closed) {
+            return;
+         }
+         InputStream stream = api.getMiscApi().events();
+         try {
+            lastEventTime = -1;
+            containers.clear();
+            List<String> ids = Lists.newArrayList();
+            for (ContainerSummary summary : api.getContainerApi().streamContainers(ListContainerOptions.Builder.all(true))) {
+               ids.add(summary.id());
+            }
+            for (String id : ids) {
+               refresh(id);
+            }
+         } catch (RuntimeException e) {
+            Closeables2.closeQuietly(stream);
+            throw e;
+         }
+         logger.debug("<< seeded inventory with %d containers", containers.size());
+         seeded = true;
+         read(stream);
+      }
+   }
+
+   // guarded by lock
+   private void read(final InputStream stream) {
+      events = stream;
+      final long openedNanos = System.nanoTime();
+      eventThreads.newThread(new Runnable() {
+         @Override
+         public void run() {
+            boolean sawEvents = false;
+            try {
+               BufferedReader reader = new BufferedReader(new InputStreamReader(stream, Charsets.UTF_8));
+               String line;
+               while ((line = reader.readLine()) != null) {
+                  if (!line.trim().isEmpty()) {
+                     apply(json.fromJson(line, Event.class));
+                     sawEvents = true;
+                  }
+               }
+            } catch (IOException e) {
+               logger.debug("event stream failed: %s", e.getMessage());
+            } catch (RuntimeException e) {
+               logger.warn(e, "could not apply event");
+            } finally {
+               Closeables2.closeQuietly(stream);
+               resume(stream, sawEvents || System.nanoTime() - openedNanos
+                     >= TimeUnit.MILLISECONDS.toNanos(MIN_QUIET_STREAM_MILLIS));
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "read docker events";
+         }
+      }).start();
+   }
+
+   private void apply(Event event) {
+      if (event.time() < lastEventTime) {
+         // replayed from before the last event applied
+         return;
+      }
+      lastEventTime = event.time();
+      if (!event.isContainerEvent() || event.id() == null || event.status() == null
+            || event.status().startsWith("exec_")) {
+         return;
+      }
+      logger.trace("<< event %s of container %s", event.status(), event.id());
+      if ("destroy".equals(event.status())) {
+         remove(event.id());
+      } else {
+         refresh(event.id());
+      }
+   }
+
+   /**
+    * Reopens the stream from the last event seen. A stream which ended at once without any events is
+    * not reopened, so that a daemon which keeps closing it is not polled in a loop.
+    */
+   private void resume(InputStream ended, boolean healthy) {
+      synchronized (lock) {
+         if (closed || events != ended) {
+            return;
+         }
+         events = null;
+         if (healthy) {
+            try {
+               // a since of 0 would mean none, so 1 replays the daemon's whole event buffer
+               read(api.getMiscApi().events(EventOptions.Builder.since(Math.max(lastEventTime, 1))));
+               return;
+            } catch (RuntimeException e) {
+               logger.debug("could not resume event stream: %s", e.getMessage());
+            }
+         }
+         seeded = false;
+      }
+   }
+}
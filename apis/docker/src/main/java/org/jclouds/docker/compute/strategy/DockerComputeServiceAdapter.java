@@ -47,6 +47,7 @@ import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.compute.internal.ContainerInventory;
 import org.jclouds.docker.compute.options.DockerTemplateOptions;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
@@ -93,10 +94,12 @@ public class DockerComputeServiceAdapter implements
    protected Logger logger = Logger.NULL;
 
    private final DockerApi api;
+   private final ContainerInventory inventory;
 
    @Inject
-   public DockerComputeServiceAdapter(DockerApi api) {
+   public DockerComputeServiceAdapter(DockerApi api, ContainerInventory inventory) {
       this.api = checkNotNull(api, "api");
+      this.inventory = checkNotNull(inventory, "inventory");
    }
 
    @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -230,7 +233,7 @@ public class DockerComputeServiceAdapter implements
       api.getContainerApi().startContainer(container.id(), hostConfig);
       logger.trace("<< started(%s)", container.id());
 
-      container = api.getContainerApi().inspectContainer(container.id());
+      container = inventory.refresh(container.id());
       return new NodeAndInitialCredentials(container, container.id(),
               LoginCredentials.builder().user(loginUser).password(loginUserPassword).build());
    }
@@ -290,10 +293,18 @@ public class DockerComputeServiceAdapter implements
 
    @Override
    public Iterable<Container> listNodes() {
+      if (inventory.isEnabled()) {
+         return inventory.listContainers();
+      }
+      // collect the ids first, so that the listing is not held open while inspecting
+      List<String> ids = Lists.newArrayList();
+      for (ContainerSummary containerSummary : api.getContainerApi().streamContainers(ListContainerOptions.Builder.all(true))) {
+         ids.add(containerSummary.id());
+      }
       Set<Container> containers = Sets.newHashSet();
-      for (ContainerSummary containerSummary : api.getContainerApi().listContainers(ListContainerOptions.Builder.all(true))) {
+      for (String id : ids) {
          // less efficient than just listNodes but returns richer json
-         containers.add(api.getContainerApi().inspectContainer(containerSummary.id()));
+         containers.add(api.getContainerApi().inspectContainer(id));
       }
       return containers;
    }
@@ -302,7 +313,14 @@ public class DockerComputeServiceAdapter implements
    public Iterable<Container> listNodesByIds(final Iterable<String> ids) {
       Set<Container> containers = Sets.newHashSet();
       for (String id : ids) {
-         containers.add(api.getContainerApi().inspectContainer(id));
+         if (inventory.isEnabled()) {
+            Container container = inventory.getContainer(id);
+            if (container != null) {
+               containers.add(container);
+            }
+         } else {
+            containers.add(api.getContainerApi().inspectContainer(id));
+         }
       }
       return containers;
    }
@@ -314,29 +332,39 @@ public class DockerComputeServiceAdapter implements
 
    @Override
    public Container getNode(String id) {
-      return api.getContainerApi().inspectContainer(id);
+      return inventory.isEnabled() ? inventory.getContainer(id) : api.getContainerApi().inspectContainer(id);
    }
 
    @Override
    public void destroyNode(String id) {
       traceContainerLogs(id);
       api.getContainerApi().removeContainer(id, RemoveContainerOptions.Builder.force(true));
+      inventory.remove(id);
    }
 
    @Override
    public void rebootNode(String id) {
       api.getContainerApi().stopContainer(id);
       api.getContainerApi().startContainer(id);
+      refreshInventory(id);
    }
 
    @Override
    public void resumeNode(String id) {
       api.getContainerApi().unpause(id);
+      refreshInventory(id);
    }
 
    @Override
    public void suspendNode(String id) {
       api.getContainerApi().pause(id);
+      refreshInventory(id);
+   }
+
+   private void refreshInventory(String id) {
+      if (inventory.isEnabled()) {
+         inventory.refresh(id);
+      }
    }
 
    protected static Predicate<Image> createPredicateMatchingRepoTags(final String imageIdOrName) {
@@ -23,6 +23,7 @@ import com.google.inject.name.Names;
 import com.google.inject.util.Modules;
 import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.handlers.DockerErrorHandler;
+import org.jclouds.docker.suppliers.DockerProviderURISupplier;
 import org.jclouds.docker.suppliers.DockerUntrustedSSLContextSupplier;
 import org.jclouds.http.HttpErrorHandler;
 import org.jclouds.http.annotation.ClientError;
@@ -31,6 +32,7 @@ import org.jclouds.http.annotation.ServerError;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.location.suppliers.ProviderURISupplier;
 import org.jclouds.rest.ConfiguresHttpApi;
 import org.jclouds.rest.config.HttpApiModule;
 
@@ -51,7 +53,8 @@ public class DockerHttpApiModule extends HttpApiModule<DockerApi> {
    }
 
    /**
-    * This configures SSL certificate authentication when the Docker daemon is set to use an encrypted TCP socket
+    * This configures SSL certificate authentication when the Docker daemon is set to use an encrypted TCP socket,
+    * and the socket file when the endpoint is a {@code unix://} one
     */
    @Override
    protected void configure() {
@@ -63,6 +66,6 @@ public class DockerHttpApiModule extends HttpApiModule<DockerApi> {
          }
       }));
       bind(OkHttpClientSupplier.class).to(DockerOkHttpClientSupplier.class);
-
+      bind(ProviderURISupplier.class).to(DockerProviderURISupplier.class);
    }
 }
@@ -16,7 +16,11 @@
  */
 package org.jclouds.docker.config;
 
+import static org.jclouds.docker.suppliers.DockerProviderURISupplier.isUnixSocket;
+
 import java.io.File;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -25,9 +29,11 @@ import org.jclouds.docker.suppliers.DockerSSLContextSupplier;
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
 import org.jclouds.location.Provider;
+import org.jclouds.providers.ProviderMetadata;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.ConnectionSpec;
 import com.squareup.okhttp.OkHttpClient;
 import com.squareup.okhttp.TlsVersion;
@@ -35,13 +41,19 @@ import com.squareup.okhttp.TlsVersion;
 @Singleton
 public class DockerOkHttpClientSupplier implements OkHttpClientSupplier {
 
+    private static final int UNIX_SOCKET_MAX_IDLE_CONNECTIONS = 5;
+    private static final long UNIX_SOCKET_KEEP_ALIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
     private final DockerSSLContextSupplier dockerSSLContextSupplier;
     private final Supplier<Credentials> creds;
+    private final URI endpoint;
 
     @Inject
-    DockerOkHttpClientSupplier(DockerSSLContextSupplier dockerSSLContextSupplier, @Provider Supplier<Credentials> creds) {
+    DockerOkHttpClientSupplier(DockerSSLContextSupplier dockerSSLContextSupplier, @Provider Supplier<Credentials> creds,
+          ProviderMetadata providerMetadata) {
         this.dockerSSLContextSupplier = dockerSSLContextSupplier;
         this.creds = creds;
+        this.endpoint = URI.create(providerMetadata.getEndpoint());
     }
 
     @Override
@@ -53,6 +65,14 @@ public class DockerOkHttpClientSupplier implements OkHttpClientSupplier {
         ConnectionSpec cleartextSpec = new ConnectionSpec.Builder(ConnectionSpec.CLEARTEXT)
                 .build();
         client.setConnectionSpecs(ImmutableList.of(tlsSpec, cleartextSpec));
+        // a unix:// endpoint is a local daemon: connect to its socket file and skip TLS. The shared
+        // pool does not tell socket factories apart, so socket connections are kept in their own pool
+        if (isUnixSocket(endpoint)) {
+           client.setSocketFactory(new UnixSocketFactory(new File(endpoint.getPath())));
+           client.setConnectionPool(new ConnectionPool(UNIX_SOCKET_MAX_IDLE_CONNECTIONS,
+                 UNIX_SOCKET_KEEP_ALIVE_MILLIS));
+           return client;
+        }
         // check if identity and credential are files, to set up sslContext
         if (new File(creds.get().identity).isFile() && new File(creds.get().credential).isFile()) {
            client.setSslSocketFactory(dockerSSLContextSupplier.get().getSocketFactory());
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+import javax.net.SocketFactory;
+
+import jnr.unixsocket.UnixSocket;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+/**
+ * Creates sockets that connect to a Unix domain socket file, whatever address the http driver asks
+ * for. This lets the pooled, streaming http driver talk to a local Docker daemon on
+ * {@code /var/run/docker.sock}.
+ */
+final class UnixSocketFactory extends SocketFactory {
+
+   private final File socketFile;
+
+   UnixSocketFactory(File socketFile) {
+      this.socketFile = checkNotNull(socketFile, "socketFile");
+   }
+
+   @Override
+   public Socket createSocket() throws IOException {
+      return new UnixDomainSocket(socketFile, UnixSocketChannel.open());
+   }
+
+   @Override
+   public Socket createSocket(String host, int port) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(InetAddress host, int port) throws IOException {
+      return connected();
+   }
+
+   @Override
+   public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+         throws IOException {
+      return connected();
+   }
+
+   private Socket connected() throws IOException {
+      Socket socket = createSocket();
+      socket.connect(null);
+      return socket;
+   }
+
+   @Override
+   public String toString() {
+      return "UnixSocketFactory(" + socketFile + ")";
+   }
+
+   /**
+    * Ignores the inet address the socket is asked to connect to and connects to the socket file
+    * instead.
+    */
+   private static final class UnixDomainSocket extends UnixSocket {
+      private final File socketFile;
+      private final UnixSocketChannel channel;
+
+      private UnixDomainSocket(File socketFile, UnixSocketChannel channel) {
+         super(channel);
+         this.socketFile = socketFile;
+         this.channel = channel;
+      }
+
+      @Override
+      public void connect(SocketAddress endpoint) throws IOException {
+         channel.connect(new UnixSocketAddress(socketFile));
+      }
+
+      @Override
+      public void connect(SocketAddress endpoint, int timeout) throws IOException {
+         connect(endpoint);
+      }
+   }
+}
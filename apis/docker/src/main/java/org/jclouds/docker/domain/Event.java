@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * An entry of the daemon's event stream, such as a container being created, started or destroyed.
+ */
+@AutoValue
+public abstract class Event {
+
+   /**
+    * @return what happened, for example {@code start} or {@code destroy}
+    */
+   @Nullable public abstract String status();
+
+   /**
+    * @return the id of the container, or the image for image events
+    */
+   @Nullable public abstract String id();
+
+   /**
+    * @return the image of the container, absent for image events
+    */
+   @Nullable public abstract String from();
+
+   /**
+    * @return the daemon time of the event, in seconds since the epoch
+    */
+   public abstract long time();
+
+   /**
+    * @return the kind of object the event is about, for example {@code container}. Only sent by API
+    *         version 1.22 and later.
+    */
+   @Nullable public abstract String type();
+
+   Event() {
+   }
+
+   @SerializedNames({ "status", "id", "from", "time", "Type" })
+   public static Event create(String status, String id, String from, long time, String type) {
+      return new AutoValue_Event(status, id, from, time, type);
+   }
+
+   /**
+    * @return true if the event is about a container
+    */
+   public boolean isContainerEvent() {
+      return type() != null ? "container".equals(type()) : from() != null;
+   }
+}
@@ -29,6 +29,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
+import org.jclouds.Fallbacks.EmptyFluentIterableOnNotFoundOr404;
 import org.jclouds.Fallbacks.EmptyListOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.docker.domain.Config;
@@ -38,14 +39,19 @@ import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.Resource;
 import org.jclouds.docker.domain.StatusCode;
+import org.jclouds.docker.functions.ParseContainerSummaries;
 import org.jclouds.docker.options.AttachOptions;
 import org.jclouds.docker.options.CommitOptions;
 import org.jclouds.docker.options.ListContainerOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
+import com.google.common.annotations.Beta;
+import com.google.common.collect.FluentIterable;
+
 @Consumes(MediaType.APPLICATION_JSON)
 @Path("/v{jclouds.api-version}")
 public interface ContainerApi {
@@ -69,6 +75,20 @@ public interface ContainerApi {
    @Fallback(EmptyListOnNotFoundOr404.class)
    List<ContainerSummary> listContainers(ListContainerOptions options);
 
+   /**
+    * Like {@link #listContainers(ListContainerOptions)}, but decodes the containers as they are
+    * iterated instead of holding the whole listing in memory. The result can be iterated once.
+    *
+    * @param options the options to list the containers (@see ListContainerOptions)
+    */
+   @Beta
+   @Named("containers:list")
+   @GET
+   @Path("/containers/json")
+   @ResponseParser(ParseContainerSummaries.class)
+   @Fallback(EmptyFluentIterableOnNotFoundOr404.class)
+   FluentIterable<ContainerSummary> streamContainers(ListContainerOptions options);
+
    /**
     * @param name the name for the new container. Must match /?[a-zA-Z0-9_-]+.
     * @param config the container’s configuration (@see BindToJsonPayload)
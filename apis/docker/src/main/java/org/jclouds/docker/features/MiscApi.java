@@ -33,6 +33,7 @@ import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.domain.Info;
 import org.jclouds.docker.domain.Version;
 import org.jclouds.docker.options.BuildOptions;
+import org.jclouds.docker.options.EventOptions;
 import org.jclouds.docker.util.DockerInputStream;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
@@ -137,4 +138,26 @@ public interface MiscApi {
    @GET
    @Path("/exec/{id}/json")
    ExecInspect execInspect(@PathParam("id") String execId);
+
+   /**
+    * Streams events from the daemon in real time. The stream stays open until it is closed or the
+    * connection times out.
+    *
+    * @return a stream of JSON encoded {@link org.jclouds.docker.domain.Event}s, one per line
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   InputStream events();
+
+   /**
+    * Streams events from the daemon, optionally replaying past events.
+    *
+    * @param options the event stream's options (@see EventOptions)
+    * @return a stream of JSON encoded {@link org.jclouds.docker.domain.Event}s, one per line
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   InputStream events(EventOptions options);
 }
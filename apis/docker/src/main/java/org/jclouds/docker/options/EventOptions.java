@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.options;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+public class EventOptions extends BaseHttpRequestOptions {
+
+   /**
+    * Replays events since the given daemon time, in seconds since the epoch.
+    */
+   public EventOptions since(long since) {
+      this.queryParameters.put("since", String.valueOf(since));
+      return this;
+   }
+
+   /**
+    * Ends the stream at the given daemon time, in seconds since the epoch.
+    */
+   public EventOptions until(long until) {
+      this.queryParameters.put("until", String.valueOf(until));
+      return this;
+   }
+
+   /**
+    * @param filters JSON encoded filters, for example {@code {"container":["web"]}}
+    */
+   public EventOptions filters(String filters) {
+      this.queryParameters.put("filters", filters);
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see EventOptions#since
+       */
+      public static EventOptions since(long since) {
+         EventOptions options = new EventOptions();
+         return options.since(since);
+      }
+
+      /**
+       * @see EventOptions#until
+       */
+      public static EventOptions until(long until) {
+         EventOptions options = new EventOptions();
+         return options.until(until);
+      }
+
+      /**
+       * @see EventOptions#filters
+       */
+      public static EventOptions filters(String filters) {
+         EventOptions options = new EventOptions();
+         return options.filters(filters);
+      }
+   }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.suppliers;
+
+import java.net.URI;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.location.suppliers.ProviderURISupplier;
+import org.jclouds.providers.ProviderMetadata;
+
+/**
+ * Supplies the Docker endpoint. A {@code unix://} endpoint names the socket file of a local daemon
+ * and is replaced with an http endpoint, as the requests themselves are sent over the socket file
+ * by {@link org.jclouds.docker.config.DockerOkHttpClientSupplier}.
+ */
+@Singleton
+public class DockerProviderURISupplier implements ProviderURISupplier {
+
+   public static final String UNIX_SCHEME = "unix";
+
+   /**
+    * The endpoint used for requests to a Unix domain socket. The daemon ignores the host.
+    */
+   public static final URI UNIX_SOCKET_ENDPOINT = URI.create("http://localhost");
+
+   private final URI endpoint;
+
+   @Inject
+   DockerProviderURISupplier(ProviderMetadata providerMetadata) {
+      this.endpoint = URI.create(providerMetadata.getEndpoint());
+   }
+
+   @Override
+   public URI get() {
+      return isUnixSocket(endpoint) ? UNIX_SOCKET_ENDPOINT : endpoint;
+   }
+
+   public static boolean isUnixSocket(URI endpoint) {
+      return UNIX_SCHEME.equalsIgnoreCase(endpoint.getScheme());
+   }
+
+   @Override
+   public String toString() {
+      return "providerURI(" + endpoint + ")";
+   }
+}
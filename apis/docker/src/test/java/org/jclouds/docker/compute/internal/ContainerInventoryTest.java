@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.compute.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.IAnswer;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.domain.Container;
+import org.jclouds.docker.domain.ContainerSummary;
+import org.jclouds.docker.features.ContainerApi;
+import org.jclouds.docker.features.MiscApi;
+import org.jclouds.docker.options.EventOptions;
+import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.docker.parse.ContainerParseTest;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Guice;
+
+/**
+ * Unit tests for the {@link ContainerInventory} class.
+ */
+@Test(groups = "unit", testName = "ContainerInventoryTest")
+public class ContainerInventoryTest {
+
+   private final Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+
+   public void testSeedsOnceAndAppliesEvents() throws Exception {
+      PipedOutputStream events = new PipedOutputStream();
+      PipedInputStream stream = new PipedInputStream(events);
+
+      DockerApi api = createMock(DockerApi.class);
+      MiscApi miscApi = createMock(MiscApi.class);
+      ContainerApi containerApi = createMock(ContainerApi.class);
+      expect(api.getMiscApi()).andReturn(miscApi).anyTimes();
+      expect(api.getContainerApi()).andReturn(containerApi).anyTimes();
+      expect(miscApi.events()).andReturn(stream);
+      expect(containerApi.streamContainers(anyObject(ListContainerOptions.class))).andReturn(
+            FluentIterable.from(ImmutableList.of(summary("id1"), summary("id2"))));
+      expect(containerApi.inspectContainer("id1")).andReturn(container("id1"));
+      expect(containerApi.inspectContainer("id2")).andReturn(container("id2"));
+      expect(containerApi.inspectContainer("id3")).andReturn(container("id3"));
+      replay(api, miscApi, containerApi);
+
+      ContainerInventory inventory = new ContainerInventory(api, json, true, new Closer());
+      try {
+         assertEquals(ids(inventory), ImmutableSet.of("id1", "id2"));
+         // served from the inventory without calling the daemon
+         assertEquals(ids(inventory), ImmutableSet.of("id1", "id2"));
+
+         events.write(("{\"status\":\"destroy\",\"id\":\"id1\",\"from\":\"busybox\",\"time\":100}\n"
+               + "{\"status\":\"untag\",\"id\":\"sha256:abc\",\"time\":101}\n"
+               + "{\"status\":\"exec_create: /bin/sh\",\"id\":\"id2\",\"from\":\"busybox\",\"time\":102}\n"
+               + "{\"status\":\"start\",\"id\":\"id3\",\"from\":\"busybox\",\"time\":103}\n")
+               .getBytes(StandardCharsets.UTF_8));
+         events.flush();
+
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+         while (!ids(inventory).equals(ImmutableSet.of("id2", "id3")) && System.nanoTime() < deadline) {
+            Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+         }
+         assertEquals(ids(inventory), ImmutableSet.of("id2", "id3"));
+      } finally {
+         inventory.close();
+         closeQuietly(events);
+      }
+      verify(api, miscApi, containerApi);
+   }
+
+   public void testQuietStreamIsResumedWithoutSeedingAgain() throws Exception {
+      PipedOutputStream events = new PipedOutputStream();
+      PipedInputStream stream = new PipedInputStream(events);
+      PipedOutputStream resumedEvents = new PipedOutputStream();
+      final PipedInputStream resumed = new PipedInputStream(resumedEvents);
+
+      DockerApi api = createMock(DockerApi.class);
+      MiscApi miscApi = createMock(MiscApi.class);
+      ContainerApi containerApi = createMock(ContainerApi.class);
+      expect(api.getMiscApi()).andReturn(miscApi).anyTimes();
+      expect(api.getContainerApi()).andReturn(containerApi).anyTimes();
+      expect(miscApi.events()).andReturn(stream);
+      expect(containerApi.streamContainers(anyObject(ListContainerOptions.class))).andReturn(
+            FluentIterable.from(ImmutableList.of(summary("id1"))));
+      expect(containerApi.inspectContainer("id1")).andReturn(container("id1"));
+      final CountDownLatch resumedLatch = new CountDownLatch(1);
+      expect(miscApi.events(EventOptions.Builder.since(1))).andAnswer(new IAnswer<InputStream>() {
+         @Override
+         public InputStream answer() {
+            resumedLatch.countDown();
+            return resumed;
+         }
+      });
+      replay(api, miscApi, containerApi);
+
+      ContainerInventory inventory = new ContainerInventory(api, json, true, new Closer());
+      try {
+         assertEquals(ids(inventory), ImmutableSet.of("id1"));
+         // the daemon closes a stream without events, as a read timeout would
+         Uninterruptibles.sleepUninterruptibly(ContainerInventory.MIN_QUIET_STREAM_MILLIS + 100,
+               TimeUnit.MILLISECONDS);
+         events.close();
+         assertTrue(resumedLatch.await(10, TimeUnit.SECONDS), "stream was not resumed");
+         assertEquals(ids(inventory), ImmutableSet.of("id1"));
+      } finally {
+         inventory.close();
+         closeQuietly(resumedEvents);
+      }
+      verify(api, miscApi, containerApi);
+   }
+
+   private static Set<String> ids(ContainerInventory inventory) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (Container container : inventory.listContainers()) {
+         ids.add(container.id());
+      }
+      return ids.build();
+   }
+
+   private static ContainerSummary summary(String id) {
+      return ContainerSummary.create(id, ImmutableList.of("/" + id), "1414774821", "busybox", "sh",
+            null, "Up");
+   }
+
+   private static Container container(String id) {
+      return new ContainerParseTest().expected().toBuilder().id(id).build();
+   }
+
+   private static void closeQuietly(PipedOutputStream out) {
+      try {
+         out.close();
+      } catch (IOException ignored) {
+      }
+   }
+}
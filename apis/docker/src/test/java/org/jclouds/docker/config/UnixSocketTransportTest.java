@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.config;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jnr.unixsocket.UnixServerSocketChannel;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.docker.DockerApi;
+import org.jclouds.docker.parse.VersionParseTest;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * Tests the {@code unix://} endpoint against a stub daemon listening on a socket file.
+ */
+@Test(groups = "unit", testName = "UnixSocketTransportTest", singleThreaded = true)
+public class UnixSocketTransportTest {
+
+   private File dir;
+   private StubDaemon daemon;
+   private DockerApi api;
+
+   @BeforeMethod
+   public void start() throws IOException {
+      dir = Files.createTempDir();
+      File socketFile = new File(dir, "docker.sock");
+      daemon = new StubDaemon(socketFile);
+      daemon.start();
+      Properties overrides = new Properties();
+      overrides.setProperty("jclouds.api-version", "1.15");
+      api = ContextBuilder.newBuilder("docker")
+            .endpoint("unix://" + socketFile.getAbsolutePath())
+            .credentials("", "")
+            .overrides(overrides)
+            .buildApi(DockerApi.class);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() throws IOException {
+      if (api != null)
+         api.close();
+      if (daemon != null)
+         daemon.close();
+      new File(dir, "docker.sock").delete();
+      dir.delete();
+   }
+
+   public void testRequestsReuseTheSocketConnection() throws Exception {
+      assertEquals(api.getMiscApi().getVersion(), new VersionParseTest().expected());
+      assertEquals(api.getMiscApi().getVersion(), new VersionParseTest().expected());
+      assertEquals(daemon.requests, ImmutableList.of("GET /v1.15/version HTTP/1.1", "GET /v1.15/version HTTP/1.1"));
+      assertEquals(daemon.connections.get(), 1);
+   }
+
+   public void testStreamsResponseBody() throws Exception {
+      InputStream events = api.getMiscApi().events();
+      try {
+         assertEquals(new String(ByteStreams.toByteArray(events), UTF_8), StubDaemon.EVENTS);
+      } finally {
+         events.close();
+      }
+      assertEquals(daemon.requests, ImmutableList.of("GET /v1.15/events HTTP/1.1"));
+   }
+
+   /**
+    * Answers {@code /version} and {@code /events} over keep-alive connections.
+    */
+   private static final class StubDaemon extends Thread {
+      static final String EVENTS = "{\"status\":\"create\",\"id\":\"abc\",\"time\":1}\n"
+            + "{\"status\":\"start\",\"id\":\"abc\",\"time\":2}\n";
+
+      final UnixServerSocketChannel server;
+      final AtomicInteger connections = new AtomicInteger();
+      final List<String> requests = new CopyOnWriteArrayList<String>();
+
+      StubDaemon(File socketFile) throws IOException {
+         super("stub-docker-daemon");
+         setDaemon(true);
+         server = UnixServerSocketChannel.open();
+         server.socket().bind(new UnixSocketAddress(socketFile));
+      }
+
+      @Override
+      public void run() {
+         while (true) {
+            final UnixSocketChannel channel;
+            try {
+               channel = server.accept();
+            } catch (IOException e) {
+               return;
+            }
+            connections.incrementAndGet();
+            Thread handler = new Thread("stub-docker-connection") {
+               @Override
+               public void run() {
+                  try {
+                     serve(channel);
+                  } catch (IOException e) {
+                     // client went away
+                  }
+               }
+            };
+            handler.setDaemon(true);
+            handler.start();
+         }
+      }
+
+      private void serve(UnixSocketChannel channel) throws IOException {
+         BufferedReader in = new BufferedReader(new InputStreamReader(channel.socket().getInputStream(), UTF_8));
+         OutputStream out = channel.socket().getOutputStream();
+         try {
+            String requestLine;
+            while ((requestLine = in.readLine()) != null) {
+               for (String header = in.readLine(); header != null && !header.isEmpty(); header = in.readLine()) {
+                  // no request bodies are sent
+               }
+               requests.add(requestLine);
+               String body = requestLine.contains("/events") ? EVENTS
+                     : Strings2.toStringAndClose(getClass().getResourceAsStream("/version.json"));
+               byte[] bytes = body.getBytes(UTF_8);
+               out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length
+                     + "\r\n\r\n").getBytes(UTF_8));
+               out.write(bytes);
+               out.flush();
+            }
+         } finally {
+            channel.close();
+         }
+      }
+
+      void close() throws IOException {
+         server.close();
+      }
+   }
+}
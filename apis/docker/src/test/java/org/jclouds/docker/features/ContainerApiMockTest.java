@@ -75,6 +75,29 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+   public void testStreamContainers() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/containers.json")));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         assertEquals(api.streamContainers(ListContainerOptions.Builder.all(true)).toList(),
+               new ContainersParseTest().expected());
+         assertSent(server, "GET", "/containers/json?all=true");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testStreamNonexistentContainers() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(404));
+      ContainerApi api = api(DockerApi.class, server.getUrl("/").toString()).getContainerApi();
+      try {
+         assertEquals(api.streamContainers(ListContainerOptions.Builder.all(true)).toList(), ImmutableList.of());
+         assertSent(server, "GET", "/containers/json?all=true");
+      } finally {
+         server.shutdown();
+      }
+   }
+
    public void testGetContainer() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/container.json")));
       ContainerApi api = api(DockerApi.class, server.getUrl("/").toString(), new DockerParserModule()).getContainerApi();
@@ -26,6 +26,7 @@ import static org.testng.Assert.assertNull;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import javax.ws.rs.core.HttpHeaders;
@@ -37,6 +38,7 @@ import org.jclouds.docker.domain.ExecCreateParams;
 import org.jclouds.docker.domain.ExecInspect;
 import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.internal.BaseDockerMockTest;
+import org.jclouds.docker.options.EventOptions;
 import org.jclouds.docker.parse.InfoParseTest;
 import org.jclouds.docker.parse.VersionParseTest;
 import org.jclouds.docker.util.DockerInputStream;
@@ -47,6 +49,7 @@ import org.jclouds.io.Payloads;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -165,6 +168,20 @@ public class MiscApiMockTest extends BaseDockerMockTest {
       assertSent(server, "GET", "/exec/" + expectedExecId + "/json");
    }
 
+   public void testEvents() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(
+            "{\"status\":\"start\",\"id\":\"dfdf82bd3881\",\"from\":\"busybox\",\"time\":1374067924}\n"));
+      MiscApi api = api(DockerApi.class, server.getUrl("/").toString()).getMiscApi();
+      try {
+         InputStream events = api.events(EventOptions.Builder.since(1374067900));
+         assertEquals(new String(ByteStreams.toByteArray(events), StandardCharsets.UTF_8),
+               "{\"status\":\"start\",\"id\":\"dfdf82bd3881\",\"from\":\"busybox\",\"time\":1374067924}\n");
+         assertSent(server, "GET", "/events?since=1374067900");
+      } finally {
+         server.shutdown();
+      }
+   }
+
    /**
     * Asserts that correct values of HTTP headers are used in Docker build REST
     * API calls.
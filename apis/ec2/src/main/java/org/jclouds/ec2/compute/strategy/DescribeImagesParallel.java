@@ -16,15 +16,13 @@
  */
 package org.jclouds.ec2.compute.strategy;
 
+import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -33,13 +31,14 @@ import javax.inject.Singleton;
 
 import org.jclouds.Constants;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.concurrent.LocationFanOut;
+import org.jclouds.concurrent.LocationFanOut.Result;
 import org.jclouds.ec2.EC2Api;
 import org.jclouds.ec2.options.DescribeImagesOptions;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.collect.Lists;
 
 @Singleton
 public class DescribeImagesParallel implements
@@ -49,34 +48,40 @@ public class DescribeImagesParallel implements
    protected Logger logger = Logger.NULL;
 
    protected final EC2Api api;
-   final ListeningExecutorService userExecutor;
+   final LocationFanOut fanOut;
+   final int maxParallelLocations;
 
    @Inject
-   public DescribeImagesParallel(EC2Api api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+   public DescribeImagesParallel(EC2Api api, LocationFanOut fanOut,
+         @Named(Constants.PROPERTY_MAX_PARALLEL_LOCATIONS) int maxParallelLocations) {
       this.api = api;
-      this.userExecutor = userExecutor;
+      this.fanOut = fanOut;
+      this.maxParallelLocations = maxParallelLocations;
    }
 
    @Override
    public Iterable<? extends org.jclouds.ec2.domain.Image> apply(
             final Iterable<Entry<String, DescribeImagesOptions>> queries) {
-      ListenableFuture<List<Set<? extends org.jclouds.ec2.domain.Image>>> futures
-         = allAsList(transform(
-                            queries,
-                            new Function<Entry<String, DescribeImagesOptions>,
-                            ListenableFuture<? extends Set<? extends org.jclouds.ec2.domain.Image>>>() {
-                               public ListenableFuture<Set<? extends org.jclouds.ec2.domain.Image>> apply(
-                                                                                                          final Entry<String, DescribeImagesOptions> from) {
-                                  return userExecutor.submit(new Callable<Set<? extends org.jclouds.ec2.domain.Image>>() {
-                                        @Override
-                                        public Set<? extends org.jclouds.ec2.domain.Image> call() throws Exception {
-                                           return api.getAMIApi().get().describeImagesInRegion(from.getKey(), from.getValue());
-                                        }
-                                     });
-                               }
-                            }));
+      Iterator<Result<Entry<String, DescribeImagesOptions>, Set<? extends org.jclouds.ec2.domain.Image>>> results
+         = fanOut.apply(queries,
+                  new Function<Entry<String, DescribeImagesOptions>, Set<? extends org.jclouds.ec2.domain.Image>>() {
+                     @Override
+                     public Set<? extends org.jclouds.ec2.domain.Image> apply(
+                              Entry<String, DescribeImagesOptions> from) {
+                        return api.getAMIApi().get().describeImagesInRegion(from.getKey(), from.getValue());
+                     }
+                  }, maxParallelLocations);
+      List<Set<? extends org.jclouds.ec2.domain.Image>> images = Lists.newArrayList();
+      while (results.hasNext()) {
+         Result<Entry<String, DescribeImagesOptions>, Set<? extends org.jclouds.ec2.domain.Image>> result
+            = results.next();
+         if (!result.isSuccess())
+            throw propagate(result.getError().get());
+         if (result.getValue().isPresent())
+            images.add(result.getValue().get());
+      }
       logger.trace("amis");
 
-      return concat(getUnchecked(futures));
+      return concat(images);
    }
 }
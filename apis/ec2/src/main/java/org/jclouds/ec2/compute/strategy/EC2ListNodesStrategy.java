@@ -17,7 +17,6 @@
 package org.jclouds.ec2.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.concat;
@@ -27,6 +26,7 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Multimaps.filterKeys;
 import static com.google.common.collect.Multimaps.index;
 import static com.google.common.collect.Multimaps.transformValues;
+import static org.jclouds.reflect.Reflection2.method;
 
 import java.util.Set;
 
@@ -44,14 +44,20 @@ import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.features.InstanceApi;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.InvokeAndStreamSaxElements;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.reflect.Invokable;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 
@@ -70,15 +76,18 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    protected final Supplier<Set<String>> regions;
    protected final Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata;
    protected final ListeningExecutorService userExecutor;
+   protected final InvokeAndStreamSaxElements streamer;
 
    @Inject
    protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
-            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            InvokeAndStreamSaxElements streamer) {
       this.client =  checkNotNull(client, "client");
       this.regions =  checkNotNull(regions, "regions");
       this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
       this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.streamer = checkNotNull(streamer, "streamer");
    }
 
    @Override
@@ -102,12 +111,52 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       return ImmutableSet.copyOf(nodes);
    }
 
+   /**
+    * Converts instances to nodes as each reservation is parsed off the wire, rather than after the
+    * whole describe instances response of a region has been buffered.
+    */
    @Override
-   public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
-      Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
-               runningInstanceToNodeMetadata), and(notNull(), filter));
-      return ImmutableSet.copyOf(nodes);
+   public Set<? extends NodeMetadata> listDetailsOnNodesMatching(final Predicate<? super NodeMetadata> filter) {
+      final ImmutableSet.Builder<NodeMetadata> nodes = ImmutableSet.builder();
+      streamRunningInstances(new ElementCallback<RunningInstance>() {
+         @Override
+         public void onElement(RunningInstance instance) {
+            if (instance == null)
+               return;
+            NodeMetadata node = runningInstanceToNodeMetadata.apply(instance);
+            if (node != null && filter.apply(node))
+               nodes.add(node);
+         }
+      });
+      return nodes.build();
+   }
+
+   /**
+    * Pushes each instance in the configured regions to {@code callback}, as its reservation is
+    * parsed.
+    */
+   protected void streamRunningInstances(final ElementCallback<? super RunningInstance> callback) {
+      ElementCallback<Reservation<? extends RunningInstance>> eachInstance =
+            new ElementCallback<Reservation<? extends RunningInstance>>() {
+         @Override
+         public void onElement(Reservation<? extends RunningInstance> reservation) {
+            for (RunningInstance instance : reservation)
+               callback.onElement(instance);
+         }
+      };
+      Invokable<?, ?> describeInstances = describeInstancesInRegion();
+      for (String region : regions.get()) {
+         streamer.invoke(Invocation.create(describeInstances, ImmutableList.<Object> of(region, new String[0])),
+               eachInstance);
+      }
+   }
+
+   /**
+    * @return the {@code describeInstancesInRegion(String, String...)} method of the instance api
+    *         in use, whose response handler supports streaming
+    */
+   protected Invokable<?, ?> describeInstancesInRegion() {
+      return method(InstanceApi.class, "describeInstancesInRegion", String.class, String[].class);
    }
 
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
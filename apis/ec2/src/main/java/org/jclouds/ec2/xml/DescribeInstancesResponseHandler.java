@@ -25,6 +25,8 @@ import javax.inject.Inject;
 import org.jclouds.date.DateService;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
 import org.jclouds.location.Region;
 import org.xml.sax.Attributes;
 
@@ -40,11 +42,13 @@ import com.google.common.collect.ImmutableSet.Builder;
  * @see <a href="http: />
  */
 public class DescribeInstancesResponseHandler extends
-      BaseReservationHandler<Set<Reservation<? extends RunningInstance>>> {
+      BaseReservationHandler<Set<Reservation<? extends RunningInstance>>> implements
+      StreamingHandler<Reservation<? extends RunningInstance>> {
    private final TagSetHandler tagSetHandler;
    private Builder<Reservation<? extends RunningInstance>> reservations = ImmutableSet
          .<Reservation<? extends RunningInstance>> builder();
    private boolean inTagSet;
+   private ElementCallback<? super Reservation<? extends RunningInstance>> callback;
 
    @Inject
    DescribeInstancesResponseHandler(DateService dateService, @Region Supplier<String> defaultRegion,
@@ -84,6 +88,11 @@ public class DescribeInstancesResponseHandler extends
       super.endElement(uri, name, qName);
    }
 
+   @Override
+   public void setElementCallback(ElementCallback<? super Reservation<? extends RunningInstance>> callback) {
+      this.callback = callback;
+   }
+
    @Override
    public Set<Reservation<? extends RunningInstance>> getResult() {
       return reservations.build();
@@ -96,7 +105,10 @@ public class DescribeInstancesResponseHandler extends
    @Override
    protected void inItem() {
       if (endOfReservationItem()) {
-         reservations.add(super.newReservation());
+         if (callback != null)
+            callback.onElement(super.newReservation());
+         else
+            reservations.add(super.newReservation());
       } else {
          super.inItem();
       }
@@ -21,6 +21,7 @@ import static org.testng.Assert.assertEquals;
 
 import java.io.InputStream;
 import java.net.UnknownHostException;
+import java.util.List;
 import java.util.Set;
 
 import org.jclouds.date.DateService;
@@ -32,6 +33,7 @@ import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RootDeviceType;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
 import org.jclouds.http.functions.config.SaxParserModule;
 import org.jclouds.location.Region;
 import org.testng.annotations.BeforeTest;
@@ -39,8 +41,10 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -170,16 +174,26 @@ public class DescribeInstancesResponseHandlerTest extends BaseEC2HandlerTest {
       assertEquals(get(get(result, 0), 0).getRawState(), "running");
    }
 
-   static ParseSax<Set<Reservation<? extends RunningInstance>>> createParser() {
-      Injector injector = Guice.createInjector(new SaxParserModule(), new AbstractModule() {
+   public void testElementCallbackReceivesEachReservation() {
+      Set<Reservation<? extends RunningInstance>> expected = parseRunningInstances("/describe_instances_ebs.xml");
 
+      final List<Reservation<? extends RunningInstance>> streamed = Lists.newArrayList();
+      DescribeInstancesResponseHandler handler = createInjector().getInstance(DescribeInstancesResponseHandler.class);
+      handler.setElementCallback(new ElementCallback<Reservation<? extends RunningInstance>>() {
          @Override
-         protected void configure() {
-            bind(new TypeLiteral<Supplier<String>>() {
-            }).annotatedWith(Region.class).toInstance(Suppliers.ofInstance("us-east-1"));
+         public void onElement(Reservation<? extends RunningInstance> element) {
+            streamed.add(element);
          }
-
       });
+      Set<Reservation<? extends RunningInstance>> result = createInjector().getInstance(ParseSax.Factory.class)
+            .create(handler).parse(getClass().getResourceAsStream("/describe_instances_ebs.xml"));
+
+      assertEquals(streamed.toString(), ImmutableList.copyOf(expected).toString());
+      assertEquals(result.size(), 0);
+   }
+
+   static ParseSax<Set<Reservation<? extends RunningInstance>>> createParser() {
+      Injector injector = createInjector();
       ParseSax<Set<Reservation<? extends RunningInstance>>> parser = injector
                .getInstance(ParseSax.Factory.class)
                .create(injector.getInstance(DescribeInstancesResponseHandler.class));
@@ -190,4 +204,16 @@ public class DescribeInstancesResponseHandlerTest extends BaseEC2HandlerTest {
       InputStream is = DescribeInstancesResponseHandlerTest.class.getResourceAsStream(resource);
       return createParser().parse(is);
    }
+
+   private static Injector createInjector() {
+      return Guice.createInjector(new SaxParserModule(), new AbstractModule() {
+
+         @Override
+         protected void configure() {
+            bind(new TypeLiteral<Supplier<String>>() {
+            }).annotatedWith(Region.class).toInstance(Suppliers.ofInstance("us-east-1"));
+         }
+
+      });
+   }
 }
@@ -17,6 +17,8 @@
 package org.jclouds.filesystem;
 
 import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE;
+import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_DURABLE_WRITES;
+import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_FSYNC_BATCH_WINDOW;
 
 import java.net.URI;
 import java.util.Properties;
@@ -52,6 +54,8 @@ public class FilesystemApiMetadata extends BaseApiMetadata {
    public Properties getDefaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(PROPERTY_AUTO_DETECT_CONTENT_TYPE, "false");
+      properties.setProperty(PROPERTY_DURABLE_WRITES, "false");
+      properties.setProperty(PROPERTY_FSYNC_BATCH_WINDOW, "0");
       return properties;
    }
 
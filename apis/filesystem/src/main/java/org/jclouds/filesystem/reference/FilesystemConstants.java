@@ -27,6 +27,12 @@ public final class FilesystemConstants {
     /** Specify if the Content-Type of a file should be autodetected if it is not set */
     public static final String PROPERTY_AUTO_DETECT_CONTENT_TYPE = "jclouds.filesystem.auto-detect-content-type";
 
+    /** Specify if blobs, and the directories they are linked into, are flushed to disk before putBlob returns */
+    public static final String PROPERTY_DURABLE_WRITES = "jclouds.filesystem.durable-writes";
+
+    /** Milliseconds a durable write waits so that its flush can be shared with concurrent writes */
+    public static final String PROPERTY_FSYNC_BATCH_WINDOW = "jclouds.filesystem.fsync-batch-window";
+
     private FilesystemConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
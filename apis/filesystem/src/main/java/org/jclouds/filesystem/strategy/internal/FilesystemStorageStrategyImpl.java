@@ -19,6 +19,7 @@ package org.jclouds.filesystem.strategy.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.io.BaseEncoding.base16;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getPosixFilePermissions;
@@ -35,25 +36,34 @@ import static org.jclouds.util.Closeables2.closeQuietly;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
 
+import org.jclouds.Constants;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.LocalStorageStrategy;
@@ -73,6 +83,8 @@ import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
 import org.jclouds.filesystem.reference.FilesystemConstants;
+import org.jclouds.filesystem.util.GroupCommitSyncer;
+import org.jclouds.filesystem.util.ParallelTreeWalker;
 import org.jclouds.filesystem.util.Utils;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
@@ -86,7 +98,8 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -94,6 +107,8 @@ import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 /**
  * FilesystemStorageStrategyImpl implements a blob store that stores objects
@@ -115,24 +130,54 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    private static final String XATTR_USER_METADATA_PREFIX = "user.user-metadata.";
    private static final byte[] DIRECTORY_MD5 =
            Hashing.md5().hashBytes(new byte[0]).asBytes();
+   private static final int DIRECT_BUFFER_SIZE = 256 * 1024;
 
    @Resource
    protected Logger logger = Logger.NULL;
 
+   @Inject(optional = true)
+   @Named(FilesystemConstants.PROPERTY_DURABLE_WRITES)
+   protected boolean durableWrites = false;
+
+   @Inject(optional = true)
+   @Named(FilesystemConstants.PROPERTY_FSYNC_BATCH_WINDOW)
+   protected long fsyncBatchWindow = 0;
+
    protected final Provider<BlobBuilder> blobBuilders;
    protected final String baseDirectory;
    protected final boolean autoDetectContentType;
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
    private final Supplier<Location> defaultLocation;
+   private final ParallelTreeWalker treeWalker;
+   private final BlockingQueue<ByteBuffer> directBuffers =
+         new ArrayBlockingQueue<ByteBuffer>(Runtime.getRuntime().availableProcessors());
+   private GroupCommitSyncer syncer;
 
-   @Inject
+   /**
+    * Walks containers on the calling thread.
+    */
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
          @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
          FilesystemContainerNameValidator filesystemContainerNameValidator,
          FilesystemBlobKeyValidator filesystemBlobKeyValidator,
          Supplier<Location> defaultLocation) {
+      this(blobBuilders, baseDir, autoDetectContentType, filesystemContainerNameValidator,
+            filesystemBlobKeyValidator, defaultLocation, newDirectExecutorService());
+   }
+
+   /**
+    * Walks containers in parallel on {@code userExecutor}.
+    */
+   @Inject
+   protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
+         @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
+         @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
+         FilesystemContainerNameValidator filesystemContainerNameValidator,
+         FilesystemBlobKeyValidator filesystemBlobKeyValidator,
+         Supplier<Location> defaultLocation,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.blobBuilders = checkNotNull(blobBuilders, "filesystem storage strategy blobBuilders");
       this.baseDirectory = checkNotNull(baseDir, "filesystem storage strategy base directory");
       this.autoDetectContentType = autoDetectContentType;
@@ -140,6 +185,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
             "filesystem container name validator");
       this.filesystemBlobKeyValidator = checkNotNull(filesystemBlobKeyValidator, "filesystem blob key validator");
       this.defaultLocation = defaultLocation;
+      this.treeWalker = new ParallelTreeWalker(checkNotNull(userExecutor, "userExecutor"));
    }
 
    @Override
@@ -253,6 +299,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
       try {
          File containerFile = openFolder(container);
+         if (options.isRecursive()) {
+            deleteFilesInParallel(containerFile.toPath());
+         }
          File[] children = containerFile.listFiles();
          if (null != children) {
             for (File child : children)
@@ -310,31 +359,86 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       filesystemContainerNameValidator.validate(container);
       // check if container exists
       // TODO maybe an error is more appropriate
-      Set<String> blobNames = Sets.newHashSet();
       if (!containerExists(container)) {
-         return blobNames;
+         return ImmutableSet.of();
+      }
+
+      ImmutableSet.Builder<String> blobNames = ImmutableSet.builder();
+      ParallelTreeWalker.WalkIterator<String> keys = walkBlobKeys(container);
+      try {
+         while (keys.hasNext()) {
+            blobNames.add(keys.next());
+         }
+      } catch (RuntimeException e) {
+         Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+         throw e;
+      } finally {
+         keys.close();
       }
+      return blobNames.build();
+   }
 
-      File containerFile = openFolder(container);
-      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
-      populateBlobKeysInContainer(containerFile, blobNames, new Function<String, String>() {
+   /**
+    * Returns the keys of all files and directories inside a container, without holding them all in
+    * memory. The tree is walked in parallel, so keys are returned in no particular order.
+    *
+    * @return the keys, which must be closed if not read to the end
+    */
+   public ParallelTreeWalker.WalkIterator<String> walkBlobKeys(String container) throws IOException {
+      filesystemContainerNameValidator.validate(container);
+      return treeWalker.walk(openFolder(container).toPath(), new Function<ParallelTreeWalker.Entry, String>() {
          @Override
-         public String apply(String string) {
-            return denormalize(string.substring(containerPathLength));
+         public String apply(ParallelTreeWalker.Entry entry) {
+            return entry.getKey();
+         }
+      });
+   }
+
+   /**
+    * Returns all the blobs inside a container, loading their attributes and extended attributes on
+    * the walker threads. Directories are only returned if they are directory blobs. Payloads are not
+    * opened.
+    *
+    * @return the blobs in no particular order, which must be closed if not read to the end
+    */
+   public ParallelTreeWalker.WalkIterator<Blob> walkBlobs(final String container) throws IOException {
+      filesystemContainerNameValidator.validate(container);
+      return treeWalker.walk(openFolder(container).toPath(), new Function<ParallelTreeWalker.Entry, Blob>() {
+         @Override
+         public Blob apply(ParallelTreeWalker.Entry entry) {
+            if (entry.getAttributes().isDirectory() && !blobExists(container, entry.getKey())) {
+               return null;
+            }
+            return getBlob(container, entry.getKey(), entry.getPath().toFile(), entry.getAttributes());
          }
       });
-      return blobNames;
    }
 
    @Override
    public Blob getBlob(final String container, final String key) {
+      File file = getFileForBlobKey(container, key);
+      if (getDirectoryBlobSuffix(key) != null && !file.isDirectory()) {
+         // "file/" is normalized to "file", which must then be a directory
+         return null;
+      }
+      BasicFileAttributes attr;
+      try {
+         attr = readAttributes(file.toPath(), BasicFileAttributes.class);
+      } catch (NoSuchFileException nsfe) {
+         return null;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      return getBlob(container, key, file, attr);
+   }
+
+   private Blob getBlob(String container, String key, File file, BasicFileAttributes attr) {
       BlobBuilder builder = blobBuilders.get();
       builder.name(key);
-      File file = getFileForBlobKey(container, key);
       ByteSource byteSource;
 
       if (getDirectoryBlobSuffix(key) != null) {
-         if (!file.isDirectory()) {
+         if (!attr.isDirectory()) {
             // filesystem blobstore does not allow the existence of "file" and
             // "file/" and getDirectoryBlobSuffix normalizes "file/" to "file".
             // Therefore we need to return null when the normalized file is not
@@ -343,6 +447,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          }
          logger.debug("%s - %s is a directory", container, key);
          byteSource = ByteSource.empty();
+      } else if (attr.isDirectory()) {
+         return null;
       } else {
          byteSource = Files.asByteSource(file);
       }
@@ -401,7 +507,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                .contentDisposition(contentDisposition)
                .contentEncoding(contentEncoding)
                .contentLanguage(contentLanguage)
-               .contentLength(byteSource.size())
+               .contentLength(attr.isDirectory() ? 0L : attr.size())
                .contentMD5(hashCode)
                .contentType(contentType)
                .expires(expires)
@@ -409,7 +515,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                .userMetadata(userMetadata.build());
          } else {
             builder.payload(byteSource)
-               .contentLength(byteSource.size())
+               .contentLength(attr.isDirectory() ? 0L : attr.size())
                .contentMD5(byteSource.hash(Hashing.md5()).asBytes());
          }
       } catch (FileNotFoundException fnfe) {
@@ -419,8 +525,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
       Blob blob = builder.build();
       blob.getMetadata().setContainer(container);
-      blob.getMetadata().setLastModified(new Date(file.lastModified()));
-      blob.getMetadata().setSize(file.length());
+      blob.getMetadata().setLastModified(new Date(attr.lastModifiedTime().toMillis()));
+      blob.getMetadata().setSize(attr.size());
       if (blob.getPayload().getContentMetadata().getContentMD5() != null)
          blob.getMetadata().setETag(base16().lowerCase().encode(blob.getPayload().getContentMetadata().getContentMD5()));
       return blob;
@@ -490,9 +596,11 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       Path tmpPath = tmpFile.toPath();
       HashingInputStream his = null;
       try {
+         List<Path> createdDirectories = durableWrites ? missingDirectories(tmpFile.getParentFile())
+               : ImmutableList.<Path>of();
          Files.createParentDirs(tmpFile);
          his = new HashingInputStream(Hashing.md5(), payload.openStream());
-         long actualSize = Files.asByteSink(tmpFile).writeFrom(his);
+         long actualSize = durableWrites ? writeThroughChannel(his, tmpPath) : Files.asByteSink(tmpFile).writeFrom(his);
          Long expectedSize = blob.getMetadata().getContentMetadata().getContentLength();
          if (expectedSize != null && actualSize != expectedSize) {
             throw new IOException("Content-Length mismatch, actual: " + actualSize +
@@ -522,10 +630,22 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
          setBlobAccess(containerName, tmpBlobName, BlobAccess.PRIVATE);
 
+         if (durableWrites) {
+            // the content, xattrs and permissions must reach the disk before the rename does
+            syncer().sync(ImmutableList.of(tmpPath));
+         }
          if (!tmpFile.renameTo(outputFile)) {
             throw new IOException("Could not rename file " + tmpFile + " to " + outputFile);
          }
          tmpFile = null;
+         if (durableWrites) {
+            Set<Path> directories = Sets.newLinkedHashSet();
+            directories.add(outputFile.toPath().getParent());
+            for (Path created : createdDirectories) {
+               directories.add(created.getParent());
+            }
+            syncer().sync(directories);
+         }
 
          return base16().lowerCase().encode(actualHashCode.asBytes());
       } finally {
@@ -543,6 +663,52 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
    }
 
+   /**
+    * Copies the payload to a new file through a pooled direct buffer, which the file channel writes
+    * without staging it in a temporary direct buffer of its own. Reading the stream still copies each
+    * chunk through the heap array of {@link Channels#newChannel(InputStream)}. The file is not flushed.
+    */
+   private long writeThroughChannel(InputStream input, Path path) throws IOException {
+      ByteBuffer buffer = directBuffers.poll();
+      if (buffer == null) {
+         buffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+      }
+      ReadableByteChannel in = Channels.newChannel(input);
+      FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+      long size = 0;
+      try {
+         while (in.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+               size += out.write(buffer);
+            }
+            buffer.clear();
+         }
+      } finally {
+         closeQuietly(out);
+         buffer.clear();
+         directBuffers.offer(buffer);
+      }
+      return size;
+   }
+
+   /** Returns the directories that would be created for {@code directory} to exist, outermost first. */
+   private static List<Path> missingDirectories(File directory) {
+      List<Path> missing = Lists.newArrayList();
+      for (File dir = directory; dir != null && !dir.exists(); dir = dir.getParentFile()) {
+         missing.add(0, dir.toPath());
+      }
+      return missing;
+   }
+
+   private synchronized GroupCommitSyncer syncer() {
+      if (syncer == null) {
+         syncer = new GroupCommitSyncer(fsyncBatchWindow, TimeUnit.MILLISECONDS);
+      }
+      return syncer;
+   }
+
    @Override
    public void removeBlob(final String container, final String blobKey) {
       filesystemContainerNameValidator.validate(container);
@@ -693,11 +859,20 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    public long countBlobs(String container, ListContainerOptions options) {
       // TODO: honor options
+      if (!containerExists(container)) {
+         return 0;
+      }
+      ParallelTreeWalker.WalkIterator<String> keys;
       try {
-         return Iterables.size(getBlobKeysInsideContainer(container));
+         keys = walkBlobKeys(container);
       } catch (IOException ioe) {
          throw Throwables.propagate(ioe);
       }
+      try {
+         return Iterators.size(keys);
+      } finally {
+         keys.close();
+      }
    }
 
    // ---------------------------------------------------------- Private methods
@@ -883,19 +1058,30 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
-   private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
-         Function<String, String> function) {
-      File[] children = directory.listFiles();
-      if (children == null) {
-         return;
-      }
-      for (File child : children) {
-         if (child.isFile()) {
-            blobNames.add( function.apply(child.getAbsolutePath()) );
-         } else if (child.isDirectory()) {
-            blobNames.add(function.apply(child.getAbsolutePath()) + File.separator); // TODO: undo if failures
-            populateBlobKeysInContainer(child, blobNames, function);
-         }
+   /**
+    * Deletes the files below a directory on the walker threads, leaving the directories, which the
+    * caller removes afterwards.
+    */
+   private void deleteFilesInParallel(Path directory) {
+      ParallelTreeWalker.WalkIterator<Path> undeleted = treeWalker.walk(directory,
+            new Function<ParallelTreeWalker.Entry, Path>() {
+               @Override
+               public Path apply(ParallelTreeWalker.Entry entry) {
+                  if (entry.getAttributes().isDirectory()) {
+                     return null;
+                  }
+                  try {
+                     delete(entry.getPath().toFile());
+                  } catch (IOException e) {
+                     logger.debug("Could not delete %s: %s", entry.getPath(), e);
+                  }
+                  return null;
+               }
+            });
+      try {
+         Iterators.size(undeleted);
+      } finally {
+         undeleted.close();
       }
    }
 
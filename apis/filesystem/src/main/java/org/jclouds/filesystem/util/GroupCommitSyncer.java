@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Flushes files and directories to stable storage, sharing the work between concurrent callers.
+ * <p/>
+ * A caller that finds no flush in progress becomes the leader. It waits for the batch window so
+ * that other callers can add their paths, then flushes each distinct path in the batch once and
+ * wakes everyone waiting on it. Callers that arrive during a flush join the next batch, so under
+ * load each flush covers many writes.
+ */
+public class GroupCommitSyncer {
+
+   private static final class Batch {
+      private final Set<Path> paths = new LinkedHashSet<Path>();
+      private final Map<Path, IOException> failures = Maps.newHashMap();
+      private boolean done;
+   }
+
+   private final long windowNanos;
+   private final Object lock = new Object();
+   private Batch pending = new Batch();
+   private boolean flushing;
+
+   /**
+    * @param window
+    *           how long a leader waits for other callers before flushing, or 0 to flush at once
+    */
+   public GroupCommitSyncer(long window, TimeUnit unit) {
+      checkArgument(window >= 0, "window must not be negative");
+      this.windowNanos = unit.toNanos(window);
+   }
+
+   /**
+    * Flushes {@code paths}, returning once they are on stable storage.
+    *
+    * @throws IOException
+    *            if any of {@code paths} could not be flushed; failures of other callers' paths in
+    *            the same batch are not reported here
+    */
+   public void sync(Collection<Path> paths) throws IOException {
+      Batch batch;
+      boolean leader = false;
+      boolean interrupted = false;
+      try {
+         synchronized (lock) {
+            batch = pending;
+            batch.paths.addAll(paths);
+            while (!batch.done && flushing) {
+               try {
+                  lock.wait();
+               } catch (InterruptedException e) {
+                  interrupted = true;
+               }
+            }
+            if (!batch.done) {
+               // no flush in progress, so this batch is still pending and we lead it
+               flushing = true;
+               leader = true;
+            }
+         }
+         if (leader) {
+            lead();
+         }
+      } finally {
+         if (interrupted) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      for (Path path : paths) {
+         IOException failure = batch.failures.get(path);
+         if (failure != null) {
+            throw new IOException("Could not sync " + path, failure);
+         }
+      }
+   }
+
+   private void lead() {
+      if (windowNanos > 0) {
+         Uninterruptibles.sleepUninterruptibly(windowNanos, TimeUnit.NANOSECONDS);
+      }
+      Batch batch;
+      synchronized (lock) {
+         batch = pending;
+         pending = new Batch();
+      }
+      for (Path path : batch.paths) {
+         try {
+            force(path);
+         } catch (IOException e) {
+            batch.failures.put(path, e);
+         }
+      }
+      synchronized (lock) {
+         batch.done = true;
+         flushing = false;
+         lock.notifyAll();
+      }
+   }
+
+   @VisibleForTesting
+   void force(Path path) throws IOException {
+      FileChannel channel;
+      try {
+         channel = FileChannel.open(path, StandardOpenOption.READ);
+      } catch (IOException e) {
+         if (Files.isDirectory(path)) {
+            // some platforms, such as Windows, cannot open a directory to flush it
+            return;
+         }
+         throw e;
+      }
+      try {
+         channel.force(true);
+      } finally {
+         channel.close();
+      }
+   }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Walks a directory tree on a shared {@link Executor}, with up to {@code parallelism} workers per
+ * walk pulling directories from a common list, so that idle workers pick up the subdirectories found
+ * by busy ones. Each entry's {@link BasicFileAttributes} are read once and handed to a loader
+ * function which also runs on the workers.
+ * <p/>
+ * Workers never block on the caller: they hand loaded values over through an unbounded queue, and
+ * stop taking new directories while {@code queueCapacity} values are waiting, so a slow caller costs
+ * at most the entries of the directories already being read, and no executor threads. The caller
+ * restarts the workers as it catches up.
+ * <p/>
+ * Entries are returned in no particular order. Symbolic links are followed, as {@link java.io.File}
+ * does.
+ */
+public final class ParallelTreeWalker {
+
+   private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+   private static final Object END_OF_DATA = new Object();
+
+   /**
+    * A file or directory found during a walk.
+    */
+   public static final class Entry {
+      private final Path path;
+      private final String key;
+      private final BasicFileAttributes attributes;
+
+      private Entry(Path path, String key, BasicFileAttributes attributes) {
+         this.path = path;
+         this.key = key;
+         this.attributes = attributes;
+      }
+
+      public Path getPath() {
+         return path;
+      }
+
+      /**
+       * @return the path relative to the root of the walk, separated by {@code /}, and ending with
+       *         {@code /} for directories
+       */
+      public String getKey() {
+         return key;
+      }
+
+      public BasicFileAttributes getAttributes() {
+         return attributes;
+      }
+
+      @Override
+      public String toString() {
+         return key;
+      }
+   }
+
+   private final Executor executor;
+   private final int parallelism;
+   private final int queueCapacity;
+
+   /**
+    * Walks with one worker per processor.
+    */
+   public ParallelTreeWalker(Executor executor) {
+      this(executor, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+   }
+
+   public ParallelTreeWalker(Executor executor, int parallelism, int queueCapacity) {
+      this.executor = checkNotNull(executor, "executor");
+      checkArgument(parallelism > 0, "parallelism must be positive");
+      checkArgument(queueCapacity > 0, "queueCapacity must be positive");
+      this.parallelism = parallelism;
+      this.queueCapacity = queueCapacity;
+   }
+
+   /**
+    * Starts walking the tree below {@code root}, which itself is not returned. A missing root is
+    * treated as empty.
+    * 
+    * @param loader
+    *           applied to each entry on a worker thread; entries it maps to null are skipped
+    * @return the loaded values, which must be closed if not read to the end
+    */
+   public <T> WalkIterator<T> walk(Path root, Function<? super Entry, ? extends T> loader) {
+      WalkIterator<T> iterator = new WalkIterator<T>(checkNotNull(loader, "loader"));
+      iterator.pending.add(new Directory(root, ""));
+      iterator.startWorkers();
+      return iterator;
+   }
+
+   private static final class Directory {
+      private final Path path;
+      private final String prefix;
+
+      private Directory(Path path, String prefix) {
+         this.path = path;
+         this.prefix = prefix;
+      }
+   }
+
+   /**
+    * Values loaded by a walk. If a directory cannot be read, the error is thrown once the values
+    * loaded before it have been returned.
+    */
+   public final class WalkIterator<T> extends AbstractIterator<T> implements Closeable {
+      private final Function<? super Entry, ? extends T> loader;
+      private final BlockingQueue<Object> loaded = new LinkedBlockingQueue<Object>();
+      // guarded by this
+      private final Deque<Directory> pending = new ArrayDeque<Directory>();
+      private int running;
+      private Throwable failure;
+      private volatile boolean closed;
+
+      private WalkIterator(Function<? super Entry, ? extends T> loader) {
+         this.loader = loader;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      protected T computeNext() {
+         if (closed) {
+            return endOfData();
+         }
+         Object next;
+         try {
+            next = loaded.take();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw Throwables.propagate(e);
+         }
+         if (next == END_OF_DATA) {
+            closed = true;
+            Throwable t;
+            synchronized (this) {
+               t = failure;
+            }
+            if (t != null) {
+               throw Throwables.propagate(t);
+            }
+            return endOfData();
+         }
+         startWorkers();
+         return (T) next;
+      }
+
+      /**
+       * Stops the walk. Values not yet read are discarded.
+       */
+      @Override
+      public void close() {
+         synchronized (this) {
+            closed = true;
+            pending.clear();
+         }
+         loaded.clear();
+      }
+
+      /**
+       * Starts workers while there are directories to read, the caller is not too far behind and
+       * fewer than {@code parallelism} workers are running.
+       */
+      private void startWorkers() {
+         int toStart = 0;
+         synchronized (this) {
+            while (running < parallelism && running < pending.size() && hasRoom()) {
+               running++;
+               toStart++;
+            }
+         }
+         for (int i = 0; i < toStart; i++) {
+            try {
+               executor.execute(new Worker());
+            } catch (RejectedExecutionException e) {
+               synchronized (this) {
+                  fail(e);
+                  workerStopped();
+               }
+            }
+         }
+      }
+
+      // called with the lock held
+      private void fail(Throwable t) {
+         if (failure == null) {
+            failure = t;
+         }
+         pending.clear();
+      }
+
+      // called with the lock held
+      private void workerStopped() {
+         running--;
+         if (running == 0 && (pending.isEmpty() || closed)) {
+            loaded.add(END_OF_DATA);
+         }
+      }
+
+      private boolean hasRoom() {
+         return !closed && loaded.size() < queueCapacity;
+      }
+
+      private final class Worker implements Runnable {
+         @Override
+         public void run() {
+            while (true) {
+               Directory directory;
+               synchronized (WalkIterator.this) {
+                  if (pending.isEmpty() || !hasRoom()) {
+                     workerStopped();
+                     return;
+                  }
+                  directory = pending.poll();
+               }
+               try {
+                  read(directory);
+               } catch (Throwable t) {
+                  synchronized (WalkIterator.this) {
+                     fail(t);
+                  }
+               }
+               // let idle workers help with the subdirectories just found
+               startWorkers();
+            }
+         }
+
+         private void read(Directory directory) throws IOException {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory.path)) {
+               for (Path child : children) {
+                  if (closed) {
+                     return;
+                  }
+                  BasicFileAttributes attributes;
+                  try {
+                     attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                  } catch (NoSuchFileException nsfe) {
+                     // removed since the directory was listed
+                     continue;
+                  }
+                  String key = directory.prefix + child.getFileName();
+                  if (attributes.isDirectory()) {
+                     key += "/";
+                     synchronized (WalkIterator.this) {
+                        if (!closed) {
+                           pending.add(new Directory(child, key));
+                        }
+                     }
+                  }
+                  Object value = loader.apply(new Entry(child, key, attributes));
+                  if (value != null && !closed) {
+                     loaded.add(value);
+                  }
+               }
+            } catch (NoSuchFileException nsfe) {
+               // removed since its parent was listed
+            } catch (DirectoryIteratorException e) {
+               throw e.getCause();
+            }
+         }
+      }
+   }
+}
@@ -58,6 +58,7 @@ import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteSource;
@@ -628,6 +629,47 @@ public class FilesystemStorageStrategyImplTest {
       storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE);
    }
 
+   public void testWalkBlobs() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      for (String key : new String[] { "a.txt", "dir1/b.txt", "dir1/dir2/c.txt" }) {
+         Blob blob = storageStrategy.newBlob(key);
+         blob.setPayload(key);
+         storageStrategy.putBlob(CONTAINER_NAME, blob);
+      }
+      storageStrategy.putBlob(CONTAINER_NAME, storageStrategy.newBlob("dir3/"));
+
+      Set<String> names = Sets.newHashSet();
+      Iterator<Blob> blobs = storageStrategy.walkBlobs(CONTAINER_NAME);
+      while (blobs.hasNext()) {
+         Blob blob = blobs.next();
+         names.add(blob.getMetadata().getName());
+         assertEquals(blob.getMetadata().getContainer(), CONTAINER_NAME);
+         if (!blob.getMetadata().getName().endsWith("/")) {
+            assertEquals(blob.getMetadata().getSize(), Long.valueOf(blob.getMetadata().getName().length()));
+         }
+      }
+      // dir1/ and dir1/dir2/ are plain directories, not directory blobs
+      assertEquals(names, ImmutableSet.of("a.txt", "dir1/b.txt", "dir1/dir2/c.txt", "dir3/"));
+      assertEquals(storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE), 6);
+   }
+
+   public void testPutBlobWithDurableWrites() throws IOException {
+      storageStrategy.durableWrites = true;
+      storageStrategy.createContainer(CONTAINER_NAME);
+      ByteSource content = randomByteSource().slice(0, 1024 * 1024 + 1);
+      Blob blob = storageStrategy.newBlob("dir1/dir2/durable");
+      blob.setPayload(content);
+      blob.getMetadata().getContentMetadata().setContentType("text/plain");
+      storageStrategy.putBlob(CONTAINER_NAME, blob);
+
+      blob = storageStrategy.getBlob(CONTAINER_NAME, "dir1/dir2/durable");
+      assertEquals(blob.getMetadata().getSize(), Long.valueOf(content.size()));
+      assertTrue(content.contentEquals(Files.asByteSource(new File(TARGET_CONTAINER_NAME, "dir1/dir2/durable"))));
+      if (!isMacOSX()) {
+         assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "text/plain");
+      }
+   }
+
    public void testInvalidBlobKey() {
       try {
          storageStrategy.newBlob(FS + "test.jpg");
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "GroupCommitSyncerTest")
+public class GroupCommitSyncerTest {
+
+   private static final class CountingSyncer extends GroupCommitSyncer {
+      private final ConcurrentMap<Path, AtomicInteger> forced = new ConcurrentHashMap<Path, AtomicInteger>();
+
+      private CountingSyncer(long window, TimeUnit unit) {
+         super(window, unit);
+      }
+
+      @Override
+      void force(Path path) throws IOException {
+         forced.putIfAbsent(path, new AtomicInteger());
+         forced.get(path).incrementAndGet();
+         super.force(path);
+      }
+   }
+
+   public void testSyncsFileAndDirectory() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         File file = new File(dir, "file");
+         Files.write(new byte[] { 1 }, file);
+         CountingSyncer syncer = new CountingSyncer(0, TimeUnit.MILLISECONDS);
+         syncer.sync(ImmutableList.of(file.toPath(), dir.toPath()));
+         assertEquals(syncer.forced.get(file.toPath()).get(), 1);
+         assertEquals(syncer.forced.get(dir.toPath()).get(), 1);
+      } finally {
+         Utils.deleteRecursively(dir);
+      }
+   }
+
+   public void testConcurrentCallersShareAFlush() throws Exception {
+      final File dir = Files.createTempDir();
+      final CountingSyncer syncer = new CountingSyncer(200, TimeUnit.MILLISECONDS);
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<Void>> futures = Lists.newArrayList();
+         for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws IOException {
+                  syncer.sync(ImmutableList.of(dir.toPath()));
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+         }
+         // every caller arrives within the first window, or during the flush that follows it
+         assertTrue(syncer.forced.get(dir.toPath()).get() <= 2, syncer.forced.toString());
+      } finally {
+         executor.shutdownNow();
+         Utils.deleteRecursively(dir);
+      }
+   }
+
+   public void testFailureIsReportedToItsCaller() {
+      File missing = new File(Files.createTempDir(), "missing");
+      try {
+         new GroupCommitSyncer(0, TimeUnit.MILLISECONDS).sync(ImmutableList.of(missing.toPath()));
+         fail("expected IOException");
+      } catch (IOException expected) {
+      }
+   }
+
+   public void testFailureIsNotReportedToOtherCallersInTheBatch() throws Exception {
+      final File dir = Files.createTempDir();
+      final File missing = new File(dir, "missing");
+      final GroupCommitSyncer syncer = new GroupCommitSyncer(200, TimeUnit.MILLISECONDS);
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<Void> good = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+               syncer.sync(ImmutableList.of(dir.toPath()));
+               return null;
+            }
+         });
+         Future<Void> bad = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+               syncer.sync(ImmutableList.of(missing.toPath()));
+               return null;
+            }
+         });
+         good.get(10, TimeUnit.SECONDS);
+         try {
+            bad.get(10, TimeUnit.SECONDS);
+            fail("expected IOException");
+         } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException, expected.toString());
+         }
+      } finally {
+         executor.shutdownNow();
+         Utils.deleteRecursively(dir);
+      }
+   }
+}
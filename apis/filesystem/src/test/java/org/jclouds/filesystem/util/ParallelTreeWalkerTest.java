@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "ParallelTreeWalkerTest", singleThreaded = true)
+public class ParallelTreeWalkerTest {
+
+   private static final Function<ParallelTreeWalker.Entry, String> KEY = new Function<ParallelTreeWalker.Entry, String>() {
+      @Override
+      public String apply(ParallelTreeWalker.Entry entry) {
+         return entry.getKey();
+      }
+   };
+
+   private ExecutorService executor;
+   private File root;
+
+   @BeforeMethod
+   protected void setUp() throws IOException {
+      executor = Executors.newFixedThreadPool(4);
+      root = Files.createTempDir();
+      for (String name : new String[] { "a", "b/c", "b/d/e", "b/d/f", "g/h" }) {
+         File file = new File(root, name);
+         Files.createParentDirs(file);
+         Files.write(name.getBytes(), file);
+      }
+      new File(root, "empty").mkdir();
+   }
+
+   @AfterMethod
+   protected void tearDown() throws IOException {
+      executor.shutdownNow();
+      Utils.deleteRecursively(root);
+   }
+
+   public void testWalkReturnsFilesAndDirectories() {
+      ParallelTreeWalker walker = new ParallelTreeWalker(executor, 4, 1024);
+      Set<String> keys = ImmutableSet.copyOf(walker.walk(root.toPath(), KEY));
+      assertEquals(keys, ImmutableSet.of("a", "b/", "b/c", "b/d/", "b/d/e", "b/d/f", "g/", "g/h", "empty/"));
+   }
+
+   public void testLoaderRunsOnEachEntryAndNullIsSkipped() {
+      ParallelTreeWalker walker = new ParallelTreeWalker(executor, 4, 1024);
+      Set<Long> sizes = ImmutableSet.copyOf(walker.walk(root.toPath(), new Function<ParallelTreeWalker.Entry, Long>() {
+         @Override
+         public Long apply(ParallelTreeWalker.Entry entry) {
+            return entry.getAttributes().isDirectory() ? null : entry.getAttributes().size();
+         }
+      }));
+      assertEquals(sizes, ImmutableSet.of(1L, 3L, 5L));
+   }
+
+   public void testQueueSmallerThanTree() {
+      ParallelTreeWalker walker = new ParallelTreeWalker(executor, 4, 1);
+      assertEquals(ImmutableSet.copyOf(walker.walk(root.toPath(), KEY)).size(), 9);
+   }
+
+   public void testCloseStopsWalk() {
+      ParallelTreeWalker walker = new ParallelTreeWalker(executor, 4, 1);
+      ParallelTreeWalker.WalkIterator<String> keys = walker.walk(root.toPath(), KEY);
+      keys.next();
+      keys.close();
+      assertFalse(keys.hasNext());
+   }
+
+   public void testWalkOnCallingThread() {
+      ParallelTreeWalker walker = new ParallelTreeWalker(MoreExecutors.newDirectExecutorService(), 4, 1);
+      assertEquals(ImmutableSet.copyOf(walker.walk(root.toPath(), KEY)).size(), 9);
+   }
+
+   public void testUnreadWalkDoesNotHoldThreads() {
+      ExecutorService singleThread = Executors.newSingleThreadExecutor();
+      try {
+         ParallelTreeWalker walker = new ParallelTreeWalker(singleThread, 1, 1);
+         ParallelTreeWalker.WalkIterator<String> unread = walker.walk(root.toPath(), KEY);
+         assertEquals(ImmutableSet.copyOf(walker.walk(root.toPath(), KEY)).size(), 9);
+         assertEquals(ImmutableSet.copyOf(unread).size(), 9);
+      } finally {
+         singleThread.shutdownNow();
+      }
+   }
+
+   public void testMissingRootIsEmpty() {
+      Path missing = new File(root, "missing").toPath();
+      assertFalse(new ParallelTreeWalker(executor, 4, 1024).walk(missing, KEY).hasNext());
+   }
+}
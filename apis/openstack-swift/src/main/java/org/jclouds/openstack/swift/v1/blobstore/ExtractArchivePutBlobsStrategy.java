@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.swift.v1.blobstore;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.internal.BlobRuntimeException;
+import org.jclouds.blobstore.strategy.PutBlobsStrategy;
+
+/**
+ * Puts blobs into the default region through {@link RegionScopedSwiftBlobStore#putBlobs}, which
+ * sends small blobs as tar archives to be extracted by Swift.
+ */
+@Singleton
+public class ExtractArchivePutBlobsStrategy implements PutBlobsStrategy {
+
+   private final BlobStoreContext context;
+
+   @Inject
+   ExtractArchivePutBlobsStrategy(BlobStoreContext context) {
+      this.context = context;
+   }
+
+   @Override
+   public void execute(String containerName, Iterable<? extends Blob> blobs) {
+      BlobStore blobStore = context.getBlobStore();
+      Map<String, String> failures = ((RegionScopedSwiftBlobStore) blobStore).putBlobs(containerName, blobs);
+      if (!failures.isEmpty())
+         throw new BlobRuntimeException(String.format("error putting into container %s: %s",
+                  containerName, failures));
+   }
+}
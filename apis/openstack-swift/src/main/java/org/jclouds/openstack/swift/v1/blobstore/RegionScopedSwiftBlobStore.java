@@ -18,32 +18,38 @@ package org.jclouds.openstack.swift.v1.blobstore;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Lists.transform;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 import static org.jclouds.location.predicates.LocationPredicates.idEquals;
 import static org.jclouds.openstack.swift.v1.options.PutOptions.Builder.metadata;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.InterruptedIOException;
 import java.io.RandomAccessFile;
 import java.lang.reflect.Method;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -68,15 +74,17 @@ import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
 import org.jclouds.blobstore.domain.internal.BlobImpl;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
+import org.jclouds.blobstore.internal.BaseBlobStore.PartWindow;
 import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.ClearListStrategy;
-import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
@@ -88,6 +96,7 @@ import org.jclouds.openstack.swift.v1.blobstore.functions.ToListContainerOptions
 import org.jclouds.openstack.swift.v1.blobstore.functions.ToResourceMetadata;
 import org.jclouds.openstack.swift.v1.domain.Container;
 import org.jclouds.openstack.swift.v1.domain.DeleteStaticLargeObjectResponse;
+import org.jclouds.openstack.swift.v1.domain.ExtractArchiveResponse;
 import org.jclouds.openstack.swift.v1.domain.ObjectList;
 import org.jclouds.openstack.swift.v1.domain.Segment;
 import org.jclouds.openstack.swift.v1.domain.SwiftObject;
@@ -95,12 +104,14 @@ import org.jclouds.openstack.swift.v1.features.BulkApi;
 import org.jclouds.openstack.swift.v1.features.ObjectApi;
 import org.jclouds.openstack.swift.v1.options.UpdateContainerOptions;
 import org.jclouds.openstack.swift.v1.reference.SwiftHeaders;
+import org.jclouds.rest.AuthorizationException;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -111,7 +122,9 @@ import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
@@ -129,7 +142,8 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    @Inject
    protected RegionScopedSwiftBlobStore(Injector baseGraph, BlobStoreContext context, SwiftApi api,
          @Memoized Supplier<Set<? extends Location>> locations, @Assisted String regionId,
-         PayloadSlicer slicer, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+         PayloadSlicer slicer, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         MultipartUploadSlicingStrategy slicingStrategy) {
       checkNotNull(regionId, "regionId");
       Optional<? extends Location> found = tryFind(locations.get(), idEquals(regionId));
       checkArgument(found.isPresent(), "region %s not in %s", regionId, locations.get());
@@ -140,6 +154,7 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
       this.context = context;
       this.api = api;
       this.userExecutor = userExecutor;
+      this.slicingStrategy = slicingStrategy;
       // until we parameterize ClearListStrategy with a factory
       this.clearList = baseGraph.createChildInjector(new AbstractModule() {
          @Override
@@ -159,6 +174,7 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    private final ToResourceMetadata toResourceMetadata;
    protected final PayloadSlicer slicer;
    protected final ListeningExecutorService userExecutor;
+   protected final MultipartUploadSlicingStrategy slicingStrategy;
 
    @Resource
    protected Logger logger = Logger.NULL;
@@ -415,6 +431,231 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
       }
    }
 
+   /**
+    * Maximum number of blobs in each archive sent by {@link #putBlobs}. Swift stops reporting
+    * errors after 1000 failed files, so larger archives may leave failures unattributed.
+    */
+   protected int bulkPutMaxBlobsPerArchive = 1000;
+
+   /**
+    * Maximum size of each archive sent by {@link #putBlobs}, which also bounds the blobs that are
+    * archived rather than put one by one.
+    */
+   protected long bulkPutMaxBytesPerArchive = 64L * 1024 * 1024;
+
+   /**
+    * Maximum number of archives {@link #putBlobs} sends at the same time.
+    */
+   protected int bulkPutMaxConcurrentArchives = 4;
+
+   /**
+    * Puts many small blobs by streaming them as tar archives to
+    * {@link BulkApi#extractArchive(String, Payload, String)}, without spooling to disk.
+    * <p/>
+    * Archives are cut by {@link #bulkPutMaxBlobsPerArchive} and {@link #bulkPutMaxBytesPerArchive}
+    * and sent concurrently on the user executor. Only the blobs that failed with a server error are
+    * retried, up to {@link Constants#PROPERTY_MAX_RETRIES} times. Swift guesses the content type of
+    * an extracted object from its name, so blobs with a content type, user metadata, other content
+    * headers or an unknown length are put individually instead. So are blobs whose payload can only
+    * be read once, which are not retried either.
+    *
+    * @return the name of each blob that could not be put, with the last error reported for it, for
+    *         example {@code 400 Bad Request}. Empty if all blobs were put.
+    */
+   @Beta
+   public Map<String, String> putBlobs(String container, Iterable<? extends Blob> blobs) {
+      Map<String, String> failures = Maps.newConcurrentMap();
+      List<Blob> retries = putBlobsOnce(container, blobs, failures);
+      for (int retry = 0; !retries.isEmpty() && retry < retryCountLimit; retry++) {
+         logger.debug(">> retrying %d blobs put into %s", retries.size(), container);
+         retries = putBlobsOnce(container, retries, failures);
+      }
+      return ImmutableMap.copyOf(failures);
+   }
+
+   /**
+    * @return the blobs that failed and may succeed if retried
+    */
+   private List<Blob> putBlobsOnce(String container, Iterable<? extends Blob> blobs, Map<String, String> failures) {
+      CompletionService<List<Blob>> completion = new ExecutorCompletionService<List<Blob>>(userExecutor);
+      List<Blob> retries = Lists.newArrayList();
+      int inFlight = 0;
+      List<Blob> archive = Lists.newArrayList();
+      long archiveSize = 0;
+      for (Blob blob : blobs) {
+         Callable<List<Blob>> upload = null;
+         if (!isArchivable(blob)) {
+            upload = new SingleBlobUploader(container, blob, failures);
+         } else {
+            long entrySize = TarArchive.entrySize(blob);
+            if (!archive.isEmpty() && (archive.size() == bulkPutMaxBlobsPerArchive
+                  || TarArchive.archiveSize(archiveSize + entrySize) > bulkPutMaxBytesPerArchive)) {
+               upload = new ArchiveUploader(container, archive, archiveSize, failures);
+               archive = Lists.newArrayList();
+               archiveSize = 0;
+            }
+            archive.add(blob);
+            archiveSize += entrySize;
+         }
+         if (upload != null) {
+            if (inFlight == bulkPutMaxConcurrentArchives) {
+               retries.addAll(takeUnchecked(completion));
+               inFlight--;
+            }
+            completion.submit(upload);
+            inFlight++;
+         }
+      }
+      if (!archive.isEmpty()) {
+         completion.submit(new ArchiveUploader(container, archive, archiveSize, failures));
+         inFlight++;
+      }
+      for (; inFlight > 0; inFlight--) {
+         retries.addAll(takeUnchecked(completion));
+      }
+      return retries;
+   }
+
+   private boolean isArchivable(Blob blob) {
+      ContentMetadata contentMetadata = blob.getMetadata().getContentMetadata();
+      Long contentLength = contentMetadata.getContentLength();
+      String contentType = contentMetadata.getContentType();
+      return blob.getPayload() != null && blob.getPayload().isRepeatable() && contentLength != null
+            && TarArchive.archiveSize(TarArchive.entrySize(blob)) <= bulkPutMaxBytesPerArchive
+            && (contentType == null || contentType.equals("application/unknown"))
+            && blob.getMetadata().getUserMetadata().isEmpty()
+            && contentMetadata.getContentDisposition() == null && contentMetadata.getContentEncoding() == null
+            && contentMetadata.getContentLanguage() == null && contentMetadata.getExpires() == null;
+   }
+
+   private static <T> T takeUnchecked(CompletionService<T> completion) {
+      try {
+         return completion.take().get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Server errors and throttling may pass; anything else the client sent will fail again.
+    */
+   private static boolean isRetryable(int statusCode) {
+      return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+   }
+
+   private static boolean isRetryable(RuntimeException e) {
+      if (getFirstThrowableOfType(e, AuthorizationException.class) != null)
+         return false;
+      HttpResponseException responseException = getFirstThrowableOfType(e, HttpResponseException.class);
+      return responseException == null || responseException.getResponse() == null
+            || isRetryable(responseException.getResponse().getStatusCode());
+   }
+
+   private final class ArchiveUploader implements Callable<List<Blob>> {
+      private final String container;
+      private final List<Blob> blobs;
+      private final long entriesSize;
+      private final Map<String, String> failures;
+
+      ArchiveUploader(String container, List<Blob> blobs, long entriesSize, Map<String, String> failures) {
+         this.container = container;
+         this.blobs = blobs;
+         this.entriesSize = entriesSize;
+         this.failures = failures;
+      }
+
+      @Override
+      public List<Blob> call() {
+         Payload archive = new ByteSourcePayload(TarArchive.of(blobs));
+         archive.getContentMetadata().setContentLength(TarArchive.archiveSize(entriesSize));
+         ExtractArchiveResponse response;
+         try {
+            response = api.getBulkApi(regionId).extractArchive(container, archive, "tar");
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< error extracting %d blobs into %s", blobs.size(), container);
+            for (Blob blob : blobs) {
+               failures.put(blob.getMetadata().getName(), e.toString());
+            }
+            return isRetryable(e) ? blobs : ImmutableList.<Blob> of();
+         }
+         Map<String, Blob> byPath = Maps.newHashMap();
+         for (Blob blob : blobs) {
+            byPath.put(container + "/" + blob.getMetadata().getName(), blob);
+         }
+         List<Blob> retries = Lists.newArrayList();
+         Set<Blob> failed = Sets.newIdentityHashSet();
+         for (Map.Entry<String, String> error : response.getErrors().entrySet()) {
+            Blob blob = findByPathSuffix(byPath, error.getKey());
+            if (blob == null || !failed.add(blob))
+               continue;
+            failures.put(blob.getMetadata().getName(), error.getValue());
+            if (isRetryable(statusCode(error.getValue())))
+               retries.add(blob);
+         }
+         // Swift gives up after too many failures, and does not say which of the rest were created
+         boolean allAccountedFor = response.getCreated() + response.getErrors().size() >= blobs.size();
+         for (Blob blob : blobs) {
+            if (failed.contains(blob)) {
+               continue;
+            } else if (allAccountedFor) {
+               failures.remove(blob.getMetadata().getName());
+            } else {
+               failures.put(blob.getMetadata().getName(), "not extracted");
+               retries.add(blob);
+            }
+         }
+         return retries;
+      }
+
+      /**
+       * Error paths start with the version and account the archive was extracted under.
+       */
+      private Blob findByPathSuffix(Map<String, Blob> byPath, String path) {
+         for (int slash = path.indexOf('/'); slash != -1; slash = path.indexOf('/', slash + 1)) {
+            Blob blob = byPath.get(path.substring(slash + 1));
+            if (blob != null)
+               return blob;
+         }
+         return byPath.get(path);
+      }
+
+      private int statusCode(String status) {
+         try {
+            return Integer.parseInt(status.split(" ", 2)[0]);
+         } catch (NumberFormatException e) {
+            return 500;
+         }
+      }
+   }
+
+   private final class SingleBlobUploader implements Callable<List<Blob>> {
+      private final String container;
+      private final Blob blob;
+      private final Map<String, String> failures;
+
+      SingleBlobUploader(String container, Blob blob, Map<String, String> failures) {
+         this.container = container;
+         this.blob = blob;
+         this.failures = failures;
+      }
+
+      @Override
+      public List<Blob> call() {
+         try {
+            putBlob(container, blob);
+            failures.remove(blob.getMetadata().getName());
+            return ImmutableList.of();
+         } catch (RuntimeException e) {
+            failures.put(blob.getMetadata().getName(), e.toString());
+            return isRetryable(e) && blob.getPayload().isRepeatable() ? ImmutableList.of(blob)
+                  : ImmutableList.<Blob> of();
+         }
+      }
+   }
+
    @Override
    public BlobAccess getBlobAccess(String container, String name) {
       return BlobAccess.PRIVATE;
@@ -639,16 +880,25 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
 
       long contentLength = checkNotNull(blob.getMetadata().getContentMetadata().getContentLength(),
             "must provide content-length to use multi-part upload");
-      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
+      MultipartUploadSlicingStrategy.Upload upload = slicingStrategy.startUpload(container, contentLength,
             getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
-      long partSize = algorithm.calculateChunkSize(contentLength);
+      long partSize = upload.nextPartSize(contentLength);
       MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), partSize, overrides);
+      PartWindow window = new PartWindow();
+      long copied = 0;
       int partNumber = 0;
 
-      for (Payload payload : slicer.slice(blob.getPayload(), partSize)) {
-         BlobUploader b =
-               new BlobUploader(mpu, partNumber++, payload);
-         parts.add(executor.submit(b));
+      while (copied < contentLength && window.acquire(upload.getConcurrency())) {
+         if (partNumber > 0) {
+            partSize = upload.nextPartSize(contentLength - copied);
+         }
+         checkState(partSize > 0 && partSize <= contentLength - copied, "invalid part size %s", partSize);
+         Payload payload = slicer.slice(blob.getPayload(), copied, partSize);
+         ListenableFuture<MultipartPart> part = executor.submit(
+               new BlobUploader(mpu, partNumber++, payload, partSize, upload));
+         Futures.addCallback(part, window);
+         parts.add(part);
+         copied += partSize;
       }
 
       return completeMultipartUpload(mpu, Futures.getUnchecked(Futures.allAsList(parts)));
@@ -658,16 +908,24 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
       private final MultipartUpload mpu;
       private final int partNumber;
       private final Payload payload;
+      private final long partSize;
+      private final MultipartUploadSlicingStrategy.Upload upload;
 
-      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload) {
+      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload, long partSize,
+            MultipartUploadSlicingStrategy.Upload upload) {
          this.mpu = mpu;
          this.partNumber = partNumber;
          this.payload = payload;
+         this.partSize = partSize;
+         this.upload = upload;
       }
 
       @Override
       public MultipartPart call() {
-         return uploadMultipartPart(mpu, partNumber, payload);
+         long start = System.nanoTime();
+         MultipartPart part = uploadMultipartPart(mpu, partNumber, payload);
+         upload.partUploaded(partSize, System.nanoTime() - start);
+         return part;
       }
    }
 
@@ -808,115 +1066,207 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
       return streamBlob(container, name, userExecutor);
    }
 
+   /**
+    * Size of the ranges {@link #streamBlob} downloads.
+    */
+   protected int streamBlobRangeSize = 1024 * 1024;
+
+   /**
+    * Maximum number of ranges {@link #streamBlob} has downloading or buffered, which bounds its
+    * memory to this many times the range size.
+    */
+   protected int streamBlobMaxRanges = 5;
+
    @Beta
    @Override
    public InputStream streamBlob(final String container, final String name, final ExecutorService executor) {
+      return streamBlob(container, name, executor, streamBlobRangeSize, streamBlobMaxRanges);
+   }
 
-      final ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
-      // User will receive the Input end of the piped stream
-      final PipedOutputStream output;
-      final PipedInputStream input;
-      try {
-         output = new PipedOutputStream();
-         input = new PipedInputStream(output,
-               getMinimumMultipartPartSize() * 5 > Integer.MAX_VALUE ?
-                     Integer.MAX_VALUE : (int) getMinimumMultipartPartSize() * 5);
-      } catch (IOException e) {
-         throw new RuntimeException(e);
-      }
-
+   /**
+    * Streams a blob by downloading ranges in parallel. Ranges are downloaded ahead of the reader,
+    * but no more than {@code maxRanges} at a time, so a slow reader holds back the download instead
+    * of buffering the blob. A range that fails is retried from the last byte received, up to
+    * {@link Constants#PROPERTY_MAX_RETRIES} times, after which reading fails.
+    *
+    * @param rangeSize
+    *           bytes in each range
+    * @param maxRanges
+    *           maximum number of ranges downloading or waiting to be read
+    */
+   @Beta
+   public InputStream streamBlob(String container, String name, ExecutorService executor, int rangeSize,
+         int maxRanges) {
+      checkArgument(rangeSize > 0, "rangeSize must be positive");
+      checkArgument(maxRanges > 0, "maxRanges must be positive");
       // The total length of the file to download is needed to determine ranges
       // It has to be obtainable without downloading the whole file
-      final long contentLength = api
+      long contentLength = api
             .getObjectApi(regionId, container)
             .getWithoutBody(name)
             .getPayload()
             .getContentMetadata()
             .getContentLength();
+      return new RangeWindowInputStream(container, name, contentLength, rangeSize, maxRanges,
+            MoreExecutors.listeningDecorator(executor));
+   }
 
-      // Determine download buffer size, smaller means less memory usage; larger is faster as long as threads are saturated
-      final long partSize = getMinimumMultipartPartSize();
+   /**
+    * Reads ranges in order, scheduling the next range and reusing its buffer whenever one has been
+    * read.
+    */
+   private final class RangeWindowInputStream extends InputStream {
+      private final String containerName;
+      private final String objectName;
+      private final long contentLength;
+      private final int rangeSize;
+      private final ListeningExecutorService executor;
+      private final Deque<byte[]> buffers = new ArrayDeque<byte[]>();
+      private final Deque<RangeDownloader> window = new ArrayDeque<RangeDownloader>();
+      private long nextRangeBegin;
+      private RangeDownloader current;
+      private int position;
+      private boolean closed;
+
+      RangeWindowInputStream(String containerName, String objectName, long contentLength, int rangeSize,
+            int maxRanges, ListeningExecutorService executor) {
+         this.containerName = containerName;
+         this.objectName = objectName;
+         this.contentLength = contentLength;
+         this.rangeSize = rangeSize;
+         this.executor = executor;
+         for (int i = 0; i < maxRanges; i++) {
+            scheduleNextRange();
+         }
+      }
 
-      // Used to communicate between the producer and consumer threads
-      final LinkedBlockingQueue<ListenableFuture<byte[]>> results = new LinkedBlockingQueue<ListenableFuture<byte[]>>();
+      private boolean scheduleNextRange() {
+         if (nextRangeBegin >= contentLength)
+            return false;
+         long end = Math.min(nextRangeBegin + rangeSize, contentLength) - 1;
+         byte[] buffer = buffers.poll();
+         if (buffer == null)
+            buffer = new byte[(int) Math.min(rangeSize, contentLength)];
+         RangeDownloader range = new RangeDownloader(containerName, objectName, nextRangeBegin, end, buffer);
+         range.future = executor.submit(range);
+         window.add(range);
+         nextRangeBegin = end + 1;
+         return true;
+      }
 
-      listeningExecutor.submit(new Runnable() {
-         @Override
-         public void run() {
-            ListenableFuture<byte[]> result;
-            long from;
-            try {
-               for (from = 0; from < contentLength; from = from + partSize) {
-                  logger.debug(Thread.currentThread() + " writing to output");
-                  result = results.take();
-                  if (result == null) {
-                     output.close();
-                     input.close();
-                     throw new RuntimeException("Error downloading file part to stream");
-                  }
-                  output.write(result.get());
-               }
-            } catch (Exception e) {
-               logger.debug(e.toString());
-               // Close pipe so client is notified of an exception
-               Closeables2.closeQuietly(input);
-               throw new RuntimeException(e);
-            } finally {
-               // Finished writing results to stream
-               Closeables2.closeQuietly(output);
-            }
+      /**
+       * @return false at the end of the blob
+       */
+      private boolean advance() throws IOException {
+         if (closed)
+            throw new IOException("stream closed");
+         if (current != null && position < current.length)
+            return true;
+         if (current != null) {
+            buffers.add(current.buffer);
+            current = null;
+            scheduleNextRange();
          }
-      });
+         RangeDownloader next = window.poll();
+         if (next == null)
+            return false;
+         try {
+            next.future.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException();
+         } catch (ExecutionException e) {
+            close();
+            throw new IOException(String.format("error downloading bytes %d-%d of %s/%s", next.begin, next.end,
+                  containerName, objectName), e.getCause());
+         }
+         current = next;
+         position = 0;
+         return true;
+      }
 
-      listeningExecutor.submit(new Runnable() {
-         @Override
-         public void run() {
-            long from;
-            long to;
-            // Loop through ranges within the file
-            for (from = 0; from < contentLength; from = from + partSize) {
-               to = (from + partSize >= contentLength) ? contentLength - 1 : from + partSize - 1;
-               BlobStreamDownloader b = new BlobStreamDownloader(container, name, from, to);
-               results.add(listeningExecutor.submit(b));
-            }
+      @Override
+      public int read() throws IOException {
+         if (!advance())
+            return -1;
+         return current.buffer[position++] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         checkNotNull(b, "b");
+         if (len == 0)
+            return 0;
+         if (!advance())
+            return -1;
+         int count = Math.min(len, current.length - position);
+         System.arraycopy(current.buffer, position, b, off, count);
+         position += count;
+         return count;
+      }
+
+      @Override
+      public int available() {
+         return current == null ? 0 : current.length - position;
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+         for (RangeDownloader range : window) {
+            range.future.cancel(true);
          }
-      });
-      return input;
+         window.clear();
+         buffers.clear();
+         current = null;
+      }
    }
 
-   private final class BlobStreamDownloader implements Callable<byte[]> {
-      String containerName;
-      String objectName;
+   private final class RangeDownloader implements Callable<Void> {
+      private final String containerName;
+      private final String objectName;
       private final long begin;
       private final long end;
+      private final byte[] buffer;
+      private final int length;
+      private ListenableFuture<Void> future;
 
-      BlobStreamDownloader(String containerName, String objectName, long begin, long end) {
+      RangeDownloader(String containerName, String objectName, long begin, long end, byte[] buffer) {
          this.containerName = containerName;
          this.objectName = objectName;
          this.begin = begin;
          this.end = end;
+         this.buffer = buffer;
+         this.length = (int) (end - begin + 1);
       }
 
       @Override
-      public byte[] call() {
+      public Void call() {
          IOException lastException = null;
+         int filled = 0;
          for (int retry = 0; retry < retryCountLimit; retry++) {
+            if (retry > 0) {
+               logger.warn("retrying bytes %d-%d of %s/%s after: %s", begin + filled, end, containerName, objectName,
+                     lastException);
+            }
             try {
-               long time = System.nanoTime();
                SwiftObject object = api.getObjectApi(regionId, containerName)
-                     .get(objectName, org.jclouds.http.options.GetOptions.Builder.range(begin, end));
-               byte[] downloadedBlock;
+                     .get(objectName, org.jclouds.http.options.GetOptions.Builder.range(begin + filled, end));
                InputStream is = object.getPayload().openStream();
                try {
-                  downloadedBlock = ByteStreams.toByteArray(is);
+                  while (filled < length) {
+                     int read = is.read(buffer, filled, length - filled);
+                     if (read == -1)
+                        throw new EOFException("range ended after " + filled + " of " + length + " bytes");
+                     filled += read;
+                  }
                } finally {
                   Closeables.closeQuietly(is);
                }
-               return downloadedBlock;
+               return null;
             } catch (IOException e) {
-               logger.debug(e.toString());
                lastException = e;
-               continue;
             }
          }
          throw new RuntimeException("After " + retryCountLimit + " retries: " + lastException);
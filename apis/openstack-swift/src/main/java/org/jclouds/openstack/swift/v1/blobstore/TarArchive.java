@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.swift.v1.blobstore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.ByteSourcePayload;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+
+/**
+ * Writes blobs as an uncompressed tar archive for
+ * {@link org.jclouds.openstack.swift.v1.features.BulkApi#extractArchive}.
+ * <p/>
+ * The archive is a concatenation of the headers and the blob payloads, so it is read as it is sent
+ * and can be sent again if the payloads are repeatable. Names that do not fit the 100 bytes of a
+ * ustar header are written as GNU long name entries, which Swift reads through Python's tarfile.
+ */
+final class TarArchive {
+
+   private static final int BLOCK_SIZE = 512;
+   private static final int NAME_LENGTH = 100;
+   private static final String LONG_NAME = "././@LongLink";
+
+   /**
+    * The largest entry the 11 octal digits of the size field can describe.
+    */
+   static final long MAX_ENTRY_SIZE = 077777777777L;
+
+   private TarArchive() {
+   }
+
+   /**
+    * @return the bytes {@code blob} takes in an archive, including its headers
+    */
+   static long entrySize(Blob blob) {
+      byte[] name = blob.getMetadata().getName().getBytes(Charsets.UTF_8);
+      long size = BLOCK_SIZE + padded(blob.getMetadata().getContentMetadata().getContentLength());
+      if (name.length > NAME_LENGTH)
+         size += BLOCK_SIZE + padded(name.length + 1);
+      return size;
+   }
+
+   /**
+    * @return the size of an archive of entries totalling {@code entriesSize} bytes
+    */
+   static long archiveSize(long entriesSize) {
+      return entriesSize + 2 * BLOCK_SIZE;
+   }
+
+   /**
+    * @param blobs
+    *           blobs whose content length is known and at most {@link #MAX_ENTRY_SIZE}
+    */
+   static ByteSource of(List<? extends Blob> blobs) {
+      ImmutableList.Builder<ByteSource> parts = ImmutableList.builder();
+      for (Blob blob : blobs) {
+         String name = blob.getMetadata().getName();
+         long contentLength = blob.getMetadata().getContentMetadata().getContentLength();
+         checkArgument(contentLength <= MAX_ENTRY_SIZE, "%s is too large for a tar entry", name);
+         byte[] nameBytes = name.getBytes(Charsets.UTF_8);
+         if (nameBytes.length > NAME_LENGTH) {
+            parts.add(ByteSource.wrap(header(LONG_NAME, nameBytes.length + 1, 'L')));
+            parts.add(ByteSource.wrap(Arrays.copyOf(nameBytes, (int) padded(nameBytes.length + 1))));
+         }
+         parts.add(ByteSource.wrap(header(name, contentLength, '0')));
+         parts.add(content(blob.getPayload()));
+         parts.add(ByteSource.wrap(new byte[(int) (padded(contentLength) - contentLength)]));
+      }
+      parts.add(ByteSource.wrap(new byte[2 * BLOCK_SIZE]));
+      return ByteSource.concat(parts.build());
+   }
+
+   private static ByteSource content(final Payload payload) {
+      if (payload instanceof ByteSourcePayload)
+         return ((ByteSourcePayload) payload).getRawContent();
+      return new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            return payload.openStream();
+         }
+      };
+   }
+
+   private static byte[] header(String name, long size, char type) {
+      byte[] header = new byte[BLOCK_SIZE];
+      byte[] nameBytes = name.getBytes(Charsets.UTF_8);
+      System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, NAME_LENGTH));
+      octal(header, 100, 8, 0644);
+      octal(header, 108, 8, 0);
+      octal(header, 116, 8, 0);
+      octal(header, 124, 12, size);
+      octal(header, 136, 12, System.currentTimeMillis() / 1000);
+      Arrays.fill(header, 148, 156, (byte) ' ');
+      header[156] = (byte) type;
+      ascii(header, 257, "ustar\0" + "00");
+      long checksum = 0;
+      for (byte b : header)
+         checksum += b & 0xff;
+      // six digits, a NUL and the space already in place
+      octal(header, 148, 7, checksum);
+      return header;
+   }
+
+   /**
+    * Writes {@code value} as zero-padded octal digits followed by a NUL.
+    */
+   private static void octal(byte[] header, int offset, int length, long value) {
+      String digits = Long.toOctalString(value);
+      int padding = length - 1 - digits.length();
+      for (int i = 0; i < padding; i++)
+         header[offset + i] = '0';
+      ascii(header, offset + padding, digits);
+      header[offset + length - 1] = 0;
+   }
+
+   private static void ascii(byte[] header, int offset, String value) {
+      byte[] bytes = value.getBytes(Charsets.US_ASCII);
+      System.arraycopy(bytes, 0, header, offset, bytes.length);
+   }
+
+   private static long padded(long size) {
+      return (size + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+   }
+}
@@ -21,6 +21,8 @@ import javax.inject.Inject;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.attr.ConsistencyModel;
+import org.jclouds.blobstore.strategy.PutBlobsStrategy;
+import org.jclouds.openstack.swift.v1.blobstore.ExtractArchivePutBlobsStrategy;
 import org.jclouds.openstack.swift.v1.blobstore.RegionScopedBlobStoreContext;
 import org.jclouds.openstack.swift.v1.blobstore.RegionScopedSwiftBlobStore;
 
@@ -37,6 +39,7 @@ public class SwiftBlobStoreContextModule extends AbstractModule {
       bind(ConsistencyModel.class).toInstance(ConsistencyModel.EVENTUAL);
       bind(BlobStoreContext.class).to(RegionScopedBlobStoreContext.class);
       install(new FactoryModuleBuilder().build(Factory.class));
+      bind(PutBlobsStrategy.class).to(ExtractArchivePutBlobsStrategy.class);
    }
 
    public interface Factory {
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.swift.v1.blobstore;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jboss.shrinkwrap.api.GenericArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.importer.TarImporter;
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.io.ByteStreams2;
+import org.jclouds.openstack.swift.v1.SwiftApi;
+import org.jclouds.openstack.v2_0.internal.BaseOpenStackMockTest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "RegionScopedSwiftBlobStoreMockTest")
+public class RegionScopedSwiftBlobStoreMockTest extends BaseOpenStackMockTest<SwiftApi> {
+
+   private static final String ACCOUNT_PATH = "/v1/MossoCloudFS_5bcf396e-39dd-45ff-93a1-712b9aba90a9";
+
+   public void testPutBlobsRetriesOnlyEntriesThatFailedWithServerErrors() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/access.json"))));
+      server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(201).setBody(
+            "{\"Number Files Created\": 1, \"Errors\": ["
+                  + "[\"" + ACCOUNT_PATH + "/myContainer/b\", \"503 Service Unavailable\"], "
+                  + "[\"" + ACCOUNT_PATH + "/myContainer/c\", \"400 Bad Request\"]]}")));
+      server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(201).setBody(
+            "{\"Number Files Created\": 1, \"Errors\": []}")));
+
+      try {
+         RegionScopedSwiftBlobStore blobStore = blobStore(server, 1);
+         Map<String, String> failures = blobStore.putBlobs("myContainer",
+               ImmutableList.of(blob(blobStore, "a"), blob(blobStore, "b"), blob(blobStore, "c")));
+
+         assertEquals(failures, ImmutableMap.of("c", "400 Bad Request"));
+         assertEquals(server.getRequestCount(), 3);
+         assertAuthentication(server);
+
+         RecordedRequest first = server.takeRequest();
+         assertRequest(first, "PUT", ACCOUNT_PATH + "/myContainer?extract-archive=tar");
+         GenericArchive firstArchive = extract(first);
+         assertEquals(firstArchive.getContent().size(), 3);
+
+         RecordedRequest retry = server.takeRequest();
+         assertRequest(retry, "PUT", ACCOUNT_PATH + "/myContainer?extract-archive=tar");
+         GenericArchive retryArchive = extract(retry);
+         assertEquals(retryArchive.getContent().size(), 1);
+         assertNotNull(retryArchive.get("b"));
+         assertNull(retryArchive.get("a"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testPutBlobsPutsBlobsWithContentTypeOrOneShotPayloadIndividually() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/access.json"))));
+      server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(201).addHeader("ETag",
+            "d41d8cd98f00b204e9800998ecf8427e")));
+      server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(503)));
+      server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(201).setBody(
+            "{\"Number Files Created\": 1, \"Errors\": []}")));
+
+      try {
+         RegionScopedSwiftBlobStore blobStore = blobStore(server, 1);
+         Blob typed = blobStore.blobBuilder("b").payload("b".getBytes(Charsets.UTF_8)).contentType("text/html")
+               .build();
+         Blob oneShot = blobStore.blobBuilder("c").payload(new ByteArrayInputStream("c".getBytes(Charsets.UTF_8)))
+               .contentLength(1).build();
+         Map<String, String> failures = blobStore.putBlobs("myContainer",
+               ImmutableList.of(blob(blobStore, "a"), typed, oneShot));
+
+         // the one shot payload cannot be read again, so it is not retried
+         assertEquals(failures.keySet(), ImmutableSet.of("c"));
+         assertEquals(server.getRequestCount(), 4);
+         assertAuthentication(server);
+
+         RecordedRequest typedPut = server.takeRequest();
+         assertRequest(typedPut, "PUT", ACCOUNT_PATH + "/myContainer/b");
+         assertEquals(typedPut.getHeader("Content-Type"), "text/html");
+         assertRequest(server.takeRequest(), "PUT", ACCOUNT_PATH + "/myContainer/c");
+
+         RecordedRequest archive = server.takeRequest();
+         assertRequest(archive, "PUT", ACCOUNT_PATH + "/myContainer?extract-archive=tar");
+         GenericArchive extracted = extract(archive);
+         assertEquals(extracted.getContent().size(), 1);
+         assertNotNull(extracted.get("a"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testStreamBlobKeepsAtMostMaxRangesAheadAndResumesFailedRanges() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/access.json"))));
+      server.enqueue(addCommonHeaders(objectResponse("0123456789")));
+      // the first range is cut short and resumed from where it stopped
+      server.enqueue(addCommonHeaders(objectResponse("01").setResponseCode(206)));
+      server.enqueue(addCommonHeaders(objectResponse("23").setResponseCode(206)));
+      server.enqueue(addCommonHeaders(objectResponse("4567").setResponseCode(206)));
+      server.enqueue(addCommonHeaders(objectResponse("89").setResponseCode(206)));
+
+      try {
+         RegionScopedSwiftBlobStore blobStore = blobStore(server, 2);
+         InputStream in = blobStore.streamBlob("myContainer", "myObject", newDirectExecutorService(), 4, 2);
+
+         assertEquals(server.getRequestCount(), 5);
+         assertEquals(new String(ByteStreams2.toByteArrayAndClose(in), Charsets.US_ASCII), "0123456789");
+         assertEquals(server.getRequestCount(), 6);
+
+         assertAuthentication(server);
+         assertRequest(server.takeRequest(), "HEAD", ACCOUNT_PATH + "/myContainer/myObject");
+         assertEquals(server.takeRequest().getHeader("Range"), "bytes=0-3");
+         assertEquals(server.takeRequest().getHeader("Range"), "bytes=2-3");
+         assertEquals(server.takeRequest().getHeader("Range"), "bytes=4-7");
+         assertEquals(server.takeRequest().getHeader("Range"), "bytes=8-9");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testPutMultipartBlobSlicesPartsWithTheSlicingStrategy() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/access.json"))));
+      for (int i = 0; i < 5; i++) {
+         server.enqueue(addCommonHeaders(new MockResponse().setResponseCode(201).addHeader("ETag",
+               "d41d8cd98f00b204e9800998ecf8427e")));
+      }
+      final List<Long> uploaded = Collections.synchronizedList(new ArrayList<Long>());
+      final MultipartUploadSlicingStrategy.Upload upload = new MultipartUploadSlicingStrategy.Upload() {
+         @Override
+         public long nextPartSize(long remaining) {
+            return Math.min(3, remaining);
+         }
+
+         @Override
+         public int getConcurrency() {
+            return 1;
+         }
+
+         @Override
+         public void partUploaded(long size, long nanos) {
+            uploaded.add(size);
+         }
+      };
+      Module slicing = new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(MultipartUploadSlicingStrategy.class).toInstance(new MultipartUploadSlicingStrategy() {
+               @Override
+               public Upload startUpload(String container, long contentLength, long minimumPartSize,
+                     long maximumPartSize, int maximumNumberOfParts) {
+                  return upload;
+               }
+            });
+         }
+      };
+
+      try {
+         RegionScopedSwiftBlobStore blobStore = blobStore(server, 1, slicing);
+         Blob blob = blobStore.blobBuilder("myObject").payload("0123456789".getBytes(Charsets.UTF_8)).build();
+         blobStore.putBlob("myContainer", blob, PutOptions.Builder.multipart());
+
+         assertEquals(uploaded, ImmutableList.of(3L, 3L, 3L, 1L));
+         assertEquals(server.getRequestCount(), 6);
+         assertAuthentication(server);
+         String[] parts = { "012", "345", "678", "9" };
+         for (int i = 0; i < parts.length; i++) {
+            RecordedRequest part = server.takeRequest();
+            assertEquals(part.getMethod(), "PUT");
+            // the upload id records the content length and the size of the first part
+            assertTrue(part.getPath().endsWith(String.format("/10/3/%08d", i)), part.getPath());
+            assertEquals(new String(part.getBody(), Charsets.UTF_8), parts[i]);
+         }
+         RecordedRequest manifest = server.takeRequest();
+         assertEquals(manifest.getMethod(), "PUT");
+         assertEquals(manifest.getPath(), ACCOUNT_PATH + "/myContainer/myObject?multipart-manifest=put");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static MockResponse objectResponse(String content) {
+      return new MockResponse()
+            .addHeader("Last-Modified", "Fri, 12 Jun 2010 13:40:18 GMT")
+            .addHeader("ETag", "8a964ee2a5e88be344f36c22562a6486")
+            .addHeader("Content-Type", "application/octet-stream")
+            .setBody(content.getBytes(Charsets.US_ASCII));
+   }
+
+   private static Blob blob(RegionScopedSwiftBlobStore blobStore, String name) {
+      return blobStore.blobBuilder(name).payload(name.getBytes(Charsets.UTF_8)).build();
+   }
+
+   private static GenericArchive extract(RecordedRequest request) {
+      return ShrinkWrap.create(TarImporter.class).importFrom(new ByteArrayInputStream(request.getBody()))
+            .as(GenericArchive.class);
+   }
+
+   private static RegionScopedSwiftBlobStore blobStore(MockWebServer server, int maxRetries, Module... modules) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MAX_RETRIES, String.valueOf(maxRetries));
+      return (RegionScopedSwiftBlobStore) ContextBuilder.newBuilder("openstack-swift")
+            .credentials("jclouds:joe", "letmein")
+            .endpoint(server.getUrl("/").toString())
+            .overrides(overrides)
+            .modules(ImmutableList.<Module> builder().add(new ExecutorServiceModule(newDirectExecutorService()))
+                  .add(modules).build())
+            .buildView(RegionScopedBlobStoreContext.class)
+            .getBlobStore("DFW");
+   }
+}
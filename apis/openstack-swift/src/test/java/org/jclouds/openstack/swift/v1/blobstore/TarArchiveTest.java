@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.swift.v1.blobstore;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.jboss.shrinkwrap.api.GenericArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.importer.TarImporter;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
+import org.jclouds.io.ByteStreams2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+
+@Test(groups = "unit", testName = "TarArchiveTest")
+public class TarArchiveTest {
+
+   public void testArchiveReadsBackAsWritten() throws IOException {
+      List<Blob> blobs = ImmutableList.of(
+            blob("empty", new byte[0]),
+            blob("logs/2014/01/01.log", "hello".getBytes(Charsets.UTF_8)),
+            blob("zeros", new byte[1025]));
+
+      long entriesSize = 0;
+      for (Blob blob : blobs)
+         entriesSize += TarArchive.entrySize(blob);
+      ByteSource archive = TarArchive.of(blobs);
+      assertEquals(archive.size(), TarArchive.archiveSize(entriesSize));
+      assertEquals(archive.size() % 512, 0);
+
+      InputStream in = archive.openStream();
+      GenericArchive extracted;
+      try {
+         extracted = ShrinkWrap.create(TarImporter.class).importFrom(in).as(GenericArchive.class);
+      } finally {
+         in.close();
+      }
+      assertEquals(content(extracted, "empty").length, 0);
+      assertEquals(new String(content(extracted, "logs/2014/01/01.log"), Charsets.UTF_8), "hello");
+      assertEquals(content(extracted, "zeros").length, 1025);
+   }
+
+   public void testLongNameIsWrittenAsGnuLongNameEntry() throws IOException {
+      String longName = Strings.repeat("directory/", 15) + "file";
+      Blob blob = blob(longName, new byte[1]);
+      byte[] archive = TarArchive.of(ImmutableList.of(blob)).read();
+
+      assertEquals(archive.length, TarArchive.archiveSize(TarArchive.entrySize(blob)));
+      assertEquals(new String(archive, 0, 13, Charsets.US_ASCII), "././@LongLink");
+      assertEquals(archive[156], 'L');
+      assertEquals(new String(archive, 512, longName.length(), Charsets.UTF_8), longName);
+      assertEquals(archive[512 + longName.length()], 0);
+      assertEquals(new String(archive, 1024, 100, Charsets.UTF_8), longName.substring(0, 100));
+      assertEquals(archive[1024 + 156], '0');
+   }
+
+   public void testArchiveCanBeReadAgain() throws IOException {
+      ByteSource archive = TarArchive.of(ImmutableList.of(blob("file", "content".getBytes(Charsets.UTF_8))));
+      assertEquals(archive.read(), archive.read());
+   }
+
+   private static Blob blob(String name, byte[] content) {
+      return new BlobBuilderImpl().name(name).payload(content).build();
+   }
+
+   private static byte[] content(GenericArchive archive, String name) throws IOException {
+      return ByteStreams2.toByteArrayAndClose(archive.get(name).getAsset().openStream());
+   }
+}
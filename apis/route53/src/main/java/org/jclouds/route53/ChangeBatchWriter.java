@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_BATCH_LINGER;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_POLL_PERIOD;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_TIMEOUT;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.Action;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Coalesces record set changes into as few {@code ChangeResourceRecordSets} calls as possible, for callers that
+ * register and deregister many records and would otherwise hit the request rate limit.
+ * <p/>
+ * Changes are buffered per hosted zone, and a batch is sent once it holds {@link #MAX_CHANGES} changes or once its
+ * first change has waited {@link org.jclouds.route53.config.Route53Properties#CHANGE_BATCH_LINGER}. Batches for the
+ * same zone are sent one at a time, in order. A delete of a record set that is still waiting to be created cancels
+ * both changes, a create following a delete of the same name and type is sent in the same batch, and any other change
+ * to a name and type already in the batch waits for the next one, so that it cannot make the whole batch invalid.
+ * <p/>
+ * If Route53 rejects a batch as invalid, the batch is split in halves that are sent again, until the invalid changes
+ * are alone and fail. A delete and a create of the same name and type always stay in the same half.
+ * <p/>
+ * A single poller checks the status of every batch that was sent, and completes the future of each change when its
+ * batch is {@link Status#INSYNC}. The changes of a batch that is not in sync within
+ * {@link org.jclouds.route53.config.Route53Properties#CHANGE_TIMEOUT} fail. The futures of changes still buffered or
+ * in progress also fail when the context is closed.
+ * <p/>
+ * The writer is bound in the context, so get it with
+ * {@code context.utils().injector().getInstance(ChangeBatchWriter.class)}.
+ */
+@Beta
+@Singleton
+public class ChangeBatchWriter {
+
+   /**
+    * The most changes Route53 accepts in a single batch.
+    */
+   public static final int MAX_CHANGES = 1000;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final Route53Api api;
+   private final ListeningExecutorService userExecutor;
+   private final long linger;
+   private final long pollPeriod;
+   private final long timeout;
+   private final ConcurrentMap<String, Zone> zones = Maps.newConcurrentMap();
+   // guarded by itself
+   private final Map<String, SentBatch> inProgress = new LinkedHashMap<String, SentBatch>();
+   private boolean polling;
+   private ScheduledExecutorService timer;
+   private volatile boolean closed;
+
+   @Inject
+   ChangeBatchWriter(Route53Api api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(CHANGE_BATCH_LINGER) long linger, @Named(CHANGE_POLL_PERIOD) long pollPeriod,
+         @Named(CHANGE_TIMEOUT) long timeout, Closer closer) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.linger = linger;
+      this.pollPeriod = pollPeriod;
+      this.timeout = timeout;
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() {
+            ChangeBatchWriter.this.close();
+         }
+      });
+   }
+
+   /**
+    * Schedules creation of the resource record set.
+    * 
+    * @return the change once it is in sync, or null if a delete cancelled it before it was sent
+    */
+   public ListenableFuture<Change> create(String zoneId, ResourceRecordSet rrs) {
+      return submit(zoneId, Action.CREATE, rrs);
+   }
+
+   /**
+    * Schedules deletion of the resource record set.
+    * 
+    * @return the change once it is in sync, or null if it cancelled a create that was not sent yet
+    */
+   public ListenableFuture<Change> delete(String zoneId, ResourceRecordSet rrs) {
+      return submit(zoneId, Action.DELETE, rrs);
+   }
+
+   /**
+    * Sends the buffered changes of every zone without waiting for them to linger.
+    */
+   public void flush() {
+      for (Zone zone : zones.values()) {
+         synchronized (zone) {
+            for (Batch batch : zone.batches)
+               batch.ready = true;
+         }
+         drain(zone);
+      }
+   }
+
+   private ListenableFuture<Change> submit(String zoneId, Action action, ResourceRecordSet rrs) {
+      PendingChange change = new PendingChange(action, checkNotNull(rrs, "rrs"));
+      Zone zone = zone(checkNotNull(zoneId, "zoneId"));
+      List<PendingChange> cancelled = new ArrayList<PendingChange>(2);
+      Batch batch;
+      boolean newBatch = false;
+      synchronized (zone) {
+         if (closed) {
+            change.future.setException(new IllegalStateException("the context was closed"));
+            return change.future;
+         }
+         batch = zone.batches.peekLast();
+         if (batch == null || batch.ready || !batch.add(change, cancelled)) {
+            batch = new Batch();
+            batch.add(change, cancelled);
+            zone.batches.addLast(batch);
+            newBatch = true;
+         }
+         if (batch.changes.size() >= MAX_CHANGES)
+            batch.ready = true;
+      }
+      for (PendingChange toCancel : cancelled)
+         toCancel.future.set(null);
+      if (newBatch && !batch.ready)
+         readyAfterLinger(zone, batch);
+      drain(zone);
+      return change.future;
+   }
+
+   private Zone zone(String zoneId) {
+      Zone zone = zones.get(zoneId);
+      if (zone == null) {
+         Zone created = new Zone(zoneId);
+         zone = zones.putIfAbsent(zoneId, created);
+         if (zone == null)
+            zone = created;
+      }
+      return zone;
+   }
+
+   private void readyAfterLinger(final Zone zone, final Batch batch) {
+      try {
+         timer().schedule(new Runnable() {
+            @Override
+            public void run() {
+               synchronized (zone) {
+                  batch.ready = true;
+               }
+               drain(zone);
+            }
+         }, linger, MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         synchronized (zone) {
+            batch.ready = true;
+         }
+      }
+   }
+
+   /**
+    * Sends the first batch of the zone if it is ready and no other batch of the zone is being sent.
+    */
+   private void drain(final Zone zone) {
+      final Batch batch;
+      synchronized (zone) {
+         Batch first = zone.batches.peekFirst();
+         if (zone.sending || first == null || !first.ready)
+            return;
+         batch = zone.batches.removeFirst();
+         zone.sending = true;
+      }
+      try {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  send(zone.id, ImmutableList.copyOf(batch.changes));
+               } finally {
+                  synchronized (zone) {
+                     zone.sending = false;
+                  }
+                  drain(zone);
+               }
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         synchronized (zone) {
+            zone.sending = false;
+         }
+         fail(batch.changes, e);
+      }
+   }
+
+   private void send(String zoneId, List<PendingChange> changes) {
+      if (changes.isEmpty())
+         return;
+      ChangeBatch.Builder builder = ChangeBatch.builder();
+      for (PendingChange change : changes) {
+         if (change.action == Action.CREATE)
+            builder.create(change.rrs);
+         else
+            builder.delete(change.rrs);
+      }
+      try {
+         logger.debug(">> applying %s changes to zone %s", changes.size(), zoneId);
+         track(api.getResourceRecordSetApiForHostedZone(zoneId).apply(builder.build()), changes);
+      } catch (InvalidChangeBatchException e) {
+         List<List<PendingChange>> records = byRecord(changes);
+         if (records.size() == 1) {
+            fail(changes, e);
+            return;
+         }
+         // one bad change invalidates the whole batch, so halve it until the bad changes are alone
+         logger.debug("<< batch of %s changes to zone %s is invalid %s, applying it in halves", changes.size(),
+               zoneId, e.getMessages());
+         int half = records.size() / 2;
+         send(zoneId, ImmutableList.copyOf(Iterables.concat(records.subList(0, half))));
+         send(zoneId, ImmutableList.copyOf(Iterables.concat(records.subList(half, records.size()))));
+      } catch (RuntimeException e) {
+         fail(changes, e);
+      }
+   }
+
+   /**
+    * Groups the changes by name and type, so that a delete and the create replacing it are applied together.
+    */
+   private static List<List<PendingChange>> byRecord(List<PendingChange> changes) {
+      Map<String, List<PendingChange>> byKey = new LinkedHashMap<String, List<PendingChange>>();
+      for (PendingChange change : changes) {
+         List<PendingChange> record = byKey.get(change.key);
+         if (record == null) {
+            record = new ArrayList<PendingChange>(2);
+            byKey.put(change.key, record);
+         }
+         record.add(change);
+      }
+      return ImmutableList.copyOf(byKey.values());
+   }
+
+   private void track(Change change, List<PendingChange> changes) {
+      if (change.getStatus() == Status.INSYNC) {
+         complete(changes, change);
+         return;
+      }
+      synchronized (inProgress) {
+         inProgress.put(change.getId(), new SentBatch(changes, System.nanoTime() + MILLISECONDS.toNanos(timeout)));
+         if (polling)
+            return;
+         polling = true;
+      }
+      schedulePoll();
+   }
+
+   private void schedulePoll() {
+      try {
+         timer().schedule(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  userExecutor.execute(new Runnable() {
+                     @Override
+                     public void run() {
+                        poll();
+                     }
+                  });
+               } catch (RejectedExecutionException e) {
+                  stopPolling(e);
+               }
+            }
+         }, pollPeriod, MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         stopPolling(e);
+      }
+   }
+
+   /**
+    * Checks every batch in progress with one {@code GetChange} call each, and fails the batches past their deadline.
+    */
+   private void poll() {
+      Map<String, SentBatch> toCheck;
+      synchronized (inProgress) {
+         toCheck = ImmutableMap.copyOf(inProgress);
+      }
+      for (Map.Entry<String, SentBatch> entry : toCheck.entrySet()) {
+         String id = entry.getKey();
+         SentBatch batch = entry.getValue();
+         boolean expired = System.nanoTime() - batch.deadline >= 0;
+         try {
+            Change change = api.getChange(id);
+            if (change == null) {
+               remove(id);
+               fail(batch.changes, new IllegalStateException("change " + id + " not found"));
+            } else if (change.getStatus() == Status.INSYNC) {
+               remove(id);
+               complete(batch.changes, change);
+            } else if (expired) {
+               remove(id);
+               fail(batch.changes, new TimeoutException("change " + id + " not in sync after " + timeout + "ms"));
+            }
+         } catch (RuntimeException e) {
+            if (expired) {
+               logger.warn(e, "<< error getting change %s, giving up after %sms", id, timeout);
+               remove(id);
+               fail(batch.changes, e);
+            } else {
+               logger.warn(e, "<< error getting change %s, will try again", id);
+            }
+         }
+      }
+      synchronized (inProgress) {
+         if (inProgress.isEmpty()) {
+            polling = false;
+            return;
+         }
+      }
+      schedulePoll();
+   }
+
+   private void remove(String id) {
+      synchronized (inProgress) {
+         inProgress.remove(id);
+      }
+   }
+
+   private void stopPolling(Exception e) {
+      Map<String, SentBatch> abandoned;
+      synchronized (inProgress) {
+         abandoned = ImmutableMap.copyOf(inProgress);
+         inProgress.clear();
+         polling = false;
+      }
+      for (SentBatch batch : abandoned.values())
+         fail(batch.changes, e);
+   }
+
+   private static void complete(List<PendingChange> changes, Change change) {
+      for (PendingChange pending : changes)
+         pending.future.set(change);
+   }
+
+   private static void fail(List<PendingChange> changes, Exception e) {
+      for (PendingChange pending : changes)
+         pending.future.setException(e);
+   }
+
+   private synchronized ScheduledExecutorService timer() {
+      if (closed)
+         throw new RejectedExecutionException("the context was closed");
+      if (timer == null) {
+         timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+               .setNameFormat("route53 change batch writer %d").setDaemon(true).build());
+      }
+      return timer;
+   }
+
+   /**
+    * Stops the timer and fails the changes that are still buffered or waiting to be in sync.
+    */
+   private void close() {
+      synchronized (this) {
+         closed = true;
+         if (timer != null)
+            timer.shutdownNow();
+      }
+      IllegalStateException e = new IllegalStateException("the context was closed");
+      for (Zone zone : zones.values()) {
+         List<PendingChange> buffered = new ArrayList<PendingChange>();
+         synchronized (zone) {
+            for (Batch batch : zone.batches)
+               buffered.addAll(batch.changes);
+            zone.batches.clear();
+         }
+         fail(buffered, e);
+      }
+      stopPolling(e);
+   }
+
+   private static final class Zone {
+      private final String id;
+      private final Deque<Batch> batches = new ArrayDeque<Batch>();
+      private boolean sending;
+
+      private Zone(String id) {
+         this.id = id;
+      }
+   }
+
+   private static final class Batch {
+      private final List<PendingChange> changes = new ArrayList<PendingChange>();
+      private final Map<String, PendingChange> lastByKey = new HashMap<String, PendingChange>();
+      private boolean ready;
+
+      /**
+       * Adds the change unless it conflicts with a change to the same name and type already in the batch.
+       */
+      private boolean add(PendingChange change, List<PendingChange> cancelled) {
+         PendingChange previous = lastByKey.get(change.key);
+         if (previous == null || previous.action == Action.DELETE && change.action == Action.CREATE) {
+            changes.add(change);
+            lastByKey.put(change.key, change);
+            return true;
+         }
+         if (previous.action == Action.CREATE && change.action == Action.DELETE && previous.rrs.equals(change.rrs)) {
+            changes.remove(previous);
+            lastByKey.remove(change.key);
+            // a create may follow a delete of the same name and type, which is the one now last
+            for (int i = changes.size() - 1; i >= 0; i--) {
+               if (changes.get(i).key.equals(change.key)) {
+                  lastByKey.put(change.key, changes.get(i));
+                  break;
+               }
+            }
+            cancelled.add(previous);
+            cancelled.add(change);
+            return true;
+         }
+         return false;
+      }
+   }
+
+   private static final class SentBatch {
+      private final List<PendingChange> changes;
+      private final long deadline;
+
+      private SentBatch(List<PendingChange> changes, long deadline) {
+         this.changes = changes;
+         this.deadline = deadline;
+      }
+   }
+
+   private static final class PendingChange {
+      private final Action action;
+      private final ResourceRecordSet rrs;
+      private final String key;
+      private final SettableFuture<Change> future = SettableFuture.create();
+
+      private PendingChange(Action action, ResourceRecordSet rrs) {
+         this.action = action;
+         this.rrs = rrs;
+         this.key = rrs.getName().toLowerCase() + " " + rrs.getType()
+               + (rrs instanceof RecordSubset ? " " + RecordSubset.class.cast(rrs).getId() : "");
+      }
+   }
+}
@@ -18,6 +18,9 @@ package org.jclouds.route53;
 
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_AUTH_TAG;
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_HEADER_TAG;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_BATCH_LINGER;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_POLL_PERIOD;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_TIMEOUT;
 
 import java.net.URI;
 import java.util.Properties;
@@ -49,6 +52,9 @@ public class Route53ApiMetadata extends BaseHttpApiMetadata<Route53Api> {
 
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
+      properties.setProperty(CHANGE_BATCH_LINGER, "100");
+      properties.setProperty(CHANGE_POLL_PERIOD, "2000");
+      properties.setProperty(CHANGE_TIMEOUT, "600000");
       properties.setProperty(PROPERTY_AUTH_TAG, "AWS");
       properties.setProperty(PROPERTY_HEADER_TAG, "amz");
       return properties;
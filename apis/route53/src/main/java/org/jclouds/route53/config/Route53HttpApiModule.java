@@ -29,6 +29,7 @@ import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
 import org.jclouds.rest.ConfiguresHttpApi;
 import org.jclouds.rest.RequestSigner;
+import org.jclouds.route53.ChangeBatchWriter;
 import org.jclouds.route53.Route53Api;
 import org.jclouds.route53.filters.RestAuthentication;
 import org.jclouds.route53.handlers.Route53ErrorHandler;
@@ -43,6 +44,12 @@ public class Route53HttpApiModule extends AWSHttpApiModule<Route53Api> {
    public Route53HttpApiModule() {
    }
 
+   @Override
+   protected void configure() {
+      super.configure();
+      bind(ChangeBatchWriter.class);
+   }
+
    @Provides
    @TimeStamp
    protected final String guiceProvideTimeStamp(DateService dateService) {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.config;
+
+/**
+ * Configuration properties and constants used in Route53 connections.
+ */
+public final class Route53Properties {
+
+   /**
+    * Long property.
+    * <p/>
+    * How long, in milliseconds, {@link org.jclouds.route53.ChangeBatchWriter}
+    * holds the first change of a batch so that later changes to the same
+    * hosted zone can join it. default is 100 milliseconds.
+    */
+   public static final String CHANGE_BATCH_LINGER = "jclouds.route53.change-batch.linger";
+
+   /**
+    * Long property.
+    * <p/>
+    * The interval, in milliseconds, at which
+    * {@link org.jclouds.route53.ChangeBatchWriter} checks whether the batches
+    * it sent are in sync. default is 2000 milliseconds (2 seconds).
+    */
+   public static final String CHANGE_POLL_PERIOD = "jclouds.route53.change.poll-period";
+
+   /**
+    * Long property.
+    * <p/>
+    * How long, in milliseconds, {@link org.jclouds.route53.ChangeBatchWriter}
+    * waits for a batch it sent to be in sync, including while checking its
+    * status fails, before failing its changes. default is 600000
+    * milliseconds (10 minutes).
+    */
+   public static final String CHANGE_TIMEOUT = "jclouds.route53.change.timeout";
+
+   private Route53Properties() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
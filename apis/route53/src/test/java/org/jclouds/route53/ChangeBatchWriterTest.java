@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "ChangeBatchWriterTest")
+public class ChangeBatchWriterTest {
+
+   private static final String ZONE = "Z1PA6795UKMFR9";
+
+   private static final Change PENDING = Change.create("C2682N5HXP0BZ4", Status.PENDING, new Date());
+   private static final Change INSYNC = Change.create("C2682N5HXP0BZ4", Status.INSYNC, new Date());
+
+   private static ResourceRecordSet a(String name, String address) {
+      return ResourceRecordSet.builder().name(name).type("A").ttl(300).add(address).build();
+   }
+
+   private static ChangeBatchWriter writer(Route53Api api, Closer closer) {
+      // a long linger so that only flush, or a full batch, sends
+      return writer(api, TimeUnit.MINUTES.toMillis(1), closer);
+   }
+
+   private static ChangeBatchWriter writer(Route53Api api, long timeout, Closer closer) {
+      return new ChangeBatchWriter(api, MoreExecutors.newDirectExecutorService(), TimeUnit.MINUTES.toMillis(1), 10,
+            timeout, closer);
+   }
+
+   public void testChangesToDifferentRecordsAreSentInOneBatch() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1"))
+            .delete(a("old.jclouds.org.", "2.2.2.2")).build())).andReturn(INSYNC);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      ListenableFuture<Change> create = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      ListenableFuture<Change> delete = writer.delete(ZONE, a("old.jclouds.org.", "2.2.2.2"));
+      writer.flush();
+
+      assertEquals(create.get(), INSYNC);
+      assertEquals(delete.get(), INSYNC);
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testDeleteOfUnsentCreateCancelsBoth() throws Exception {
+      Route53Api api = createMock(Route53Api.class);
+      replay(api);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      ListenableFuture<Change> create = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      ListenableFuture<Change> delete = writer.delete(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.flush();
+
+      assertNull(create.get());
+      assertNull(delete.get());
+      closer.close();
+      verify(api);
+   }
+
+   public void testReplaceIsSentInOneBatchButConflictWaitsForTheNext() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi).times(2);
+      expect(rrsApi.apply(ChangeBatch.builder().delete(a("www.jclouds.org.", "1.1.1.1"))
+            .create(a("www.jclouds.org.", "2.2.2.2")).build())).andReturn(INSYNC);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "3.3.3.3")).build())).andReturn(INSYNC);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      writer.delete(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.create(ZONE, a("www.jclouds.org.", "2.2.2.2"));
+      ListenableFuture<Change> conflict = writer.create(ZONE, a("www.jclouds.org.", "3.3.3.3"));
+      writer.flush();
+
+      assertEquals(conflict.get(), INSYNC);
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testFullBatchIsSentWithoutWaitingForLinger() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      ChangeBatch.Builder full = ChangeBatch.builder();
+      for (int i = 0; i < ChangeBatchWriter.MAX_CHANGES; i++)
+         full.create(a("host" + i + ".jclouds.org.", "1.1.1.1"));
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(full.build())).andReturn(INSYNC);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      List<ListenableFuture<Change>> futures = Lists.newArrayList();
+      for (int i = 0; i < ChangeBatchWriter.MAX_CHANGES + 1; i++)
+         futures.add(writer.create(ZONE, a("host" + i + ".jclouds.org.", "1.1.1.1")));
+
+      for (int i = 0; i < ChangeBatchWriter.MAX_CHANGES; i++)
+         assertTrue(futures.get(i).isDone());
+      assertTrue(!futures.get(ChangeBatchWriter.MAX_CHANGES).isDone());
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testInvalidBatchIsBisectedKeepingReplacesTogether() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      InvalidChangeBatchException invalid = new InvalidChangeBatchException(ImmutableList.of("Tried to delete "
+            + "resource record set old.jclouds.org., type A but it was not found"), new HttpResponseException(
+            "invalid", null, null));
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi).times(5);
+      expect(rrsApi.apply(ChangeBatch.builder().delete(a("www.jclouds.org.", "1.1.1.1"))
+            .create(a("www.jclouds.org.", "2.2.2.2")).create(a("new.jclouds.org.", "3.3.3.3"))
+            .delete(a("old.jclouds.org.", "4.4.4.4")).build())).andThrow(invalid);
+      expect(rrsApi.apply(ChangeBatch.builder().delete(a("www.jclouds.org.", "1.1.1.1"))
+            .create(a("www.jclouds.org.", "2.2.2.2")).build())).andReturn(INSYNC);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("new.jclouds.org.", "3.3.3.3"))
+            .delete(a("old.jclouds.org.", "4.4.4.4")).build())).andThrow(invalid);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("new.jclouds.org.", "3.3.3.3")).build())).andReturn(INSYNC);
+      expect(rrsApi.apply(ChangeBatch.builder().delete(a("old.jclouds.org.", "4.4.4.4")).build())).andThrow(invalid);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      ListenableFuture<Change> replaceDelete = writer.delete(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      ListenableFuture<Change> replaceCreate = writer.create(ZONE, a("www.jclouds.org.", "2.2.2.2"));
+      ListenableFuture<Change> create = writer.create(ZONE, a("new.jclouds.org.", "3.3.3.3"));
+      ListenableFuture<Change> delete = writer.delete(ZONE, a("old.jclouds.org.", "4.4.4.4"));
+      writer.flush();
+
+      assertEquals(replaceDelete.get(), INSYNC);
+      assertEquals(replaceCreate.get(), INSYNC);
+      assertEquals(create.get(), INSYNC);
+      try {
+         delete.get();
+         throw new AssertionError("expected the delete to fail");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause(), invalid);
+      }
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testCloseFailsBufferedAndPendingChanges() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1")).build())).andReturn(PENDING);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      // polls too rarely to see the change in sync before the close
+      ChangeBatchWriter writer = new ChangeBatchWriter(api, MoreExecutors.newDirectExecutorService(),
+            TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(10), closer);
+      ListenableFuture<Change> pending = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.flush();
+      ListenableFuture<Change> buffered = writer.create(ZONE, a("old.jclouds.org.", "2.2.2.2"));
+      closer.close();
+      ListenableFuture<Change> afterClose = writer.create(ZONE, a("new.jclouds.org.", "3.3.3.3"));
+
+      for (ListenableFuture<Change> future : ImmutableList.of(pending, buffered, afterClose)) {
+         try {
+            future.get(10, TimeUnit.SECONDS);
+            throw new AssertionError("expected the change to fail");
+         } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+         }
+      }
+      verify(api, rrsApi);
+   }
+
+   public void testPendingChangeCompletesWhenInSync() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1")).build())).andReturn(PENDING);
+      expect(api.getChange(PENDING.getId())).andReturn(PENDING);
+      expect(api.getChange(PENDING.getId())).andReturn(INSYNC);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, closer);
+      ListenableFuture<Change> create = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.flush();
+
+      assertEquals(create.get(10, TimeUnit.SECONDS), INSYNC);
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testChangeNotInSyncByTheDeadlineFails() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1")).build())).andReturn(PENDING);
+      expect(api.getChange(PENDING.getId())).andReturn(PENDING);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, 0, closer);
+      ListenableFuture<Change> create = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.flush();
+
+      try {
+         create.get(10, TimeUnit.SECONDS);
+         throw new AssertionError("expected the change to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+      closer.close();
+      verify(api, rrsApi);
+   }
+
+   public void testPersistentErrorGettingChangeFailsAtTheDeadline() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      Route53Api api = createMock(Route53Api.class);
+      IllegalStateException error = new IllegalStateException("throttled");
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi);
+      expect(rrsApi.apply(ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1")).build())).andReturn(PENDING);
+      expect(api.getChange(PENDING.getId())).andThrow(error);
+      replay(api, rrsApi);
+
+      Closer closer = new Closer();
+      ChangeBatchWriter writer = writer(api, 0, closer);
+      ListenableFuture<Change> create = writer.create(ZONE, a("www.jclouds.org.", "1.1.1.1"));
+      writer.flush();
+
+      try {
+         create.get(10, TimeUnit.SECONDS);
+         throw new AssertionError("expected the change to fail");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause(), error);
+      }
+      closer.close();
+      verify(api, rrsApi);
+   }
+}
@@ -18,27 +18,37 @@ package org.jclouds.s3.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.blobstore.util.BlobStoreUtils.maybeQuoteETag;
+import static org.jclouds.blobstore.util.BlobStoreUtils.returnResponseException;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTIPART_COPY_THRESHOLD;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.math.RoundingMode;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.ContainerAccess;
 import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
 import org.jclouds.blobstore.internal.BaseBlobStore;
 import org.jclouds.blobstore.options.CopyOptions;
@@ -46,13 +56,16 @@ import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.payloads.BaseMutableContentMetadata;
 import org.jclouds.s3.S3Client;
 import org.jclouds.s3.blobstore.functions.BlobToObject;
 import org.jclouds.s3.blobstore.functions.BlobToObjectMetadata;
@@ -71,17 +84,27 @@ import org.jclouds.s3.options.CopyObjectOptions;
 import org.jclouds.s3.options.ListBucketOptions;
 import org.jclouds.s3.options.PutBucketOptions;
 import org.jclouds.s3.options.PutObjectOptions;
+import org.jclouds.s3.reference.S3Constants;
 import org.jclouds.s3.util.S3Utils;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.math.LongMath;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 @Singleton
 public class S3BlobStore extends BaseBlobStore {
+   /** The largest object that a single PUT Object - Copy can copy. */
+   private static final long MAX_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+
    private final S3Client sync;
    private final Function<Set<BucketMetadata>, PageSet<? extends StorageMetadata>> convertBucketsToStorageMetadata;
    private final ContainerToBucketListOptions container2BucketListOptions;
@@ -93,6 +116,14 @@ public class S3BlobStore extends BaseBlobStore {
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final Provider<FetchBlobMetadata> fetchBlobMetadataProvider;
 
+   @Inject
+   @Named(PROPERTY_USER_THREADS)
+   private ListeningExecutorService userExecutor;
+
+   @Inject
+   @Named(PROPERTY_S3_MULTIPART_COPY_THRESHOLD)
+   private long multipartCopyThreshold;
+
    @Inject
    protected S3BlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
             @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer, S3Client sync,
@@ -271,9 +302,46 @@ public class S3BlobStore extends BaseBlobStore {
       return sync.putObject(container, blob2Object.apply(blob), options);
    }
 
+   /**
+    * This implementation invokes {@link S3Client#copyObject}, or copies the object in parts if it is
+    * larger than {@link S3Constants#PROPERTY_S3_MULTIPART_COPY_THRESHOLD}. The source is only read
+    * first when the threshold is below the 5 GB limit of a single copy; otherwise it is read after
+    * S3 rejects the single copy of a larger object.
+    */
    @Override
    public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
          CopyOptions options) {
+      BlobMetadata source = null;
+      if (multipartCopyThreshold < MAX_COPY_SIZE) {
+         source = blobMetadata(fromContainer, fromName);
+         if (source == null) {
+            throw new KeyNotFoundException(fromContainer, fromName, "while copying");
+         }
+         if (isLargerThanMultipartCopyThreshold(source)) {
+            return copyBlobInParts(fromContainer, fromName, source, toContainer, toName, options);
+         }
+      }
+      try {
+         return copyObject(fromContainer, fromName, toContainer, toName, options);
+      } catch (HttpResponseException hre) {
+         if (source != null || hre.getResponse() == null || hre.getResponse().getStatusCode() != 400) {
+            throw hre;
+         }
+         source = blobMetadata(fromContainer, fromName);
+         if (source == null || !isLargerThanMultipartCopyThreshold(source)) {
+            throw hre;
+         }
+         return copyBlobInParts(fromContainer, fromName, source, toContainer, toName, options);
+      }
+   }
+
+   private boolean isLargerThanMultipartCopyThreshold(BlobMetadata source) {
+      Long contentLength = source.getContentMetadata().getContentLength();
+      return contentLength != null && contentLength > multipartCopyThreshold;
+   }
+
+   private String copyObject(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
       CopyObjectOptions s3Options = new CopyObjectOptions();
       if (options.ifMatch() != null) {
          s3Options.ifSourceETagMatches(options.ifMatch());
@@ -324,6 +392,111 @@ public class S3BlobStore extends BaseBlobStore {
       return sync.copyObject(fromContainer, fromName, toContainer, toName, s3Options).getETag();
    }
 
+   /**
+    * Copies an object with a multipart upload whose parts are ranges of the source, copied
+    * concurrently on the user executor with {@link S3Client#uploadPartCopy}, at most
+    * {@code jclouds.blobstore.copy.concurrency} at once. No content passes through the client, and
+    * objects larger than the 5 GB limit of a single copy can be copied.
+    */
+   private String copyBlobInParts(String fromContainer, String fromName, BlobMetadata source, String toContainer,
+         String toName, CopyOptions options) {
+      checkCopyPreconditions(source, options);
+
+      ContentMetadata contentMetadata = options.contentMetadata() != null ? options.contentMetadata()
+            : source.getContentMetadata();
+      BaseMutableContentMetadata toContentMetadata = new BaseMutableContentMetadata();
+      toContentMetadata.setCacheControl(contentMetadata.getCacheControl());
+      toContentMetadata.setContentDisposition(contentMetadata.getContentDisposition());
+      toContentMetadata.setContentEncoding(contentMetadata.getContentEncoding());
+      toContentMetadata.setContentLanguage(contentMetadata.getContentLanguage());
+      toContentMetadata.setContentType(contentMetadata.getContentType());
+      MutableBlobMetadata toBlob = new MutableBlobMetadataImpl();
+      toBlob.setName(toName);
+      toBlob.setContentMetadata(toContentMetadata);
+      toBlob.setUserMetadata(options.userMetadata() != null ? options.userMetadata() : source.getUserMetadata());
+
+      long contentLength = source.getContentMetadata().getContentLength();
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
+            getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
+      long partSize = Math.max(algorithm.calculateChunkSize(contentLength),
+            LongMath.divide(contentLength, getMaximumNumberOfParts(), RoundingMode.CEILING));
+
+      MultipartUpload mpu = initiateMultipartUpload(toContainer, toBlob, PutOptions.NONE);
+      List<ListenableFuture<MultipartPart>> parts = Lists.newArrayList();
+      try {
+         PartWindow window = new PartWindow();
+         int partNumber = 1;
+         for (long offset = 0; offset < contentLength && window.acquire(copyConcurrency); offset += partSize) {
+            long end = Math.min(offset + partSize, contentLength) - 1;
+            ListenableFuture<MultipartPart> part = userExecutor.submit(
+                  new PartCopier(mpu, partNumber++, fromContainer, fromName, offset, end));
+            Futures.addCallback(part, window);
+            parts.add(part);
+         }
+         List<MultipartPart> copied = Futures.getUnchecked(Futures.allAsList(parts));
+         // the parts are not copied atomically, so do not assemble ranges of different versions of the source
+         BlobMetadata current = blobMetadata(fromContainer, fromName);
+         if (current == null || !Objects.equal(current.getETag(), source.getETag())) {
+            throw returnResponseException(412);
+         }
+         return completeMultipartUpload(mpu, copied);
+      } catch (RuntimeException re) {
+         for (ListenableFuture<MultipartPart> part : parts) {
+            part.cancel(true);
+         }
+         abortMultipartUpload(mpu);
+         throw re;
+      }
+   }
+
+   private final class PartCopier implements Callable<MultipartPart> {
+      private final MultipartUpload mpu;
+      private final int partNumber;
+      private final String fromContainer;
+      private final String fromName;
+      private final long begin;
+      private final long end;
+
+      PartCopier(MultipartUpload mpu, int partNumber, String fromContainer, String fromName, long begin, long end) {
+         this.mpu = mpu;
+         this.partNumber = partNumber;
+         this.fromContainer = fromContainer;
+         this.fromName = fromName;
+         this.begin = begin;
+         this.end = end;
+      }
+
+      @Override
+      public MultipartPart call() {
+         String eTag = sync.uploadPartCopy(mpu.containerName(), mpu.blobName(), partNumber, mpu.id(), fromContainer,
+               fromName, begin, end);
+         return MultipartPart.create(partNumber, end - begin + 1, eTag, null);
+      }
+   }
+
+   private static void checkCopyPreconditions(BlobMetadata source, CopyOptions options) {
+      String eTag = source.getETag();
+      if (eTag != null) {
+         eTag = maybeQuoteETag(eTag);
+         if (options.ifMatch() != null && !maybeQuoteETag(options.ifMatch()).equals(eTag)) {
+            throw returnResponseException(412);
+         }
+         if (options.ifNoneMatch() != null && maybeQuoteETag(options.ifNoneMatch()).equals(eTag)) {
+            throw returnResponseException(412);
+         }
+      }
+
+      Date lastModified = source.getLastModified();
+      if (lastModified != null) {
+         if (options.ifModifiedSince() != null && lastModified.compareTo(options.ifModifiedSince()) <= 0) {
+            throw returnResponseException(412);
+         }
+         if (options.ifUnmodifiedSince() != null && lastModified.compareTo(options.ifUnmodifiedSince()) >= 0) {
+            throw returnResponseException(412);
+         }
+      }
+   }
+
    /**
     * This implementation invokes {@link S3Client#deleteObject}
     *
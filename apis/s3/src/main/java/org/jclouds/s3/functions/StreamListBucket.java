@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.reflect.Reflection2.method;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.InvokeAndStreamSaxElements;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.domain.ListBucketResponse;
+import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.options.ListBucketOptions;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.Invokable;
+
+/**
+ * Streaming variant of {@link S3Client#listBucket}, which pushes each object to a callback as soon
+ * as its {@code Contents} entry is parsed, instead of buffering the whole page.
+ */
+@Singleton
+public class StreamListBucket {
+
+   private final InvokeAndStreamSaxElements streamer;
+   private final Invokable<?, ?> listBucket;
+
+   @Inject
+   StreamListBucket(InvokeAndStreamSaxElements streamer) {
+      this.streamer = streamer;
+      this.listBucket = method(S3Client.class, "listBucket", String.class, ListBucketOptions[].class);
+   }
+
+   /**
+    * @param callback
+    *           invoked with each object in the page, in key order
+    * @return the page, holding markers and common prefixes, but no objects
+    * @see S3Client#listBucket
+    */
+   public ListBucketResponse apply(String bucketName, ElementCallback<? super ObjectMetadata> callback,
+         ListBucketOptions... options) {
+      checkNotNull(bucketName, "bucketName");
+      return streamer.<ListBucketResponse, ObjectMetadata> invoke(
+            Invocation.create(listBucket, ImmutableList.<Object> of(bucketName, options)), callback);
+   }
+}
@@ -32,6 +32,10 @@ public final class S3Constants {
    public static final String PROPERTY_S3_SERVICE_PATH = "jclouds.s3.service-path";
    public static final String PROPERTY_S3_VIRTUAL_HOST_BUCKETS = "jclouds.s3.virtual-host-buckets";
    public static final String PROPERTY_JCLOUDS_S3_CHUNKED_SIZE = "jclouds.s3.chunked.size";
+   /**
+    * Objects larger than this many bytes are copied with a multipart copy instead of a single copy request.
+    */
+   public static final String PROPERTY_S3_MULTIPART_COPY_THRESHOLD = "jclouds.s3.multipart-copy.threshold";
 
    public static final String TEMPORARY_SIGNATURE_PARAM = "Signature";
 
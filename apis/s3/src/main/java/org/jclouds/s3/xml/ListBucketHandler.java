@@ -27,6 +27,8 @@ import javax.inject.Inject;
 
 import org.jclouds.date.DateService;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
 import org.jclouds.s3.domain.CanonicalUser;
 import org.jclouds.s3.domain.ListBucketResponse;
 import org.jclouds.s3.domain.ObjectMetadata;
@@ -42,8 +44,12 @@ import com.google.common.collect.ImmutableSet.Builder;
  * Parses the following XML document:
  * <p/>
  * ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01"
+ * <p/>
+ * When an {@link ElementCallback} is set, each {@code Contents} entry is pushed to it as soon as it
+ * is parsed, and the result only holds the listing metadata and common prefixes.
  */
-public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> {
+public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> implements
+      StreamingHandler<ObjectMetadata> {
    private Builder<ObjectMetadata> contents = ImmutableSet.builder();
    private Builder<String> commonPrefixes = ImmutableSet.builder();
    private CanonicalUser currentOwner;
@@ -52,6 +58,7 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
    private ObjectMetadataBuilder builder = new ObjectMetadataBuilder();
 
    private final DateService dateParser;
+   private ElementCallback<? super ObjectMetadata> callback;
 
    private String bucketName;
    private String prefix;
@@ -68,6 +75,11 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       this.dateParser = dateParser;
    }
 
+   @Override
+   public void setElementCallback(ElementCallback<? super ObjectMetadata> callback) {
+      this.callback = callback;
+   }
+
    public ListBucketResponse getResult() {
       return new ListBucketResponseImpl(bucketName, contents.build(), prefix, marker,
                (isTruncated && nextMarker == null) ? currentKey : nextMarker, maxResults, delimiter, isTruncated,
@@ -116,7 +128,10 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       } else if (qName.equals("StorageClass")) {
          builder.storageClass(ObjectMetadata.StorageClass.valueOf(currentOrNull(currentText)));
       } else if (qName.equals("Contents")) {
-         contents.add(builder.build());
+         if (callback != null)
+            callback.onElement(builder.build());
+         else
+            contents.add(builder.build());
          builder = new ObjectMetadataBuilder().bucket(bucketName);
       } else if (qName.equals("Name")) {
          this.bucketName = currentOrNull(currentText);
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore;
+
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_BLOBSTORE_COPY_CONCURRENCY;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTIPART_COPY_THRESHOLD;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(singleThreaded = true)
+public class S3BlobStoreMockTest {
+   private static final long MB = 1024 * 1024;
+   private static final String SOURCE_ETAG = "\"d41d8cd98f00b204e9800998ecf8427e\"";
+
+   private MockWebServer server;
+
+   @BeforeMethod
+   public void start() throws IOException {
+      server = new MockWebServer();
+      server.play();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() throws IOException {
+      server.shutdown();
+   }
+
+   private BlobStore blobStore() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_S3_MULTIPART_COPY_THRESHOLD, String.valueOf(64 * MB));
+      return blobStore(overrides, newDirectExecutorService());
+   }
+
+   private BlobStore blobStore(Properties overrides, ListeningExecutorService executor) {
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+      return ContextBuilder.newBuilder("s3")
+                           .credentials("accessKey", "secretKey")
+                           .endpoint(server.getUrl("/").toString())
+                           .modules(ImmutableSet.<Module> of(new OkHttpCommandExecutorServiceModule(),
+                                 new ExecutorServiceModule(executor)))
+                           .overrides(overrides)
+                           .buildView(BlobStoreContext.class)
+                           .getBlobStore();
+   }
+
+   private static MockResponse source(long contentLength, String eTag) {
+      return new MockResponse()
+            .addHeader(CONTENT_LENGTH, contentLength)
+            .addHeader(ETAG, eTag)
+            .addHeader(LAST_MODIFIED, "Thu, 19 Mar 2009 13:23:27 GMT");
+   }
+
+   private static MockResponse xml(String resource) throws IOException {
+      return new MockResponse().setBody(Resources.toString(Resources.getResource(resource),
+            Charsets.UTF_8));
+   }
+
+   private static MockResponse copyPartResult(String eTag) {
+      return new MockResponse().setBody("<CopyPartResult><LastModified>2009-03-19T13:23:27.000Z</LastModified>"
+            + "<ETag>" + eTag + "</ETag></CopyPartResult>");
+   }
+
+   public void testCopyBlobAtThresholdCopiesObject() throws Exception {
+      server.enqueue(source(64 * MB, SOURCE_ETAG));
+      server.enqueue(xml("copy_object.xml"));
+
+      assertEquals(blobStore().copyBlob("bucket", "from", "bucket", "to", CopyOptions.NONE),
+            "\"92836a3ea45a6984d1b4d23a747d46bb\"");
+
+      assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/from HTTP/1.1");
+      RecordedRequest copy = server.takeRequest();
+      assertEquals(copy.getRequestLine(), "PUT /bucket/to HTTP/1.1");
+      assertEquals(copy.getHeader("x-amz-copy-source"), "/bucket/from");
+      assertEquals(server.getRequestCount(), 2);
+   }
+
+   public void testCopyBlobAboveThresholdCopiesParts() throws Exception {
+      server.enqueue(source(70 * MB, SOURCE_ETAG));
+      server.enqueue(xml("initiate-multipart-upload.xml"));
+      server.enqueue(copyPartResult("\"part1\""));
+      server.enqueue(copyPartResult("\"part2\""));
+      server.enqueue(copyPartResult("\"part3\""));
+      server.enqueue(source(70 * MB, SOURCE_ETAG));
+      server.enqueue(xml("complete-multipart-upload.xml"));
+
+      assertEquals(blobStore().copyBlob("bucket", "from", "bucket", "to", CopyOptions.NONE),
+            "\"3858f62230ac3c915f300c664312c11f-9\"");
+
+      assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/from HTTP/1.1");
+      assertEquals(server.takeRequest().getRequestLine(), "POST /bucket/to?uploads HTTP/1.1");
+      String[] ranges = { "bytes=0-33554431", "bytes=33554432-67108863", "bytes=67108864-73400319" };
+      for (int i = 0; i < ranges.length; i++) {
+         RecordedRequest part = server.takeRequest();
+         assertTrue(part.getRequestLine().startsWith("PUT /bucket/to?partNumber=" + (i + 1) + "&uploadId="),
+               part.getRequestLine());
+         assertEquals(part.getHeader("x-amz-copy-source"), "/bucket/from");
+         assertEquals(part.getHeader("x-amz-copy-source-range"), ranges[i]);
+      }
+      assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/from HTTP/1.1");
+      RecordedRequest complete = server.takeRequest();
+      assertTrue(complete.getRequestLine().startsWith("POST /bucket/to?uploadId="), complete.getRequestLine());
+      String body = new String(complete.getBody(), Charsets.UTF_8);
+      for (int i = 1; i <= 3; i++) {
+         assertTrue(body.contains("<PartNumber>" + i + "</PartNumber><ETag>\"part" + i + "\"</ETag>"), body);
+      }
+      assertEquals(server.getRequestCount(), 7);
+   }
+
+   public void testCopyBlobInPartsAbortsWhenSourceChanges() throws Exception {
+      server.enqueue(source(70 * MB, SOURCE_ETAG));
+      server.enqueue(xml("initiate-multipart-upload.xml"));
+      server.enqueue(copyPartResult("\"part1\""));
+      server.enqueue(copyPartResult("\"part2\""));
+      server.enqueue(copyPartResult("\"part3\""));
+      server.enqueue(source(70 * MB, "\"3858f62230ac3c915f300c664312c11f\""));
+      server.enqueue(new MockResponse().setResponseCode(204));
+
+      try {
+         blobStore().copyBlob("bucket", "from", "bucket", "to", CopyOptions.NONE);
+         fail("expected the copy to fail");
+      } catch (HttpResponseException expected) {
+         assertEquals(expected.getResponse().getStatusCode(), 412);
+      }
+
+      for (int i = 0; i < 6; i++) {
+         server.takeRequest();
+      }
+      RecordedRequest abort = server.takeRequest();
+      assertTrue(abort.getRequestLine().startsWith("DELETE /bucket/to?uploadId="), abort.getRequestLine());
+   }
+
+   public void testCopyBlobInPartsChecksPreconditionsBeforeCopying() throws Exception {
+      server.enqueue(source(70 * MB, SOURCE_ETAG));
+
+      try {
+         blobStore().copyBlob("bucket", "from", "bucket", "to",
+               CopyOptions.builder().ifMatch("\"3858f62230ac3c915f300c664312c11f\"").build());
+         fail("expected the copy to fail");
+      } catch (HttpResponseException expected) {
+         assertEquals(expected.getResponse().getStatusCode(), 412);
+      }
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void testCopyBlobBelowMaximumCopySizeCopiesObjectWithoutReadingTheSource() throws Exception {
+      server.enqueue(xml("copy_object.xml"));
+
+      assertEquals(blobStore(new Properties(), newDirectExecutorService()).copyBlob("bucket", "from", "bucket", "to",
+            CopyOptions.NONE), "\"92836a3ea45a6984d1b4d23a747d46bb\"");
+
+      assertEquals(server.takeRequest().getRequestLine(), "PUT /bucket/to HTTP/1.1");
+      assertEquals(server.getRequestCount(), 1);
+   }
+
+   public void testCopyBlobCopiesPartsWhenSingleCopyOfLargeObjectIsRejected() throws Exception {
+      PartCopyDispatcher dispatcher = new PartCopyDispatcher(6L * 1024 * MB);
+      server.setDispatcher(dispatcher);
+
+      assertEquals(blobStore(new Properties(), newDirectExecutorService()).copyBlob("bucket", "from", "bucket", "to",
+            CopyOptions.NONE), "\"3858f62230ac3c915f300c664312c11f-9\"");
+
+      assertEquals(server.takeRequest().getRequestLine(), "PUT /bucket/to HTTP/1.1");
+      assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/from HTTP/1.1");
+      assertEquals(server.takeRequest().getRequestLine(), "POST /bucket/to?uploads HTTP/1.1");
+      assertTrue(dispatcher.copied.get() > 1, "copied " + dispatcher.copied.get());
+   }
+
+   public void testCopyBlobInPartsCopiesAtMostTheConfiguredNumberOfPartsAtOnce() throws Exception {
+      PartCopyDispatcher dispatcher = new PartCopyDispatcher(150 * MB);
+      server.setDispatcher(dispatcher);
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(PROPERTY_S3_MULTIPART_COPY_THRESHOLD, String.valueOf(64 * MB));
+         overrides.setProperty(PROPERTY_BLOBSTORE_COPY_CONCURRENCY, "2");
+         blobStore(overrides, executor).copyBlob("bucket", "from", "bucket", "to", CopyOptions.NONE);
+
+         assertTrue(dispatcher.copied.get() > 2, "test needs more than two parts, copied " + dispatcher.copied.get());
+         assertEquals(dispatcher.maxInFlight.get(), 2);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Rejects single copies of objects larger than 5 GB, and copies parts slowly enough for them to
+    * overlap.
+    */
+   private static final class PartCopyDispatcher extends Dispatcher {
+      private final long contentLength;
+      private final AtomicInteger inFlight = new AtomicInteger();
+      private final AtomicInteger maxInFlight = new AtomicInteger();
+      private final AtomicInteger copied = new AtomicInteger();
+
+      PartCopyDispatcher(long contentLength) {
+         this.contentLength = contentLength;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+         String requestLine = request.getRequestLine();
+         try {
+            if (requestLine.startsWith("HEAD ")) {
+               return source(contentLength, SOURCE_ETAG);
+            } else if (requestLine.startsWith("POST /bucket/to?uploads ")) {
+               return xml("initiate-multipart-upload.xml");
+            } else if (requestLine.startsWith("POST ")) {
+               return xml("complete-multipart-upload.xml");
+            } else if (requestLine.contains("partNumber=")) {
+               int running = inFlight.incrementAndGet();
+               while (running > maxInFlight.get()) {
+                  maxInFlight.compareAndSet(maxInFlight.get(), running);
+               }
+               Thread.sleep(20);
+               inFlight.decrementAndGet();
+               copied.incrementAndGet();
+               return copyPartResult("\"part\"");
+            }
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+         return new MockResponse().setResponseCode(400).setBody("<Error><Code>InvalidRequest</Code>"
+               + "<Message>The specified copy source is larger than the maximum allowable size for a copy source: "
+               + "5368709120</Message></Error>");
+      }
+   }
+}
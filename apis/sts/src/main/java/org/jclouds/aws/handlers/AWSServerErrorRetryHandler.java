@@ -72,8 +72,9 @@ public class AWSServerErrorRetryHandler extends BackoffLimitedRetryHandler {
       return false;
    }
 
-   public void imposeBackoffExponentialDelay(long period, int pow, int failureCount, int max, String commandDescription) {
-      imposeBackoffExponentialDelay(period, period * 100L, pow, failureCount, max, commandDescription);
+   @Override
+   protected long maxPeriod(long period) {
+      return period * 100L;
    }
 
    
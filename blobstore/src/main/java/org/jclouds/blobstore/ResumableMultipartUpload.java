@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.jclouds.util.Strings2.urlDecode;
+import static org.jclouds.util.Strings2.urlEncode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.google.common.math.LongMath;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Uploads a blob in parts whose progress is journaled to a local file, so that an upload interrupted,
+ * for example by a restart of the process, resumes with the parts still missing instead of starting
+ * over. This is meant for large repeatable payloads, such as files.
+ * <p/>
+ * The journal records the upload id, the part size and every uploaded part, and is synced to disk
+ * after each of them. When the journal exists, its upload is resumed: the parts that
+ * {@link BlobStore#listMultipartUpload} still reports are kept, and the others are uploaded again. A
+ * journal for another container, name or content length, or for an upload that no longer exists, is
+ * replaced by a new upload. The content itself must not change between attempts. The journal is
+ * deleted once the upload completes, and kept when it fails, in which case the upload is not aborted.
+ */
+@Beta
+public final class ResumableMultipartUpload {
+
+   private static final String UPLOAD = "upload";
+   private static final String PART = "part";
+   private static final Joiner FIELDS = Joiner.on(' ');
+   private static final Splitter FIELD_SPLITTER = Splitter.on(' ');
+
+   private final BlobStore blobStore;
+   private final PayloadSlicer slicer = new BasePayloadSlicer();
+
+   private ResumableMultipartUpload(BlobStore blobStore) {
+      this.blobStore = blobStore;
+   }
+
+   /**
+    * @see #putBlob(BlobStore, String, Blob, File, PutOptions, ListeningExecutorService)
+    */
+   public static String putBlob(BlobStore blobStore, String container, Blob blob, File journal) {
+      return putBlob(blobStore, container, blob, journal, PutOptions.NONE, newDirectExecutorService());
+   }
+
+   /**
+    * Uploads {@code blob}, or resumes the upload recorded in {@code journal}, uploading the missing
+    * parts on {@code executor}.
+    *
+    * @return the ETag of the blob
+    */
+   public static String putBlob(BlobStore blobStore, String container, Blob blob, File journal, PutOptions options,
+         ListeningExecutorService executor) {
+      checkNotNull(blobStore, "blobStore");
+      checkNotNull(container, "container");
+      checkNotNull(journal, "journal");
+      checkNotNull(options, "options");
+      checkNotNull(executor, "executor");
+      checkArgument(blob.getPayload().isRepeatable(), "resumable uploads need a repeatable payload, such as a file");
+      Long contentLength = checkNotNull(blob.getMetadata().getContentMetadata().getContentLength(),
+            "must provide content-length to use resumable upload");
+      if (contentLength == 0) {
+         // there are no parts to resume
+         return blobStore.putBlob(container, blob);
+      }
+      try {
+         return new ResumableMultipartUpload(blobStore).upload(container, blob, contentLength, journal, options,
+               executor);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private String upload(String container, Blob blob, long contentLength, File file, PutOptions options,
+         ListeningExecutorService executor) throws IOException {
+      String name = blob.getMetadata().getName();
+      Journal journal = Journal.read(file);
+      MultipartUpload mpu = null;
+      SortedMap<Integer, MultipartPart> uploaded = null;
+      if (journal != null && journal.container.equals(container) && journal.name.equals(name)
+            && journal.contentLength == contentLength) {
+         mpu = MultipartUpload.create(container, name, journal.uploadId, blob.getMetadata(), options);
+         uploaded = reconcile(mpu, journal);
+      } else if (journal != null) {
+         abortQuietly(MultipartUpload.create(journal.container, journal.name, journal.uploadId, null, null));
+      }
+      if (uploaded == null) {
+         mpu = blobStore.initiateMultipartUpload(container, blob.getMetadata(), options);
+         journal = Journal.create(file, container, name, mpu.id(), partSize(contentLength), contentLength);
+         uploaded = Maps.newTreeMap();
+      }
+
+      List<ListenableFuture<MultipartPart>> parts = Lists.newArrayList();
+      int numberOfParts = (int) LongMath.divide(contentLength, journal.partSize, RoundingMode.CEILING);
+      for (int partNumber = 1; partNumber <= numberOfParts; partNumber++) {
+         if (!uploaded.containsKey(partNumber)) {
+            parts.add(executor.submit(new PartUploader(mpu, blob.getPayload(), journal, partNumber)));
+         }
+      }
+      for (MultipartPart part : Futures.getUnchecked(Futures.allAsList(parts))) {
+         uploaded.put(part.partNumber(), part);
+      }
+      String eTag = blobStore.completeMultipartUpload(mpu, ImmutableList.copyOf(uploaded.values()));
+      if (!file.delete() && file.exists()) {
+         throw new IOException("could not delete journal " + file);
+      }
+      return eTag;
+   }
+
+   /**
+    * Returns the parts of the journaled upload that need not be uploaded again, or null if the
+    * upload no longer exists.
+    */
+   private SortedMap<Integer, MultipartPart> reconcile(MultipartUpload mpu, Journal journal) {
+      SortedMap<Integer, MultipartPart> uploaded = Maps.newTreeMap();
+      List<MultipartPart> listed;
+      try {
+         listed = blobStore.listMultipartUpload(mpu);
+      } catch (ResourceNotFoundException e) {
+         return null;
+      } catch (UnsupportedOperationException e) {
+         // trust the journal alone
+         uploaded.putAll(journal.parts);
+         return uploaded;
+      }
+      for (MultipartPart part : listed) {
+         MultipartPart journaled = journal.parts.get(part.partNumber());
+         if (part.partNumber() < 1 || part.partSize() != journal.partSize(part.partNumber())) {
+            continue;
+         }
+         if (part.partETag() == null && journaled != null) {
+            part = journaled;
+         }
+         uploaded.put(part.partNumber(), part);
+      }
+      return uploaded;
+   }
+
+   private void abortQuietly(MultipartUpload mpu) {
+      try {
+         blobStore.abortMultipartUpload(mpu);
+      } catch (RuntimeException e) {
+         // the provider expires abandoned uploads eventually
+      }
+   }
+
+   private long partSize(long contentLength) {
+      int maximumNumberOfParts = blobStore.getMaximumNumberOfParts();
+      long partSize = new MultipartUploadSlicingAlgorithm(blobStore.getMinimumMultipartPartSize(),
+            blobStore.getMaximumMultipartPartSize(), maximumNumberOfParts).calculateChunkSize(contentLength);
+      // every part but the last has the same size, so that their offsets follow from the journal
+      return Math.max(partSize, LongMath.divide(contentLength, maximumNumberOfParts, RoundingMode.CEILING));
+   }
+
+   private final class PartUploader implements Callable<MultipartPart> {
+      private final MultipartUpload mpu;
+      private final Payload payload;
+      private final Journal journal;
+      private final int partNumber;
+
+      PartUploader(MultipartUpload mpu, Payload payload, Journal journal, int partNumber) {
+         this.mpu = mpu;
+         this.payload = payload;
+         this.journal = journal;
+         this.partNumber = partNumber;
+      }
+
+      @Override
+      public MultipartPart call() throws IOException {
+         long offset = (partNumber - 1) * journal.partSize;
+         Payload part = slicer.slice(payload, offset, journal.partSize(partNumber));
+         MultipartPart uploaded = blobStore.uploadMultipartPart(mpu, partNumber, part);
+         journal.append(uploaded);
+         return uploaded;
+      }
+   }
+
+   /**
+    * A line per upload and per part, with fields separated by spaces and url-encoded.
+    */
+   private static final class Journal {
+      final File file;
+      final String container;
+      final String name;
+      final String uploadId;
+      final long partSize;
+      final long contentLength;
+      final Map<Integer, MultipartPart> parts = Maps.newHashMap();
+
+      private Journal(File file, String container, String name, String uploadId, long partSize,
+            long contentLength) {
+         this.file = file;
+         this.container = container;
+         this.name = name;
+         this.uploadId = uploadId;
+         this.partSize = partSize;
+         this.contentLength = contentLength;
+      }
+
+      long partSize(int partNumber) {
+         return Math.min(partSize, contentLength - (partNumber - 1) * partSize);
+      }
+
+      static Journal create(File file, String container, String name, String uploadId, long partSize,
+            long contentLength) throws IOException {
+         Journal journal = new Journal(file, container, name, uploadId, partSize, contentLength);
+         write(file, false, FIELDS.join(UPLOAD, urlEncode(container), urlEncode(name), urlEncode(uploadId), partSize,
+               contentLength));
+         return journal;
+      }
+
+      /**
+       * Returns the journal in {@code file}, or null if there is none or it cannot be read.
+       */
+      static Journal read(File file) throws IOException {
+         if (!file.isFile()) {
+            return null;
+         }
+         String content = Files.toString(file, Charsets.UTF_8);
+         // a last line without its newline was torn by a crash
+         List<String> lines = Splitter.on('\n').splitToList(content.substring(0, content.lastIndexOf('\n') + 1));
+         Journal journal = null;
+         for (String line : lines) {
+            List<String> fields = FIELD_SPLITTER.splitToList(line);
+            try {
+               if (journal == null && fields.size() == 6 && fields.get(0).equals(UPLOAD)) {
+                  journal = new Journal(file, urlDecode(fields.get(1)), urlDecode(fields.get(2)),
+                        urlDecode(fields.get(3)), Long.parseLong(fields.get(4)), Long.parseLong(fields.get(5)));
+               } else if (journal != null && fields.size() == 4 && fields.get(0).equals(PART)) {
+                  int partNumber = Integer.parseInt(fields.get(1));
+                  String eTag = fields.get(3).isEmpty() ? null : urlDecode(fields.get(3));
+                  journal.parts.put(partNumber, MultipartPart.create(partNumber, Long.parseLong(fields.get(2)), eTag,
+                        null));
+               }
+            } catch (NumberFormatException e) {
+               // skip the line; the parts listed by the service are authoritative
+            }
+         }
+         return journal;
+      }
+
+      synchronized void append(MultipartPart part) throws IOException {
+         parts.put(part.partNumber(), part);
+         write(file, true, FIELDS.join(PART, part.partNumber(), part.partSize(),
+               part.partETag() == null ? "" : urlEncode(part.partETag())));
+      }
+
+      private static void write(File file, boolean append, String line) throws IOException {
+         FileOutputStream out = new FileOutputStream(file, append);
+         try {
+            out.write((line + "\n").getBytes(Charsets.UTF_8));
+            out.getFD().sync();
+         } finally {
+            out.close();
+         }
+      }
+   }
+}
@@ -20,6 +20,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_BLOBSTORE_COPY_CONCURRENCY;
+import static org.jclouds.blobstore.util.BlobStoreUtils.maybeQuoteETag;
+import static org.jclouds.blobstore.util.BlobStoreUtils.returnResponseException;
 import static org.jclouds.util.Predicates2.retry;
 
 import java.io.File;
@@ -47,14 +50,10 @@ import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
-import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
-import org.jclouds.http.HttpCommand;
-import org.jclouds.http.HttpRequest;
-import org.jclouds.http.HttpResponse;
-import org.jclouds.http.HttpResponseException;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
@@ -65,9 +64,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 public abstract class BaseBlobStore implements BlobStore {
 
@@ -326,7 +327,7 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
-   @com.google.inject.Inject
+   @Inject
    @Named(PROPERTY_USER_THREADS)
    @VisibleForTesting
    ListeningExecutorService userExecutor;
@@ -348,30 +349,31 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
+   @Inject
+   @VisibleForTesting
+   MultipartUploadSlicingStrategy slicingStrategy;
+
    @Beta
    protected String putMultipartBlob(String container, Blob blob, PutOptions overrides, ListeningExecutorService executor) {
       ArrayList<ListenableFuture<MultipartPart>> parts = new ArrayList<ListenableFuture<MultipartPart>>();
       MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), overrides);
       try {
          long contentLength = blob.getMetadata().getContentMetadata().getContentLength();
-         // TODO: inject MultipartUploadSlicingAlgorithm to override default part size
-         MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
+         MultipartUploadSlicingStrategy.Upload upload = slicingStrategy.startUpload(container, contentLength,
                getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
-         long partSize = algorithm.calculateChunkSize(contentLength);
+         PartWindow window = new PartWindow();
+         long copied = 0;
          int partNumber = 1;
-         // TODO: for InputStream payloads, this buffers all parts in-memory!
-         while (partNumber < algorithm.getParts()) {
-            Payload payload = slicer.slice(blob.getPayload(), algorithm.getCopied(), partSize);
-            BlobUploader b =
-                  new BlobUploader(mpu, partNumber++, payload);
-            parts.add(executor.submit(b));
-            algorithm.addCopied(partSize);
-         }
-         if (algorithm.getRemaining() != 0) {
-            Payload payload = slicer.slice(blob.getPayload(), algorithm.getCopied(), algorithm.getRemaining());
-            BlobUploader b =
-                  new BlobUploader(mpu, partNumber, payload);
-            parts.add(executor.submit(b));
+         // TODO: for InputStream payloads, this buffers the parts in flight in-memory!
+         while (copied < contentLength && window.acquire(upload.getConcurrency())) {
+            long partSize = upload.nextPartSize(contentLength - copied);
+            checkState(partSize > 0 && partSize <= contentLength - copied, "invalid part size %s", partSize);
+            Payload payload = slicer.slice(blob.getPayload(), copied, partSize);
+            ListenableFuture<MultipartPart> part = executor.submit(
+                  new BlobUploader(mpu, partNumber++, payload, partSize, upload));
+            Futures.addCallback(part, window);
+            parts.add(part);
+            copied += partSize;
          }
          return completeMultipartUpload(mpu, Futures.getUnchecked(Futures.allAsList(parts)));
       } catch (RuntimeException re) {
@@ -380,35 +382,80 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
+   /**
+    * Maximum number of parts that copies run range by range copy at once.
+    */
+   @Inject(optional = true)
+   @Named(PROPERTY_BLOBSTORE_COPY_CONCURRENCY)
+   protected int copyConcurrency = 16;
+
+   /**
+    * Bounds the number of parts in flight, and stops slicing once a part fails. Register it as the
+    * callback of each part.
+    */
+   public static final class PartWindow implements FutureCallback<Object> {
+      private int inFlight;
+      private boolean failed;
+
+      public PartWindow() {
+      }
+
+      /**
+       * Waits until fewer than {@code limit} parts are in flight, returning false if a part failed.
+       */
+      public synchronized boolean acquire(int limit) {
+         while (inFlight >= limit && !failed) {
+            try {
+               wait();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw Throwables.propagate(e);
+            }
+         }
+         if (failed) {
+            return false;
+         }
+         inFlight++;
+         return true;
+      }
+
+      @Override
+      public synchronized void onSuccess(Object result) {
+         inFlight--;
+         notifyAll();
+      }
+
+      @Override
+      public synchronized void onFailure(Throwable t) {
+         inFlight--;
+         failed = true;
+         notifyAll();
+      }
+   }
+
    private final class BlobUploader implements Callable<MultipartPart> {
       private final MultipartUpload mpu;
       private final int partNumber;
       private final Payload payload;
+      private final long partSize;
+      private final MultipartUploadSlicingStrategy.Upload upload;
 
-      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload) {
+      BlobUploader(MultipartUpload mpu, int partNumber, Payload payload, long partSize,
+            MultipartUploadSlicingStrategy.Upload upload) {
          this.mpu = mpu;
          this.partNumber = partNumber;
          this.payload = payload;
+         this.partSize = partSize;
+         this.upload = upload;
       }
 
       @Override
       public MultipartPart call() {
-         return uploadMultipartPart(mpu, partNumber, payload);
-      }
-   }
-
-   private static HttpResponseException returnResponseException(int code) {
-      HttpResponse response = HttpResponse.builder().statusCode(code).build();
-      // TODO: bogus endpoint
-      return new HttpResponseException(new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://stub")
-            .build()), response);
-   }
-
-   private static String maybeQuoteETag(String eTag) {
-      if (!eTag.startsWith("\"") && !eTag.endsWith("\"")) {
-         eTag = "\"" + eTag + "\"";
+         long start = System.nanoTime();
+         MultipartPart part = uploadMultipartPart(mpu, partNumber, payload);
+         upload.partUploaded(partSize, System.nanoTime() - start);
+         return part;
       }
-      return eTag;
    }
 
    @Override
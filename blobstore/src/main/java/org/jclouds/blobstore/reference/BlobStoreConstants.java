@@ -53,6 +53,12 @@ public final class BlobStoreConstants {
     */
    public static final String PROPERTY_USER_METADATA_PREFIX = "jclouds.blobstore.metaprefix";
 
+   /**
+    * Maximum number of parts copied at once by copies that the service runs range by range, such as
+    * a parallel copy into blocks or parts. Defaults to 16.
+    */
+   public static final String PROPERTY_BLOBSTORE_COPY_CONCURRENCY = "jclouds.blobstore.copy.concurrency";
+
    public static final String BLOBSTORE_LOGGER = "jclouds.blobstore";
    public static final String DIRECTORY_BLOB_SUFFIX = "/";
 
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy;
+
+import org.jclouds.blobstore.strategy.internal.FixedMultipartUploadSlicingStrategy;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Chooses the part sizes and the number of concurrent parts of multipart uploads. Bind
+ * {@link org.jclouds.blobstore.strategy.internal.AdaptiveMultipartUploadSlicingStrategy} in a module
+ * passed to the context to tune both from the measured performance of each container.
+ */
+@ImplementedBy(FixedMultipartUploadSlicingStrategy.class)
+public interface MultipartUploadSlicingStrategy {
+
+   /**
+    * Starts slicing a blob of {@code contentLength} bytes into parts within the limits of the
+    * provider.
+    */
+   Upload startUpload(String container, long contentLength, long minimumPartSize, long maximumPartSize,
+         int maximumNumberOfParts);
+
+   /**
+    * The slicing of one blob. Implementations are called from the uploading thread and from the
+    * threads uploading parts, and must be thread-safe.
+    */
+   interface Upload {
+      /**
+       * Returns the size of the next part, between 1 and {@code remaining}.
+       *
+       * @param remaining
+       *           the number of bytes not yet sliced into parts
+       */
+      long nextPartSize(long remaining);
+
+      /**
+       * Returns the number of parts that may be uploaded at once.
+       */
+      int getConcurrency();
+
+      /**
+       * Reports that a part of {@code size} bytes was uploaded in {@code nanos} nanoseconds.
+       */
+      void partUploaded(long size, long nanos);
+   }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.math.RoundingMode;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Maps;
+import com.google.common.math.LongMath;
+import com.google.inject.Inject;
+
+/**
+ * Tunes the part size and the number of concurrent parts of multipart uploads from the throughput
+ * and latency of the parts already uploaded to the same container.
+ * <ul>
+ * <li>The part size doubles while parts take less than half of {@code jclouds.mpu.adaptive.part-millis},
+ * as their time is then mostly per-request latency, and halves while they take more than twice as
+ * long, so that a slow link retries less data per failure.</li>
+ * <li>The number of concurrent parts climbs while the combined throughput of the parts improves, and
+ * steps back once it stops improving, settling at the fewest parts that saturate the link.</li>
+ * </ul>
+ * Part sizes stay within the limits of the provider, and the parts in flight, which may be buffered
+ * in memory, stay within {@code jclouds.mpu.adaptive.memory-budget} bytes. Each upload starts from
+ * the parameters the last upload to its container settled on, which {@link #getMetrics} exposes.
+ */
+@Beta
+@Singleton
+public class AdaptiveMultipartUploadSlicingStrategy implements MultipartUploadSlicingStrategy {
+
+   /**
+    * The parameters chosen for, and the performance measured from, the uploads to a container.
+    */
+   @AutoValue
+   public abstract static class Metrics {
+      public abstract long partSize();
+      public abstract int concurrency();
+      /** Bytes per second of a single part. */
+      public abstract double partThroughput();
+      /** Estimated bytes per second of all concurrent parts. */
+      public abstract double throughput();
+      public abstract long partMillis();
+      /** Parts uploaded to the container since the strategy was created. */
+      public abstract long partsUploaded();
+
+      static Metrics create(long partSize, int concurrency, double partThroughput, double throughput,
+            long partMillis, long partsUploaded) {
+         return new AutoValue_AdaptiveMultipartUploadSlicingStrategy_Metrics(partSize, concurrency, partThroughput,
+               throughput, partMillis, partsUploaded);
+      }
+   }
+
+   /** Changes in throughput smaller than this fraction are treated as noise. */
+   private static final double TOLERANCE = 0.1;
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.adaptive.memory-budget")
+   long memoryBudget = 256L * 1024 * 1024;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.adaptive.initial-concurrency")
+   int initialConcurrency = 4;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.adaptive.max-concurrency")
+   int maxConcurrency = 16;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.adaptive.part-millis")
+   long targetPartMillis = 10000;
+
+   private final ConcurrentMap<String, Metrics> metrics = Maps.newConcurrentMap();
+
+   /**
+    * Returns the parameters last chosen for uploads to {@code container}, or null if nothing was
+    * uploaded to it yet.
+    */
+   @Nullable
+   public Metrics getMetrics(String container) {
+      return metrics.get(container);
+   }
+
+   @Override
+   public Upload startUpload(String container, long contentLength, long minimumPartSize, long maximumPartSize,
+         int maximumNumberOfParts) {
+      Metrics last = metrics.get(container);
+      long partSize;
+      int concurrency;
+      long partsUploaded = 0;
+      if (last != null) {
+         partSize = last.partSize();
+         concurrency = last.concurrency();
+         partsUploaded = last.partsUploaded();
+      } else {
+         partSize = new MultipartUploadSlicingAlgorithm(minimumPartSize, maximumPartSize, maximumNumberOfParts)
+               .calculateChunkSize(contentLength);
+         concurrency = initialConcurrency;
+      }
+      return new AdaptiveUpload(container, minimumPartSize, maximumPartSize, maximumNumberOfParts, partSize,
+            concurrency, partsUploaded);
+   }
+
+   private final class AdaptiveUpload implements Upload {
+      private final String container;
+      private final long minimumPartSize;
+      private final long maximumPartSize;
+      private final int maximumNumberOfParts;
+
+      private long partSize;
+      private int concurrency;
+      private int direction = 1;
+      private double previousThroughput;
+      private int sliced;
+      private long partsUploaded;
+
+      // parts uploaded since the parameters last changed
+      private int windowParts;
+      private long windowBytes;
+      private long windowNanos;
+
+      AdaptiveUpload(String container, long minimumPartSize, long maximumPartSize, int maximumNumberOfParts,
+            long partSize, int concurrency, long partsUploaded) {
+         this.container = container;
+         this.minimumPartSize = minimumPartSize;
+         this.maximumPartSize = maximumPartSize;
+         this.maximumNumberOfParts = maximumNumberOfParts;
+         this.partSize = partSize;
+         this.concurrency = concurrency;
+         this.partsUploaded = partsUploaded;
+         clamp();
+      }
+
+      @Override
+      public synchronized long nextPartSize(long remaining) {
+         int partsLeft = maximumNumberOfParts - sliced;
+         checkState(partsLeft > 0, "%s bytes left after %s parts", remaining, sliced);
+         sliced++;
+         // parts must stay large enough to fit what remains in the parts the provider allows
+         long size = Math.max(partSize, LongMath.divide(remaining, partsLeft, RoundingMode.CEILING));
+         return Math.min(size, remaining);
+      }
+
+      @Override
+      public synchronized int getConcurrency() {
+         return concurrency;
+      }
+
+      @Override
+      public synchronized void partUploaded(long size, long nanos) {
+         partsUploaded++;
+         windowParts++;
+         windowBytes += size;
+         windowNanos += Math.max(nanos, 1);
+         if (windowParts < concurrency) {
+            return;
+         }
+         double partThroughput = windowBytes * (double) TimeUnit.SECONDS.toNanos(1) / windowNanos;
+         double throughput = partThroughput * concurrency;
+         long partMillis = TimeUnit.NANOSECONDS.toMillis(windowNanos / windowParts);
+
+         if (previousThroughput > 0) {
+            if (throughput < previousThroughput * (1 - TOLERANCE)) {
+               direction = -direction;
+            } else if (throughput <= previousThroughput * (1 + TOLERANCE)) {
+               // fewer parts reach the same throughput with less memory and fewer connections
+               direction = -1;
+            }
+         }
+         previousThroughput = throughput;
+         concurrency += direction;
+
+         if (partMillis < targetPartMillis / 2) {
+            partSize *= 2;
+         } else if (partMillis > targetPartMillis * 2) {
+            partSize /= 2;
+         }
+         clamp();
+
+         Metrics current = Metrics.create(partSize, concurrency, partThroughput, throughput, partMillis,
+               partsUploaded);
+         metrics.put(container, current);
+         logger.debug(">> tuned uploads to %s: %s", container, current);
+         windowParts = 0;
+         windowBytes = 0;
+         windowNanos = 0;
+      }
+
+      private void clamp() {
+         partSize = Math.max(minimumPartSize, Math.min(maximumPartSize, Math.min(partSize, memoryBudget)));
+         long fitInBudget = Math.max(1, memoryBudget / partSize);
+         concurrency = (int) Math.max(1, Math.min(Math.min(concurrency, maxConcurrency), fitInBudget));
+      }
+   }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
+
+import com.google.inject.Inject;
+
+/**
+ * Slices blobs into parts of the size chosen by {@link MultipartUploadSlicingAlgorithm} and leaves
+ * the number of concurrent parts to the executor.
+ */
+@Singleton
+public class FixedMultipartUploadSlicingStrategy implements MultipartUploadSlicingStrategy {
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parts.size")
+   long defaultPartSize = MultipartUploadSlicingAlgorithm.DEFAULT_PART_SIZE;
+
+   @Inject(optional = true)
+   @Named("jclouds.mpu.parts.magnitude")
+   int magnitudeBase = MultipartUploadSlicingAlgorithm.DEFAULT_MAGNITUDE_BASE;
+
+   @Override
+   public Upload startUpload(String container, long contentLength, long minimumPartSize, long maximumPartSize,
+         int maximumNumberOfParts) {
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(minimumPartSize,
+            maximumPartSize, maximumNumberOfParts);
+      algorithm.defaultPartSize = defaultPartSize;
+      algorithm.magnitudeBase = magnitudeBase;
+      final long partSize = algorithm.calculateChunkSize(contentLength);
+      final int parts = algorithm.getParts();
+      return new Upload() {
+         private int sliced;
+
+         @Override
+         public synchronized long nextPartSize(long remaining) {
+            // the algorithm leaves any remainder to a last part, which may be larger than the others
+            if (sliced < parts && partSize < remaining) {
+               sliced++;
+               return partSize;
+            }
+            return remaining;
+         }
+
+         @Override
+         public int getConcurrency() {
+            return Integer.MAX_VALUE;
+         }
+
+         @Override
+         public void partUploaded(long size, long nanos) {
+         }
+      };
+   }
+}
@@ -25,8 +25,11 @@ import java.util.regex.Pattern;
 
 import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.collect.Maps;
@@ -40,6 +43,23 @@ public class BlobStoreUtils {
                .headers(returnVal.getHeaders()).payload(returnVal.getPayload()).build();
    }
 
+   /**
+    * Returns the exception a provider throws for a response with the status {@code code}, for preconditions checked
+    * on the client. As no request was sent, the command of the exception is a placeholder.
+    */
+   public static HttpResponseException returnResponseException(int code) {
+      HttpResponse response = HttpResponse.builder().statusCode(code).build();
+      return new HttpResponseException(new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://stub")
+            .build()), response);
+   }
+
+   public static String maybeQuoteETag(String eTag) {
+      if (!eTag.startsWith("\"") && !eTag.endsWith("\"")) {
+         eTag = "\"" + eTag + "\"";
+      }
+      return eTag;
+   }
+
    public static String parseDirectoryFromPath(String path) {
       return checkNotNull(path, "path").substring(0, path.lastIndexOf('/'));
    }
@@ -0,0 +1,658 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobBuilder;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * A read-through cache of blob contents and metadata on local disk, for blobs that are read many
+ * times but rarely change. Entries are keyed on container, name and ETag, and every read is
+ * validated against the underlying blobstore with {@link GetOptions#ifETagDoesntMatch}, so that a
+ * cached blob is only served while it is current. Single ranges of cached blobs are served from
+ * the cached file; concurrent readers of an uncached blob share one download, and the least
+ * recently used entries are evicted to keep the cache under its size budget.
+ * <p>
+ * Only {@link #getBlob} is cached, and only full reads populate the cache. Ranges of blobs that
+ * are not cached, reads with other preconditions or with several ranges, and blobs without an
+ * ETag or larger than the budget, go directly to the underlying blobstore.
+ */
+@Beta
+public final class CachingBlobStore extends ForwardingBlobStore {
+   private static final String BODY_SUFFIX = ".blob";
+   private static final String METADATA_SUFFIX = ".properties";
+   private static final String USER_METADATA_PREFIX = "user.";
+
+   /**
+    * @param directory
+    *           where cached blobs are stored; entries already there are reused
+    * @param maximumSize
+    *           the total size in bytes of the blob contents to keep
+    */
+   public static BlobStore newCachingBlobStore(BlobStore blobStore, File directory, long maximumSize) {
+      return new CachingBlobStore(blobStore, directory, maximumSize);
+   }
+
+   private final File directory;
+   private final long maximumSize;
+   private final ConcurrentMap<Key, SettableFuture<Entry>> fetches =
+         new ConcurrentHashMap<Key, SettableFuture<Entry>>();
+   /** Entries in access order, guarded by itself. */
+   private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+   private long size;
+
+   private CachingBlobStore(BlobStore blobStore, File directory, long maximumSize) {
+      super(blobStore);
+      checkArgument(maximumSize > 0, "maximumSize must be positive");
+      this.directory = checkNotNull(directory, "directory");
+      this.maximumSize = maximumSize;
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+         throw new IllegalArgumentException("could not create cache directory " + directory);
+      }
+      load();
+   }
+
+   @Override
+   public Blob getBlob(String container, String name) {
+      return getBlob(container, name, GetOptions.NONE);
+   }
+
+   @Override
+   public Blob getBlob(String container, String name, GetOptions options) {
+      if (options.getIfMatch() != null || options.getIfNoneMatch() != null || options.getIfModifiedSince() != null
+            || options.getIfUnmodifiedSince() != null || options.getRanges().size() > 1) {
+         return delegate().getBlob(container, name, options);
+      }
+      Key key = new Key(container, name);
+      if (!options.getRanges().isEmpty()) {
+         boolean cached;
+         synchronized (entries) {
+            cached = entries.containsKey(key);
+         }
+         if (!cached) {
+            // do not download the whole blob to serve a range of it
+            return delegate().getBlob(container, name, options);
+         }
+      }
+      Entry entry = fetch(key);
+      if (entry == null) {
+         return null;
+      }
+      if (entry.uncached != null) {
+         if (options.getRanges().isEmpty()) {
+            return entry.uncached;
+         }
+         entry.uncached.getPayload().release();
+      } else if (entry != Entry.UNCACHEABLE) {
+         try {
+            return read(entry, options);
+         } catch (FileNotFoundException evicted) {
+            // fall through to an uncached read
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+      return delegate().getBlob(container, name, options);
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      invalidate(new Key(container, blob.getMetadata().getName()));
+      return delegate().putBlob(container, blob);
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      invalidate(new Key(container, blob.getMetadata().getName()));
+      return delegate().putBlob(container, blob, options);
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
+      invalidate(new Key(toContainer, toName));
+      return delegate().copyBlob(fromContainer, fromName, toContainer, toName, options);
+   }
+
+   @Override
+   public void removeBlob(String container, String name) {
+      invalidate(new Key(container, name));
+      delegate().removeBlob(container, name);
+   }
+
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      for (String name : names) {
+         invalidate(new Key(container, name));
+      }
+      delegate().removeBlobs(container, names);
+   }
+
+   @Override
+   public void clearContainer(String container) {
+      invalidate(container);
+      delegate().clearContainer(container);
+   }
+
+   @Override
+   public void clearContainer(String container, ListContainerOptions options) {
+      invalidate(container);
+      delegate().clearContainer(container, options);
+   }
+
+   @Override
+   public void deleteContainer(String container) {
+      invalidate(container);
+      delegate().deleteContainer(container);
+   }
+
+   /**
+    * Returns the current entry for a blob, validating or downloading it once for all concurrent
+    * callers. Returns null if the blob does not exist. If the blob cannot be cached, the caller that
+    * downloaded it receives it in {@link Entry#uncached}, and the others {@link Entry#UNCACHEABLE}.
+    */
+   private Entry fetch(Key key) {
+      SettableFuture<Entry> fetch = SettableFuture.create();
+      SettableFuture<Entry> existing = fetches.putIfAbsent(key, fetch);
+      if (existing != null) {
+         try {
+            return existing.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+      try {
+         Entry entry = validateOrDownload(key);
+         fetch.set(entry != null && entry.uncached != null ? Entry.UNCACHEABLE : entry);
+         return entry;
+      } catch (IOException e) {
+         fetch.setException(e);
+         throw Throwables.propagate(e);
+      } catch (RuntimeException e) {
+         fetch.setException(e);
+         throw e;
+      } finally {
+         fetches.remove(key, fetch);
+      }
+   }
+
+   private Entry validateOrDownload(Key key) throws IOException {
+      Entry cached;
+      synchronized (entries) {
+         cached = entries.get(key);
+      }
+      Blob blob;
+      if (cached == null) {
+         blob = delegate().getBlob(key.container, key.name);
+      } else {
+         try {
+            blob = delegate().getBlob(key.container, key.name, GetOptions.Builder.ifETagDoesntMatch(cached.eTag));
+         } catch (HttpResponseException e) {
+            HttpResponse response = e.getResponse();
+            if (response != null && response.getStatusCode() == 304) {
+               cached.body.setLastModified(System.currentTimeMillis());
+               return cached;
+            }
+            throw e;
+         }
+      }
+      if (blob == null) {
+         invalidate(key);
+         return null;
+      }
+      String eTag = blob.getMetadata().getETag();
+      Long contentLength = blob.getPayload().getContentMetadata().getContentLength();
+      if (eTag == null || contentLength == null || contentLength > maximumSize) {
+         invalidate(key);
+         return Entry.uncacheable(blob);
+      }
+      return store(key, eTag, contentLength, blob);
+   }
+
+   private Entry store(Key key, String eTag, long contentLength, Blob blob) throws IOException {
+      String fileName = Hashing.sha256().newHasher()
+            .putString(key.container, Charsets.UTF_8).putByte((byte) 0)
+            .putString(key.name, Charsets.UTF_8).putByte((byte) 0)
+            .putString(eTag, Charsets.UTF_8)
+            .hash().toString();
+      File body = new File(directory, fileName + BODY_SUFFIX);
+      File metadata = new File(directory, fileName + METADATA_SUFFIX);
+
+      Payload payload = blob.getPayload();
+      File tmp = File.createTempFile(fileName, ".tmp", directory);
+      try {
+         InputStream is = payload.openStream();
+         OutputStream os = new FileOutputStream(tmp);
+         try {
+            ByteStreams.copy(is, os);
+         } finally {
+            Closeables2.closeQuietly(is);
+            os.close();
+         }
+         if (tmp.length() != contentLength) {
+            throw new IOException("expected " + contentLength + " bytes of " + key + " but read " + tmp.length());
+         }
+         rename(tmp, body);
+      } finally {
+         payload.release();
+         tmp.delete();
+      }
+
+      Properties properties = toProperties(key, eTag, contentLength, blob);
+      tmp = File.createTempFile(fileName, ".tmp", directory);
+      try {
+         OutputStream os = new FileOutputStream(tmp);
+         try {
+            properties.store(os, null);
+         } finally {
+            os.close();
+         }
+         rename(tmp, metadata);
+      } finally {
+         tmp.delete();
+      }
+
+      Entry entry = new Entry(key, eTag, contentLength, body, metadata, properties);
+      add(entry);
+      return entry;
+   }
+
+   private Blob read(Entry entry, GetOptions options) throws IOException {
+      long offset = 0;
+      long last = entry.size - 1;
+      List<String> ranges = options.getRanges();
+      if (!ranges.isEmpty()) {
+         // HTTP uses a closed interval, as in LocalBlobStore
+         String range = ranges.get(0);
+         if (range.startsWith("-")) {
+            offset = Math.max(0, last - Long.parseLong(range.substring(1)) + 1);
+         } else if (range.endsWith("-")) {
+            offset = Long.parseLong(range.substring(0, range.length() - 1));
+         } else {
+            String[] firstLast = range.split("\\-");
+            offset = Long.parseLong(firstLast[0]);
+            last = Math.min(last, Long.parseLong(firstLast[1]));
+         }
+         if (offset >= entry.size) {
+            throw new HttpResponseException("illegal range: " + range, null,
+                  HttpResponse.builder().statusCode(416).build());
+         }
+      }
+
+      RandomAccessFile file = new RandomAccessFile(entry.body, "r");
+      Properties properties = entry.properties;
+      BlobBuilder.PayloadBlobBuilder builder = blobBuilder(entry.key.name)
+            .payload(new PositionalInputStream(file.getChannel(), offset, last - offset + 1))
+            .contentLength(last - offset + 1)
+            .cacheControl(properties.getProperty("cache-control"))
+            .contentDisposition(properties.getProperty("content-disposition"))
+            .contentEncoding(properties.getProperty("content-encoding"))
+            .contentLanguage(properties.getProperty("content-language"))
+            .contentType(properties.getProperty("content-type"));
+      String expires = properties.getProperty("expires");
+      if (expires != null) {
+         builder.expires(new Date(Long.parseLong(expires)));
+      }
+      String contentMD5 = properties.getProperty("content-md5");
+      if (contentMD5 != null && ranges.isEmpty()) {
+         builder.contentMD5(HashCode.fromString(contentMD5));
+      }
+      Map<String, String> userMetadata = new LinkedHashMap<String, String>();
+      for (String property : properties.stringPropertyNames()) {
+         if (property.startsWith(USER_METADATA_PREFIX)) {
+            userMetadata.put(property.substring(USER_METADATA_PREFIX.length()), properties.getProperty(property));
+         }
+      }
+      Blob blob = builder.userMetadata(userMetadata).build();
+
+      MutableBlobMetadata metadata = blob.getMetadata();
+      metadata.setContainer(entry.key.container);
+      metadata.setETag(entry.eTag);
+      metadata.setSize(entry.size);
+      String lastModified = properties.getProperty("last-modified");
+      if (lastModified != null) {
+         metadata.setLastModified(new Date(Long.parseLong(lastModified)));
+      }
+      if (!ranges.isEmpty()) {
+         blob.getAllHeaders().put(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + last + "/" + entry.size);
+      }
+      return blob;
+   }
+
+   private static Properties toProperties(Key key, String eTag, long contentLength, Blob blob) {
+      Properties properties = new Properties();
+      properties.setProperty("container", key.container);
+      properties.setProperty("name", key.name);
+      properties.setProperty("etag", eTag);
+      properties.setProperty("size", String.valueOf(contentLength));
+      Date lastModified = blob.getMetadata().getLastModified();
+      if (lastModified != null) {
+         properties.setProperty("last-modified", String.valueOf(lastModified.getTime()));
+      }
+      ContentMetadata contentMetadata = blob.getPayload().getContentMetadata();
+      setIfNotNull(properties, "cache-control", contentMetadata.getCacheControl());
+      setIfNotNull(properties, "content-disposition", contentMetadata.getContentDisposition());
+      setIfNotNull(properties, "content-encoding", contentMetadata.getContentEncoding());
+      setIfNotNull(properties, "content-language", contentMetadata.getContentLanguage());
+      setIfNotNull(properties, "content-type", contentMetadata.getContentType());
+      if (contentMetadata.getExpires() != null) {
+         properties.setProperty("expires", String.valueOf(contentMetadata.getExpires().getTime()));
+      }
+      if (contentMetadata.getContentMD5AsHashCode() != null) {
+         properties.setProperty("content-md5", contentMetadata.getContentMD5AsHashCode().toString());
+      }
+      for (Map.Entry<String, String> entry : blob.getMetadata().getUserMetadata().entrySet()) {
+         properties.setProperty(USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+      }
+      return properties;
+   }
+
+   private static void setIfNotNull(Properties properties, String key, String value) {
+      if (value != null) {
+         properties.setProperty(key, value);
+      }
+   }
+
+   /** Rebuilds the index from a previous run, least recently used first. */
+   private void load() {
+      List<Entry> loaded = Lists.newArrayList();
+      File[] files = directory.listFiles();
+      for (File file : files == null ? new File[0] : files) {
+         String fileName = file.getName();
+         if (fileName.endsWith(".tmp")) {
+            file.delete();
+         } else if (fileName.endsWith(METADATA_SUFFIX)) {
+            File body = new File(directory,
+                  fileName.substring(0, fileName.length() - METADATA_SUFFIX.length()) + BODY_SUFFIX);
+            Entry entry = null;
+            try {
+               entry = loadEntry(body, file);
+            } catch (IOException e) {
+               // ignore entries that cannot be read
+            } catch (RuntimeException e) {
+               // ignore entries that cannot be parsed
+            }
+            if (entry == null) {
+               file.delete();
+               body.delete();
+            } else {
+               loaded.add(entry);
+            }
+         }
+      }
+      Collections.sort(loaded, new Comparator<Entry>() {
+         @Override
+         public int compare(Entry left, Entry right) {
+            return Long.valueOf(left.body.lastModified()).compareTo(right.body.lastModified());
+         }
+      });
+      for (Entry entry : loaded) {
+         add(entry);
+      }
+   }
+
+   private static Entry loadEntry(File body, File metadata) throws IOException {
+      Properties properties = new Properties();
+      InputStream is = new FileInputStream(metadata);
+      try {
+         properties.load(is);
+      } finally {
+         is.close();
+      }
+      long size = Long.parseLong(properties.getProperty("size"));
+      if (body.length() != size || properties.getProperty("etag") == null) {
+         return null;
+      }
+      Key key = new Key(properties.getProperty("container"), properties.getProperty("name"));
+      return new Entry(key, properties.getProperty("etag"), size, body, metadata, properties);
+   }
+
+   private void add(Entry entry) {
+      List<Entry> evicted = Lists.newArrayList();
+      synchronized (entries) {
+         Entry previous = entries.put(entry.key, entry);
+         if (previous != null) {
+            size -= previous.size;
+            if (!previous.body.equals(entry.body)) {
+               evicted.add(previous);
+            }
+         }
+         size += entry.size;
+         Iterator<Entry> it = entries.values().iterator();
+         while (size > maximumSize && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest != entry) {
+               it.remove();
+               size -= eldest.size;
+               evicted.add(eldest);
+            }
+         }
+      }
+      for (Entry e : evicted) {
+         e.delete();
+      }
+   }
+
+   private void invalidate(Key key) {
+      Entry entry;
+      synchronized (entries) {
+         entry = entries.remove(key);
+         if (entry != null) {
+            size -= entry.size;
+         }
+      }
+      if (entry != null) {
+         entry.delete();
+      }
+   }
+
+   private void invalidate(String container) {
+      List<Entry> removed = Lists.newArrayList();
+      synchronized (entries) {
+         Iterator<Entry> it = entries.values().iterator();
+         while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.key.container.equals(container)) {
+               it.remove();
+               size -= entry.size;
+               removed.add(entry);
+            }
+         }
+      }
+      for (Entry entry : removed) {
+         entry.delete();
+      }
+   }
+
+   private static void rename(File from, File to) throws IOException {
+      if (!from.renameTo(to)) {
+         to.delete();
+         if (!from.renameTo(to)) {
+            throw new IOException("could not rename " + from + " to " + to);
+         }
+      }
+   }
+
+   private static final class Key {
+      private final String container;
+      private final String name;
+
+      Key(String container, String name) {
+         this.container = checkNotNull(container, "container");
+         this.name = checkNotNull(name, "name");
+      }
+
+      @Override
+      public boolean equals(Object object) {
+         if (!(object instanceof Key)) {
+            return false;
+         }
+         Key that = (Key) object;
+         return container.equals(that.container) && name.equals(that.name);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(container, name);
+      }
+
+      @Override
+      public String toString() {
+         return container + "/" + name;
+      }
+   }
+
+   private static final class Entry {
+      /** Marks blobs that are read directly from the underlying blobstore. */
+      static final Entry UNCACHEABLE = new Entry(null, null, 0, null, null, null);
+
+      static Entry uncacheable(Blob blob) {
+         Entry entry = new Entry(null, null, 0, null, null, null);
+         entry.uncached = blob;
+         return entry;
+      }
+
+      private final Key key;
+      private final String eTag;
+      private final long size;
+      private final File body;
+      private final File metadata;
+      private final Properties properties;
+      /** An uncacheable blob already downloaded for the caller that fetched it. */
+      private Blob uncached;
+
+      Entry(Key key, String eTag, long size, File body, File metadata, Properties properties) {
+         this.key = key;
+         this.eTag = eTag;
+         this.size = size;
+         this.body = body;
+         this.metadata = metadata;
+         this.properties = properties;
+      }
+
+      void delete() {
+         // readers that already opened the body keep reading it on platforms that allow it
+         metadata.delete();
+         body.delete();
+      }
+   }
+
+   /** Reads a range of a file with positional reads, so that skipping does not read the skipped bytes. */
+   private static final class PositionalInputStream extends InputStream {
+      private final FileChannel channel;
+      private long position;
+      private long remaining;
+
+      PositionalInputStream(FileChannel channel, long position, long length) {
+         this.channel = channel;
+         this.position = position;
+         this.remaining = length;
+      }
+
+      @Override
+      public int read() throws IOException {
+         byte[] b = new byte[1];
+         return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (remaining <= 0) {
+            return -1;
+         }
+         if (len == 0) {
+            return 0;
+         }
+         int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+         if (n < 0) {
+            remaining = 0;
+            return -1;
+         }
+         position += n;
+         remaining -= n;
+         return n;
+      }
+
+      @Override
+      public long skip(long n) {
+         long skipped = Math.max(0, Math.min(n, remaining));
+         position += skipped;
+         remaining -= skipped;
+         return skipped;
+      }
+
+      @Override
+      public int available() {
+         return (int) Math.min(remaining, Integer.MAX_VALUE);
+      }
+
+      @Override
+      public void close() throws IOException {
+         channel.close();
+      }
+   }
+}
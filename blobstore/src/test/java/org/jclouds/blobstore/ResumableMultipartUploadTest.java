@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.io.Payload;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", singleThreaded = true, testName = "ResumableMultipartUploadTest")
+public class ResumableMultipartUploadTest {
+   private static final String CONTAINER = "container";
+   // the transient blobstore limits parts to 5 MB, so this is three parts
+   private static final int LENGTH = 12 * 1024 * 1024;
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+   private File dir;
+   private File content;
+   private File journal;
+
+   @BeforeMethod
+   public void setUp() throws IOException {
+      context = ContextBuilder.newBuilder("transient").buildView(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      dir = Files.createTempDir();
+      content = new File(dir, "content");
+      byte[] bytes = new byte[LENGTH];
+      new Random(0).nextBytes(bytes);
+      Files.write(bytes, content);
+      journal = new File(dir, "journal");
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      context.close();
+      for (File file : dir.listFiles()) {
+         file.delete();
+      }
+      dir.delete();
+   }
+
+   public void testResumesByUploadingOnlyMissingParts() throws Exception {
+      try {
+         ResumableMultipartUpload.putBlob(new FailingPartBlobStore(blobStore, 2), CONTAINER, blob("blob"), journal);
+         fail("expected the second part to fail");
+      } catch (RuntimeException expected) {
+      }
+      assertTrue(journal.isFile());
+      assertFalse(blobStore.blobExists(CONTAINER, "blob"));
+
+      RecordingBlobStore recording = new RecordingBlobStore(blobStore);
+      ResumableMultipartUpload.putBlob(recording, CONTAINER, blob("blob"), journal);
+
+      assertEquals(recording.partNumbers, ImmutableList.of(2));
+      assertEquals(recording.initiated, 0);
+      assertContent("blob");
+      assertFalse(journal.exists());
+   }
+
+   public void testKeepsListedPartsMissingFromTornJournal() throws Exception {
+      try {
+         ResumableMultipartUpload.putBlob(new FailingPartBlobStore(blobStore, 3), CONTAINER, blob("blob"), journal);
+         fail("expected the third part to fail");
+      } catch (RuntimeException expected) {
+      }
+      // the process died while journaling the second part
+      String journaled = Files.toString(journal, Charsets.UTF_8);
+      Files.write(journaled.substring(0, journaled.length() - 3), journal, Charsets.UTF_8);
+
+      RecordingBlobStore recording = new RecordingBlobStore(blobStore);
+      ResumableMultipartUpload.putBlob(recording, CONTAINER, blob("blob"), journal);
+
+      assertEquals(recording.partNumbers, ImmutableList.of(3));
+      assertContent("blob");
+   }
+
+   public void testStartsOverWhenJournalIsForAnotherBlob() throws Exception {
+      try {
+         ResumableMultipartUpload.putBlob(new FailingPartBlobStore(blobStore, 2), CONTAINER, blob("other"), journal);
+         fail("expected the second part to fail");
+      } catch (RuntimeException expected) {
+      }
+
+      RecordingBlobStore recording = new RecordingBlobStore(blobStore);
+      ResumableMultipartUpload.putBlob(recording, CONTAINER, blob("blob"), journal);
+
+      assertEquals(recording.initiated, 1);
+      assertEquals(recording.partNumbers, ImmutableList.of(1, 2, 3));
+      assertContent("blob");
+      assertFalse(blobStore.blobExists(CONTAINER, "other"));
+   }
+
+   public void testStartsOverWhenJournalIsUnreadable() throws Exception {
+      Files.write("garbage", journal, Charsets.UTF_8);
+
+      RecordingBlobStore recording = new RecordingBlobStore(blobStore);
+      ResumableMultipartUpload.putBlob(recording, CONTAINER, blob("blob"), journal);
+
+      assertEquals(recording.initiated, 1);
+      assertContent("blob");
+   }
+
+   private Blob blob(String name) {
+      return blobStore.blobBuilder(name).payload(content).build();
+   }
+
+   private void assertContent(String name) throws IOException {
+      Blob blob = blobStore.getBlob(CONTAINER, name);
+      InputStream is = blob.getPayload().openStream();
+      try {
+         assertTrue(Arrays.equals(ByteStreams.toByteArray(is), Files.toByteArray(content)));
+      } finally {
+         is.close();
+      }
+   }
+
+   private static class RecordingBlobStore extends ForwardingBlobStore {
+      final List<Integer> partNumbers = Lists.newArrayList();
+      int initiated;
+
+      RecordingBlobStore(BlobStore blobStore) {
+         super(blobStore);
+      }
+
+      @Override
+      public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blob, PutOptions options) {
+         initiated++;
+         return super.initiateMultipartUpload(container, blob, options);
+      }
+
+      @Override
+      public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+         partNumbers.add(partNumber);
+         return super.uploadMultipartPart(mpu, partNumber, payload);
+      }
+   }
+
+   private static final class FailingPartBlobStore extends RecordingBlobStore {
+      private final int failingPart;
+
+      FailingPartBlobStore(BlobStore blobStore, int failingPart) {
+         super(blobStore);
+         this.failingPart = failingPart;
+      }
+
+      @Override
+      public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+         if (partNumber == failingPart) {
+            throw new IllegalStateException("connection reset");
+         }
+         return super.uploadMultipartPart(mpu, partNumber, payload);
+      }
+   }
+}
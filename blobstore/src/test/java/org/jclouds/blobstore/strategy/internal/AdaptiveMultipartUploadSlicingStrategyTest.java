@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy.Upload;
+import org.jclouds.blobstore.strategy.internal.AdaptiveMultipartUploadSlicingStrategy.Metrics;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit")
+public final class AdaptiveMultipartUploadSlicingStrategyTest {
+   private static final long MB = 1024 * 1024;
+   private static final long MIN_PART_SIZE = 5 * MB;
+   private static final long MAX_PART_SIZE = 5L * 1024 * MB;
+   private static final int MAX_NUMBER_OF_PARTS = 10 * 1000;
+
+   public void testGrowsPartsWhileLatencyDominates() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      assertNull(strategy.getMetrics("container"));
+      // 32 MB parts take 32 ms at 1 GB/s, far below the target time
+      upload(strategy, 10 * 1024 * MB, 1024 * MB, 1024 * MB);
+
+      Metrics metrics = strategy.getMetrics("container");
+      assertEquals(metrics.partSize(), strategy.memoryBudget);
+      assertEquals(metrics.concurrency(), 1);
+   }
+
+   public void testShrinksPartsOnSlowLink() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      // 32 MB parts take over 5 minutes at 100 KB/s
+      upload(strategy, 1024 * MB, 100 * 1024, 100 * 1024);
+
+      assertEquals(strategy.getMetrics("container").partSize(), MIN_PART_SIZE);
+   }
+
+   public void testClimbsConcurrencyUntilLinkSaturates() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      strategy.memoryBudget = 10 * 1024 * MB;
+      strategy.maxConcurrency = 64;
+      strategy.targetPartMillis = 4000;
+      // each part gets at most 10 MB/s of a 100 MB/s link
+      upload(strategy, 20 * 1024 * MB, 10 * MB, 100 * MB);
+
+      Metrics metrics = strategy.getMetrics("container");
+      assertTrue(metrics.concurrency() >= 9 && metrics.concurrency() <= 11, metrics.toString());
+      assertTrue(metrics.throughput() >= 90 * MB, metrics.toString());
+
+      // the next upload to the container starts where this one settled
+      Upload next = strategy.startUpload("container", MB, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS);
+      assertEquals(next.getConcurrency(), metrics.concurrency());
+      assertNull(strategy.getMetrics("other"));
+   }
+
+   public void testBacksOffWhenThroughputDrops() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      strategy.memoryBudget = 10 * 1024 * MB;
+      strategy.maxConcurrency = 64;
+      strategy.targetPartMillis = 4000;
+      upload(strategy, 20 * 1024 * MB, 10 * MB, 100 * MB);
+      int saturated = strategy.getMetrics("container").concurrency();
+
+      // the link degrades to 20 MB/s and contention between parts wastes a twentieth of it per extra part
+      upload(strategy, 20 * 1024 * MB, 10 * MB, 20 * MB, 0.05);
+      assertTrue(strategy.getMetrics("container").concurrency() <= 3 && saturated >= 9,
+            strategy.getMetrics("container").toString());
+   }
+
+   public void testKeepsPartsInFlightWithinMemoryBudget() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      strategy.memoryBudget = 64 * MB;
+      Upload upload = strategy.startUpload("container", 1024 * MB, MIN_PART_SIZE, MAX_PART_SIZE,
+            MAX_NUMBER_OF_PARTS);
+      assertEquals(upload.nextPartSize(1024 * MB), 32 * MB);
+      assertEquals(upload.getConcurrency(), 2);
+   }
+
+   public void testFitsRemainderInMaximumNumberOfParts() {
+      AdaptiveMultipartUploadSlicingStrategy strategy = new AdaptiveMultipartUploadSlicingStrategy();
+      Upload upload = strategy.startUpload("container", 1000, 1, 100, 4);
+      long remaining = 1000;
+      for (int i = 0; i < 4; i++) {
+         long size = upload.nextPartSize(remaining);
+         assertEquals(size, 250);
+         remaining -= size;
+      }
+      assertEquals(remaining, 0);
+   }
+
+   private static void upload(AdaptiveMultipartUploadSlicingStrategy strategy, long length, long partBytesPerSecond,
+         long linkBytesPerSecond) {
+      upload(strategy, length, partBytesPerSecond, linkBytesPerSecond, 0);
+   }
+
+   /**
+    * Simulates uploading rounds of concurrent parts, each sharing the link equally, with every part
+    * beyond the first wasting {@code contention} of the link.
+    */
+   private static void upload(AdaptiveMultipartUploadSlicingStrategy strategy, long length, long partBytesPerSecond,
+         long linkBytesPerSecond, double contention) {
+      Upload upload = strategy.startUpload("container", length, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS);
+      long remaining = length;
+      while (remaining > 0) {
+         int concurrency = upload.getConcurrency();
+         assertTrue(concurrency >= 1);
+         double link = linkBytesPerSecond * Math.max(0, 1 - contention * (concurrency - 1));
+         double bytesPerSecond = Math.min(partBytesPerSecond, link / concurrency);
+         long[] sizes = new long[concurrency];
+         for (int i = 0; i < concurrency && remaining > 0; i++) {
+            sizes[i] = upload.nextPartSize(remaining);
+            assertTrue(sizes[i] * concurrency <= strategy.memoryBudget || concurrency == 1);
+            remaining -= sizes[i];
+         }
+         for (long size : sizes) {
+            if (size > 0) {
+               upload.partUploaded(size, (long) (size * (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond));
+            }
+         }
+      }
+      assertNotNull(strategy.getMetrics("container"));
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy;
+import org.jclouds.blobstore.strategy.MultipartUploadSlicingStrategy.Upload;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit")
+public final class FixedMultipartUploadSlicingStrategyTest {
+   private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+   private static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+   private static final int MAX_NUMBER_OF_PARTS = 10 * 1000;
+   private static final long DEFAULT = MultipartUploadSlicingAlgorithm.DEFAULT_PART_SIZE;
+
+   public void testSlicesLikeTheAlgorithm() {
+      MultipartUploadSlicingStrategy strategy = new FixedMultipartUploadSlicingStrategy();
+      assertEquals(slice(strategy, DEFAULT), ImmutableList.of(DEFAULT));
+      assertEquals(slice(strategy, DEFAULT + 1), ImmutableList.of(DEFAULT, 1L));
+      assertEquals(slice(strategy, 2 * DEFAULT), ImmutableList.of(DEFAULT, DEFAULT));
+      assertEquals(slice(strategy, 2 * DEFAULT + 1), ImmutableList.of(DEFAULT, DEFAULT, 1L));
+
+      long length = DEFAULT * MultipartUploadSlicingAlgorithm.DEFAULT_MAGNITUDE_BASE + 1;
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(MIN_PART_SIZE, MAX_PART_SIZE,
+            MAX_NUMBER_OF_PARTS);
+      long partSize = algorithm.calculateChunkSize(length);
+      List<Long> sizes = slice(strategy, length);
+      assertEquals(sizes.size(), algorithm.getParts() + 1);
+      assertEquals(sizes.get(0), Long.valueOf(partSize));
+      assertEquals(sizes.get(sizes.size() - 1), Long.valueOf(algorithm.getRemaining()));
+   }
+
+   public void testDoesNotLimitConcurrency() {
+      Upload upload = new FixedMultipartUploadSlicingStrategy().startUpload("container", 10 * DEFAULT,
+            MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS);
+      assertEquals(upload.getConcurrency(), Integer.MAX_VALUE);
+   }
+
+   public void testPartSizeFromProperty() {
+      MultipartUploadSlicingStrategy strategy = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named("jclouds.mpu.parts.size")).to(MIN_PART_SIZE);
+         }
+      }).getInstance(MultipartUploadSlicingStrategy.class);
+      assertEquals(slice(strategy, 2 * MIN_PART_SIZE + 1), ImmutableList.of(MIN_PART_SIZE, MIN_PART_SIZE, 1L));
+   }
+
+   static List<Long> slice(MultipartUploadSlicingStrategy strategy, long length) {
+      Upload upload = strategy.startUpload("container", length, MIN_PART_SIZE, MAX_PART_SIZE, MAX_NUMBER_OF_PARTS);
+      List<Long> sizes = Lists.newArrayList();
+      for (long remaining = length; remaining > 0; ) {
+         long size = upload.nextPartSize(remaining);
+         sizes.add(size);
+         remaining -= size;
+      }
+      return sizes;
+   }
+}
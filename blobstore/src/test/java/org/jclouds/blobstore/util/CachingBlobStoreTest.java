@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.GetOptions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.net.HttpHeaders;
+
+@Test(groups = "unit", singleThreaded = true, testName = "CachingBlobStoreTest")
+public class CachingBlobStoreTest {
+   private static final String CONTAINER = "container";
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+   private CountingBlobStore counting;
+   private File directory;
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").buildView(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      counting = new CountingBlobStore(blobStore);
+      directory = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      context.close();
+      for (File file : directory.listFiles()) {
+         file.delete();
+      }
+      directory.delete();
+   }
+
+   public void testValidatesCachedBlobInsteadOfDownloading() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+
+      assertEquals(counting.downloads.get(), 1);
+      assertEquals(counting.validations.get(), 1);
+   }
+
+   public void testPreservesMetadata() throws Exception {
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder("blob").payload("hello world").contentType("text/plain")
+            .userMetadata(ImmutableMap.of("key", "value")).build());
+      String eTag = blobStore.blobMetadata(CONTAINER, "blob").getETag();
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+      read(cache.getBlob(CONTAINER, "blob"));
+
+      Blob blob = cache.getBlob(CONTAINER, "blob");
+
+      assertEquals(blob.getMetadata().getContainer(), CONTAINER);
+      assertEquals(blob.getMetadata().getETag(), eTag);
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "text/plain");
+      assertEquals(blob.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(11));
+      assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key", "value"));
+      assertEquals(read(blob), "hello world");
+   }
+
+   public void testServesRangesFromCachedFile() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+      read(cache.getBlob(CONTAINER, "blob"));
+
+      Blob range = cache.getBlob(CONTAINER, "blob", GetOptions.Builder.range(6, 9));
+      assertEquals(range.getAllHeaders().get(HttpHeaders.CONTENT_RANGE).iterator().next(), "bytes 6-9/11");
+      assertEquals(range.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(4));
+      assertEquals(read(range), "worl");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", new GetOptions().tail(3))), "rld");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", new GetOptions().startAt(4))), "o world");
+
+      assertEquals(counting.downloads.get(), 1);
+   }
+
+   public void testReadsRangesOfUncachedBlobsDirectly() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", GetOptions.Builder.range(6, 9))), "worl");
+      assertEquals(cachedFiles(), 0);
+      assertEquals(counting.downloads.get(), 1);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(cachedFiles(), 1);
+      assertEquals(counting.downloads.get(), 2);
+   }
+
+   public void testDownloadsChangedBlob() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+
+      put("blob", "goodbye world");
+
+      // the conditional read returns the new content
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "goodbye world");
+      assertEquals(counting.downloads.get(), 1);
+      assertEquals(counting.validations.get(), 1);
+      assertEquals(cachedFiles(), 1);
+   }
+
+   public void testReturnsNullForRemovedBlob() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+      read(cache.getBlob(CONTAINER, "blob"));
+
+      blobStore.removeBlob(CONTAINER, "blob");
+
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(cachedFiles(), 0);
+   }
+
+   public void testEvictsLeastRecentlyUsed() throws Exception {
+      String content = new String(new char[100]).replace('\0', 'x');
+      put("a", content);
+      put("b", content);
+      put("c", content);
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 250);
+
+      read(cache.getBlob(CONTAINER, "a"));
+      read(cache.getBlob(CONTAINER, "b"));
+      read(cache.getBlob(CONTAINER, "a"));
+      read(cache.getBlob(CONTAINER, "c"));
+      assertEquals(counting.downloads.get(), 3);
+      assertEquals(cachedFiles(), 2);
+
+      read(cache.getBlob(CONTAINER, "a"));
+      assertEquals(counting.downloads.get(), 3);
+      read(cache.getBlob(CONTAINER, "b"));
+      assertEquals(counting.downloads.get(), 4);
+   }
+
+   public void testReadsDirectlyBlobsLargerThanBudget() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 5);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", GetOptions.Builder.range(0, 4))), "hello");
+      assertEquals(cachedFiles(), 0);
+   }
+
+   public void testDownloadsBlobsLargerThanBudgetOnce() throws Exception {
+      put("blob", "hello world");
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 5);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(cachedFiles(), 0);
+      assertEquals(counting.downloads.get(), 1);
+   }
+
+   public void testReusesEntriesFromPreviousRun() throws Exception {
+      put("blob", "hello world");
+      read(CachingBlobStore.newCachingBlobStore(counting, directory, 1024).getBlob(CONTAINER, "blob"));
+
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(counting, directory, 1024);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(counting.downloads.get(), 1);
+   }
+
+   public void testConcurrentReadersShareOneDownload() throws Exception {
+      put("blob", "hello world");
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final BlobStore cache = CachingBlobStore.newCachingBlobStore(new CountingBlobStore(counting) {
+         @Override
+         public Blob getBlob(String container, String name) {
+            started.countDown();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+               throw new AssertionError(e);
+            }
+            return super.getBlob(container, name);
+         }
+      }, directory, 1024);
+      Callable<String> reader = new Callable<String>() {
+         @Override
+         public String call() throws IOException {
+            return read(cache.getBlob(CONTAINER, "blob"));
+         }
+      };
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<String>> reads = Lists.newArrayList();
+         reads.add(executor.submit(reader));
+         assertTrue(started.await(10, TimeUnit.SECONDS));
+         for (int i = 0; i < 3; i++) {
+            reads.add(executor.submit(reader));
+         }
+         Thread.sleep(200);
+         release.countDown();
+         for (Future<String> read : reads) {
+            assertEquals(read.get(10, TimeUnit.SECONDS), "hello world");
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(counting.downloads.get(), 1);
+   }
+
+   private void put(String name, String content) {
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload(content).build());
+   }
+
+   private int cachedFiles() {
+      int count = 0;
+      for (File file : directory.listFiles()) {
+         if (file.getName().endsWith(".blob")) {
+            count++;
+         }
+      }
+      return count;
+   }
+
+   private static String read(Blob blob) throws IOException {
+      InputStream is = blob.getPayload().openStream();
+      try {
+         return new String(ByteStreams.toByteArray(is), Charsets.UTF_8);
+      } finally {
+         is.close();
+      }
+   }
+
+   private static class CountingBlobStore extends ForwardingBlobStore {
+      final AtomicInteger downloads = new AtomicInteger();
+      final AtomicInteger validations = new AtomicInteger();
+
+      CountingBlobStore(BlobStore blobStore) {
+         super(blobStore);
+      }
+
+      @Override
+      public Blob getBlob(String container, String name) {
+         downloads.incrementAndGet();
+         return super.getBlob(container, name);
+      }
+
+      @Override
+      public Blob getBlob(String container, String name, GetOptions options) {
+         if (options.getIfNoneMatch() != null) {
+            validations.incrementAndGet();
+         } else {
+            downloads.incrementAndGet();
+         }
+         return super.getBlob(container, name, options);
+      }
+   }
+}
@@ -76,8 +76,12 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
             ComputeServiceConstants.InitStatusProperties properties, @Assisted SudoAwareInitManager commandRunner) {
       this(userExecutor, eventBus, Predicates.<String> alwaysTrue(), commandRunner);
       // this is mutable only until we can determine how to decouple "this" from here
-      notRunningAnymore = loopUntilTrueOrThrowCancellationException(new ExitStatusOfCommandGreaterThanZero(
-               commandRunner), properties.initStatusMaxPeriod, properties.initStatusInitialPeriod, this);
+      Predicate<String> exitStatusGreaterThanZero = properties.initStatusWaitOnNode > 0
+               ? new ExitStatusAfterWaitingOnNodeGreaterThanZero(commandRunner, Ints.saturatedCast(
+                        MILLISECONDS.toSeconds(properties.initStatusWaitOnNode)))
+               : new ExitStatusOfCommandGreaterThanZero(commandRunner);
+      notRunningAnymore = loopUntilTrueOrThrowCancellationException(exitStatusGreaterThanZero,
+               properties.initStatusMaxPeriod, properties.initStatusInitialPeriod, this);
    }
 
    @VisibleForTesting
@@ -104,6 +108,26 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
 
    }
 
+   /**
+    * Waits on the node for the script to exit, rather than asking once per poll.
+    */
+   @VisibleForTesting
+   static class ExitStatusAfterWaitingOnNodeGreaterThanZero implements Predicate<String> {
+      private final SudoAwareInitManager commandRunner;
+      private final int seconds;
+
+      ExitStatusAfterWaitingOnNodeGreaterThanZero(SudoAwareInitManager commandRunner, int seconds) {
+         this.commandRunner = commandRunner;
+         this.seconds = Math.max(seconds, 1);
+      }
+
+      @Override
+      public boolean apply(String input) {
+         return commandRunner.awaitStatus(seconds).getExitStatus() > 0;
+      }
+
+   }
+
    /**
     * make sure we stop the retry loop if someone cancelled the future, this keeps threads from
     * being consumed on dead tasks
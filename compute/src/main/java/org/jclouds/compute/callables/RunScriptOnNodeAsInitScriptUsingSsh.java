@@ -18,6 +18,11 @@ package org.jclouds.compute.callables;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_SCRIPT_SINGLE_EXEC;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Named;
 
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
@@ -37,17 +42,32 @@ import org.jclouds.scriptbuilder.statements.login.AdminAccess;
 import org.jclouds.ssh.SshClient;
 import org.jclouds.ssh.SshException;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
 import com.google.common.eventbus.EventBus;
+import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 
 public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager implements RunScriptOnNode {
 
+   /**
+    * Scripts bigger than this many UTF-8 bytes are uploaded with sftp, as linux limits a single
+    * argument, such as the command of an exec, to 128KB.
+    */
+   static final int MAX_SINGLE_EXEC_SCRIPT = 64 * 1024;
+
    protected final EventBus eventBus;
 
+   @Inject(optional = true)
+   @Named(INIT_SCRIPT_SINGLE_EXEC)
+   @VisibleForTesting
+   boolean singleExec;
+
    @AssistedInject
    public RunScriptOnNodeAsInitScriptUsingSsh(Function<NodeMetadata, SshClient> sshFactory, EventBus eventBus,
             InitScriptConfigurationForTasks initScriptConfiguration, @Assisted NodeMetadata node,
@@ -100,6 +120,11 @@ public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager im
    protected ExecResponse doCall() {
       eventBus.post(new InitScriptOnNodeSubmission(init, node));
       try {
+         if (singleExec) {
+            String script = init.render(OsFamily.UNIX);
+            if (script.getBytes(Charsets.UTF_8).length <= MAX_SINGLE_EXEC_SCRIPT && !switchesToNewAdminCredentials())
+               return setupAndStartInOneExec(script);
+         }
          try {
             ssh.put(initFile, init.render(OsFamily.UNIX));
          } catch (SshException e) {
@@ -135,6 +160,46 @@ public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager im
       }
    }
 
+   /**
+    * Writes the script with a here document in the same exec that links, initializes and starts
+    * it, instead of an sftp upload and four further execs. The command is not logged, as the script
+    * can hold password hashes and keys.
+    */
+   protected ExecResponse setupAndStartInOneExec(String script) {
+      String start = runAsRoot ? execScriptAsRoot("start") : execScriptAsDefaultUser("start");
+      logger.debug(">> setting up and starting %s (%d bytes) as %s@%s", init.getInstanceName(),
+            script.getBytes(Charsets.UTF_8).length, ssh.getUsername(), ssh.getHostAddress());
+      ExecResponse returnVal = ssh.exec(Joiner.on('\n').join(
+            "set -e",
+            "rm -f " + initFile,
+            Statements.appendFile(initFile, Splitter.on('\n').split(script),
+                  AppendFile.DELIMITER + "_" + init.getInstanceName()).render(OsFamily.UNIX).trim(),
+            "chmod 755 " + initFile,
+            String.format("ln -fs %s %s", initFile, init.getInstanceName()),
+            execScriptAsDefaultUser("init"),
+            start));
+      computeLogger.debug("<< start(%d)", returnVal.getExitStatus());
+      return returnVal;
+   }
+
+   /**
+    * Whether the script grants sudo to new admin credentials, which the usual path reconnects with
+    * between {@code init} and {@code start}.
+    */
+   private boolean switchesToNewAdminCredentials() {
+      final AtomicBoolean switches = new AtomicBoolean();
+      init.getInitStatement().accept(new AdminAccessVisitor() {
+
+         @Override
+         public void visit(AdminAccess input) {
+            if (input.getAdminCredentials() != null && input.shouldGrantSudoToAdminUser())
+               switches.set(true);
+         }
+
+      });
+      return switches.get();
+   }
+
    protected void setupLinkToInitFile() {
       ssh.exec(String.format("ln -fs %s %s", initFile, init.getInstanceName()));
    }
@@ -95,6 +95,19 @@ public class SudoAwareInitManager {
       return returnVal;
    }
 
+   /**
+    * Checks the status of the script once a second on the node until it is no longer running, or
+    * {@code seconds} have passed, so that one exec replaces several status polls.
+    * 
+    * @return the response of the last status check
+    */
+   public ExecResponse awaitStatus(int seconds) {
+      String status = execScriptAsDefaultUser("status");
+      return runCommand(String.format(
+            "i=0; while [ $i -lt %d ] && %s >/dev/null 2>&1; do sleep 1; i=$((i+1)); done; %s", seconds, status,
+            status));
+   }
+
    ExecResponse runCommand(String command) {
       String statement = String.format("[%s] as %s@%s", command.replace(
             node.getCredentials().getOptionalPassword().isPresent() ? node.getCredentials().getOptionalPassword().get() : "XXXXX", "XXXXX"), ssh
@@ -30,6 +30,21 @@ public final class ComputeServiceProperties {
    public static final String INIT_STATUS_INITIAL_PERIOD = "jclouds.compute.init-status.initial-period";
    public static final String INIT_STATUS_MAX_PERIOD = "jclouds.compute.init-status.max-period";
 
+   /**
+    * time in milliseconds each init script status check may wait on the node for the script to
+    * exit, checking once a second, so that one exec replaces several polls. Keep it below the ssh
+    * session timeout. Defaults to 0, which checks the status once per poll.
+    */
+   public static final String INIT_STATUS_WAIT_ON_NODE = "jclouds.compute.init-status.wait-on-node";
+
+   /**
+    * when true, init scripts are written, linked, initialized and started with a single exec that
+    * carries the script as a here document, rather than an sftp upload followed by four execs.
+    * Scripts too big for a command line, or that switch to new admin credentials, still take the
+    * usual path. Defaults to false.
+    */
+   public static final String INIT_SCRIPT_SINGLE_EXEC = "jclouds.compute.init-script.single-exec";
+
    /**
     * Initial period between the ComputeService's node polls. Subsequent periods increase exponentially
     * (based on the backoff factor) and become constant when the maximum period is reached.
@@ -118,6 +133,13 @@ public final class ComputeServiceProperties {
     */
    public static final String SOCKET_FINDER_ALLOWED_INTERFACES = "jclouds.compute.socket-finder-allowed-interfaces";
 
+   /**
+    * time in milliseconds to keep an ssh connection to a node open after it was last used, so that
+    * init script status checks and further scripts on the node reuse it. Defaults to 0, which
+    * closes the connection after each use.
+    */
+   public static final String SSH_SESSION_IDLE_TIME = "jclouds.compute.ssh-session.idle-time";
+
    private ComputeServiceProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
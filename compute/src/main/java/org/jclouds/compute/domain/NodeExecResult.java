@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+
+/**
+ * Outcome of running a script on a single node.
+ */
+@Beta
+public final class NodeExecResult {
+   private final NodeMetadata node;
+   private final Optional<ExecResponse> response;
+   private final Optional<Throwable> error;
+
+   public NodeExecResult(NodeMetadata node, @Nullable ExecResponse response, @Nullable Throwable error) {
+      this.node = checkNotNull(node, "node");
+      this.response = Optional.fromNullable(response);
+      this.error = Optional.fromNullable(error);
+   }
+
+   public NodeMetadata getNode() {
+      return node;
+   }
+
+   /**
+    * @return the response of the script, absent if it failed
+    */
+   public Optional<ExecResponse> getResponse() {
+      return response;
+   }
+
+   /**
+    * @return why the script failed on the node
+    */
+   public Optional<Throwable> getError() {
+      return error;
+   }
+
+   public boolean isSuccess() {
+      return !error.isPresent();
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper("").omitNullValues().add("node", node.getId())
+            .add("response", response.orNull()).add("error", error.orNull()).toString();
+   }
+}
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Iterables.getFirst;
+import static org.jclouds.compute.config.ComputeServiceProperties.SSH_SESSION_IDLE_TIME;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.ExecChannel;
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.io.Payload;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+import org.jclouds.ssh.SshClient;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * Keeps ssh connections to nodes open between uses, so that polling the status of an init script,
+ * or running several scripts on the same node, does not pay for a new handshake every time.
+ * <p/>
+ * Connections are keyed by node, login port and credentials. A connection is only used by one
+ * caller at a time: {@link SshClient#connect} leases an idle connection for the key, or opens a new
+ * one, and {@link SshClient#disconnect} returns it to the pool instead of closing it. Connections
+ * idle for longer than {@link org.jclouds.compute.config.ComputeServiceProperties#SSH_SESSION_IDLE_TIME}
+ * are closed the next time the pool is used, and the rest when the context is closed.
+ * <p/>
+ * Pooling is off unless the idle time is set, in which case every client comes straight from
+ * {@link CreateSshClientOncePortIsListeningOnNode}.
+ */
+@Singleton
+public class ReuseSshClientForNode implements Function<NodeMetadata, SshClient>, Closeable {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(SSH_SESSION_IDLE_TIME)
+   @VisibleForTesting
+   long idleTime = 0;
+
+   private final CreateSshClientOncePortIsListeningOnNode createSshClient;
+   private final Ticker ticker;
+   // guarded by itself
+   private final Map<Key, Deque<Idle>> idle = Maps.newHashMap();
+   private boolean closed;
+
+   @Inject
+   ReuseSshClientForNode(CreateSshClientOncePortIsListeningOnNode createSshClient, Closer closer) {
+      this(createSshClient, closer, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   ReuseSshClientForNode(CreateSshClientOncePortIsListeningOnNode createSshClient, Closer closer, Ticker ticker) {
+      this.createSshClient = checkNotNull(createSshClient, "createSshClient");
+      this.ticker = checkNotNull(ticker, "ticker");
+      closer.addToClose(this);
+   }
+
+   @Override
+   public SshClient apply(NodeMetadata node) {
+      if (idleTime <= 0)
+         return createSshClient.apply(node);
+      return new PooledSshClient(node);
+   }
+
+   /**
+    * Disconnects every idle connection.
+    */
+   @Override
+   public void close() {
+      List<SshClient> toClose = Lists.newArrayList();
+      synchronized (idle) {
+         closed = true;
+         for (Deque<Idle> connections : idle.values())
+            for (Idle connection : connections)
+               toClose.add(connection.client);
+         idle.clear();
+      }
+      disconnectQuietly(toClose);
+   }
+
+   private SshClient lease(Key key, NodeMetadata node) {
+      List<SshClient> expired = Lists.newArrayList();
+      SshClient client = null;
+      synchronized (idle) {
+         removeExpired(expired);
+         Deque<Idle> connections = idle.get(key);
+         if (connections != null) {
+            // the most recently used connection is the least likely to have been dropped
+            client = connections.removeLast().client;
+            if (connections.isEmpty())
+               idle.remove(key);
+         }
+      }
+      disconnectQuietly(expired);
+      if (client == null) {
+         logger.debug(">> opening pooled ssh connection to %s", node.getId());
+         client = createSshClient.apply(node);
+      }
+      return client;
+   }
+
+   private void release(Key key, SshClient client) {
+      List<SshClient> toClose = Lists.newArrayList();
+      synchronized (idle) {
+         removeExpired(toClose);
+         if (closed || !client.isConnected()) {
+            toClose.add(client);
+         } else {
+            Deque<Idle> connections = idle.get(key);
+            if (connections == null)
+               idle.put(key, connections = new ArrayDeque<Idle>());
+            connections.addLast(new Idle(client, ticker.read()));
+         }
+      }
+      disconnectQuietly(toClose);
+   }
+
+   private void removeExpired(List<SshClient> expired) {
+      long now = ticker.read();
+      long idleNanos = idleTime * 1000000L;
+      for (Iterator<Deque<Idle>> byKey = idle.values().iterator(); byKey.hasNext();) {
+         Deque<Idle> connections = byKey.next();
+         // oldest first, as connections are returned to the end of the queue
+         while (!connections.isEmpty() && now - connections.peekFirst().since >= idleNanos)
+            expired.add(connections.removeFirst().client);
+         if (connections.isEmpty())
+            byKey.remove();
+      }
+   }
+
+   private void disconnectQuietly(List<SshClient> clients) {
+      for (SshClient client : clients) {
+         try {
+            client.disconnect();
+         } catch (RuntimeException e) {
+            logger.debug("<< error closing pooled ssh connection %s: %s", client, e.getMessage());
+         }
+      }
+   }
+
+   @VisibleForTesting
+   int idleConnections() {
+      int count = 0;
+      synchronized (idle) {
+         for (Deque<Idle> connections : idle.values())
+            count += connections.size();
+      }
+      return count;
+   }
+
+   private static final class Idle {
+      private final SshClient client;
+      private final long since;
+
+      private Idle(SshClient client, long since) {
+         this.client = client;
+         this.since = since;
+      }
+   }
+
+   private static final class Key {
+      private final String nodeId;
+      private final int port;
+      private final LoginCredentials credentials;
+
+      private Key(NodeMetadata node) {
+         this.nodeId = checkNotNull(node.getId(), "node id");
+         this.port = node.getLoginPort();
+         this.credentials = checkNotNull(node.getCredentials(), "no credentials found for node %s", nodeId);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(nodeId, port, credentials.identity, credentials.getOptionalPassword(),
+               credentials.getOptionalPrivateKey());
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof Key))
+            return false;
+         Key that = Key.class.cast(obj);
+         return nodeId.equals(that.nodeId) && port == that.port
+               && Objects.equal(credentials.identity, that.credentials.identity)
+               && credentials.getOptionalPassword().equals(that.credentials.getOptionalPassword())
+               && credentials.getOptionalPrivateKey().equals(that.credentials.getOptionalPrivateKey());
+      }
+   }
+
+   /**
+    * Leases a connection from the pool on {@link #connect} and gives it back on
+    * {@link #disconnect}. It can be connected again after it was disconnected.
+    * Nothing is opened until the first {@link #connect}, as with the clients of
+    * {@link CreateSshClientOncePortIsListeningOnNode}.
+    */
+   private final class PooledSshClient implements SshClient {
+      private final Key key;
+      private final NodeMetadata node;
+      private SshClient leased;
+      private SshClient last;
+
+      private PooledSshClient(NodeMetadata node) {
+         this.key = new Key(node);
+         this.node = node;
+      }
+
+      @Override
+      public synchronized void connect() {
+         if (leased == null)
+            last = leased = lease(key, node);
+         if (!leased.isConnected())
+            leased.connect();
+      }
+
+      @Override
+      public synchronized void disconnect() {
+         if (leased != null) {
+            release(key, leased);
+            leased = null;
+         }
+      }
+
+      @Override
+      public synchronized boolean isConnected() {
+         return leased != null && leased.isConnected();
+      }
+
+      private synchronized SshClient leased() {
+         checkState(leased != null, "(%s) ssh not connected!", this);
+         return leased;
+      }
+
+      @Override
+      public ExecResponse exec(String command) {
+         return leased().exec(command);
+      }
+
+      @Override
+      public ExecChannel execChannel(String command) {
+         return leased().execChannel(command);
+      }
+
+      @Override
+      public void put(String path, Payload contents) {
+         leased().put(path, contents);
+      }
+
+      @Override
+      public void put(String path, String contents) {
+         leased().put(path, contents);
+      }
+
+      @Override
+      public Payload get(String path) {
+         return leased().get(path);
+      }
+
+      @Override
+      public synchronized String getUsername() {
+         return last != null ? last.getUsername() : key.credentials.identity;
+      }
+
+      @Override
+      public synchronized String getHostAddress() {
+         // before the first connect the socket is not known yet, so the address it will most likely be found on
+         return last != null ? last.getHostAddress() : getFirst(concat(node.getPublicAddresses(),
+               node.getPrivateAddresses()), null);
+      }
+
+      @Override
+      public synchronized String toString() {
+         return last != null ? last.toString() : String.format("%s@%s", getUsername(), getHostAddress());
+      }
+   }
+}
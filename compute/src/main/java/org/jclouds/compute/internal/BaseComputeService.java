@@ -32,6 +32,7 @@ import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
 import static org.jclouds.concurrent.FutureIterables.awaitCompletion;
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -57,6 +58,7 @@ import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.NodeExecResult;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadata.Status;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
@@ -80,6 +82,7 @@ import org.jclouds.compute.strategy.ResumeNodeStrategy;
 import org.jclouds.compute.strategy.RunScriptOnNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.SuspendNodeStrategy;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
+import org.jclouds.concurrent.LocationFanOut;
 import org.jclouds.domain.Credentials;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LoginCredentials;
@@ -91,6 +94,7 @@ import org.jclouds.scriptbuilder.domain.Statements;
 import org.jclouds.scriptbuilder.functions.InitAdminAccess;
 import org.jclouds.util.Maps2;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
@@ -98,6 +102,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.Atomics;
@@ -136,6 +141,7 @@ public class BaseComputeService implements ComputeService {
    private final PersistNodeCredentials persistNodeCredentials;
    private final RunScriptOnNode.Factory runScriptOnNodeFactory;
    private final ListeningExecutorService userExecutor;
+   private final LocationFanOut fanOut;
    private final Optional<ImageExtension> imageExtension;
    private final Optional<SecurityGroupExtension> securityGroupExtension;
 
@@ -155,7 +161,8 @@ public class BaseComputeService implements ComputeService {
             InitializeRunScriptOnNodeOrPlaceInBadMap.Factory initScriptRunnerFactory, InitAdminAccess initAdminAccess,
             RunScriptOnNode.Factory runScriptOnNodeFactory, PersistNodeCredentials persistNodeCredentials,
             Timeouts timeouts, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            Optional<ImageExtension> imageExtension, Optional<SecurityGroupExtension> securityGroupExtension) {
+            LocationFanOut fanOut, Optional<ImageExtension> imageExtension,
+            Optional<SecurityGroupExtension> securityGroupExtension) {
       this.context = checkNotNull(context, "context");
       this.credentialStore = checkNotNull(credentialStore, "credentialStore");
       this.images = checkNotNull(images, "images");
@@ -180,6 +187,7 @@ public class BaseComputeService implements ComputeService {
       this.runScriptOnNodeFactory = checkNotNull(runScriptOnNodeFactory, "runScriptOnNodeFactory");
       this.persistNodeCredentials = checkNotNull(persistNodeCredentials, "persistNodeCredentials");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.fanOut = checkNotNull(fanOut, "fanOut");
       this.securityGroupExtension = checkNotNull(securityGroupExtension, "securityGroupExtension");
       if (imageExtension.isPresent() && images instanceof ImageCacheSupplier) {
          this.imageExtension = Optional.<ImageExtension> of(new DelegatingImageExtension(ImageCacheSupplier.class
@@ -593,6 +601,55 @@ public class BaseComputeService implements ComputeService {
       return goodNodes;
    }
 
+   /**
+    * Run the script on all nodes with the specific predicate, on at most {@code maxConcurrency}
+    * nodes at a time, returning each node's result as soon as it completes. Unlike
+    * {@link #runScriptOnNodesMatching(Predicate, Statement, RunScriptOptions)}, a failure on one
+    * node is reported in its result rather than thrown once all nodes are done.
+    *
+    * @param filter
+    *           Predicate-based filter to define on which nodes the script is to be executed
+    * @param runScript
+    *           statement containing the script to run
+    * @param options
+    *           nullable options to how to run the script, whether to override credentials
+    * @param maxConcurrency
+    *           maximum number of nodes the script runs on at any time
+    * @return one result per node, in completion order. {@code next()} blocks until the next node
+    *         completes.
+    * @throws NoSuchElementException
+    *            if no nodes matched the predicate specified
+    */
+   @Beta
+   public Iterator<NodeExecResult> runScriptOnNodesMatching(Predicate<? super NodeMetadata> filter,
+         final Statement runScript, final RunScriptOptions options, int maxConcurrency) {
+      checkNotNull(filter, "filter");
+      checkNotNull(runScript, "runScript");
+      checkNotNull(options, "options");
+
+      initAdminAccess.visit(runScript);
+      final Function<NodeMetadata, NodeMetadata> persistCredentials = persistNodeCredentials.ifAdminAccess(runScript);
+      Set<NodeMetadata> nodes = ImmutableSet.<NodeMetadata> copyOf(
+            nodesMatchingFilterAndNotTerminatedExceptionIfNotFound(filter));
+      Iterator<LocationFanOut.Result<NodeMetadata, ExecResponse>> results = fanOut.apply(nodes,
+            new Function<NodeMetadata, ExecResponse>() {
+               @Override
+               public ExecResponse apply(NodeMetadata node) {
+                  node = updateNodeWithCredentialsIfPresent(node, options);
+                  ExecResponse response = runScriptOnNodeFactory.create(node, runScript, options).init().call();
+                  persistCredentials.apply(node);
+                  return response;
+               }
+            }, maxConcurrency);
+      return Iterators.transform(results, new Function<LocationFanOut.Result<NodeMetadata, ExecResponse>,
+            NodeExecResult>() {
+         @Override
+         public NodeExecResult apply(LocationFanOut.Result<NodeMetadata, ExecResponse> result) {
+            return new NodeExecResult(result.getLocation(), result.getValue().orNull(), result.getError().orNull());
+         }
+      });
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -17,6 +17,7 @@
 package org.jclouds.compute.reference;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_MAX_PERIOD;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_WAIT_ON_NODE;
 import static org.jclouds.compute.config.ComputeServiceProperties.OS_VERSION_MAP_JSON;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_MAX_PERIOD;
@@ -68,6 +69,10 @@ public final class ComputeServiceConstants {
       @Inject(optional = true)
       @Named(INIT_STATUS_MAX_PERIOD)
       public long initStatusMaxPeriod = 5000;
+
+      @Inject(optional = true)
+      @Named(INIT_STATUS_WAIT_ON_NODE)
+      public long initStatusWaitOnNode = 0;
    }
 
    @Singleton
@@ -27,9 +27,13 @@ import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_R
 import static org.jclouds.compute.config.ComputeServiceProperties.SOCKET_FINDER_ALLOWED_INTERFACES;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.net.Proxy;
+import java.net.URI;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
@@ -37,7 +41,9 @@ import javax.inject.Named;
 
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
+import org.jclouds.predicates.InetSocketAddressConnect;
 import org.jclouds.predicates.SocketOpen;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -67,7 +73,26 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
    @Named(SOCKET_FINDER_ALLOWED_INTERFACES)
    private AllowedInterfaces allowedInterfaces = AllowedInterfaces.ALL;
 
+   @Nullable
+   private final SocketProber socketProber;
+   @Nullable
+   private final Function<URI, Proxy> proxyForURI;
+
    @Inject
+   ConcurrentOpenSocketFinder(SocketOpen socketTester,
+         @Named(TIMEOUT_NODE_RUNNING) Predicate<AtomicReference<NodeMetadata>> nodeRunning,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, SocketProber socketProber,
+         Function<URI, Proxy> proxyForURI) {
+      this.socketTester = checkNotNull(socketTester, "socketTester");
+      this.nodeRunning = checkNotNull(nodeRunning, "nodeRunning");
+      this.userExecutor = listeningDecorator(checkNotNull(userExecutor, "userExecutor"));
+      this.socketProber = checkNotNull(socketProber, "socketProber");
+      this.proxyForURI = checkNotNull(proxyForURI, "proxyForURI");
+   }
+
+   /**
+    * Always tests sockets with {@code socketTester}.
+    */
    @VisibleForTesting
    ConcurrentOpenSocketFinder(SocketOpen socketTester,
          @Named(TIMEOUT_NODE_RUNNING) Predicate<AtomicReference<NodeMetadata>> nodeRunning,
@@ -75,6 +100,8 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
       this.socketTester = checkNotNull(socketTester, "socketTester");
       this.nodeRunning = checkNotNull(nodeRunning, "nodeRunning");
       this.userExecutor = listeningDecorator(checkNotNull(userExecutor, "userExecutor"));
+      this.socketProber = null;
+      this.proxyForURI = null;
    }
 
    @Override
@@ -90,6 +117,9 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
       // Specify a retry period of 1s, expressed in the same time units.
       long period = timeUnits.convert(1, TimeUnit.SECONDS);
 
+      if (canProbeWithoutBlocking(sockets))
+         return probeWithoutBlocking(node, sockets, timeout, period, timeUnits);
+
       // For retrieving the socket found (if any)
       AtomicReference<HostAndPort> result = newReference();
 
@@ -109,6 +139,53 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
 
    }
 
+   /**
+    * The prober connects directly, so it is only used in place of the default socket tester, and
+    * when no proxy is configured for the sockets.
+    */
+   private boolean canProbeWithoutBlocking(Iterable<HostAndPort> sockets) {
+      if (socketProber == null || !(socketTester instanceof InetSocketAddressConnect))
+         return false;
+      for (HostAndPort socket : sockets) {
+         Proxy proxy = proxyForURI.apply(URI.create("socket://" + socket.getHostText() + ":" + socket.getPort()));
+         if (proxy != null && proxy.type() != Proxy.Type.DIRECT)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * Waits on the prober, which needs no thread per socket, checking every period that the node
+    * is still running.
+    */
+   private HostAndPort probeWithoutBlocking(NodeMetadata node, Set<HostAndPort> sockets, long timeout, long period,
+         TimeUnit timeUnits) {
+      ListenableFuture<HostAndPort> found = socketProber.probe(sockets, timeout, timeUnits);
+      try {
+         while (true) {
+            try {
+               HostAndPort socket = found.get(period, timeUnits);
+               logger.debug("<< socket %s opened", socket);
+               return socket;
+            } catch (TimeoutException e) {
+               throwISEIfNoLongerRunning(node).apply(sockets);
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof NoSuchElementException) {
+            logger.warn("<< sockets %s didn't open after %d %s", sockets, timeout, timeUnits);
+            throw new NoSuchElementException(format("could not connect to any ip address port %d on node %s",
+                  sockets.iterator().next().getPort(), node));
+         }
+         throw propagate(e.getCause());
+      } finally {
+         found.cancel(false);
+      }
+   }
+
    @VisibleForTesting
    protected <T> Predicate<T> retryPredicate(Predicate<T> findOrBreak, long timeout, long period, TimeUnit timeUnits) {
       return retry(findOrBreak, timeout, period, timeUnits);
@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Waits for ports to open with non-blocking connects, so that a single thread can watch the
+ * sockets of many nodes instead of parking a user thread on every connect.
+ * <p/>
+ * Each socket of a probe is tried in turn with {@code org.jclouds.socket_timeout} as the connect
+ * timeout, and retried after a delay that starts at {@link #INITIAL_RETRY_DELAY} and grows to
+ * {@link #MAX_RETRY_DELAY}. The probe completes with the first socket that accepts a connection.
+ * <p/>
+ * Host names are resolved before the probe is handed to the prober thread, and again on the user
+ * executor when they did not resolve, so that a slow lookup never holds up the other probes.
+ * <p/>
+ * The connects are direct, so this must not be used for sockets that need a proxy.
+ */
+@Beta
+@Singleton
+public class SocketProber implements Closeable {
+
+   @VisibleForTesting
+   static final long INITIAL_RETRY_DELAY = TimeUnit.MILLISECONDS.toNanos(500);
+   @VisibleForTesting
+   static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toNanos(5);
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   private Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named("org.jclouds.socket_timeout")
+   @VisibleForTesting
+   int connectTimeout = 2000;
+
+   private final ListeningExecutorService userExecutor;
+   private final Queue<Probe> submitted = new ConcurrentLinkedQueue<Probe>();
+   // attempts whose host name was looked up again on the user executor
+   private final Queue<Attempt> resolved = new ConcurrentLinkedQueue<Attempt>();
+   private Selector selector;
+   private boolean closed;
+
+   @Inject
+   SocketProber(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, Closer closer) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      closer.addToClose(this);
+   }
+
+   /**
+    * Connects to each socket until one accepts the connection.
+    * 
+    * @return the first socket that accepted a connection. The future fails with
+    *         {@link NoSuchElementException} if none did within the timeout, and can be cancelled to
+    *         stop probing.
+    */
+   public ListenableFuture<HostAndPort> probe(Iterable<HostAndPort> sockets, long timeout, TimeUnit unit) {
+      List<HostAndPort> toProbe = ImmutableList.copyOf(checkNotNull(sockets, "sockets"));
+      checkArgument(!toProbe.isEmpty(), "no sockets to probe");
+      // resolved here, as a lookup on the prober thread would hold up every other probe
+      ImmutableList.Builder<InetSocketAddress> addresses = ImmutableList.builder();
+      for (HostAndPort socket : toProbe)
+         addresses.add(new InetSocketAddress(socket.getHostText(), socket.getPort()));
+      Probe probe = new Probe(toProbe, addresses.build(), System.nanoTime() + unit.toNanos(timeout), timeout, unit);
+      submitted.add(probe);
+      Selector selector = selector();
+      if (selector == null)
+         probe.future.setException(new IllegalStateException("socket prober is closed"));
+      else
+         selector.wakeup();
+      return probe.future;
+   }
+
+   @Override
+   public void close() {
+      Selector toWake;
+      synchronized (this) {
+         closed = true;
+         toWake = selector;
+      }
+      if (toWake != null)
+         toWake.wakeup();
+   }
+
+   private synchronized Selector selector() {
+      if (closed)
+         return null;
+      if (selector == null) {
+         try {
+            selector = Selector.open();
+         } catch (IOException e) {
+            throw new IllegalStateException("could not open a selector to probe sockets", e);
+         }
+         Thread thread = new Thread(new Loop(selector), "jclouds socket prober");
+         thread.setDaemon(true);
+         thread.start();
+      }
+      return selector;
+   }
+
+   private synchronized boolean isClosed() {
+      return closed;
+   }
+
+   private static final class Probe {
+      private final List<HostAndPort> sockets;
+      private final List<InetSocketAddress> addresses;
+      private final long deadline;
+      private final long timeout;
+      private final TimeUnit unit;
+      private final SettableFuture<HostAndPort> future = SettableFuture.create();
+      private final List<Attempt> connecting = Lists.newArrayList();
+
+      private Probe(List<HostAndPort> sockets, List<InetSocketAddress> addresses, long deadline, long timeout,
+            TimeUnit unit) {
+         this.sockets = sockets;
+         this.addresses = addresses;
+         this.deadline = deadline;
+         this.timeout = timeout;
+         this.unit = unit;
+      }
+   }
+
+   /**
+    * One socket of a probe, either waiting for its next connect or connecting.
+    */
+   private static final class Attempt implements Comparable<Attempt> {
+      private final Probe probe;
+      private final HostAndPort socket;
+      private InetSocketAddress address;
+      private long delay = INITIAL_RETRY_DELAY;
+      private long next;
+      private SocketChannel channel;
+      private long connectDeadline;
+
+      private Attempt(Probe probe, HostAndPort socket, InetSocketAddress address, long next) {
+         this.probe = probe;
+         this.socket = socket;
+         this.address = address;
+         this.next = next;
+      }
+
+      @Override
+      public int compareTo(Attempt that) {
+         return Long.signum(next - that.next);
+      }
+   }
+
+   /**
+    * Runs on the prober thread, which is the only one to touch attempts and channels.
+    */
+   private final class Loop implements Runnable {
+      private final Selector selector;
+      private final List<Probe> probes = Lists.newArrayList();
+      private final PriorityQueue<Attempt> waiting = new PriorityQueue<Attempt>();
+
+      private Loop(Selector selector) {
+         this.selector = selector;
+      }
+
+      @Override
+      public void run() {
+         try {
+            while (!isClosed()) {
+               long now = System.nanoTime();
+               acceptSubmitted(now);
+               startDueAttempts(now);
+               long wait = expire(now);
+               if (wait > 0)
+                  selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+               else
+                  selector.selectNow();
+               for (Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext();) {
+                  SelectionKey key = keys.next();
+                  keys.remove();
+                  // the channel is closed when another socket of the same probe opened first
+                  if (key.isValid())
+                     finishConnect((Attempt) key.attachment());
+               }
+            }
+         } catch (IOException e) {
+            logger.error(e, "<< socket prober stopped");
+         } catch (RuntimeException e) {
+            logger.error(e, "<< socket prober stopped");
+         } finally {
+            // so that the next probe starts a new loop, unless the prober was closed
+            synchronized (SocketProber.this) {
+               if (SocketProber.this.selector == selector)
+                  SocketProber.this.selector = null;
+            }
+            for (Probe probe : probes)
+               fail(probe, new IllegalStateException("socket prober is closed"));
+            for (Probe probe = submitted.poll(); probe != null; probe = submitted.poll())
+               probe.future.setException(new IllegalStateException("socket prober is closed"));
+            try {
+               selector.close();
+            } catch (IOException ignored) {
+               // no work to do
+            }
+         }
+      }
+
+      private void acceptSubmitted(long now) {
+         for (Probe probe = submitted.poll(); probe != null; probe = submitted.poll()) {
+            logger.debug(">> probing sockets %s for %d %s", probe.sockets, probe.timeout, probe.unit);
+            probes.add(probe);
+            for (int i = 0; i < probe.sockets.size(); i++)
+               waiting.add(new Attempt(probe, probe.sockets.get(i), probe.addresses.get(i), now));
+         }
+         for (Attempt attempt = resolved.poll(); attempt != null; attempt = resolved.poll()) {
+            if (attempt.address.isUnresolved())
+               retry(attempt, now);
+            else
+               waiting.add(attempt);
+         }
+      }
+
+      /**
+       * Looks the host name up again on the user executor, and hands the attempt back to the
+       * prober thread once it is done.
+       */
+      private void resolveLater(final Attempt attempt, long now) {
+         try {
+            userExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  attempt.address = new InetSocketAddress(attempt.socket.getHostText(), attempt.socket.getPort());
+                  resolved.add(attempt);
+                  selector.wakeup();
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            retry(attempt, now);
+         }
+      }
+
+      private void startDueAttempts(long now) {
+         while (!waiting.isEmpty() && waiting.peek().next - now <= 0) {
+            Attempt attempt = waiting.poll();
+            if (attempt.probe.future.isDone())
+               continue;
+            if (attempt.address.isUnresolved()) {
+               resolveLater(attempt, now);
+               continue;
+            }
+            try {
+               attempt.channel = SocketChannel.open();
+               attempt.channel.configureBlocking(false);
+               if (attempt.channel.connect(attempt.address)) {
+                  succeed(attempt);
+               } else {
+                  attempt.connectDeadline = now + TimeUnit.MILLISECONDS.toNanos(connectTimeout);
+                  attempt.channel.register(selector, SelectionKey.OP_CONNECT, attempt);
+                  attempt.probe.connecting.add(attempt);
+               }
+            } catch (IOException e) {
+               retry(attempt, now);
+            } catch (RuntimeException e) {
+               // such as an unsupported address
+               retry(attempt, now);
+            }
+         }
+      }
+
+      private void finishConnect(Attempt attempt) {
+         attempt.probe.connecting.remove(attempt);
+         try {
+            if (attempt.channel.finishConnect())
+               succeed(attempt);
+         } catch (IOException e) {
+            retry(attempt, System.nanoTime());
+         }
+      }
+
+      private void succeed(Attempt attempt) {
+         closeQuietly(attempt);
+         logger.debug("<< socket %s opened", attempt.socket);
+         attempt.probe.future.set(attempt.socket);
+         cancelConnecting(attempt.probe);
+         probes.remove(attempt.probe);
+      }
+
+      private void retry(Attempt attempt, long now) {
+         closeQuietly(attempt);
+         attempt.next = now + attempt.delay;
+         attempt.delay = Math.min(attempt.delay * 3 / 2, MAX_RETRY_DELAY);
+         waiting.add(attempt);
+      }
+
+      /**
+       * Times out connects and probes, and drops probes that completed or were cancelled.
+       * 
+       * @return nanoseconds until something is next due, or 0 if something is due now
+       */
+      private long expire(long now) {
+         long wait = waiting.isEmpty() ? Long.MAX_VALUE : waiting.peek().next - now;
+         for (Iterator<Probe> iterator = probes.iterator(); iterator.hasNext();) {
+            Probe probe = iterator.next();
+            if (probe.future.isDone()) {
+               cancelConnecting(probe);
+               iterator.remove();
+               continue;
+            }
+            if (probe.deadline - now <= 0) {
+               fail(probe, new NoSuchElementException(format("sockets %s didn't open after %d %s", probe.sockets,
+                     probe.timeout, probe.unit)));
+               iterator.remove();
+               continue;
+            }
+            wait = Math.min(wait, probe.deadline - now);
+            for (Iterator<Attempt> attempts = probe.connecting.iterator(); attempts.hasNext();) {
+               Attempt attempt = attempts.next();
+               if (attempt.connectDeadline - now <= 0) {
+                  attempts.remove();
+                  retry(attempt, now);
+                  wait = Math.min(wait, attempt.next - now);
+               } else {
+                  wait = Math.min(wait, attempt.connectDeadline - now);
+               }
+            }
+         }
+         return Math.max(wait, 0);
+      }
+
+      private void fail(Probe probe, Exception e) {
+         cancelConnecting(probe);
+         probe.future.setException(e);
+      }
+
+      private void cancelConnecting(Probe probe) {
+         for (Attempt attempt : probe.connecting)
+            closeQuietly(attempt);
+         probe.connecting.clear();
+      }
+
+      private void closeQuietly(Attempt attempt) {
+         if (attempt.channel != null) {
+            try {
+               attempt.channel.close();
+            } catch (IOException ignored) {
+               // no work to do
+            }
+            attempt.channel = null;
+         }
+      }
+   }
+}
@@ -27,10 +27,12 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.jclouds.compute.callables.BlockUntilInitScriptStatusIsZeroThenReturnOutput.ExitStatusAfterWaitingOnNodeGreaterThanZero;
 import org.jclouds.compute.callables.BlockUntilInitScriptStatusIsZeroThenReturnOutput.ExitStatusOfCommandGreaterThanZero;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.reference.ComputeServiceConstants.InitStatusProperties;
 import org.jclouds.scriptbuilder.InitScript;
 import org.testng.annotations.Test;
 
@@ -129,8 +131,70 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutputTest {
 
    }
 
+   public void testExitStatusAfterWaitingOnNodeGreaterThanZeroTrueWhen1() {
+
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class)
+               .addMockedMethod("awaitStatus").createStrictMock();
+      expect(commandRunner.awaitStatus(30)).andReturn(new ExecResponse("", "", 1));
+      replay(commandRunner);
+
+      Predicate<String> pred = new ExitStatusAfterWaitingOnNodeGreaterThanZero(commandRunner, 30);
+      assertEquals(pred.apply("status"), true);
+
+      verify(commandRunner);
+
+   }
+
+   public void testExitStatusAfterWaitingOnNodeGreaterThanZeroFalseWhen0() {
+
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class)
+               .addMockedMethod("awaitStatus").createStrictMock();
+      // waits at least a second, even when configured for less
+      expect(commandRunner.awaitStatus(1)).andReturn(new ExecResponse("", "", 0));
+      replay(commandRunner);
+
+      Predicate<String> pred = new ExitStatusAfterWaitingOnNodeGreaterThanZero(commandRunner, 0);
+      assertEquals(pred.apply("status"), false);
+
+      verify(commandRunner);
+
+   }
+
    EventBus eventBus = new EventBus();
 
+   public void testWaitOnNodeChecksStatusWithAwaitStatus() throws InterruptedException, ExecutionException {
+      ListeningExecutorService userExecutor = MoreExecutors.newDirectExecutorService();
+      InitStatusProperties properties = new InitStatusProperties();
+      properties.initStatusInitialPeriod = 1;
+      properties.initStatusMaxPeriod = 1;
+      properties.initStatusWaitOnNode = 30000;
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class).addMockedMethod("runAction")
+               .addMockedMethod("awaitStatus").addMockedMethod("getStatement").addMockedMethod("getNode")
+               .addMockedMethod("toString").createStrictMock();
+      InitScript initScript = createMockBuilder(InitScript.class).addMockedMethod("getInstanceName").createStrictMock();
+
+      // still running when the wait on the node ends, then exited during the next one
+      expect(commandRunner.awaitStatus(30)).andReturn(new ExecResponse("", "", 0));
+      expect(commandRunner.awaitStatus(30)).andReturn(new ExecResponse("", "", 1));
+      expect(commandRunner.runAction("stdout")).andReturn(new ExecResponse("stdout", "", 0));
+      expect(commandRunner.runAction("stderr")).andReturn(new ExecResponse("stderr", "", 0));
+      expect(commandRunner.runAction("exitstatus")).andReturn(new ExecResponse("444\n", "", 0));
+
+      toStringAndEventBusExpectations(commandRunner, initScript);
+
+      replay(commandRunner, initScript);
+
+      BlockUntilInitScriptStatusIsZeroThenReturnOutput future = new BlockUntilInitScriptStatusIsZeroThenReturnOutput(
+               userExecutor, eventBus, properties, commandRunner);
+
+      future.run();
+
+      assertEquals(future.get(), new ExecResponse("stdout", "stderr", 444));
+
+      verify(commandRunner, initScript);
+
+   }
+
    public void testExitStatusZeroReturnsExecResponse() throws InterruptedException, ExecutionException {
       ListeningExecutorService userExecutor = MoreExecutors.newDirectExecutorService();
       Predicate<String> notRunningAnymore = Predicates.alwaysTrue();
@@ -20,8 +20,10 @@ import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.jclouds.compute.callables.RunScriptOnNodeAsInitScriptUsingSsh.MAX_SINGLE_EXEC_SCRIPT;
 import static org.jclouds.scriptbuilder.domain.Statements.exec;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
@@ -29,13 +31,18 @@ import org.jclouds.compute.domain.NodeMetadataBuilder;
 import org.jclouds.compute.domain.NodeMetadata.Status;
 import org.jclouds.compute.options.RunScriptOptions;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.BufferLogger;
 import org.jclouds.scriptbuilder.InitScript;
 import org.jclouds.scriptbuilder.domain.OsFamily;
 import org.jclouds.scriptbuilder.domain.Statement;
+import org.jclouds.scriptbuilder.domain.Statements;
 import org.jclouds.ssh.SshClient;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.EventBus;
 
@@ -181,4 +188,105 @@ public class RunScriptOnNodeAsInitScriptUsingSshTest {
       testMe.call();
       verify(sshClient);
    }
+
+   public void testSingleExec() {
+      Statement command = exec("doFoo");
+      NodeMetadata node = new NodeMetadataBuilder().ids("id").status(Status.RUNNING).credentials(
+            LoginCredentials.builder().user("tester").password("notalot").build()).build();
+
+      SshClient sshClient = createMock(SshClient.class);
+
+      InitScript init = InitScript.builder().name("jclouds-script-0").home("/tmp/jclouds-script-0").run(command)
+            .build();
+
+      sshClient.connect();
+      expect(sshClient.getUsername()).andReturn("tester").atLeastOnce();
+      expect(sshClient.getHostAddress()).andReturn("somewhere.example.com").atLeastOnce();
+
+      // the script is written by a here document in the same exec that sets it up and starts it
+      expect(sshClient.exec(Joiner.on('\n').join(
+            "set -e",
+            "rm -f /tmp/init-jclouds-script-0",
+            Statements.appendFile("/tmp/init-jclouds-script-0", Splitter.on('\n').split(init.render(OsFamily.UNIX)),
+                  "END_OF_JCLOUDS_FILE_jclouds-script-0").render(OsFamily.UNIX).trim(),
+            "chmod 755 /tmp/init-jclouds-script-0",
+            "ln -fs /tmp/init-jclouds-script-0 jclouds-script-0",
+            "/tmp/init-jclouds-script-0 init",
+            "sudo /tmp/init-jclouds-script-0 start"))).andReturn(new ExecResponse("", "", 0));
+
+      sshClient.disconnect();
+      replay(sshClient);
+
+      RunScriptOnNodeAsInitScriptUsingSsh testMe = new RunScriptOnNodeAsInitScriptUsingSsh(Functions
+               .forMap(ImmutableMap.of(node, sshClient)), eventBus, InitScriptConfigurationForTasks.create()
+               .appendIncrementingNumberToAnonymousTaskNames(), node, command, new RunScriptOptions());
+      testMe.singleExec = true;
+      BufferLogger logger = new BufferLogger("compute");
+      logger.setAllLevelsEnabled();
+      testMe.logger = logger;
+
+      testMe.init();
+      testMe.call();
+      verify(sshClient);
+      // the script can hold password hashes and keys
+      logger.assertLogContains("jclouds-script-0");
+      logger.assertLogDoesntContain("doFoo");
+   }
+
+   public void testSingleExecUploadsScriptOverTheLimitInUtf8Bytes() {
+      // fewer characters than the limit, but more bytes once encoded
+      Statement command = exec("echo " + Strings.repeat("\u00e9", MAX_SINGLE_EXEC_SCRIPT / 2 + 1));
+      NodeMetadata node = new NodeMetadataBuilder().ids("id").status(Status.RUNNING).credentials(
+            LoginCredentials.builder().user("tester").password("notalot").build()).build();
+
+      SshClient sshClient = createMock(SshClient.class);
+
+      InitScript init = InitScript.builder().name("jclouds-script-0").home("/tmp/jclouds-script-0").run(command)
+            .build();
+      assertTrue(init.render(OsFamily.UNIX).length() < MAX_SINGLE_EXEC_SCRIPT);
+
+      sshClient.connect();
+      sshClient.put("/tmp/init-jclouds-script-0", init.render(OsFamily.UNIX));
+      expect(sshClient.getUsername()).andReturn("tester").atLeastOnce();
+      expect(sshClient.getHostAddress()).andReturn("somewhere.example.com").atLeastOnce();
+      expect(sshClient.exec("chmod 755 /tmp/init-jclouds-script-0")).andReturn(new ExecResponse("", "", 0));
+      expect(sshClient.exec("ln -fs /tmp/init-jclouds-script-0 jclouds-script-0")).andReturn(new ExecResponse("", "", 0));
+      expect(sshClient.exec("/tmp/init-jclouds-script-0 init")).andReturn(new ExecResponse("", "", 0));
+      expect(sshClient.exec("sudo /tmp/init-jclouds-script-0 start")).andReturn(new ExecResponse("", "", 0));
+      sshClient.disconnect();
+      replay(sshClient);
+
+      RunScriptOnNodeAsInitScriptUsingSsh testMe = new RunScriptOnNodeAsInitScriptUsingSsh(Functions
+               .forMap(ImmutableMap.of(node, sshClient)), eventBus, InitScriptConfigurationForTasks.create()
+               .appendIncrementingNumberToAnonymousTaskNames(), node, command, new RunScriptOptions());
+      testMe.singleExec = true;
+
+      testMe.init();
+      testMe.call();
+      verify(sshClient);
+   }
+
+   public void testAwaitStatusWaitsOnTheNode() {
+      Statement command = exec("doFoo");
+      NodeMetadata node = new NodeMetadataBuilder().ids("id").status(Status.RUNNING).credentials(
+            LoginCredentials.builder().user("tester").password("notalot").build()).build();
+
+      SshClient sshClient = createMock(SshClient.class);
+      expect(sshClient.getUsername()).andReturn("tester").atLeastOnce();
+      expect(sshClient.getHostAddress()).andReturn("somewhere.example.com").atLeastOnce();
+
+      // checks once a second for at most 30 seconds, then reports the last status
+      expect(sshClient.exec("i=0; while [ $i -lt 30 ] && /tmp/init-jclouds-script-0 status >/dev/null 2>&1; "
+            + "do sleep 1; i=$((i+1)); done; /tmp/init-jclouds-script-0 status")).andReturn(
+            new ExecResponse("", "", 1));
+      replay(sshClient);
+
+      RunScriptOnNodeAsInitScriptUsingSsh testMe = new RunScriptOnNodeAsInitScriptUsingSsh(Functions
+               .forMap(ImmutableMap.of(node, sshClient)), eventBus, InitScriptConfigurationForTasks.create()
+               .appendIncrementingNumberToAnonymousTaskNames(), node, command, new RunScriptOptions());
+
+      testMe.init();
+      assertEquals(testMe.awaitStatus(30).getExitStatus(), 1);
+      verify(sshClient);
+   }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.functions;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.ssh.SshClient;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+@Test(groups = "unit", testName = "ReuseSshClientForNodeTest", singleThreaded = true)
+public class ReuseSshClientForNodeTest {
+
+   private final NodeMetadata node = new NodeMetadataBuilder().ids("id").status(Status.RUNNING)
+         .credentials(LoginCredentials.builder().user("root").password("password").build()).build();
+
+   private static final class FakeTicker extends Ticker {
+      private long nanos;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+   }
+
+   private final FakeTicker ticker = new FakeTicker();
+
+   private ReuseSshClientForNode pool(CreateSshClientOncePortIsListeningOnNode createSshClient, long idleTime) {
+      ReuseSshClientForNode pool = new ReuseSshClientForNode(createSshClient, new Closer(), ticker);
+      pool.idleTime = idleTime;
+      return pool;
+   }
+
+   public void testConnectionIsReusedAfterDisconnect() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      SshClient client = createMock(SshClient.class);
+      expect(createSshClient.apply(node)).andReturn(client);
+      expect(client.isConnected()).andReturn(false);
+      client.connect();
+      // checked on each release, and when the second caller connects
+      expect(client.isConnected()).andReturn(true).times(3);
+      expect(client.exec("uptime")).andReturn(null).times(2);
+      replay(createSshClient, client);
+
+      ReuseSshClientForNode pool = pool(createSshClient, 1000);
+      SshClient first = pool.apply(node);
+      first.connect();
+      first.exec("uptime");
+      first.disconnect();
+      assertEquals(pool.idleConnections(), 1);
+
+      SshClient second = pool.apply(node);
+      second.connect();
+      second.exec("uptime");
+      second.disconnect();
+      assertEquals(pool.idleConnections(), 1);
+      verify(createSshClient, client);
+   }
+
+   public void testConcurrentCallersGetTheirOwnConnection() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      SshClient client1 = createMock(SshClient.class);
+      SshClient client2 = createMock(SshClient.class);
+      expect(createSshClient.apply(node)).andReturn(client1);
+      expect(createSshClient.apply(node)).andReturn(client2);
+      expect(client1.getHostAddress()).andReturn("1.1.1.1");
+      expect(client2.getHostAddress()).andReturn("1.1.1.1");
+      // checked on connect and on release
+      expect(client1.isConnected()).andReturn(true).times(2);
+      expect(client2.isConnected()).andReturn(true).times(2);
+      replay(createSshClient, client1, client2);
+
+      ReuseSshClientForNode pool = pool(createSshClient, 1000);
+      SshClient first = pool.apply(node);
+      SshClient second = pool.apply(node);
+      first.connect();
+      second.connect();
+      first.getHostAddress();
+      second.getHostAddress();
+      first.disconnect();
+      second.disconnect();
+      assertEquals(pool.idleConnections(), 2);
+      verify(createSshClient, client1, client2);
+   }
+
+   public void testIdleConnectionIsClosedAfterIdleTime() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      SshClient expired = createMock(SshClient.class);
+      SshClient fresh = createMock(SshClient.class);
+      expect(createSshClient.apply(node)).andReturn(expired);
+      expect(createSshClient.apply(node)).andReturn(fresh);
+      expect(expired.isConnected()).andReturn(true).times(2);
+      expired.disconnect();
+      expect(fresh.isConnected()).andReturn(true);
+      replay(createSshClient, expired, fresh);
+
+      ReuseSshClientForNode pool = pool(createSshClient, 1000);
+      SshClient first = pool.apply(node);
+      first.connect();
+      first.disconnect();
+      ticker.nanos += TimeUnit.SECONDS.toNanos(1);
+      SshClient next = pool.apply(node);
+      next.connect();
+      assertEquals(pool.idleConnections(), 0);
+      verify(createSshClient, expired, fresh);
+      assertEquals(next.toString(), fresh.toString());
+   }
+
+   public void testCloseDisconnectsIdleConnections() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      SshClient client = createMock(SshClient.class);
+      expect(createSshClient.apply(node)).andReturn(client);
+      expect(client.isConnected()).andReturn(true).times(2);
+      client.disconnect();
+      replay(createSshClient, client);
+
+      ReuseSshClientForNode pool = pool(createSshClient, 1000);
+      SshClient pooled = pool.apply(node);
+      pooled.connect();
+      pooled.disconnect();
+      pool.close();
+      assertEquals(pool.idleConnections(), 0);
+      verify(createSshClient, client);
+   }
+
+   public void testNothingIsOpenedUntilConnect() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      replay(createSshClient);
+
+      SshClient pooled = pool(createSshClient, 1000).apply(node);
+      assertFalse(pooled.isConnected());
+      assertEquals(pooled.getUsername(), "root");
+      pooled.disconnect();
+      verify(createSshClient);
+   }
+
+   public void testNoPoolingWithoutIdleTime() {
+      CreateSshClientOncePortIsListeningOnNode createSshClient =
+            createMock(CreateSshClientOncePortIsListeningOnNode.class);
+      SshClient client = createMock(SshClient.class);
+      expect(createSshClient.apply(node)).andReturn(client);
+      replay(createSshClient, client);
+
+      assertSame(pool(createSshClient, 0).apply(node), client);
+      verify(createSshClient, client);
+   }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.compute.ComputeServiceContext;
+import org.jclouds.compute.callables.RunScriptOnNode;
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.compute.domain.NodeExecResult;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.options.RunScriptOptions;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.scriptbuilder.domain.Statement;
+import org.jclouds.scriptbuilder.domain.Statements;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+
+@Test(groups = "unit", testName = "BaseComputeServiceTest")
+public class BaseComputeServiceTest {
+
+   /**
+    * Runs scripts without ssh, and records how many run at the same time.
+    */
+   private static final class CountingRunScriptOnNodeFactory implements RunScriptOnNode.Factory {
+      private final AtomicInteger running = new AtomicInteger();
+      private final AtomicInteger maxRunning = new AtomicInteger();
+      private volatile String failingNodeId;
+
+      @Override
+      public RunScriptOnNode create(final NodeMetadata node, final Statement script, RunScriptOptions options) {
+         return new RunScriptOnNode() {
+            @Override
+            public ExecResponse call() {
+               int now = running.incrementAndGet();
+               while (true) {
+                  int max = maxRunning.get();
+                  if (now <= max || maxRunning.compareAndSet(max, now))
+                     break;
+               }
+               try {
+                  Thread.sleep(100);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               } finally {
+                  running.decrementAndGet();
+               }
+               if (node.getId().equals(failingNodeId))
+                  throw new IllegalStateException("script failed on " + node.getId());
+               return new ExecResponse(node.getId(), "", 0);
+            }
+
+            @Override
+            public Statement getStatement() {
+               return script;
+            }
+
+            @Override
+            public RunScriptOnNode init() {
+               return this;
+            }
+
+            @Override
+            public NodeMetadata getNode() {
+               return node;
+            }
+         };
+      }
+
+      @Override
+      public ListenableFuture<ExecResponse> submit(NodeMetadata node, Statement script, RunScriptOptions options) {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   public void testRunScriptOnNodesMatchingWithMaxConcurrency() throws Exception {
+      final CountingRunScriptOnNodeFactory factory = new CountingRunScriptOnNodeFactory();
+      // the stub is single threaded unless given an executor
+      ComputeServiceContext context = ContextBuilder.newBuilder("stub")
+            .modules(ImmutableSet.<Module> of(new ExecutorServiceModule(), new AbstractModule() {
+               @Override
+               protected void configure() {
+                  bind(RunScriptOnNode.Factory.class).toInstance(factory);
+               }
+            })).buildView(ComputeServiceContext.class);
+      try {
+         BaseComputeService computeService = (BaseComputeService) context.getComputeService();
+         Set<? extends NodeMetadata> nodes = computeService.createNodesInGroup("fanout", 5);
+         factory.failingNodeId = nodes.iterator().next().getId();
+
+         Iterator<NodeExecResult> results = computeService
+               .runScriptOnNodesMatching(inGroup("fanout"), Statements.exec("hostname"), RunScriptOptions.NONE, 2);
+
+         Set<String> succeeded = Sets.newHashSet();
+         Set<String> failed = Sets.newHashSet();
+         while (results.hasNext()) {
+            NodeExecResult result = results.next();
+            if (result.isSuccess()) {
+               assertEquals(result.getResponse().get().getOutput(), result.getNode().getId());
+               succeeded.add(result.getNode().getId());
+            } else {
+               assertTrue(result.getError().get() instanceof IllegalStateException, result.toString());
+               failed.add(result.getNode().getId());
+            }
+         }
+         assertEquals(succeeded.size(), 4);
+         assertEquals(failed, ImmutableSet.of(factory.failingNodeId));
+         assertEquals(factory.maxRunning.get(), 2);
+      } finally {
+         context.close();
+      }
+   }
+}
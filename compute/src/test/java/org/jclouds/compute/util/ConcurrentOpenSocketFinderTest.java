@@ -23,33 +23,49 @@ import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator
 import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
 import static org.jclouds.compute.domain.NodeMetadata.Status.RUNNING;
 import static org.testng.Assert.assertEquals;
-import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
 import org.jclouds.compute.util.ConcurrentOpenSocketFinder.AllowedInterfaces;
+import org.jclouds.predicates.InetSocketAddressConnect;
 import org.jclouds.predicates.SocketOpen;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 
 @Test(singleThreaded = true)
 public class ConcurrentOpenSocketFinderTest {
@@ -229,4 +245,84 @@ public class ConcurrentOpenSocketFinderTest {
          }
       }
    };
+
+   @Test
+   public void testProbesWithoutBlockingUserThreads() throws Exception {
+      ServerSocket listening = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+      try {
+         NodeMetadata local = new NodeMetadataBuilder().id("local").status(RUNNING)
+               .publicAddresses(ImmutableSet.of("127.0.0.1")).build();
+
+         HostAndPort socket = nonBlockingFinder(nodeRunning).findOpenSocketOnNode(local, listening.getLocalPort(), 10,
+               TimeUnit.SECONDS);
+
+         assertEquals(socket, HostAndPort.fromParts("127.0.0.1", listening.getLocalPort()));
+      } finally {
+         listening.close();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ".*no longer running.*")
+   public void testNonBlockingProbeAbortsWhenNodeIsNoLongerRunning() throws Exception {
+      ServerSocket gone = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+      gone.close();
+      NodeMetadata local = new NodeMetadataBuilder().id("local").status(RUNNING)
+            .publicAddresses(ImmutableSet.of("127.0.0.1")).build();
+
+      nonBlockingFinder(nodeNotRunning).findOpenSocketOnNode(local, gone.getLocalPort(), 10, TimeUnit.SECONDS);
+   }
+
+   /**
+    * A finder with the default socket tester and no proxy, so that it uses the {@link SocketProber}.
+    * Its user executor rejects every task, as the prober must not need it for literal addresses.
+    */
+   private OpenSocketFinder nonBlockingFinder(final Predicate<AtomicReference<NodeMetadata>> nodeRunning) {
+      final ListeningExecutorService rejecting = listeningDecorator(new AbstractExecutorService() {
+         @Override
+         public void execute(Runnable command) {
+            throw new RejectedExecutionException("no user threads needed");
+         }
+
+         @Override
+         public void shutdown() {
+         }
+
+         @Override
+         public List<Runnable> shutdownNow() {
+            return ImmutableList.of();
+         }
+
+         @Override
+         public boolean isShutdown() {
+            return false;
+         }
+
+         @Override
+         public boolean isTerminated() {
+            return false;
+         }
+
+         @Override
+         public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+         }
+      });
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(SocketOpen.class).to(InetSocketAddressConnect.class);
+            bind(new TypeLiteral<Function<URI, Proxy>>() {
+            }).toInstance(new Function<URI, Proxy>() {
+               @Override
+               public Proxy apply(URI input) {
+                  return Proxy.NO_PROXY;
+               }
+            });
+            bind(new TypeLiteral<Predicate<AtomicReference<NodeMetadata>>>() {
+            }).annotatedWith(Names.named(TIMEOUT_NODE_RUNNING)).toInstance(nodeRunning);
+            bind(ListeningExecutorService.class).annotatedWith(Names.named(PROPERTY_USER_THREADS))
+                  .toInstance(rejecting);
+         }
+      }).getInstance(ConcurrentOpenSocketFinder.class);
+   }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "SocketProberTest")
+public class SocketProberTest {
+
+   private final Closer closer = new Closer();
+   private SocketProber prober;
+   private ServerSocket listening;
+   private HostAndPort open;
+   private HostAndPort closed;
+
+   @BeforeClass
+   public void setUp() throws Exception {
+      prober = new SocketProber(MoreExecutors.newDirectExecutorService(), closer);
+      listening = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+      open = HostAndPort.fromParts("127.0.0.1", listening.getLocalPort());
+      ServerSocket gone = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+      closed = HostAndPort.fromParts("127.0.0.1", gone.getLocalPort());
+      gone.close();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() throws Exception {
+      listening.close();
+      closer.close();
+   }
+
+   public void testReturnsTheSocketThatIsListening() throws Exception {
+      ListenableFuture<HostAndPort> found = prober.probe(ImmutableList.of(closed, open), 10, TimeUnit.SECONDS);
+      assertEquals(found.get(10, TimeUnit.SECONDS), open);
+   }
+
+   public void testHostThatDoesNotResolveDoesNotStopTheProbe() throws Exception {
+      HostAndPort unresolved = HostAndPort.fromParts("jclouds-socket-prober.invalid", open.getPort());
+      ListenableFuture<HostAndPort> found = prober.probe(ImmutableList.of(unresolved, open), 10, TimeUnit.SECONDS);
+      assertEquals(found.get(10, TimeUnit.SECONDS), open);
+   }
+
+   public void testFindsASocketThatOpensLater() throws Exception {
+      ServerSocket later = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+      HostAndPort socket = HostAndPort.fromParts("127.0.0.1", later.getLocalPort());
+      later.close();
+      ListenableFuture<HostAndPort> found = prober.probe(ImmutableList.of(socket), 10, TimeUnit.SECONDS);
+      Thread.sleep(200);
+      later = new ServerSocket(socket.getPort(), 50, InetAddress.getByName("127.0.0.1"));
+      try {
+         assertEquals(found.get(10, TimeUnit.SECONDS), socket);
+      } finally {
+         later.close();
+      }
+   }
+
+   public void testFailsWhenNothingOpensBeforeTheTimeout() throws Exception {
+      ListenableFuture<HostAndPort> found = prober.probe(ImmutableList.of(closed), 300, TimeUnit.MILLISECONDS);
+      try {
+         found.get(10, TimeUnit.SECONDS);
+         fail("expected the probe to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof NoSuchElementException, e.getCause().toString());
+      }
+   }
+}
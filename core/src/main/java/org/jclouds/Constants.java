@@ -357,6 +357,14 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_PARALLEL_DELETES = "jclouds.max-parallel-deletes";
 
+   /**
+    * Integer property. Default (10).
+    * <p/>
+    * The maximum number of regions or zones queried in parallel by a single
+    * {@link org.jclouds.concurrent.LocationFanOut fan-out}.
+    */
+   public static final String PROPERTY_MAX_PARALLEL_LOCATIONS = "jclouds.max-parallel-locations";
+
    /** Comma-separated list of methods considered idempotent for purposes of retries.  By default jclouds uses DELETE,GET,HEAD,OPTIONS,PUT. */
    public static final String PROPERTY_IDEMPOTENT_METHODS = "jclouds.idempotent-methods";
    
@@ -84,6 +84,7 @@ import org.jclouds.rest.config.RestModule;
 import org.jclouds.rest.internal.InvokeHttpMethod;
 import org.jclouds.util.TypeTokenUtils;
 
+import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
@@ -150,7 +151,7 @@ import com.google.inject.TypeLiteral;
  */
 public class ContextBuilder {
 
-   private static final Stage GUICE_STAGE = Stage.PRODUCTION;
+   static final Stage GUICE_STAGE = Stage.PRODUCTION;
 
    /**
     * looks up a provider or api with the given id
@@ -299,12 +300,6 @@ public class ContextBuilder {
    }
 
    public Injector buildInjector() {
-
-      Properties unexpanded = currentStateToUnexpandedProperties();
-
-      Set<String> keysToResolve = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL, PROPERTY_ENDPOINT,
-            PROPERTY_API, PROPERTY_API_VERSION, PROPERTY_BUILD_VERSION);
-
       Set<String> optionalKeys;
       if (credentialsSupplierOption.isPresent()) {
          optionalKeys = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL);
@@ -314,20 +309,53 @@ public class ContextBuilder {
          optionalKeys = ImmutableSet.of();
       }
 
-      Properties resolved = resolveProperties(unexpanded, providerId, keysToResolve, optionalKeys);
-
-      Properties expanded = new ExpandProperties().apply(resolved);
+      Properties expanded = expandProperties(optionalKeys);
 
       Supplier<Credentials> credentialsSupplier = buildCredentialsSupplier(expanded);
 
       ProviderMetadata providerMetadata = new UpdateProviderMetadataFromProperties(apiMetadata, this.providerMetadata)
             .apply(expanded);
 
-      // We use either the specified name (optional) or a hash of provider/api, endpoint, api version & identity. Hash
-      // is used to be something readable.
-      return buildInjector(name.or(String.valueOf(Objects.hashCode(providerMetadata.getId(),
-            providerMetadata.getEndpoint(), providerMetadata.getApiMetadata().getVersion(), credentialsSupplier))),
-            providerMetadata, credentialsSupplier, modules);
+      return buildInjector(name.or(defaultName(providerMetadata, credentialsSupplier)), providerMetadata,
+            credentialsSupplier, modules);
+   }
+
+   /**
+    * Builds a factory of contexts that differ only in their credentials, which share everything that
+    * does not depend on them. Any credentials set on this builder are ignored.
+    * 
+    * @see MultiTenantContextFactory
+    */
+   @Beta
+   public MultiTenantContextFactory buildMultiTenantContextFactory() {
+      Properties expanded = expandProperties(ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL));
+      expanded.remove(PROPERTY_IDENTITY);
+      expanded.remove(PROPERTY_CREDENTIAL);
+
+      ProviderMetadata providerMetadata = new UpdateProviderMetadataFromProperties(apiMetadata, this.providerMetadata)
+            .apply(expanded);
+
+      return new MultiTenantContextFactory(name, providerMetadata, modules);
+   }
+
+   private Properties expandProperties(Set<String> optionalKeys) {
+      Properties unexpanded = currentStateToUnexpandedProperties();
+
+      Set<String> keysToResolve = ImmutableSet.of(PROPERTY_IDENTITY, PROPERTY_CREDENTIAL, PROPERTY_ENDPOINT,
+            PROPERTY_API, PROPERTY_API_VERSION, PROPERTY_BUILD_VERSION);
+
+      Properties resolved = resolveProperties(unexpanded, providerId, keysToResolve, optionalKeys);
+
+      return new ExpandProperties().apply(resolved);
+   }
+
+   /**
+    * We use a hash of provider/api, endpoint, api version & identity, which is readable and distinguishes
+    * contexts built with different credentials.
+    */
+   static String defaultName(ProviderMetadata providerMetadata, Supplier<Credentials> credentialsSupplier) {
+      return String.valueOf(Objects.hashCode(providerMetadata.getId(), providerMetadata.getEndpoint(),
+            providerMetadata.getApiMetadata().getVersion(), credentialsSupplier));
    }
 
    protected Supplier<Credentials> buildCredentialsSupplier(Properties expanded) {
@@ -386,6 +414,17 @@ public class ContextBuilder {
    }
 
    public static Injector buildInjector(String name, ProviderMetadata providerMetadata, Supplier<Credentials> creds, List<Module> inputModules) {
+      Injector returnVal = Guice.createInjector(GUICE_STAGE, modulesFor(name, providerMetadata, creds, inputModules));
+      returnVal.getInstance(ExecutionList.class).execute();
+      return returnVal;
+   }
+
+   /**
+    * The input modules, followed by the defaults for anything they do not configure, and the
+    * bindings for the name, provider metadata and credentials.
+    */
+   static List<Module> modulesFor(String name, ProviderMetadata providerMetadata, Supplier<Credentials> creds,
+         List<Module> inputModules) {
       List<Module> modules = newArrayList();
       modules.addAll(inputModules);
       boolean apiModuleSpecifiedByUser = apiModulePresent(inputModules);
@@ -402,9 +441,7 @@ public class ContextBuilder {
       modules.add(new LifeCycleModule());
       modules.add(new BindProviderMetadataContextAndCredentials(providerMetadata, creds));
       modules.add(new BindNameToContext(name));
-      Injector returnVal = Guice.createInjector(GUICE_STAGE, modules);
-      returnVal.getInstance(ExecutionList.class).execute();
-      return returnVal;
+      return modules;
    }
 
    static Properties resolveProperties(Properties mutable, String providerId, Set<String> keys, Set<String> optionalKeys) throws NoSuchElementException {
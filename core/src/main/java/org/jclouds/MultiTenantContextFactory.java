@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Lists.newArrayList;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.concurrent.config.ExecutorServiceModule.createSimpleTimeLimiter;
+import static org.jclouds.reflect.Reflection2.typeToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import org.jclouds.apis.ApiMetadata;
+import org.jclouds.apis.Apis;
+import org.jclouds.concurrent.config.ConfiguresExecutorService;
+import org.jclouds.domain.Credentials;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.lifecycle.config.LifeCycleModule;
+import org.jclouds.providers.ProviderMetadata;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ExecutionList;
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+
+/**
+ * Builds contexts for many tenants of the same provider, which differ only in their credentials.
+ * <p/>
+ * The injector of each tenant is a child of one built when the factory is created. The parent holds
+ * every binding that does not depend on credentials or on other per-tenant state, such as parsers,
+ * http drivers and memoized suppliers of provider metadata. So these are created once rather than
+ * for every tenant. The child holds the rest, for example authentication filters, token caches and
+ * the {@code @Provider Supplier<Credentials>}. Which bindings can be shared is worked out from the
+ * modules: a binding stays per tenant if it binds a different instance per tenant, depends on one
+ * that does, or constructs objects with lifecycle methods.
+ * <p/>
+ * Unless the modules configure their own executor, all tenants use a single user executor owned by
+ * the factory. Closing a tenant context releases only what belongs to that tenant. Closing the
+ * factory shuts down the shared executor.
+ * 
+ * <pre>
+ * MultiTenantContextFactory factory = ContextBuilder.newBuilder(&quot;aws-s3&quot;).overrides(overrides)
+ *       .buildMultiTenantContextFactory();
+ * BlobStoreContext tenant = factory.buildView(BlobStoreContext.class, credentialsOfTenant);
+ * </pre>
+ * 
+ * @see ContextBuilder#buildMultiTenantContextFactory()
+ */
+@Beta
+public final class MultiTenantContextFactory implements Closeable {
+
+   private final Optional<String> name;
+   private final ProviderMetadata providerMetadata;
+   private final List<Module> modules;
+   private final Closer closer = new Closer();
+   private final ShareableBindings shareableBindings;
+   private final Injector shared;
+
+   MultiTenantContextFactory(Optional<String> name, ProviderMetadata providerMetadata, List<Module> modules) {
+      this.name = checkNotNull(name, "name");
+      this.providerMetadata = checkNotNull(providerMetadata, "providerMetadata");
+      this.modules = withSharedExecutor(checkNotNull(modules, "modules"));
+      this.shareableBindings = new ShareableBindings(record(Suppliers.ofInstance(new Credentials("tenant", null))),
+            record(Suppliers.ofInstance(new Credentials("other tenant", null))));
+      this.shared = Guice.createInjector(ContextBuilder.GUICE_STAGE, shareableBindings.sharedModule());
+   }
+
+   /**
+    * Builds the injector of a tenant.
+    */
+   public Injector buildInjector(Supplier<Credentials> credentials) {
+      Injector injector = shared.createChildInjector(shareableBindings.tenantModules(record(credentials)));
+      injector.getInstance(ExecutionList.class).execute();
+      return injector;
+   }
+
+   /**
+    * Builds the {@link ApiMetadata#getContext() context} of a tenant.
+    */
+   @SuppressWarnings("unchecked")
+   public <C extends Context> C build(Supplier<Credentials> credentials) {
+      return (C) buildInjector(credentials).getInstance(
+            Key.get(TypeLiteral.get(providerMetadata.getApiMetadata().getContext().getType())));
+   }
+
+   /**
+    * @see #build(Supplier)
+    */
+   public <C extends Context> C build(String identity, @Nullable String credential) {
+      return build(Suppliers.ofInstance(new Credentials(identity, credential)));
+   }
+
+   /**
+    * Builds a {@link ApiMetadata#getViews() view} of a tenant, such as a {@code BlobStoreContext}.
+    */
+   @SuppressWarnings("unchecked")
+   public <V extends View> V buildView(Class<V> viewType, Supplier<Credentials> credentials) {
+      ApiMetadata apiMetadata = providerMetadata.getApiMetadata();
+      TypeToken<V> returnType;
+      try {
+         returnType = (TypeToken<V>) Apis.findView(apiMetadata, typeToken(checkNotNull(viewType, "viewType")));
+      } catch (NoSuchElementException e) {
+         throw new IllegalArgumentException(String.format("api %s not wrappable as %s; context: %s, views: %s",
+               apiMetadata, viewType, apiMetadata.getContext(), apiMetadata.getViews()));
+      }
+      return (V) buildInjector(credentials).getInstance(Key.get(TypeLiteral.get(returnType.getType())));
+   }
+
+   /**
+    * Builds an api of a tenant.
+    */
+   public <A extends Closeable> A buildApi(Class<A> api, Supplier<Credentials> credentials) {
+      return buildInjector(credentials).getInstance(checkNotNull(api, "api"));
+   }
+
+   /**
+    * Shuts down the shared executor. Contexts of tenants should be closed first.
+    */
+   @Override
+   public void close() throws IOException {
+      closer.close();
+   }
+
+   private List<Element> record(Supplier<Credentials> credentials) {
+      String tenantName = name.or(ContextBuilder.defaultName(providerMetadata, credentials));
+      return Elements.getElements(ContextBuilder.GUICE_STAGE,
+            ContextBuilder.modulesFor(tenantName, providerMetadata, credentials, modules));
+   }
+
+   /**
+    * Creates the executor {@link ContextBuilder} would add, in an injector owned by the factory.
+    */
+   private List<Module> withSharedExecutor(List<Module> modules) {
+      List<Module> withExecutor = newArrayList(modules);
+      ContextBuilder.addExecutorServiceIfNotPresent(withExecutor);
+      if (withExecutor.size() == modules.size())
+         return ImmutableList.copyOf(modules);
+      final Properties properties = new Properties();
+      properties.putAll(providerMetadata.getApiMetadata().getDefaultProperties());
+      properties.putAll(providerMetadata.getDefaultProperties());
+      Injector executors = Guice.createInjector(ContextBuilder.GUICE_STAGE, Iterables.getLast(withExecutor),
+            new LifeCycleModule(), new AbstractModule() {
+               @Override
+               protected void configure() {
+                  Names.bindProperties(binder(), properties);
+               }
+            });
+      closer.addToClose(executors.getInstance(Closer.class));
+      ListeningExecutorService userExecutor = new NotShutDownByTenants(executors.getInstance(Key.get(
+            ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS))));
+      return ImmutableList.<Module> builder().addAll(modules).add(new SharedExecutorModule(userExecutor)).build();
+   }
+
+   @ConfiguresExecutorService
+   private static final class SharedExecutorModule extends AbstractModule {
+      private final ListeningExecutorService userExecutor;
+      private final TimeLimiter timeLimiter;
+
+      private SharedExecutorModule(ListeningExecutorService userExecutor) {
+         this.userExecutor = userExecutor;
+         this.timeLimiter = createSimpleTimeLimiter(userExecutor);
+      }
+
+      @Override
+      protected void configure() {
+         bind(ListeningExecutorService.class).annotatedWith(Names.named(PROPERTY_USER_THREADS)).toInstance(
+               userExecutor);
+         bind(ExecutorService.class).annotatedWith(Names.named(PROPERTY_USER_THREADS)).toInstance(userExecutor);
+         bind(TimeLimiter.class).toInstance(timeLimiter);
+      }
+   }
+
+   /**
+    * The {@link LifeCycleModule} of each tenant shuts down the user executor when its context is
+    * closed, which must not affect the other tenants.
+    */
+   private static final class NotShutDownByTenants extends ForwardingListeningExecutorService {
+      private final ListeningExecutorService delegate;
+
+      private NotShutDownByTenants(ListeningExecutorService delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      protected ListeningExecutorService delegate() {
+         return delegate;
+      }
+
+      @Override
+      public void shutdown() {
+      }
+
+      @Override
+      public List<Runnable> shutdownNow() {
+         return Collections.emptyList();
+      }
+   }
+}
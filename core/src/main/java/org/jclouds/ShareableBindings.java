@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static org.jclouds.reflect.Reflection2.methods;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.jclouds.logging.config.BindLoggersAnnotatedWithResource;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.reflect.Invokable;
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.ImplementedBy;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.MembersInjector;
+import com.google.inject.Module;
+import com.google.inject.ProvidedBy;
+import com.google.inject.Stage;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.ConstructorBinding;
+import com.google.inject.spi.DefaultBindingTargetVisitor;
+import com.google.inject.spi.DefaultElementVisitor;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import com.google.inject.spi.HasDependencies;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.PrivateElements;
+import com.google.inject.spi.ProviderInstanceBinding;
+import com.google.inject.spi.ProviderKeyBinding;
+import com.google.inject.spi.ProviderLookup;
+import com.google.inject.spi.ScopeBinding;
+import com.google.inject.spi.TypeConverterBinding;
+import com.google.inject.spi.TypeListenerBinding;
+import com.google.inject.spi.UntargettedBinding;
+
+/**
+ * Splits the bindings of a context between an injector shared by all tenants and a child injector
+ * per tenant.
+ * <p/>
+ * The split compares the bindings recorded for two tenants with different names and credentials. A
+ * binding is shared only when all of the following hold:
+ * <ul>
+ * <li>any instance it binds is the same object for both tenants, or an equal constant;</li>
+ * <li>everything it depends on, directly or through just-in-time bindings, is shared too;</li>
+ * <li>nothing it constructs has {@link PostConstruct} or {@link PreDestroy} methods, as those are
+ * tied to the {@link org.jclouds.lifecycle.Closer} of each tenant.</li>
+ * </ul>
+ * Anything the analysis cannot follow stays per tenant. Examples are bindings that depend on the
+ * {@link Injector}, multibindings and private modules.
+ */
+final class ShareableBindings {
+
+   /**
+    * What is known about a key before looking at what it depends on.
+    */
+   private static final class Node {
+      private final boolean shareable;
+      private final boolean justInTime;
+      private final Set<Dependency<?>> dependencies;
+
+      private Node(boolean shareable, boolean justInTime, Set<Dependency<?>> dependencies) {
+         this.shareable = shareable;
+         this.justInTime = justInTime;
+         this.dependencies = dependencies;
+      }
+   }
+
+   private static final Node NOT_SHAREABLE = new Node(false, false, ImmutableSet.<Dependency<?>> of());
+
+   private final Map<Key<?>, Binding<?>> bindings;
+   private final Map<Key<?>, Binding<?>> otherTenantBindings;
+   private final Set<Key<?>> exposedKeys = newHashSet();
+   private final Map<Key<?>, Node> nodes = newHashMap();
+   private final Set<Key<?>> unresolvableKeys = newHashSet();
+   private final Set<Key<?>> tenantKeys = newHashSet();
+   private final Set<Key<?>> tenantJustInTimeKeys = newLinkedHashSet();
+   private final List<Element> sharedElements;
+
+   /**
+    * @param tenant
+    *           elements recorded for one tenant, which become the shared elements
+    * @param otherTenant
+    *           elements recorded for another tenant, with a different name and credentials
+    */
+   ShareableBindings(List<Element> tenant, List<Element> otherTenant) {
+      this.bindings = bindingsByKey(tenant);
+      this.otherTenantBindings = bindingsByKey(otherTenant);
+      for (Element element : tenant) {
+         if (element instanceof PrivateElements)
+            exposedKeys.addAll(((PrivateElements) element).getExposedKeys());
+      }
+      analyze();
+      ImmutableList.Builder<Element> shared = ImmutableList.builder();
+      for (Element element : tenant) {
+         if (isShared(element, false))
+            shared.add(element);
+      }
+      this.sharedElements = shared.build();
+   }
+
+   /**
+    * @return the module for the injector shared by all tenants
+    */
+   Module sharedModule() {
+      return Elements.getModule(sharedElements);
+   }
+
+   /**
+    * @return the module for the child injector of the tenant whose elements are given. Types that
+    *         would otherwise be bound just in time in the shared injector are bound explicitly.
+    */
+   Iterable<Module> tenantModules(List<Element> tenantElements) {
+      ImmutableList.Builder<Element> tenant = ImmutableList.builder();
+      for (Element element : tenantElements) {
+         if (!isShared(element, true))
+            tenant.add(element);
+      }
+      return ImmutableList.of(Elements.getModule(tenant.build()), new AbstractModule() {
+         @SuppressWarnings("unchecked")
+         @Override
+         protected void configure() {
+            // link instead of resolving the annotation here, which would ask the shared injector first
+            for (Key<?> key : tenantJustInTimeKeys) {
+               Class<?> rawType = key.getTypeLiteral().getRawType();
+               ImplementedBy implementedBy = rawType.getAnnotation(ImplementedBy.class);
+               ProvidedBy providedBy = rawType.getAnnotation(ProvidedBy.class);
+               if (implementedBy != null)
+                  bind((Key<Object>) key).to((Class<Object>) implementedBy.value());
+               else if (providedBy != null)
+                  bind((Key<Object>) key).toProvider(
+                        (Class<? extends javax.inject.Provider<Object>>) providedBy.value());
+               else
+                  bind((Key<Object>) key);
+            }
+         }
+      });
+   }
+
+   /**
+    * Provider methods look up their parameters through the {@link ProviderLookup}s recorded with
+    * them, so these go wherever the provider method is bound. As only the elements of the first
+    * tenant are shared, the other tenants keep all of theirs.
+    */
+   private boolean isShared(Element element, final boolean ofOtherTenant) {
+      return element.acceptVisitor(new DefaultElementVisitor<Boolean>() {
+         @Override
+         public <T> Boolean visit(Binding<T> binding) {
+            return isShared(binding.getKey());
+         }
+
+         @Override
+         public <T> Boolean visit(ProviderLookup<T> lookup) {
+            return !ofOtherTenant && isShared(lookup.getKey());
+         }
+
+         @Override
+         public Boolean visit(ScopeBinding scopeBinding) {
+            return true;
+         }
+
+         @Override
+         public Boolean visit(TypeConverterBinding typeConverterBinding) {
+            return true;
+         }
+
+         /**
+          * Listeners of the shared injector also apply to its children. Only the logger listener is
+          * known not to hold state of a tenant.
+          */
+         @Override
+         public Boolean visit(TypeListenerBinding binding) {
+            return binding.getListener() instanceof BindLoggersAnnotatedWithResource;
+         }
+
+         @Override
+         protected Boolean visitOther(Element element) {
+            return false;
+         }
+      });
+   }
+
+   private boolean isShared(Key<?> key) {
+      return nodes.containsKey(key) && !tenantKeys.contains(key);
+   }
+
+   /**
+    * Finds the largest set of keys that are shareable and depend only on each other, so that
+    * bindings in a cycle, typically through a {@code Provider}, can still be shared.
+    */
+   private void analyze() {
+      Deque<Key<?>> toVisit = new ArrayDeque<Key<?>>(bindings.keySet());
+      while (!toVisit.isEmpty()) {
+         Key<?> key = toVisit.pop();
+         if (nodes.containsKey(key) || unresolvableKeys.contains(key))
+            continue;
+         Node node = node(key);
+         if (node == null) {
+            unresolvableKeys.add(key);
+            continue;
+         }
+         nodes.put(key, node);
+         for (Dependency<?> dependency : node.dependencies)
+            toVisit.push(dependency.getKey());
+      }
+
+      Multimap<Key<?>, Key<?>> dependents = HashMultimap.create();
+      Deque<Key<?>> newlyTenant = new ArrayDeque<Key<?>>();
+      for (Map.Entry<Key<?>, Node> entry : nodes.entrySet()) {
+         boolean shareable = entry.getValue().shareable;
+         for (Dependency<?> dependency : entry.getValue().dependencies) {
+            if (!unresolvableKeys.contains(dependency.getKey()))
+               dependents.put(dependency.getKey(), entry.getKey());
+            else if (!isOptional(dependency))
+               shareable = false;
+         }
+         if (!shareable && tenantKeys.add(entry.getKey()))
+            newlyTenant.add(entry.getKey());
+      }
+      while (!newlyTenant.isEmpty()) {
+         for (Key<?> dependent : dependents.get(newlyTenant.pop())) {
+            if (tenantKeys.add(dependent))
+               newlyTenant.add(dependent);
+         }
+      }
+      for (Key<?> key : tenantKeys) {
+         if (nodes.get(key).justInTime)
+            tenantJustInTimeKeys.add(key);
+      }
+   }
+
+   /**
+    * @return null if the key cannot be resolved
+    */
+   private Node node(Key<?> key) {
+      Binding<?> binding = bindings.get(key);
+      if (binding != null)
+         return node(binding);
+      if (exposedKeys.contains(key))
+         return NOT_SHAREABLE;
+      Class<?> rawType = key.getTypeLiteral().getRawType();
+      if (rawType == com.google.inject.Provider.class || rawType == javax.inject.Provider.class)
+         return dependingOn(typeArgumentKey(key, true));
+      if (rawType == MembersInjector.class)
+         return dependingOn(typeArgumentKey(key, false));
+      if (rawType == Injector.class)
+         return NOT_SHAREABLE;
+      if (rawType == Stage.class || rawType == TypeLiteral.class || rawType == java.util.logging.Logger.class)
+         return new Node(true, false, ImmutableSet.<Dependency<?>> of());
+      if (key.getAnnotationType() != null) {
+         // constants are converted from the string bound with the same annotation
+         Key<String> constant = key.hasAttributes() ? Key.get(String.class, key.getAnnotation()) : Key.get(
+               String.class, key.getAnnotationType());
+         return bindings.containsKey(constant) ? dependingOn(constant) : null;
+      }
+      return justInTimeNode(key.getTypeLiteral());
+   }
+
+   private Node node(Binding<?> binding) {
+      Key<?> key = binding.getKey();
+      Binding<?> other = otherTenantBindings.get(key);
+      boolean shareable = other != null && !isMultibinding(key);
+      if (binding instanceof InstanceBinding) {
+         Object instance = ((InstanceBinding<?>) binding).getInstance();
+         shareable &= other instanceof InstanceBinding
+               && sameOrEqualConstant(instance, ((InstanceBinding<?>) other).getInstance())
+               && !hasLifeCycleMethods(instance.getClass());
+      } else if (binding instanceof ProviderInstanceBinding) {
+         shareable &= !hasLifeCycleMethods(((ProviderInstanceBinding<?>) binding).getProviderInstance().getClass());
+      } else if (binding instanceof ConstructorBinding) {
+         shareable &= !hasLifeCycleMethods(((ConstructorBinding<?>) binding).getConstructor().getDeclaringType()
+               .getRawType());
+      } else if (binding instanceof UntargettedBinding) {
+         Node justInTime = justInTimeNode(key.getTypeLiteral());
+         if (justInTime == null)
+            return NOT_SHAREABLE;
+         return new Node(shareable && justInTime.shareable, false, justInTime.dependencies);
+      }
+      Set<Dependency<?>> dependencies = dependencies(binding);
+      if (dependencies == null)
+         return NOT_SHAREABLE;
+      return new Node(shareable, false, dependencies);
+   }
+
+   private Node justInTimeNode(TypeLiteral<?> type) {
+      Class<?> rawType = type.getRawType();
+      ImplementedBy implementedBy = rawType.getAnnotation(ImplementedBy.class);
+      if (implementedBy != null)
+         return new Node(true, true, ImmutableSet.<Dependency<?>> of(Dependency.get(Key.get(implementedBy.value()))));
+      ProvidedBy providedBy = rawType.getAnnotation(ProvidedBy.class);
+      if (providedBy != null)
+         return new Node(true, true, ImmutableSet.<Dependency<?>> of(Dependency.get(Key.get(providedBy.value()))));
+      if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers()))
+         return null;
+      try {
+         return new Node(!hasLifeCycleMethods(rawType), true, Dependency.forInjectionPoints(ImmutableSet
+               .<InjectionPoint> builder().add(InjectionPoint.forConstructorOf(type))
+               .addAll(InjectionPoint.forInstanceMethodsAndFields(type)).build()));
+      } catch (ConfigurationException e) {
+         return null;
+      }
+   }
+
+   private static Node dependingOn(Key<?> key) {
+      if (key == null)
+         return NOT_SHAREABLE;
+      return new Node(true, false, ImmutableSet.<Dependency<?>> of(Dependency.get(key)));
+   }
+
+   private static <T> Set<Dependency<?>> dependencies(Binding<T> binding) {
+      return binding.acceptTargetVisitor(new DefaultBindingTargetVisitor<T, Set<Dependency<?>>>() {
+         @Override
+         public Set<Dependency<?>> visit(LinkedKeyBinding<? extends T> binding) {
+            return ImmutableSet.<Dependency<?>> of(Dependency.get(binding.getLinkedKey()));
+         }
+
+         @Override
+         public Set<Dependency<?>> visit(ProviderKeyBinding<? extends T> binding) {
+            return ImmutableSet.<Dependency<?>> of(Dependency.get(binding.getProviderKey()));
+         }
+
+         @Override
+         protected Set<Dependency<?>> visitOther(Binding<? extends T> binding) {
+            return binding instanceof HasDependencies ? ((HasDependencies) binding).getDependencies() : null;
+         }
+      });
+   }
+
+   private static Map<Key<?>, Binding<?>> bindingsByKey(List<Element> elements) {
+      Map<Key<?>, Binding<?>> bindings = newHashMap();
+      for (Element element : elements) {
+         if (element instanceof Binding)
+            bindings.put(((Binding<?>) element).getKey(), (Binding<?>) element);
+      }
+      return bindings;
+   }
+
+   private static Key<?> typeArgumentKey(Key<?> key, boolean keepAnnotation) {
+      Type type = key.getTypeLiteral().getType();
+      if (!(type instanceof ParameterizedType))
+         return null;
+      Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+      if (!keepAnnotation || key.getAnnotationType() == null)
+         return Key.get(argument);
+      return key.hasAttributes() ? Key.get(argument, key.getAnnotation()) : Key.get(argument,
+            key.getAnnotationType());
+   }
+
+   private static boolean isOptional(Dependency<?> dependency) {
+      return dependency.getInjectionPoint() != null && dependency.getInjectionPoint().isOptional();
+   }
+
+   /**
+    * Multibinders find their elements by scanning the injector they are bound in.
+    */
+   private static boolean isMultibinding(Key<?> key) {
+      return key.getAnnotationType() != null
+            && key.getAnnotationType().getName().startsWith("com.google.inject.multibindings.");
+   }
+
+   private static boolean sameOrEqualConstant(Object instance, Object other) {
+      if (instance == other)
+         return true;
+      return (instance instanceof String || instance instanceof Number || instance instanceof Boolean
+            || instance instanceof Character || instance instanceof Enum || instance instanceof Class)
+            && instance.equals(other);
+   }
+
+   private static boolean hasLifeCycleMethods(Class<?> type) {
+      for (Invokable<?, Object> method : methods(type)) {
+         if (method.isAnnotationPresent(PostConstruct.class) || method.isAnnotationPresent(PreDestroy.class))
+            return true;
+      }
+      return false;
+   }
+}
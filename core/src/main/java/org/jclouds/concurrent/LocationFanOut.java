@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Runs a function against each region or zone of a location-scoped api in parallel, for example
+ * with the ids from {@link org.jclouds.location.suppliers.RegionIdsSupplier} or
+ * {@link org.jclouds.location.suppliers.ZoneIdsSupplier}.
+ * <p/>
+ * At most {@code maxConcurrency} locations are in flight at a time, each location is given its own
+ * timeout, and results are returned in the order they complete, so a slow location does not hold
+ * back the others. A failure in one location is reported in its {@link Result} rather than failing
+ * the whole fan-out, and is not retried.
+ */
+@Beta
+@Singleton
+public class LocationFanOut {
+
+   private final ListeningExecutorService userExecutor;
+   private final ScheduledExecutorService timeouts;
+
+   @Inject
+   LocationFanOut(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, Closer closer) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      // the thread is only started once a fan-out with a timeout is submitted
+      this.timeouts = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("location-fan-out-timeouts-%d").build());
+      closer.addToClose(new Closeable() {
+         @Override
+         public void close() {
+            timeouts.shutdownNow();
+         }
+      });
+   }
+
+   /**
+    * Outcome of the function for a single location.
+    */
+   public static final class Result<K, V> {
+      private final K location;
+      private final Optional<V> value;
+      private final Optional<Throwable> error;
+
+      private Result(K location, @Nullable V value, @Nullable Throwable error) {
+         this.location = location;
+         this.value = Optional.fromNullable(value);
+         this.error = Optional.fromNullable(error);
+      }
+
+      /**
+       * @return the region, zone or other key the function was applied to
+       */
+      public K getLocation() {
+         return location;
+      }
+
+      /**
+       * @return the value the function returned, absent if it failed or returned null
+       */
+      public Optional<V> getValue() {
+         return value;
+      }
+
+      /**
+       * @return the failure, which is a {@link TimeoutException} if the location exceeded its timeout
+       */
+      public Optional<Throwable> getError() {
+         return error;
+      }
+
+      public boolean isSuccess() {
+         return !error.isPresent();
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).omitNullValues().add("location", location)
+               .add("value", value.orNull()).add("error", error.orNull()).toString();
+      }
+   }
+
+   /**
+    * Applies {@code function} to each location on the user executor.
+    * 
+    * @param locations
+    *           regions, zones or other keys, possibly repeated
+    * @param maxConcurrency
+    *           maximum number of locations in flight at any time
+    * @param timeout
+    *           maximum time for each location, counted from when its call is submitted, or 0 for
+    *           none. The call is interrupted when it times out, whether or not the results are
+    *           being consumed.
+    * @return one result per location, in completion order. {@code next()} blocks until the next
+    *         location completes.
+    */
+   public <K, V> Iterator<Result<K, V>> apply(Iterable<K> locations, Function<? super K, ? extends V> function,
+         int maxConcurrency, long timeout, TimeUnit unit) {
+      checkNotNull(function, "function");
+      checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+      checkArgument(timeout >= 0, "timeout must not be negative");
+      checkNotNull(unit, "unit");
+      FanOut<K, V> fanOut = new FanOut<K, V>(ImmutableList.copyOf(checkNotNull(locations, "locations")), function,
+            unit.toNanos(timeout));
+      fanOut.start(maxConcurrency);
+      return fanOut;
+   }
+
+   /**
+    * Applies {@code function} to each location without a timeout.
+    * 
+    * @see #apply(Iterable, Function, int, long, TimeUnit)
+    */
+   public <K, V> Iterator<Result<K, V>> apply(Iterable<K> locations, Function<? super K, ? extends V> function,
+         int maxConcurrency) {
+      return apply(locations, function, maxConcurrency, 0, TimeUnit.NANOSECONDS);
+   }
+
+   private final class FanOut<K, V> extends AbstractIterator<Result<K, V>> {
+      private final List<K> locations;
+      private final Function<? super K, ? extends V> function;
+      private final long timeoutNanos;
+      private final BlockingQueue<Result<K, V>> completed = new LinkedBlockingQueue<Result<K, V>>();
+      private int nextToSubmit;
+      private int delivered;
+
+      private FanOut(List<K> locations, Function<? super K, ? extends V> function, long timeoutNanos) {
+         this.locations = locations;
+         this.function = function;
+         this.timeoutNanos = timeoutNanos;
+      }
+
+      private final class Call implements Runnable {
+         private final K location;
+         private final ListenableFuture<V> future;
+         private volatile boolean timedOut;
+         private volatile Future<?> timeout;
+
+         private Call(final K location) {
+            this.location = location;
+            this.future = userExecutor.submit(new Callable<V>() {
+               @Override
+               public V call() {
+                  return function.apply(location);
+               }
+
+               @Override
+               public String toString() {
+                  return "fanOut(" + location + ")";
+               }
+            });
+         }
+
+         private void scheduleTimeout() {
+            timeout = timeouts.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  timedOut = true;
+                  future.cancel(true);
+               }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+         }
+
+         @Override
+         public void run() {
+            if (timeout != null)
+               timeout.cancel(false);
+            completed.add(toResult());
+            submitNext();
+         }
+
+         private Result<K, V> toResult() {
+            try {
+               return new Result<K, V>(location, Uninterruptibles.getUninterruptibly(future), null);
+            } catch (CancellationException e) {
+               return new Result<K, V>(location, null, timedOut ? new TimeoutException(String.format(
+                     "%s did not complete within %sns", location, timeoutNanos)) : e);
+            } catch (ExecutionException e) {
+               return new Result<K, V>(location, null, e.getCause());
+            }
+         }
+      }
+
+      private void start(int maxConcurrency) {
+         for (int i = 0; i < maxConcurrency; i++)
+            submitNext();
+      }
+
+      private void submitNext() {
+         K location;
+         synchronized (this) {
+            if (nextToSubmit == locations.size())
+               return;
+            location = locations.get(nextToSubmit++);
+         }
+         Call call = new Call(location);
+         if (timeoutNanos > 0)
+            call.scheduleTimeout();
+         call.future.addListener(call, MoreExecutors.newDirectExecutorService());
+      }
+
+      @Override
+      protected Result<K, V> computeNext() {
+         if (delivered == locations.size())
+            return endOfData();
+         try {
+            Result<K, V> result = completed.take();
+            delivered++;
+            return result;
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw propagate(e);
+         }
+      }
+   }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+
+/**
+ * An {@link HttpCommandExecutorService} that enforces the {@link HttpCommand#setTimeout timeout} of
+ * a command on the calling thread. Connect and read timeouts are bounded by the time left, and a
+ * request still in flight when the time runs out is aborted. Either way, {@link #invoke} throws an
+ * {@link UncheckedTimeoutException}.
+ * <p/>
+ * The request of the response returned is still aborted at the deadline, so that reading its payload
+ * is bounded too. Callers call {@link HttpCommand#disarmDeadline} once they are done with it.
+ * <p/>
+ * Callers can rely on this instead of running the command on another thread to time it out.
+ */
+@Beta
+public interface DeadlineEnforcingHttpCommandExecutorService extends HttpCommandExecutorService {
+
+}
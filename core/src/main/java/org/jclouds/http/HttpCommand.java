@@ -16,11 +16,16 @@
  */
 package org.jclouds.http;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.concurrent.TimeUnit;
+
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 
 /**
  * Command whose endpoint is an http service.
@@ -32,6 +37,9 @@ public class HttpCommand {
    private volatile int failureCount;
    private volatile int redirectCount;
    private volatile Exception exception;
+   private volatile boolean hasDeadline;
+   private volatile long deadlineNanos;
+   private volatile Runnable disarmDeadline;
 
    public HttpCommand(HttpRequest request) {
       this.request = checkNotNull(request, "request");
@@ -89,6 +97,50 @@ public class HttpCommand {
       return redirectCount;
    }
 
+   /**
+    * Sets the time, counted from now, within which this command must complete, including retries.
+    * 
+    * @see DeadlineEnforcingHttpCommandExecutorService
+    */
+   @Beta
+   public final void setTimeout(long timeout, TimeUnit unit) {
+      checkArgument(timeout >= 0, "timeout must not be negative");
+      this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+      this.hasDeadline = true;
+   }
+
+   /**
+    * @return nanoseconds left before the deadline, which may be zero or negative once it has
+    *         passed, or absent if no {@link #setTimeout timeout} was set
+    */
+   @Beta
+   public final Optional<Long> getRemainingNanos() {
+      return hasDeadline ? Optional.of(deadlineNanos - System.nanoTime()) : Optional.<Long> absent();
+   }
+
+   /**
+    * Called by the executor when it returns a response while the request is still aborted at the
+    * deadline, so that reading the payload is bounded too.
+    * 
+    * @see #disarmDeadline
+    */
+   @Beta
+   public final void onDisarmDeadline(Runnable disarm) {
+      this.disarmDeadline = disarm;
+   }
+
+   /**
+    * Stops aborting the request at the deadline. Callers that {@link #setTimeout set a timeout} call
+    * this once they are done with the response.
+    */
+   @Beta
+   public final void disarmDeadline() {
+      Runnable disarm = disarmDeadline;
+      disarmDeadline = null;
+      if (disarm != null)
+         disarm.run();
+   }
+
    /**
     * Commands need to be replayed, if redirected or on a retryable error. Typically, this implies
     * the payload carried is not a streaming type.
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.json.internal.GsonWrapper;
+import org.jclouds.json.internal.JsonArrayElementIterator;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Streaming alternative to {@link ParseJson} and {@link ParseFirstJsonValueNamed} for large
+ * listings. Elements of the array are decoded as they are iterated, so only the current element is
+ * held in memory.
+ * <p/>
+ * The result can only be iterated once, as it reads directly from the response payload. The
+ * payload is opened when iteration starts, and released when iteration completes or fails. It can
+ * back an {@link org.jclouds.collect.IterableWithMarker} via
+ * {@link org.jclouds.collect.IterableWithMarkers#from(Iterable, Object)} when the next marker is
+ * known up front, for example from a header or the request.
+ * <p/>
+ * To use it as a {@link org.jclouds.rest.annotations.ResponseParser}, extend it with a concrete
+ * element type and an injectable constructor.
+ */
+public class ParseJsonArrayElements<T> implements Function<HttpResponse, FluentIterable<T>> {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final GsonWrapper json;
+   private final TypeLiteral<T> elementType;
+   private final ImmutableSet<String> nameChoices;
+
+   /**
+    * Parses a document that is a top-level array.
+    */
+   @Inject
+   public ParseJsonArrayElements(GsonWrapper json, TypeLiteral<T> elementType) {
+      this(json, elementType, new String[0]);
+   }
+
+   /**
+    * @param nameChoices
+    *           names of the field holding the array, such as {@code servers}. The first field in
+    *           the document with one of these names and an array value is used.
+    */
+   public ParseJsonArrayElements(GsonWrapper json, TypeLiteral<T> elementType, String... nameChoices) {
+      this.json = checkNotNull(json, "json");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.nameChoices = ImmutableSet.copyOf(checkNotNull(nameChoices, "nameChoices"));
+   }
+
+   @Override
+   public FluentIterable<T> apply(final HttpResponse from) {
+      if (from.getPayload() == null)
+         return FluentIterable.from(ImmutableList.<T> of());
+      final AtomicBoolean iterated = new AtomicBoolean();
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            checkState(iterated.compareAndSet(false, true), "streaming results from %s can only be iterated once",
+                  from);
+            InputStream stream;
+            try {
+               stream = from.getPayload().openStream();
+            } catch (IOException e) {
+               releasePayload(from);
+               throw new HttpResponseException("Error opening input: " + e.getMessage() + "\n" + from, null, from,
+                     e);
+            }
+            return new ReleasingIterator(from, json.<T> iterateArray(stream, elementType.getType(),
+                  nameChoices.toArray(new String[nameChoices.size()])));
+         }
+      };
+   }
+   private class ReleasingIterator implements Iterator<T> {
+      private final HttpResponse from;
+      private final JsonArrayElementIterator<T> delegate;
+
+      private ReleasingIterator(HttpResponse from, JsonArrayElementIterator<T> delegate) {
+         this.from = from;
+         this.delegate = delegate;
+      }
+
+      @Override
+      public boolean hasNext() {
+         try {
+            if (delegate.hasNext())
+               return true;
+            releasePayload(from);
+            return false;
+         } catch (RuntimeException e) {
+            releasePayload(from);
+            String message = "Error parsing input: " + e.getMessage();
+            logger.error(e, message);
+            throw new HttpResponseException(message + "\n" + from, null, from, e);
+         }
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return delegate.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
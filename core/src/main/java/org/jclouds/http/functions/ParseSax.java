@@ -202,6 +202,23 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
    }
 
+   /**
+    * Receives each element of a listing as soon as it is parsed, while the rest of the document is
+    * still being read from the network.
+    */
+   public interface ElementCallback<E> {
+      void onElement(E element);
+   }
+
+   /**
+    * Handler that can push completed elements to an {@link ElementCallback}, instead of holding
+    * them until {@link HandlerWithResult#getResult()}. Elements pushed to a callback are not part of
+    * the result.
+    */
+   public interface StreamingHandler<E> {
+      void setElementCallback(@Nullable ElementCallback<? super E> callback);
+   }
+
    public abstract static class HandlerForGeneratedRequestWithResult<T> extends HandlerWithResult<T> {
 
       @Override
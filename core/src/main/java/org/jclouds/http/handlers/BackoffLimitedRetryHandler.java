@@ -17,6 +17,8 @@
 package org.jclouds.http.handlers;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.io.IOException;
 import java.util.Random;
@@ -32,6 +34,7 @@ import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.inject.Inject;
 
@@ -108,7 +111,7 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
                   command);
          return false;
       } else {
-         imposeBackoffExponentialDelay(command.getFailureCount(), "server error: " + command.toString());
+         imposeBackoffExponentialDelay(command, command.getFailureCount(), "server error: " + command.toString());
          return true;
       }
    }
@@ -117,8 +120,30 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
       imposeBackoffExponentialDelay(delayStart, 2, failureCount, retryCountLimit, commandDescription);
    }
 
+   /**
+    * Like {@link #imposeBackoffExponentialDelay(int, String)}, but never delays past the deadline of
+    * a command with a {@link HttpCommand#setTimeout timeout}.
+    */
+   public void imposeBackoffExponentialDelay(HttpCommand command, int failureCount, String commandDescription) {
+      Optional<Long> remainingNanos = command.getRemainingNanos();
+      if (!remainingNanos.isPresent()) {
+         imposeBackoffExponentialDelay(failureCount, commandDescription);
+         return;
+      }
+      long remainingMillis = max(0, NANOSECONDS.toMillis(remainingNanos.get()));
+      imposeBackoffExponentialDelay(delayStart, min(maxPeriod(delayStart), remainingMillis), 2, failureCount,
+            retryCountLimit, commandDescription);
+   }
+
    public void imposeBackoffExponentialDelay(long period, int pow, int failureCount, int max, String commandDescription) {
-      imposeBackoffExponentialDelay(period, period * 10L, pow, failureCount, max, commandDescription);
+      imposeBackoffExponentialDelay(period, maxPeriod(period), pow, failureCount, max, commandDescription);
+   }
+
+   /**
+    * @return the longest delay between retries that start with a delay of {@code period}
+    */
+   protected long maxPeriod(long period) {
+      return period * 10L;
    }
 
    public void imposeBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount, int max,
@@ -27,6 +27,7 @@ import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 import java.io.IOException;
 import java.net.ProtocolException;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -46,7 +47,10 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+import com.google.inject.Inject;
 
 public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
    protected final HttpUtils utils;
@@ -66,6 +70,9 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    private final Set<String> idempotentMethods;
 
+   @Inject(optional = true)
+   private DeadlineWatchdog watchdog;
+
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
          DelegatingErrorHandler errorHandler, HttpWire wire,
@@ -85,7 +92,9 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       for (;;) {
          HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
+         Future<?> abortAtDeadline = null;
          try {
+            checkDeadline(command, null);
             for (HttpRequestFilter filter : request.getFilters()) {
                request = filter.filter(request);
             }
@@ -94,7 +103,13 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
             wirePayloadIfEnabled(wire, request);
             utils.logRequest(headerLog, request, ">>");
-            nativeRequest = convert(request);
+            Optional<Long> remainingNanos = command.getRemainingNanos();
+            if (remainingNanos.isPresent()) {
+               nativeRequest = convert(request, remainingNanos.get());
+               abortAtDeadline = abortAtDeadline(command, nativeRequest);
+            } else {
+               nativeRequest = convert(request);
+            }
             response = invoke(nativeRequest);
 
             logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
@@ -103,15 +118,16 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
                wire.input(response);
             nativeRequest = null; // response took ownership of streams
             int statusCode = response.getStatusCode();
-            if (statusCode >= 300) {
-               if (shouldContinue(command, response))
-                  continue;
-               else
-                  break;
-            } else {
-               break;
-            }
+            if (statusCode >= 300 && shouldContinue(command, response))
+               continue;
+            // the caller reads the payload after we return, so it stays bounded by the deadline
+            disarmWhenConsumed(command, abortAtDeadline);
+            abortAtDeadline = null;
+            break;
+         } catch (UncheckedTimeoutException e) {
+            throw e;
          } catch (Exception e) {
+            checkDeadline(command, e);
             IOException ioe = getFirstThrowableOfType(e, IOException.class);
             if (ioe != null && shouldContinue(command, ioe)) {
                continue;
@@ -121,6 +137,8 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             break;
 
          } finally {
+            if (abortAtDeadline != null)
+               watchdog.cancel(abortAtDeadline);
             cleanup(nativeRequest);
          }
       }
@@ -129,6 +147,42 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * Throws if the command has run past its deadline, so that it is neither sent nor retried.
+    */
+   private static void checkDeadline(HttpCommand command, Exception cause) {
+      Optional<Long> remainingNanos = command.getRemainingNanos();
+      if (remainingNanos.isPresent() && remainingNanos.get() <= 0) {
+         UncheckedTimeoutException timeout = new UncheckedTimeoutException("deadline exceeded for "
+               + command.getCurrentRequest().getRequestLine());
+         if (cause != null)
+            timeout.initCause(cause);
+         throw timeout;
+      }
+   }
+
+   private Future<?> abortAtDeadline(HttpCommand command, final Q nativeRequest) {
+      if (watchdog == null)
+         return null;
+      return watchdog.schedule(new Runnable() {
+         @Override
+         public void run() {
+            abort(nativeRequest);
+         }
+      }, command.getRemainingNanos().get());
+   }
+
+   private void disarmWhenConsumed(HttpCommand command, final Future<?> abortAtDeadline) {
+      if (abortAtDeadline == null)
+         return;
+      command.onDisarmDeadline(new Runnable() {
+         @Override
+         public void run() {
+            watchdog.cancel(abortAtDeadline);
+         }
+      });
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
@@ -169,8 +223,24 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected abstract Q convert(HttpRequest request) throws IOException, InterruptedException;
 
+   /**
+    * Converts a request that must complete within {@code remainingNanos}. Drivers that implement
+    * {@link org.jclouds.http.DeadlineEnforcingHttpCommandExecutorService} bound their connect and
+    * read timeouts by it.
+    */
+   protected Q convert(HttpRequest request, long remainingNanos) throws IOException, InterruptedException {
+      return convert(request);
+   }
+
    protected abstract HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException;
 
    protected abstract void cleanup(Q nativeRequest);
 
+   /**
+    * Called from another thread when a request is still in flight at the deadline of its command.
+    * Implementations should make a blocked {@link #invoke(Object)} fail promptly.
+    */
+   protected void abort(Q nativeRequest) {
+   }
+
 }
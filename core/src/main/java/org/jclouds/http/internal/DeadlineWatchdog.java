@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the aborts of {@link BaseHttpCommandExecutorService} when a command runs past its deadline.
+ * The thread is started on first use and stops once no abort has been pending for a minute. As it
+ * does not belong to a context, executors sharing it can be shared by contexts too.
+ */
+@Singleton
+class DeadlineWatchdog {
+
+   private ScheduledThreadPoolExecutor timer;
+
+   /**
+    * @return a future to pass to {@link #cancel} once the request completes
+    */
+   Future<?> schedule(Runnable abort, long delayNanos) {
+      return timer().schedule(abort, delayNanos, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * Cancels and dequeues the abort, so that long deadlines do not hold on to completed requests.
+    */
+   void cancel(Future<?> abort) {
+      if (abort.cancel(false))
+         timer().remove((Runnable) abort);
+   }
+
+   private synchronized ScheduledThreadPoolExecutor timer() {
+      if (timer == null) {
+         timer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+               .setNameFormat("http deadline watchdog %d").setDaemon(true).build());
+         timer.setKeepAliveTime(1, TimeUnit.MINUTES);
+         timer.allowCoreThreadTimeOut(true);
+      }
+      return timer;
+   }
+}
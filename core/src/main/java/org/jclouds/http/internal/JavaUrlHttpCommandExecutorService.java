@@ -37,6 +37,7 @@ import java.net.URI;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -44,6 +45,7 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 
+import org.jclouds.http.DeadlineEnforcingHttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpUtils;
@@ -63,7 +65,8 @@ import com.google.common.io.CountingOutputStream;
 import com.google.inject.Inject;
 
 @Singleton
-public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorService<HttpURLConnection> {
+public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorService<HttpURLConnection> implements
+      DeadlineEnforcingHttpCommandExecutorService {
    protected final Supplier<SSLContext> untrustedSSLContextProvider;
    protected final Function<URI, Proxy> proxyForURI;
    protected final HostnameVerifier verifier;
@@ -128,11 +131,29 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
 
    @Override
    protected HttpURLConnection convert(HttpRequest request) throws IOException, InterruptedException {
+      return convert(request, utils.getConnectionTimeout(), utils.getSocketOpenTimeout());
+   }
+
+   @Override
+   protected HttpURLConnection convert(HttpRequest request, long remainingNanos) throws IOException,
+         InterruptedException {
+      long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+      return convert(request, boundTimeout(utils.getConnectionTimeout(), remainingMillis),
+            boundTimeout(utils.getSocketOpenTimeout(), remainingMillis));
+   }
+
+   /** A configured timeout of zero means none, so the remaining time applies alone. */
+   private static int boundTimeout(int configuredMillis, long remainingMillis) {
+      long bound = configuredMillis > 0 ? Math.min(configuredMillis, remainingMillis) : remainingMillis;
+      return (int) Math.min(Integer.MAX_VALUE, bound);
+   }
+
+   private HttpURLConnection convert(HttpRequest request, int connectTimeout, int readTimeout) throws IOException {
       boolean chunked = "chunked".equals(request.getFirstHeaderOrNull("Transfer-Encoding"));
 
       HttpURLConnection connection = initConnection(request);
-      connection.setConnectTimeout(utils.getConnectionTimeout());
-      connection.setReadTimeout(utils.getSocketOpenTimeout());
+      connection.setConnectTimeout(connectTimeout);
+      connection.setReadTimeout(readTimeout);
       connection.setAllowUserInteraction(false);
       // do not follow redirects since https redirects don't work properly
       // ex. Caused by: java.io.IOException: HTTPS hostname wrong: should be
@@ -309,4 +330,12 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
       if (connection != null)
          connection.disconnect();
    }
+
+   /**
+    * Disconnecting closes the socket, which fails a read blocked in {@link #invoke(HttpURLConnection)}.
+    */
+   @Override
+   protected void abort(HttpURLConnection connection) {
+      connection.disconnect();
+   }
 }
@@ -16,8 +16,10 @@
  */
 package org.jclouds.json.internal;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 import javax.inject.Inject;
@@ -25,7 +27,9 @@ import javax.inject.Singleton;
 
 import org.jclouds.json.Json;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ForwardingObject;
+import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 
 @Singleton
@@ -52,12 +56,32 @@ public class GsonWrapper extends ForwardingObject implements Json  {
    @SuppressWarnings("unchecked")
    @Override
    public <T> T fromJson(InputStream json, Type type) {
-      return (T) gson.fromJson(new InputStreamReader(json), type);
+      return (T) gson.fromJson(reader(json), type);
    }
 
    @Override
    public <T> T fromJson(InputStream json, Class<T> classOfT) {
-      return gson.fromJson(new InputStreamReader(json), classOfT);
+      return gson.fromJson(reader(json), classOfT);
+   }
+
+   /**
+    * Lazily deserializes the elements of a json array, without materializing the collection.
+    * 
+    * @param json
+    *           stream that is closed once the returned iterator is exhausted or closed
+    * @param elementType
+    *           type of each element in the array
+    * @param nameChoices
+    *           names of the field holding the array, such as {@code servers}. Not needed when the
+    *           document is a top-level array.
+    * @see JsonArrayElementIterator
+    */
+   public <T> JsonArrayElementIterator<T> iterateArray(InputStream json, Type elementType, String... nameChoices) {
+      return new JsonArrayElementIterator<T>(gson, reader(json), elementType, ImmutableSet.copyOf(nameChoices));
+   }
+
+   private static Reader reader(InputStream json) {
+      return new BufferedReader(new InputStreamReader(json, Charsets.UTF_8));
    }
 
    @Override
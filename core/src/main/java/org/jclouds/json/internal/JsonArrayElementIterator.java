@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Lazily decodes the elements of a json array, one at a time, without materializing the whole
+ * collection.
+ * <p/>
+ * If the document is a top-level array, its elements are returned. Otherwise, the document is
+ * scanned for the first field whose name is one of {@code nameChoices} and whose value is an array,
+ * for example {@code servers} in <code>{"servers": [...], "servers_links": [...]}</code>.
+ * <p/>
+ * The underlying reader is closed once the array is exhausted, on error, or when {@link #close()}
+ * is called.
+ */
+public class JsonArrayElementIterator<T> extends AbstractIterator<T> implements Closeable {
+
+   private final Gson gson;
+   private final JsonReader reader;
+   private final Type elementType;
+   private final Set<String> nameChoices;
+   private boolean positioned;
+
+   /**
+    * @param nameChoices
+    *           names of the array field. The first field in the document with one of these names
+    *           and an array value is used, whatever the order of the choices.
+    */
+   public JsonArrayElementIterator(Gson gson, Reader in, Type elementType, Iterable<String> nameChoices) {
+      this.gson = checkNotNull(gson, "gson");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.nameChoices = ImmutableSet.copyOf(checkNotNull(nameChoices, "nameChoices"));
+      this.reader = new JsonReader(checkNotNull(in, "reader"));
+      // in case keys are not in quotes
+      this.reader.setLenient(true);
+   }
+
+   @Override
+   protected T computeNext() {
+      try {
+         if (!positioned) {
+            positioned = true;
+            if (!seekArray()) {
+               close();
+               return endOfData();
+            }
+            reader.beginArray();
+         }
+         if (!reader.hasNext()) {
+            close();
+            return endOfData();
+         }
+         return gson.<T> fromJson(reader, elementType);
+      } catch (IOException e) {
+         close();
+         throw new JsonParseException("error reading json array " + nameChoices, e);
+      } catch (RuntimeException e) {
+         close();
+         throw e;
+      }
+   }
+
+   /**
+    * advances the reader until it is positioned right before the array to iterate.
+    * 
+    * @return false if there is no such array in the document
+    */
+   private boolean seekArray() throws IOException {
+      JsonToken token = reader.peek();
+      if (token == JsonToken.BEGIN_ARRAY)
+         return true;
+      for (; token != JsonToken.END_DOCUMENT; token = reader.peek()) {
+         switch (token) {
+         case BEGIN_OBJECT:
+            reader.beginObject();
+            break;
+         case END_OBJECT:
+            reader.endObject();
+            break;
+         case NAME:
+            String name = reader.nextName();
+            if (nameChoices.contains(name) && reader.peek() == JsonToken.BEGIN_ARRAY)
+               return true;
+            // only descend into objects, as the array we want is never nested in another array
+            if (reader.peek() != JsonToken.BEGIN_OBJECT)
+               reader.skipValue();
+            break;
+         default:
+            reader.skipValue();
+            break;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * releases the underlying stream, even if the array was not fully consumed.
+    */
+   @Override
+   public void close() {
+      try {
+         reader.close();
+      } catch (IOException ignored) {
+      }
+   }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.rest.internal.TransformerForRequest.getSaxResponseParserClassOrNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.http.functions.ParseSax.HandlerWithResult;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
+import org.jclouds.logging.Logger;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.config.InvocationConfig;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Injector;
+
+/**
+ * Invokes an xml listing and hands each element to a callback as soon as it is parsed off the
+ * wire, so that processing of the elements overlaps with the transfer of the rest of the document.
+ * <p/>
+ * The method invoked must be annotated with {@link org.jclouds.rest.annotations.XMLResponseParser}
+ * naming a handler that implements {@link StreamingHandler}. Elements passed to the callback are
+ * not part of the result. The request is invoked through {@link InvokeHttpMethod} on a user thread,
+ * so timeouts and fallbacks apply as for any other call. The callback runs on the calling thread,
+ * with at most {@value #MAX_PENDING_ELEMENTS} parsed elements waiting for it; an exception it
+ * throws aborts the request and propagates to the caller without passing through the fallback.
+ * The invocation is processed without a caller, so it cannot be a method of a delegate api whose
+ * caller contributes to the request.
+ */
+@Singleton
+public class InvokeAndStreamSaxElements {
+
+   @VisibleForTesting
+   static final int MAX_PENDING_ELEMENTS = 256;
+   private static final long POLL_MILLIS = 50;
+
+   @Resource
+   private Logger logger = Logger.NULL;
+
+   private final Injector injector;
+   private final ParseSax.Factory parserFactory;
+   private final InvokeHttpMethod invokeHttpMethod;
+   private final ListeningExecutorService userExecutor;
+   private final InvocationConfig config;
+
+   @Inject
+   InvokeAndStreamSaxElements(Injector injector, ParseSax.Factory parserFactory, InvokeHttpMethod invokeHttpMethod,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, InvocationConfig config) {
+      this.injector = injector;
+      this.parserFactory = parserFactory;
+      this.invokeHttpMethod = invokeHttpMethod;
+      this.userExecutor = userExecutor;
+      this.config = config;
+   }
+
+   /**
+    * @param invocation
+    *           call to a method of an http api that returns an xml listing
+    * @param callback
+    *           invoked on the calling thread with each element, in document order
+    * @return the result of the handler, which excludes the elements passed to the callback, or the
+    *         result of the fallback
+    */
+   @SuppressWarnings("unchecked")
+   public <T, E> T invoke(final Invocation invocation, ElementCallback<? super E> callback) {
+      checkNotNull(callback, "callback");
+      String commandName = config.getCommandName(checkNotNull(invocation, "invocation"));
+      Class<? extends HandlerWithResult<?>> handlerClass = getSaxResponseParserClassOrNull(invocation.getInvokable());
+      checkArgument(handlerClass != null && StreamingHandler.class.isAssignableFrom(handlerClass),
+            "%s must be annotated with an @XMLResponseParser that is a StreamingHandler", commandName);
+      HandlerWithResult<T> handler = (HandlerWithResult<T>) injector.getInstance(handlerClass);
+      ElementQueue<E> elements = new ElementQueue<E>();
+      ((StreamingHandler<E>) handler).setElementCallback(elements);
+      final ParseSax<T> parser = parserFactory.create(handler);
+
+      logger.debug(">> streaming %s", commandName);
+      ListenableFuture<Object> result = userExecutor.submit(new Callable<Object>() {
+         @Override
+         public Object call() {
+            return invokeHttpMethod.apply(invocation, parser);
+         }
+      });
+      try {
+         elements.drainTo(callback, result);
+         return (T) result.get();
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } finally {
+         if (!result.isDone()) {
+            elements.abandon();
+            result.cancel(true);
+         }
+      }
+   }
+
+   /**
+    * Passes elements from the thread parsing the response to the thread running the callback,
+    * blocking the parser while the callback is {@value #MAX_PENDING_ELEMENTS} elements behind.
+    */
+   private static final class ElementQueue<E> implements ElementCallback<E> {
+      private final BlockingQueue<E> pending = new ArrayBlockingQueue<E>(MAX_PENDING_ELEMENTS);
+      private volatile boolean abandoned;
+
+      @Override
+      public void onElement(E element) {
+         try {
+            while (!pending.offer(element, POLL_MILLIS, MILLISECONDS)) {
+               if (abandoned)
+                  throw new CancellationException("elements are no longer consumed");
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted while waiting for the consumer of elements");
+         }
+      }
+
+      void drainTo(ElementCallback<? super E> callback, Future<?> producer) throws InterruptedException {
+         while (true) {
+            // all elements are queued before the producer completes
+            boolean produced = producer.isDone();
+            E element = pending.poll(POLL_MILLIS, MILLISECONDS);
+            if (element != null)
+               callback.onElement(element);
+            else if (produced)
+               return;
+         }
+      }
+
+      void abandon() {
+         abandoned = true;
+         pending.clear();
+      }
+   }
+}
@@ -18,6 +18,7 @@ package org.jclouds.rest.internal;
 
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -26,6 +27,7 @@ import java.util.concurrent.Callable;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.jclouds.http.DeadlineEnforcingHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -41,6 +43,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
 
@@ -67,23 +70,40 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
    @Override
    public Object apply(Invocation in) {
+      return apply(in, Optional.<Function<HttpResponse, ?>> absent());
+   }
+
+   /**
+    * like {@link #apply(Invocation)}, except that the response is parsed by
+    * {@code transformer} instead of the parser declared on the method.
+    * Timeouts and fallbacks apply as usual.
+    */
+   public Object apply(Invocation in, Function<HttpResponse, ?> transformer) {
+      return apply(in, Optional.<Function<HttpResponse, ?>> of(checkNotNull(transformer, "transformer")));
+   }
+
+   private Object apply(Invocation in, Optional<Function<HttpResponse, ?>> transformer) {
       Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
       if (timeoutNanos.isPresent()) {
-         return invokeWithTimeout(in, timeoutNanos.get());
+         return invokeWithTimeout(in, timeoutNanos.get(), transformer);
       }
-      return invoke(in);
+      return invoke(in, transformer);
    }
 
    /**
     * invokes the {@linkplain HttpCommand} associated with {@code invocation},
-    * {@link #getTransformer(String, HttpCommand) parses its response}, and
+    * {@link #getTransformer(String, HttpCommand, Optional) parses its response}, and
     * applies a {@link #getFallback(String, Invocation, HttpCommand) fallback}
     * if a {@code Throwable} is encountered.
     */
    public Object invoke(Invocation invocation) {
+      return invoke(invocation, Optional.<Function<HttpResponse, ?>> absent());
+   }
+
+   private Object invoke(Invocation invocation, Optional<Function<HttpResponse, ?>> customTransformer) {
       String commandName = config.getCommandName(invocation);
       HttpCommand command = toCommand(commandName, invocation);
-      Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      Function<HttpResponse, ?> transformer = getTransformer(commandName, command, customTransformer);
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
       logger.debug(">> invoking %s", commandName);
@@ -100,8 +120,13 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
    /**
     * calls {@link #invoke(Invocation)}, timing out after the specified time
-    * limit. If the target method call finished before the limit is reached, the
-    * return value or exception is propagated to the caller exactly as-is. If,
+    * limit. When the executor is a
+    * {@linkplain DeadlineEnforcingHttpCommandExecutorService}, the limit is set
+    * as the timeout of the command and enforced on the calling thread, until
+    * the response is parsed; otherwise the call runs through the
+    * {@linkplain TimeLimiter}. If the target method call finished before the
+    * limit is reached, the return value or exception is propagated to the
+    * caller exactly as-is. If,
     * on the other hand, the time limit is reached, we attempt to abort the call
     * to the target, and throw an {@link UncheckedTimeoutException} to the
     * caller.
@@ -118,14 +143,24 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
     * @see TimeLimiter#callWithTimeout(Callable, long, TimeUnit, boolean)
     */
    public Object invokeWithTimeout(final Invocation invocation, final long limitNanos) {
+      return invokeWithTimeout(invocation, limitNanos, Optional.<Function<HttpResponse, ?>> absent());
+   }
+
+   private Object invokeWithTimeout(Invocation invocation, long limitNanos,
+         Optional<Function<HttpResponse, ?>> customTransformer) {
       String commandName = config.getCommandName(invocation);
       HttpCommand command = toCommand(commandName, invocation);
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
       logger.debug(">> blocking on %s for %s", invocation, limitNanos);
       try {
-         return timeLimiter
-               .callWithTimeout(new InvokeAndTransform(commandName, command), limitNanos, NANOSECONDS, true);
+         if (http instanceof DeadlineEnforcingHttpCommandExecutorService) {
+            command.setTimeout(limitNanos, NANOSECONDS);
+            return invokeAndTransformBeforeDeadline(new InvokeAndTransform(commandName, command, customTransformer),
+                  command);
+         }
+         return timeLimiter.callWithTimeout(new InvokeAndTransform(commandName, command, customTransformer),
+               limitNanos, NANOSECONDS, true);
       } catch (Throwable t) {
          try {
             return fallback.createOrPropagate(t);
@@ -135,6 +170,26 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * The executor aborts the request at the deadline while the response is
+    * parsed, which fails the parser with whatever the aborted stream throws.
+    */
+   private static Object invokeAndTransformBeforeDeadline(InvokeAndTransform invokeAndTransform, HttpCommand command)
+         throws Exception {
+      try {
+         return invokeAndTransform.call();
+      } catch (UncheckedTimeoutException e) {
+         throw e;
+      } catch (Exception e) {
+         if (command.getRemainingNanos().get() <= 0)
+            throw new UncheckedTimeoutException("deadline exceeded for "
+                  + command.getCurrentRequest().getRequestLine(), e);
+         throw e;
+      } finally {
+         command.disarmDeadline();
+      }
+   }
+
    private org.jclouds.Fallback<?> getFallback(String commandName, Invocation invocation, HttpCommand command) {
       HttpRequest request = command.getCurrentRequest();
       org.jclouds.Fallback<?> fallback = config.getFallback(invocation);
@@ -151,9 +206,13 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       private final Function<HttpResponse, ?> transformer;
 
       InvokeAndTransform(String commandName, HttpCommand command) {
+         this(commandName, command, Optional.<Function<HttpResponse, ?>> absent());
+      }
+
+      InvokeAndTransform(String commandName, HttpCommand command, Optional<Function<HttpResponse, ?>> transformer) {
          this.commandName = commandName;
          this.command = command;
-         this.transformer = getTransformer(commandName, command);
+         this.transformer = getTransformer(commandName, command, transformer);
       }
 
       @Override
@@ -191,9 +250,17 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       return new HttpCommand(request);
    }
 
-   private Function<HttpResponse, ?> getTransformer(String commandName, HttpCommand command) {
+   private Function<HttpResponse, ?> getTransformer(String commandName, HttpCommand command,
+         Optional<Function<HttpResponse, ?>> customTransformer) {
       HttpRequest request = command.getCurrentRequest();
-      Function<HttpResponse, ?> transformer = transformerForRequest.apply(request);
+      Function<HttpResponse, ?> transformer;
+      if (customTransformer.isPresent()) {
+         transformer = customTransformer.get();
+         if (transformer instanceof InvocationContext)
+            InvocationContext.class.cast(transformer).setContext(request);
+      } else {
+         transformer = transformerForRequest.apply(request);
+      }
       logger.trace("<< response from %s is parsed by %s", commandName, transformer.getClass().getSimpleName());
       return transformer;
    }
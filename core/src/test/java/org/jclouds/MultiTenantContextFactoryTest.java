@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.json.Json;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.location.Provider;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "MultiTenantContextFactoryTest")
+public class MultiTenantContextFactoryTest {
+
+   private static final Key<Supplier<Credentials>> CREDENTIALS = Key.get(new TypeLiteral<Supplier<Credentials>>() {
+   }, Provider.class);
+   private static final Key<ListeningExecutorService> USER_EXECUTOR = Key.get(ListeningExecutorService.class,
+         Names.named(PROPERTY_USER_THREADS));
+
+   private MultiTenantContextFactory factory() {
+      return ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, "http://localhost"))
+            .buildMultiTenantContextFactory();
+   }
+
+   public void testTenantsShareWhatDoesNotDependOnCredentials() throws IOException {
+      MultiTenantContextFactory factory = factory();
+      try {
+         Injector tenant = factory.buildInjector(Suppliers.ofInstance(new Credentials("tenant", "secret")));
+         Injector other = factory.buildInjector(Suppliers.ofInstance(new Credentials("other", "secret")));
+
+         assertSame(tenant.getInstance(Json.class), other.getInstance(Json.class));
+         assertSame(tenant.getInstance(HttpUtils.class), other.getInstance(HttpUtils.class));
+         assertSame(tenant.getInstance(USER_EXECUTOR), other.getInstance(USER_EXECUTOR));
+         assertSame(tenant.getInstance(HttpCommandExecutorService.class),
+               other.getInstance(HttpCommandExecutorService.class));
+
+         assertNotSame(tenant.getInstance(Closer.class), other.getInstance(Closer.class));
+         assertEquals(tenant.getInstance(CREDENTIALS).get().identity, "tenant");
+         assertEquals(other.getInstance(CREDENTIALS).get().identity, "other");
+      } finally {
+         factory.close();
+      }
+   }
+
+   public void testClosingTenantDoesNotShutDownSharedExecutor() throws Exception {
+      MultiTenantContextFactory factory = factory();
+      Injector tenant = factory.buildInjector(Suppliers.ofInstance(new Credentials("tenant", "secret")));
+      ListeningExecutorService executor = tenant.getInstance(USER_EXECUTOR);
+
+      tenant.getInstance(Closer.class).close();
+      assertFalse(executor.isShutdown());
+      assertEquals(executor.submit(new Callable<String>() {
+         @Override
+         public String call() {
+            return "ran";
+         }
+      }).get(), "ran");
+
+      factory.close();
+      assertTrue(executor.isShutdown());
+   }
+
+   public void testBuildContext() throws IOException {
+      MultiTenantContextFactory factory = factory();
+      try {
+         Context context = factory.build("tenant", "secret");
+         assertEquals(context.utils().injector().getInstance(CREDENTIALS).get().identity, "tenant");
+         context.close();
+      } finally {
+         factory.close();
+      }
+   }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.concurrent.LocationFanOut.Result;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", singleThreaded = true, testName = "LocationFanOutTest")
+public class LocationFanOutTest {
+
+   private final ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors
+         .newCachedThreadPool());
+   private final Closer closer = new Closer();
+   private final LocationFanOut fanOut = new LocationFanOut(userExecutor, closer);
+
+   @AfterClass
+   void shutdown() throws IOException {
+      closer.close();
+      userExecutor.shutdownNow();
+   }
+
+   private static Function<String, String> sleepIn(final String slowRegion, final long millis) {
+      return new Function<String, String>() {
+         @Override
+         public String apply(String region) {
+            if (region.equals(slowRegion))
+               Uninterruptibles.sleepUninterruptibly(millis, TimeUnit.MILLISECONDS);
+            return region + "-images";
+         }
+      };
+   }
+
+   public void testResultsAreReturnedInCompletionOrder() {
+      Iterator<Result<String, String>> results = fanOut.apply(ImmutableList.of("us-west-1", "us-east-1"),
+            sleepIn("us-west-1", 200), 2);
+
+      Result<String, String> first = results.next();
+      assertEquals(first.getLocation(), "us-east-1");
+      assertEquals(first.getValue().get(), "us-east-1-images");
+      assertEquals(results.next().getLocation(), "us-west-1");
+      assertFalse(results.hasNext());
+   }
+
+   public void testFailureInOneLocationDoesNotFailOthers() {
+      final IllegalStateException exception = new IllegalStateException("region down");
+      Iterator<Result<String, String>> results = fanOut.apply(ImmutableSet.of("us-east-1", "eu-west-1"),
+            new Function<String, String>() {
+               @Override
+               public String apply(String region) {
+                  if (region.equals("eu-west-1"))
+                     throw exception;
+                  return region;
+               }
+            }, 1);
+
+      Map<String, Result<String, String>> byRegion = Maps.newHashMap();
+      while (results.hasNext()) {
+         Result<String, String> result = results.next();
+         byRegion.put(result.getLocation(), result);
+      }
+      assertTrue(byRegion.get("us-east-1").isSuccess());
+      assertFalse(byRegion.get("eu-west-1").isSuccess());
+      assertEquals(byRegion.get("eu-west-1").getError().get(), exception);
+   }
+
+   public void testSlowLocationTimesOut() {
+      Iterator<Result<String, String>> results = fanOut.apply(ImmutableList.of("ap-south-1", "us-east-1"),
+            new Function<String, String>() {
+               @Override
+               public String apply(String region) {
+                  if (region.equals("ap-south-1")) {
+                     try {
+                        Thread.sleep(10000);
+                     } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                     }
+                  }
+                  return region;
+               }
+            }, 2, 100, TimeUnit.MILLISECONDS);
+
+      assertEquals(results.next().getLocation(), "us-east-1");
+      Result<String, String> slow = results.next();
+      assertEquals(slow.getLocation(), "ap-south-1");
+      assertTrue(slow.getError().get() instanceof TimeoutException, slow.toString());
+      assertFalse(slow.getValue().isPresent());
+   }
+
+   public void testTimeoutIsEnforcedWithoutConsumer() throws InterruptedException {
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      fanOut.apply(ImmutableList.of("ap-south-1"), new Function<String, String>() {
+         @Override
+         public String apply(String region) {
+            try {
+               Thread.sleep(10000);
+            } catch (InterruptedException e) {
+               interrupted.countDown();
+            }
+            return region;
+         }
+      }, 1, 100, TimeUnit.MILLISECONDS);
+
+      assertTrue(interrupted.await(5, TimeUnit.SECONDS), "call was not interrupted at its deadline");
+   }
+
+   public void testConcurrencyIsBounded() {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+      Iterator<Result<Integer, Integer>> results = fanOut.apply(ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8),
+            new Function<Integer, Integer>() {
+               @Override
+               public Integer apply(Integer zone) {
+                  int current = inFlight.incrementAndGet();
+                  synchronized (maxInFlight) {
+                     maxInFlight.set(Math.max(maxInFlight.get(), current));
+                  }
+                  Uninterruptibles.sleepUninterruptibly(20, TimeUnit.MILLISECONDS);
+                  inFlight.decrementAndGet();
+                  return zone;
+               }
+            }, 2);
+
+      int count = 0;
+      while (results.hasNext()) {
+         assertTrue(results.next().isSuccess());
+         count++;
+      }
+      assertEquals(count, 8);
+      assertTrue(maxInFlight.get() <= 2, "max in flight: " + maxInFlight.get());
+   }
+}
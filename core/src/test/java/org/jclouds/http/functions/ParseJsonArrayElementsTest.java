@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+@Test(testName = "ParseJsonArrayElementsTest")
+public class ParseJsonArrayElementsTest {
+
+   GsonWrapper json = Guice.createInjector(new GsonModule()).getInstance(GsonWrapper.class);
+
+   static class Port {
+      private String id;
+
+      @Override
+      public String toString() {
+         return id;
+      }
+   }
+
+   private HttpResponse response(String body) {
+      return HttpResponse.builder().statusCode(200).message("ok").payload(Payloads.newPayload(body)).build();
+   }
+
+   private ParseJsonArrayElements<Port> parser(String... nameChoices) {
+      return new ParseJsonArrayElements<Port>(json, TypeLiteral.get(Port.class), nameChoices);
+   }
+
+   public void testParsesWrappedArray() {
+      String body = "{\"ports_links\": [{\"href\": \"foo\"}], \"ports\": [{\"id\": \"a\"}, {\"id\": \"b\"}], \"count\": 2}";
+      assertEquals(parser("ports").apply(response(body)).toList().toString(), "[a, b]");
+   }
+
+   public void testParsesTopLevelArray() {
+      assertEquals(parser().apply(response("[{\"id\": \"a\"}, {\"id\": \"b\"}]")).toList().toString(), "[a, b]");
+   }
+
+   public void testParsesNestedWrapper() {
+      String body = "{\"listportsresponse\": {\"count\": 1, \"port\": [{\"id\": \"a\"}]}}";
+      assertEquals(parser("port").apply(response(body)).toList().toString(), "[a]");
+   }
+
+   public void testIgnoresFieldWithSameNameThatIsNotAnArray() {
+      String body = "{\"ports\": \"none\", \"_ports\": [{\"id\": \"a\"}]}";
+      assertEquals(parser("ports", "_ports").apply(response(body)).toList().toString(), "[a]");
+   }
+
+   public void testNotFoundIsEmpty() {
+      assertEquals(parser("ports").apply(response("{\"servers\": [{\"id\": \"a\"}]}")).toList(), ImmutableList.of());
+   }
+
+   public void testNoPayloadIsEmpty() {
+      HttpResponse response = HttpResponse.builder().statusCode(200).message("ok").build();
+      assertEquals(parser("ports").apply(response).toList(), ImmutableList.of());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testCanOnlyIterateOnce() {
+      Iterable<Port> ports = parser("ports").apply(response("{\"ports\": []}"));
+      ports.iterator();
+      ports.iterator();
+   }
+
+   public void testOpensPayloadWhenIterated() {
+      final int[] opened = new int[1];
+      ByteSource body = new ByteSource() {
+         @Override
+         public InputStream openStream() {
+            opened[0]++;
+            return new ByteArrayInputStream("{\"ports\": [{\"id\": \"a\"}]}".getBytes(Charsets.UTF_8));
+         }
+      };
+      HttpResponse response = HttpResponse.builder().statusCode(200).message("ok")
+            .payload(Payloads.newByteSourcePayload(body)).build();
+
+      Iterable<Port> ports = parser("ports").apply(response);
+      assertEquals(opened[0], 0);
+      assertEquals(ports.iterator().next().toString(), "a");
+      assertEquals(opened[0], 1);
+   }
+
+   public void testInjectableForTopLevelArrays() {
+      ParseJsonArrayElements<Port> parser = Guice.createInjector(new GsonModule())
+            .getInstance(Key.get(new TypeLiteral<ParseJsonArrayElements<Port>>() {
+            }));
+      assertEquals(parser.apply(response("[{\"id\": \"a\"}]")).toList().toString(), "[a]");
+   }
+
+   public void testDecodesLazilyAndClosesStreamWhenExhausted() {
+      final boolean[] closed = new boolean[1];
+      InputStream in = new ByteArrayInputStream("{\"ports\": [{\"id\": \"a\"}, {\"id\": \"b\"}]}".getBytes(Charsets.UTF_8)) {
+         @Override
+         public void close() throws IOException {
+            closed[0] = true;
+            super.close();
+         }
+      };
+      Iterator<Port> ports = json.iterateArray(in, Port.class, "ports");
+      assertEquals(ports.next().toString(), "a");
+      assertFalse(closed[0]);
+      assertEquals(ports.next().toString(), "b");
+      assertFalse(ports.hasNext());
+      assertTrue(closed[0]);
+   }
+
+   public void testDecodesUTF8() {
+      String body = "{\"ports\": [{\"id\": \"caf\u00e9\"}]}";
+      Iterator<Port> ports = json.iterateArray(new ByteArrayInputStream(body.getBytes(Charsets.UTF_8)), Port.class,
+            "ports");
+      assertEquals(ports.next().toString(), "caf\u00e9");
+   }
+}
@@ -23,6 +23,7 @@ import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import org.jclouds.ContextBuilder;
 import org.jclouds.http.HttpCommand;
@@ -111,6 +112,22 @@ public class BackoffLimitedRetryHandlerTest {
       assertThat(elapsedTime).isBetween(period, period + acceptableDelay);
    }
 
+   @Test
+   void testExponentialBackoffDelayStopsAtTheDeadlineOfTheCommand() throws Exception {
+      HttpCommand command = createCommand();
+      command.setTimeout(100, TimeUnit.MILLISECONDS);
+
+      long startTime = System.nanoTime();
+      handler.imposeBackoffExponentialDelay(command, 5, "TEST FAILURE: 5");
+      long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+      assertThat(elapsedTime).isLessThan(400);
+
+      startTime = System.nanoTime();
+      handler.imposeBackoffExponentialDelay(command, 5, "TEST FAILURE: 5");
+      elapsedTime = (System.nanoTime() - startTime) / 1000000;
+      assertThat(elapsedTime).isLessThan(50);
+   }
+
    @Test
    void testInputStreamIsNotClosed() throws SecurityException, NoSuchMethodException, IOException {
       HttpCommand command = createCommand();
@@ -32,6 +32,8 @@ import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -51,6 +53,7 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 import org.testng.annotations.Test;
 
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -236,6 +239,67 @@ public class BaseHttpCommandExecutorServiceTest {
       verify(ioRetryHandler);
    }
 
+   public void testDoNotSendOrRetryPastDeadline() throws IOException {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET")
+            .filter(throwingFilter).build());
+      command.setTimeout(0, TimeUnit.NANOSECONDS);
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to the deadline");
+      } catch (UncheckedTimeoutException e) {
+      }
+
+      verify(ioRetryHandler);
+   }
+
+   public void testAbortsRequestStillInFlightAtDeadline() throws InterruptedException {
+      HttpCommand command = mockHttpCommand();
+      command.setTimeout(100, TimeUnit.MILLISECONDS);
+
+      AbortableHttpCommandExecutorService service = abortableHttpCommandExecutorService(true);
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to the deadline");
+      } catch (UncheckedTimeoutException e) {
+      }
+
+      assertTrue(service.aborted.await(0, TimeUnit.SECONDS));
+   }
+
+   public void testAbortsAtDeadlineUntilResponseIsConsumed() throws InterruptedException {
+      HttpCommand command = mockHttpCommand();
+      command.setTimeout(100, TimeUnit.MILLISECONDS);
+
+      AbortableHttpCommandExecutorService service = abortableHttpCommandExecutorService(false);
+      service.invoke(command);
+
+      assertTrue(service.aborted.await(5, TimeUnit.SECONDS), "the response was not aborted at the deadline");
+   }
+
+   public void testDoNotAbortAtDeadlineOnceResponseIsConsumed() throws InterruptedException {
+      HttpCommand command = mockHttpCommand();
+      command.setTimeout(100, TimeUnit.MILLISECONDS);
+
+      AbortableHttpCommandExecutorService service = abortableHttpCommandExecutorService(false);
+      service.invoke(command);
+      command.disarmDeadline();
+
+      assertFalse(service.aborted.await(300, TimeUnit.MILLISECONDS),
+            "the response was aborted after it was consumed");
+   }
+
    private HttpCommand mockHttpCommand() {
       return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("mock").build());
    }
@@ -268,6 +332,19 @@ public class BaseHttpCommandExecutorServiceTest {
       return injector.getInstance(BaseHttpCommandExecutorService.class);
    }
 
+   private AbortableHttpCommandExecutorService abortableHttpCommandExecutorService(boolean blockUntilAborted) {
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), BaseHttpApiMetadata.defaultProperties());
+         }
+      });
+
+      AbortableHttpCommandExecutorService service = injector.getInstance(AbortableHttpCommandExecutorService.class);
+      service.blockUntilAborted = blockUntilAborted;
+      return service;
+   }
+
    private static class MockInputStream extends InputStream {
       boolean isOpen = true;
       int count;
@@ -331,4 +408,40 @@ public class BaseHttpCommandExecutorServiceTest {
 
    }
 
+   private static class AbortableHttpCommandExecutorService extends BaseHttpCommandExecutorService<Object> {
+      private final CountDownLatch aborted = new CountDownLatch(1);
+      private volatile boolean blockUntilAborted;
+
+      @Inject
+      AbortableHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+            DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+            DelegatingErrorHandler errorHandler, HttpWire wire,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods) {
+         super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+      }
+
+      @Override
+      protected Object convert(HttpRequest request) throws IOException, InterruptedException {
+         return new Object();
+      }
+
+      @Override
+      protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
+         if (blockUntilAborted && aborted.await(10, TimeUnit.SECONDS))
+            throw new IOException("aborted");
+         return HttpResponse.builder().statusCode(200).build();
+      }
+
+      @Override
+      protected void cleanup(Object nativeRequest) {
+
+      }
+
+      @Override
+      protected void abort(Object nativeRequest) {
+         aborted.countDown();
+      }
+
+   }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.HttpClient;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "JavaUrlHttpCommandExecutorServiceTest")
+public class JavaUrlHttpCommandExecutorServiceTest {
+
+   private final HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://localhost/").build();
+   private JavaUrlHttpCommandExecutorService service;
+
+   @BeforeClass
+   protected void setUpService() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_CONNECTION_TIMEOUT, "5000");
+      overrides.setProperty(PROPERTY_SO_TIMEOUT, "10000");
+      service = ContextBuilder.newBuilder(forApiOnEndpoint(HttpClient.class, "http://localhost/"))
+            .overrides(overrides).buildInjector().getInstance(JavaUrlHttpCommandExecutorService.class);
+   }
+
+   public void testConfiguredTimeoutsWithoutDeadline() throws IOException, InterruptedException {
+      HttpURLConnection connection = service.convert(request);
+      assertEquals(connection.getConnectTimeout(), 5000);
+      assertEquals(connection.getReadTimeout(), 10000);
+   }
+
+   public void testTimeoutsAreBoundedByTheTimeLeft() throws IOException, InterruptedException {
+      HttpURLConnection connection = service.convert(request, TimeUnit.SECONDS.toNanos(7));
+      assertEquals(connection.getConnectTimeout(), 5000);
+      assertEquals(connection.getReadTimeout(), 7000);
+
+      connection = service.convert(request, TimeUnit.SECONDS.toNanos(2));
+      assertEquals(connection.getConnectTimeout(), 2000);
+      assertEquals(connection.getReadTimeout(), 2000);
+   }
+
+   public void testTimeoutsAreNeverZeroWhenNoTimeIsLeft() throws IOException, InterruptedException {
+      // a timeout of zero would mean none at all
+      HttpURLConnection connection = service.convert(request, 0);
+      assertEquals(connection.getConnectTimeout(), 1);
+      assertEquals(connection.getReadTimeout(), 1);
+   }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.XMLResponseParser;
+import org.jclouds.rest.config.InvocationConfig;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+@Test(groups = "unit", singleThreaded = true)
+public class InvokeAndStreamSaxElementsTest {
+
+   public static class ItemsHandler extends ParseSax.HandlerWithResult<List<String>> implements
+         StreamingHandler<String> {
+      private final List<String> items = Lists.newArrayList();
+      private final StringBuilder currentText = new StringBuilder();
+      private ElementCallback<? super String> callback;
+
+      @Override
+      public void setElementCallback(ElementCallback<? super String> callback) {
+         this.callback = callback;
+      }
+
+      @Override
+      public List<String> getResult() {
+         return items;
+      }
+
+      @Override
+      public void startElement(String uri, String name, String qName, org.xml.sax.Attributes attrs) {
+         currentText.setLength(0);
+      }
+
+      @Override
+      public void endElement(String uri, String name, String qName) {
+         if (qName.equals("item")) {
+            if (callback != null)
+               callback.onElement(currentText.toString());
+            else
+               items.add(currentText.toString());
+         }
+      }
+
+      @Override
+      public void characters(char[] ch, int start, int length) {
+         currentText.append(ch, start, length);
+      }
+   }
+
+   public interface ThingApi {
+      @Named("ns:list")
+      @XMLResponseParser(ItemsHandler.class)
+      List<String> list();
+
+      @Named("ns:get")
+      String get();
+   }
+
+   private Invocation list;
+   private Invocation get;
+   private HttpRequest listRequest = HttpRequest.builder().method("GET").endpoint("http://list").build();
+   private Function<Invocation, HttpRequest> toRequest;
+   private Injector injector = Guice.createInjector(new SaxParserModule());
+   private ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+
+   @SuppressWarnings("unchecked")
+   private Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest = Function.class.cast(Functions
+         .constant(Functions.identity()));
+
+   private HttpCommandExecutorService http;
+   private TimeLimiter timeLimiter;
+   @SuppressWarnings("rawtypes")
+   private org.jclouds.Fallback fallback;
+   private InvocationConfig config;
+   private InvokeAndStreamSaxElements streamer;
+
+   @BeforeClass
+   void setupInvocations() throws SecurityException, NoSuchMethodException {
+      list = Invocation.create(method(ThingApi.class, "list"), ImmutableList.of());
+      get = Invocation.create(method(ThingApi.class, "get"), ImmutableList.of());
+      toRequest = Functions.forMap(ImmutableMap.of(list, listRequest));
+   }
+
+   @AfterClass(alwaysRun = true)
+   void shutdownExecutor() {
+      userExecutor.shutdownNow();
+   }
+
+   @BeforeMethod
+   void createMocks() {
+      http = createMock(HttpCommandExecutorService.class);
+      timeLimiter = createMock(TimeLimiter.class);
+      fallback = createMock(org.jclouds.Fallback.class);
+      config = createMock(InvocationConfig.class);
+      InvokeHttpMethod invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter,
+            config);
+      streamer = new InvokeAndStreamSaxElements(injector, injector.getInstance(ParseSax.Factory.class),
+            invokeHttpMethod, userExecutor, config);
+   }
+
+   @AfterMethod
+   void verifyMocks() {
+      verify(http, timeLimiter, fallback, config);
+   }
+
+   private void expectInvocationOfList(Optional<Long> timeoutNanos) {
+      expect(config.getCommandName(list)).andReturn("ns:list").times(2);
+      expect(config.getTimeoutNanos(list)).andReturn(timeoutNanos);
+      expect(config.getFallback(list)).andReturn(fallback);
+   }
+
+   private static HttpResponse itemsResponse() {
+      return HttpResponse.builder().statusCode(200).payload("<items><item>a</item><item>b</item></items>").build();
+   }
+
+   private static class Collect implements ElementCallback<String> {
+      private final List<String> elements = Lists.newArrayList();
+
+      @Override
+      public void onElement(String element) {
+         elements.add(element);
+      }
+   }
+
+   public void testElementsArePushedToCallbackAndNotRetained() {
+      expectInvocationOfList(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(listRequest))).andReturn(itemsResponse());
+      replay(http, timeLimiter, fallback, config);
+
+      Collect callback = new Collect();
+      List<String> result = streamer.invoke(list, callback);
+      assertEquals(callback.elements, ImmutableList.of("a", "b"));
+      assertEquals(result, ImmutableList.of());
+   }
+
+   public void testCallbackRunsOnCallingThread() {
+      expectInvocationOfList(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(listRequest))).andReturn(itemsResponse());
+      replay(http, timeLimiter, fallback, config);
+
+      final Thread caller = Thread.currentThread();
+      final List<Thread> threads = Lists.newArrayList();
+      streamer.invoke(list, new ElementCallback<String>() {
+         @Override
+         public void onElement(String element) {
+            threads.add(Thread.currentThread());
+         }
+      });
+      assertEquals(threads, ImmutableList.of(caller, caller));
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testAppliesInvocationTimeout() throws Exception {
+      expectInvocationOfList(Optional.of(250000000L));
+      expect(timeLimiter.callWithTimeout(anyObject(Callable.class), eq(250000000L), eq(TimeUnit.NANOSECONDS), eq(true)))
+            .andReturn(ImmutableList.of());
+      replay(http, timeLimiter, fallback, config);
+
+      assertEquals(streamer.invoke(list, new Collect()), ImmutableList.of());
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testRunsFallbackCreateOrPropagate() throws Exception {
+      IllegalStateException exception = new IllegalStateException();
+      expectInvocationOfList(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(listRequest))).andThrow(exception);
+      expect(fallback.createOrPropagate(exception)).andReturn(ImmutableList.of());
+      replay(http, timeLimiter, fallback, config);
+
+      assertEquals(streamer.invoke(list, new Collect()), ImmutableList.of());
+   }
+
+   public void testCallbackExceptionPropagatesWithoutFallback() {
+      final IllegalStateException exception = new IllegalStateException();
+      expectInvocationOfList(Optional.<Long> absent());
+      expect(http.invoke(new HttpCommand(listRequest))).andReturn(itemsResponse());
+      replay(http, timeLimiter, fallback, config);
+
+      try {
+         streamer.invoke(list, new ElementCallback<String>() {
+            @Override
+            public void onElement(String element) {
+               throw exception;
+            }
+         });
+         throw new AssertionError("expected the exception of the callback");
+      } catch (IllegalStateException e) {
+         assertTrue(e == exception, "unexpected exception: " + e);
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRequiresStreamingHandler() {
+      expect(config.getCommandName(get)).andReturn("ns:get");
+      replay(http, timeLimiter, fallback, config);
+      streamer.invoke(get, new Collect());
+   }
+}
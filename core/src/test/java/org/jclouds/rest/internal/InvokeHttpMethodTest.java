@@ -18,15 +18,22 @@ package org.jclouds.rest.internal;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Named;
 
+import org.easymock.IAnswer;
+import org.jclouds.http.DeadlineEnforcingHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -45,6 +52,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
 
 @Test(groups = "unit", singleThreaded = true)
 public class InvokeHttpMethodTest {
@@ -103,6 +111,72 @@ public class InvokeHttpMethodTest {
       invokeHttpMethod.apply(get);
    }
 
+   public void testMethodWithTimeoutSetsDeadlineOnCommandWhenEnforcedByExecutor() throws Exception {
+      DeadlineEnforcingHttpCommandExecutorService enforcing = createMock(
+            DeadlineEnforcingHttpCommandExecutorService.class);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, enforcing, transformerForRequest, timeLimiter, config);
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
+      expect(enforcing.invoke(getCommand)).andAnswer(new IAnswer<HttpResponse>() {
+         @Override
+         public HttpResponse answer() {
+            long remaining = HttpCommand.class.cast(getCurrentArguments()[0]).getRemainingNanos().get();
+            assertTrue(remaining > 0 && remaining <= 250000000L, "remaining: " + remaining);
+            return response;
+         }
+      });
+      replay(enforcing, http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.apply(get), response);
+      verify(enforcing);
+   }
+
+   public void testDeadlineIsDisarmedOnceResponseIsParsed() throws Exception {
+      DeadlineEnforcingHttpCommandExecutorService enforcing = createMock(
+            DeadlineEnforcingHttpCommandExecutorService.class);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, enforcing, transformerForRequest, timeLimiter, config);
+      final AtomicBoolean disarmed = new AtomicBoolean();
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
+      expect(enforcing.invoke(getCommand)).andAnswer(new IAnswer<HttpResponse>() {
+         @Override
+         public HttpResponse answer() {
+            HttpCommand.class.cast(getCurrentArguments()[0]).onDisarmDeadline(new Runnable() {
+               @Override
+               public void run() {
+                  disarmed.set(true);
+               }
+            });
+            return response;
+         }
+      });
+      replay(enforcing, http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.apply(get, new Function<HttpResponse, Object>() {
+         @Override
+         public Object apply(HttpResponse input) {
+            assertFalse(disarmed.get(), "disarmed before the response was parsed");
+            return input;
+         }
+      }), response);
+      assertTrue(disarmed.get());
+      verify(enforcing);
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testParserFailingPastDeadlineTimesOut() throws Exception {
+      DeadlineEnforcingHttpCommandExecutorService enforcing = createMock(
+            DeadlineEnforcingHttpCommandExecutorService.class);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, enforcing, transformerForRequest, timeLimiter, config);
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.of(1L));
+      expect(enforcing.invoke(getCommand)).andReturn(response);
+      expect(fallback.createOrPropagate(isA(UncheckedTimeoutException.class))).andReturn(fallbackResponse);
+      replay(enforcing, http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.apply(get, new Function<HttpResponse, Object>() {
+         @Override
+         public Object apply(HttpResponse input) {
+            throw new IllegalStateException("stream closed");
+         }
+      }), fallbackResponse);
+      verify(enforcing);
+   }
+
    public void testMethodWithNoTimeoutCallGetDirectly() throws Exception {
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
@@ -227,6 +227,8 @@ public class SshjSshClient implements SshClient {
       }
    }
 
+   private SFTPClient sharedSftp;
+
    Connection<SFTPClient> sftpConnection = new Connection<SFTPClient>() {
 
       private SFTPClient sftp;
@@ -295,6 +297,36 @@ public class SshjSshClient implements SshClient {
       return acquire(new GetConnection(path));
    }
 
+   /**
+    * Exec sessions are already channels on the one connection, and puts share a single sftp channel
+    * as well, rather than starting the sftp subsystem for every file.
+    */
+   private synchronized SFTPClient sharedSftp() {
+      if (sharedSftp == null || !sharedSftp.getSFTPEngine().getSubsystem().isOpen())
+         sharedSftp = acquire(new Connection<SFTPClient>() {
+
+            @Override
+            public void clear() {
+            }
+
+            @Override
+            public SFTPClient create() throws IOException {
+               checkConnected();
+               return sshClientConnection.ssh.newSFTPClient();
+            }
+
+            @Override
+            public String toString() {
+               return "SFTPClient(shared)";
+            }
+         });
+      return sharedSftp;
+   }
+
+   private synchronized void clearSharedSftp() {
+      sharedSftp = null;
+   }
+
    class PutConnection implements Connection<Void> {
       private final String path;
       private final Payload contents;
@@ -307,17 +339,20 @@ public class SshjSshClient implements SshClient {
 
       @Override
       public void clear() {
-         if (sftp != null)
+         // only after a failed attempt, as the channel is shared with other puts
+         if (sftp != null) {
+            clearSharedSftp();
             try {
                sftp.close();
             } catch (IOException e) {
                Throwables.propagate(e);
             }
+         }
       }
 
       @Override
       public Void create() throws Exception {
-         sftp = acquire(sftpConnection);
+         sftp = sharedSftp();
          try {
             sftp.put(new InMemorySourceFile() {
 
@@ -403,6 +438,7 @@ public class SshjSshClient implements SshClient {
 
    @PreDestroy
    public void disconnect() {
+      clearSharedSftp();
       try {
          sshClientConnection.clear();
       } catch (Exception e) {
@@ -22,6 +22,7 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.reflect.Reflection2.method;
 
 import java.util.Set;
 
@@ -32,15 +33,19 @@ import org.jclouds.Constants;
 import org.jclouds.aws.ec2.AWSEC2Api;
 import org.jclouds.aws.ec2.domain.AWSRunningInstance;
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
+import org.jclouds.aws.ec2.features.AWSInstanceApi;
 import org.jclouds.aws.ec2.functions.SpotInstanceRequestToAWSRunningInstance;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
 import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
 import org.jclouds.location.Region;
+import org.jclouds.rest.internal.InvokeAndStreamSaxElements;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Multimap;
+import com.google.common.reflect.Invokable;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 
@@ -54,8 +59,8 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    protected AWSEC2ListNodesStrategy(AWSEC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            SpotInstanceRequestToAWSRunningInstance spotConverter) {
-      super(client, regions, runningInstanceToNodeMetadata, userExecutor);
+            InvokeAndStreamSaxElements streamer, SpotInstanceRequestToAWSRunningInstance spotConverter) {
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, streamer);
       this.client = checkNotNull(client, "client");
       this.spotConverter = checkNotNull(spotConverter, "spotConverter");
    }
@@ -69,6 +74,21 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
       return concat(super.pollRunningInstances(), spots);
    }
 
+   @Override
+   protected void streamRunningInstances(ElementCallback<? super RunningInstance> callback) {
+      super.streamRunningInstances(callback);
+      for (SpotInstanceRequest spot : concat(transform(regions.get(), allSpotInstancesInRegion()))) {
+         AWSRunningInstance instance = spotConverter.apply(spot);
+         if (instance != null)
+            callback.onElement(instance);
+      }
+   }
+
+   @Override
+   protected Invokable<?, ?> describeInstancesInRegion() {
+      return method(AWSInstanceApi.class, "describeInstancesInRegion", String.class, String[].class);
+   }
+
    @Override
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
       Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
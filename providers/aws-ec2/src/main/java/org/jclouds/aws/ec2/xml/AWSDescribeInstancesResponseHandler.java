@@ -26,6 +26,8 @@ import org.jclouds.date.DateService;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.ec2.xml.TagSetHandler;
+import org.jclouds.http.functions.ParseSax.ElementCallback;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
 import org.jclouds.location.Region;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -42,10 +44,12 @@ import com.google.common.collect.ImmutableSet.Builder;
  * @see <a href="http: />
  */
 public class AWSDescribeInstancesResponseHandler extends
-      BaseAWSReservationHandler<Set<Reservation<? extends RunningInstance>>> {
+      BaseAWSReservationHandler<Set<Reservation<? extends RunningInstance>>> implements
+      StreamingHandler<Reservation<? extends RunningInstance>> {
    private final TagSetHandler tagSetHandler;
    private Builder<Reservation<? extends RunningInstance>> reservations = ImmutableSet.<Reservation<? extends RunningInstance>>builder();
    private boolean inTagSet;
+   private ElementCallback<? super Reservation<? extends RunningInstance>> callback;
 
    @Inject
    AWSDescribeInstancesResponseHandler(DateService dateService, @Region Supplier<String> defaultRegion,
@@ -85,6 +89,11 @@ public class AWSDescribeInstancesResponseHandler extends
       super.endElement(uri, name, qName);
    }
 
+   @Override
+   public void setElementCallback(ElementCallback<? super Reservation<? extends RunningInstance>> callback) {
+      this.callback = callback;
+   }
+
    @Override
    public Set<Reservation<? extends RunningInstance>> getResult() {
       return reservations.build();
@@ -97,7 +106,10 @@ public class AWSDescribeInstancesResponseHandler extends
    @Override
    protected void inItem() {
       if (endOfReservationItem()) {
-         reservations.add(super.newReservation());
+         if (callback != null)
+            callback.onElement(super.newReservation());
+         else
+            reservations.add(super.newReservation());
       } else {
          super.inItem();
       }
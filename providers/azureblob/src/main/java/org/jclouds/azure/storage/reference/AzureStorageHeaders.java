@@ -36,6 +36,12 @@ public final class AzureStorageHeaders {
    public static final String COPY_SOURCE_IF_UNMODIFIED_SINCE = "x-ms-source-if-unmodified-since";
    public static final String COPY_SOURCE_IF_MATCH = "x-ms-source-if-match";
    public static final String COPY_SOURCE_IF_NONE_MATCH = "x-ms-source-if-none-match";
+   public static final String SOURCE_RANGE = "x-ms-source-range";
+
+   public static final String APPEND_POSITION = "x-ms-blob-condition-appendpos";
+   public static final String MAX_SIZE = "x-ms-blob-condition-maxsize";
+   public static final String PAGE_WRITE = "x-ms-page-write";
+   public static final String RANGE = "x-ms-range";
 
    public static final String REQUEST_ID = "x-ms-request-id";
    public static final String VERSION = "x-ms-version";
@@ -45,6 +45,7 @@ import org.jclouds.azureblob.binders.BindAzureBlobMetadataToMultipartRequest;
 import org.jclouds.azureblob.binders.BindAzureBlocksToRequest;
 import org.jclouds.azureblob.binders.BindAzureContentMetadataToRequest;
 import org.jclouds.azureblob.binders.BindAzureCopyOptionsToRequest;
+import org.jclouds.azureblob.binders.BindCopySourceToPutBlockFromURLRequest;
 import org.jclouds.azureblob.binders.BindPublicAccessToRequest;
 import org.jclouds.azureblob.domain.AccessTier;
 import org.jclouds.azureblob.domain.AzureBlob;
@@ -58,6 +59,7 @@ import org.jclouds.azureblob.functions.ParseBlobFromHeadersAndHttpContent;
 import org.jclouds.azureblob.functions.ParseBlobPropertiesFromHeaders;
 import org.jclouds.azureblob.functions.ParseContainerPropertiesFromHeaders;
 import org.jclouds.azureblob.functions.ParsePublicAccessHeader;
+import org.jclouds.azureblob.options.AppendBlockOptions;
 import org.jclouds.azureblob.options.CopyBlobOptions;
 import org.jclouds.azureblob.options.CreateContainerOptions;
 import org.jclouds.azureblob.options.ListBlobsOptions;
@@ -363,6 +365,30 @@ public interface AzureBlobClient extends Closeable {
          @QueryParam("blockid") @ParamValidators(BlockIdValidator.class) String blockId, Payload part);
 
 
+   /**
+    *  The Put Block From URL operation creates a block from a range of another blob, which the
+    *  service reads directly, so that no content passes through the client. The block is assembled
+    *  into a blob with the Put Block List operation like those created with Put Block.
+    *
+    *  @param copySource
+    *           a blob that is public or has a shared access signature, for example from
+    *           {@link org.jclouds.azureblob.blobstore.AzureBlobRequestSigner#signGetBlob}
+    *  @param sourceRangeStart
+    *           offset of the first byte of the block in the source
+    *  @param sourceRangeEnd
+    *           offset of the last byte of the block in the source, inclusive
+    */
+   @Named("PutBlockFromURL")
+   @PUT
+   @Path("{container}/{name}")
+   @Headers(keys = AzureStorageHeaders.SOURCE_RANGE, values = "bytes={sourceRangeStart}-{sourceRangeEnd}")
+   @QueryParams(keys = { "comp" }, values = { "block" })
+   void putBlockFromURL(@PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
+         @PathParam("name") String name,
+         @QueryParam("blockid") @ParamValidators(BlockIdValidator.class) String blockId,
+         @BinderParam(BindCopySourceToPutBlockFromURLRequest.class) URI copySource,
+         @PathParam("sourceRangeStart") long sourceRangeStart, @PathParam("sourceRangeEnd") long sourceRangeEnd);
+
    /**
     *  The Put Block List assembles a list of blocks previously uploaded with Put Block into a single
     *  blob. Blocks are either already committed to a blob or uncommitted. The blocks ids passed here
@@ -404,6 +430,59 @@ public interface AzureBlobClient extends Closeable {
          @PathParam("name") String name);
 
 
+   /**
+    * The Append Block operation commits a block of up to 4 MB to the end of an append blob, which
+    * is created with {@link #putBlob} and a type of {@link org.jclouds.azureblob.domain.BlobType#APPEND_BLOB}.
+    * Unlike Put Block List, the cost of an append does not depend on the size of the blob.
+    *
+    * @see AppendBlockOptions#appendPosition
+    */
+   @Named("AppendBlock")
+   @PUT
+   @Path("{container}/{name}")
+   @QueryParams(keys = { "comp" }, values = { "appendblock" })
+   @ResponseParser(ParseETagHeader.class)
+   String appendBlock(@PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
+         @PathParam("name") String name, Payload block, AppendBlockOptions... options);
+
+   /**
+    * The Put Page operation writes a range of pages to a page blob, which is created with
+    * {@link #putBlob} and a type of {@link org.jclouds.azureblob.domain.BlobType#PAGE_BLOB}.
+    *
+    * @param rangeStart
+    *           offset of the first byte written, a multiple of 512
+    * @param rangeEnd
+    *           offset of the last byte written, inclusive, one less than a multiple of 512. The
+    *           payload must be exactly as long as the range.
+    */
+   @Named("PutPage")
+   @PUT
+   @Path("{container}/{name}")
+   @Headers(keys = { AzureStorageHeaders.PAGE_WRITE, AzureStorageHeaders.RANGE },
+         values = { "update", "bytes={rangeStart}-{rangeEnd}" })
+   @QueryParams(keys = { "comp" }, values = { "page" })
+   @ResponseParser(ParseETagHeader.class)
+   String putPages(@PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
+         @PathParam("name") String name, @PathParam("rangeStart") long rangeStart,
+         @PathParam("rangeEnd") long rangeEnd, Payload pages);
+
+   /**
+    * The Put Page operation with a page write of clear releases a range of pages of a page blob,
+    * which then read as zeros.
+    *
+    * @see #putPages
+    */
+   @Named("PutPage")
+   @PUT
+   @Path("{container}/{name}")
+   @Headers(keys = { AzureStorageHeaders.PAGE_WRITE, AzureStorageHeaders.RANGE },
+         values = { "clear", "bytes={rangeStart}-{rangeEnd}" })
+   @QueryParams(keys = { "comp" }, values = { "page" })
+   @ResponseParser(ParseETagHeader.class)
+   String clearPages(@PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
+         @PathParam("name") String name, @PathParam("rangeStart") long rangeStart,
+         @PathParam("rangeEnd") long rangeEnd);
+
    /**
     * The Get Blob Properties operation returns all user-defined metadata, standard HTTP properties,
     * and system properties for the blob. It does not return the content of the blob.
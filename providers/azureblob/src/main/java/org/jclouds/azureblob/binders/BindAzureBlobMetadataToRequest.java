@@ -75,6 +75,10 @@ public class BindAzureBlobMetadataToRequest implements Binder {
          headers.put(HttpHeaders.CONTENT_LENGTH, "0");
          headers.put("x-ms-blob-content-length", blob.getPayload().getContentMetadata().getContentLength().toString());
          break;
+      case APPEND_BLOB:
+         checkArgument(blob.getPayload().getContentMetadata().getContentLength() == 0,
+               "append blobs are created empty; add content with appendBlock");
+         break;
       case BLOCK_BLOB:
          checkArgument(
                checkNotNull(blob.getPayload().getContentMetadata().getContentLength(), "blob.getContentLength()") <= 64L * 1024 * 1024,
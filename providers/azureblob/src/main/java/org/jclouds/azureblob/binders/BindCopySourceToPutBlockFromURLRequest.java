@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.binders;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URI;
+
+import javax.inject.Singleton;
+
+import org.jclouds.azure.storage.reference.AzureStorageHeaders;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.Binder;
+
+/**
+ * Binds the source of a Put Block From URL request, which needs a newer service version than the
+ * rest of the api.
+ */
+@Singleton
+public final class BindCopySourceToPutBlockFromURLRequest implements Binder {
+
+   static final String PUT_BLOCK_FROM_URL_VERSION = "2018-03-28";
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      checkNotNull(request, "request");
+      checkArgument(checkNotNull(input, "input") instanceof URI, "this binder is only valid for URI");
+      return (R) request.toBuilder()
+            .replaceHeader(AzureStorageHeaders.COPY_SOURCE, input.toString())
+            .replaceHeader(AzureStorageHeaders.VERSION, PUT_BLOCK_FROM_URL_VERSION)
+            .build();
+   }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.blobstore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.azureblob.options.AppendBlockOptions.Builder.appendPosition;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jclouds.azureblob.AzureBlobClient;
+import org.jclouds.azureblob.domain.AzureBlob;
+import org.jclouds.azureblob.domain.BlobProperties;
+import org.jclouds.azureblob.domain.BlobType;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.annotations.Beta;
+import com.google.common.io.ByteSource;
+
+/**
+ * Appends to an append blob, coalescing small writes into blocks of up to 4 MB, so that the cost of
+ * streaming, for example, a log into Azure grows with the bytes written rather than with the number
+ * of writes or the size of the blob.
+ * <p/>
+ * Every block is appended on condition that the blob is as long as this stream expects. A block
+ * whose response was lost, and which is therefore retried, is not appended twice, and a concurrent
+ * writer is detected rather than interleaved.
+ * <p/>
+ * {@link #flush} appends the buffered bytes immediately, so wrappers that flush after every write,
+ * such as an auto-flushing {@link java.io.PrintStream}, defeat the coalescing. After an append
+ * fails, every write fails too, and {@link #close} does not append what is left. Instances are not
+ * thread-safe.
+ */
+@Beta
+public final class AppendBlobOutputStream extends OutputStream {
+   /** The largest block the Append Block operation accepts. */
+   public static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+   private final AzureBlobClient client;
+   private final String container;
+   private final String name;
+   private final byte[] buffer;
+   private int count;
+   private long position;
+   private boolean closed;
+   private Exception failure;
+
+   private AppendBlobOutputStream(AzureBlobClient client, String container, String name, long position,
+         int blockSize) {
+      this.client = client;
+      this.container = container;
+      this.name = name;
+      this.position = position;
+      this.buffer = new byte[blockSize];
+   }
+
+   /**
+    * Opens an append blob at its current end, creating it empty if it does not exist.
+    *
+    * @see #open(AzureBlobClient, String, String, int)
+    */
+   public static AppendBlobOutputStream open(AzureBlobClient client, String container, String name) {
+      return open(client, container, name, MAX_BLOCK_SIZE);
+   }
+
+   /**
+    * Opens an append blob at its current end, creating it empty if it does not exist. Creation is
+    * not conditional, so concurrent writers should create the blob before appending to it.
+    *
+    * @param blockSize
+    *           the number of bytes buffered before they are appended, at most {@link #MAX_BLOCK_SIZE}
+    * @throws IllegalStateException
+    *            if the blob exists and is not an append blob
+    */
+   public static AppendBlobOutputStream open(AzureBlobClient client, String container, String name,
+         int blockSize) {
+      checkNotNull(client, "client");
+      checkNotNull(container, "container");
+      checkNotNull(name, "name");
+      checkArgument(blockSize > 0 && blockSize <= MAX_BLOCK_SIZE, "blockSize must be between 1 and %s",
+            MAX_BLOCK_SIZE);
+      BlobProperties properties = client.getBlobProperties(container, name);
+      long position;
+      if (properties == null) {
+         AzureBlob blob = client.newBlob();
+         blob.getProperties().setName(name);
+         blob.getProperties().setType(BlobType.APPEND_BLOB);
+         blob.setPayload(new byte[0]);
+         client.putBlob(container, blob);
+         position = 0;
+      } else {
+         checkState(properties.getType() == BlobType.APPEND_BLOB, "%s/%s is a %s, not an append blob", container,
+               name, properties.getType());
+         position = properties.getContentMetadata().getContentLength();
+      }
+      return new AppendBlobOutputStream(client, container, name, position, blockSize);
+   }
+
+   /**
+    * The length of the blob once the bytes written so far are appended.
+    */
+   public long getPosition() {
+      return position + count;
+   }
+
+   @Override
+   public void write(int b) throws IOException {
+      checkOpen();
+      buffer[count++] = (byte) b;
+      if (count == buffer.length) {
+         appendBuffer();
+      }
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, b.length);
+      checkOpen();
+      while (len > 0) {
+         int n = Math.min(len, buffer.length - count);
+         System.arraycopy(b, off, buffer, count, n);
+         count += n;
+         off += n;
+         len -= n;
+         if (count == buffer.length) {
+            appendBuffer();
+         }
+      }
+   }
+
+   /**
+    * Appends the buffered bytes, if any, as a block.
+    */
+   @Override
+   public void flush() throws IOException {
+      checkOpen();
+      if (count > 0) {
+         appendBuffer();
+      }
+   }
+
+   /**
+    * Appends the buffered bytes, unless an earlier append failed.
+    */
+   @Override
+   public void close() throws IOException {
+      if (closed || failure != null) {
+         closed = true;
+         return;
+      }
+      try {
+         flush();
+      } finally {
+         closed = true;
+      }
+   }
+
+   /**
+    * Once an append failed, the length of the blob is unknown, so the buffered bytes cannot be
+    * appended at a known position anymore.
+    */
+   private void checkOpen() throws IOException {
+      checkState(!closed, "stream closed");
+      if (failure != null) {
+         throw new IOException(String.format("an earlier append to %s/%s failed", container, name), failure);
+      }
+   }
+
+   private void appendBuffer() throws IOException {
+      Payload block = Payloads.newByteSourcePayload(ByteSource.wrap(buffer).slice(0, count));
+      block.getContentMetadata().setContentLength((long) count);
+      try {
+         appendBlock(block);
+      } catch (IOException e) {
+         failure = e;
+         throw e;
+      } catch (RuntimeException e) {
+         failure = e;
+         throw e;
+      } finally {
+         block.release();
+      }
+      position += count;
+      count = 0;
+   }
+
+   private void appendBlock(Payload block) throws IOException {
+      try {
+         client.appendBlock(container, name, block, appendPosition(position));
+      } catch (RuntimeException e) {
+         HttpResponseException responseException = getFirstThrowableOfType(e, HttpResponseException.class);
+         if (responseException == null || responseException.getResponse() == null
+               || responseException.getResponse().getStatusCode() != 412) {
+            throw e;
+         }
+         // a retry of a block that was appended, but whose response was lost, fails the condition
+         BlobProperties properties = client.getBlobProperties(container, name);
+         Long length = properties == null ? null : properties.getContentMetadata().getContentLength();
+         if (length == null || length != position + count) {
+            throw new IOException(String.format("%s/%s was %s bytes long rather than %s; another writer appended to it",
+                  container, name, length, position + count), e);
+         }
+      }
+   }
+}
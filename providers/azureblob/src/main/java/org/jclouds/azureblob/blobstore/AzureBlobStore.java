@@ -17,6 +17,7 @@
 package org.jclouds.azureblob.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.azure.storage.options.ListOptions.Builder.includeMetadata;
 
 import java.io.InputStream;
@@ -27,8 +28,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.azure.storage.domain.BoundedSet;
@@ -68,20 +71,28 @@ import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.ContentMetadata;
-import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.payloads.BaseMutableContentMetadata;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import org.jclouds.io.ContentMetadataBuilder;
 import org.jclouds.io.Payload;
 
@@ -95,6 +106,7 @@ public class AzureBlobStore extends BaseBlobStore {
    private final BlobToAzureBlob blob2AzureBlob;
    private final BlobPropertiesToBlobMetadata blob2BlobMd;
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
+   private final ListeningExecutorService userExecutor;
 
 
    @Inject
@@ -104,7 +116,8 @@ public class AzureBlobStore extends BaseBlobStore {
             ListOptionsToListBlobsOptions blobStore2AzureContainerListOptions,
             ListBlobsResponseToResourceList azure2BlobStoreResourceList, AzureBlobToBlob azureBlob2Blob,
             BlobToAzureBlob blob2AzureBlob, BlobPropertiesToBlobMetadata blob2BlobMd,
-            BlobToHttpGetOptions blob2ObjectGetOptions) {
+            BlobToHttpGetOptions blob2ObjectGetOptions,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       super(context, blobUtils, defaultLocation, locations, slicer);
       this.sync = checkNotNull(sync, "sync");
       this.container2ResourceMd = checkNotNull(container2ResourceMd, "container2ResourceMd");
@@ -115,6 +128,7 @@ public class AzureBlobStore extends BaseBlobStore {
       this.blob2AzureBlob = checkNotNull(blob2AzureBlob, "blob2AzureBlob");
       this.blob2BlobMd = checkNotNull(blob2BlobMd, "blob2BlobMd");
       this.blob2ObjectGetOptions = checkNotNull(blob2ObjectGetOptions, "blob2ObjectGetOptions");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
    }
 
    /**
@@ -307,6 +321,99 @@ public class AzureBlobStore extends BaseBlobStore {
       return eTag;
    }
 
+   /**
+    * Copies a blob within the account with {@link #copyBlobFromURL}, keeping its content and user
+    * metadata. Unlike {@link #copyBlob}, the copy is complete when this returns.
+    */
+   @Beta
+   public String copyBlobInParallel(final String fromContainer, final String fromName, String toContainer,
+         String toName) {
+      BlobMetadata source = blobMetadata(fromContainer, fromName);
+      if (source == null)
+         throw new KeyNotFoundException(fromContainer, fromName, "copying in parallel");
+      // sign as each block is copied, so that the signature does not expire during long copies
+      return copyBlobFromURL(new Supplier<URI>() {
+         @Override
+         public URI get() {
+            return context.getSigner().signGetBlob(fromContainer, fromName).getEndpoint();
+         }
+      }, toContainer, toName, source);
+   }
+
+   /**
+    * Copies a blob by splitting it into ranges that the service copies into blocks in parallel with
+    * {@link AzureBlobClient#putBlockFromURL}, before committing them with
+    * {@link AzureBlobClient#putBlockList}. No content passes through the client, and the source may
+    * be in another account. At most {@link BlobStoreConstants#PROPERTY_BLOBSTORE_COPY_CONCURRENCY}
+    * blocks are copied at once.
+    *
+    * @param source
+    *           a blob that is public or has a shared access signature valid for the whole copy, for
+    *           example from the {@link AzureBlobRequestSigner} of another account
+    * @param toBlob
+    *           the name, content metadata and user metadata of the copy. The content length must be
+    *           that of the source.
+    */
+   @Beta
+   public String copyBlobFromURL(URI source, String toContainer, BlobMetadata toBlob) {
+      return copyBlobFromURL(Suppliers.ofInstance(checkNotNull(source, "source")), toContainer, toBlob.getName(),
+            toBlob);
+   }
+
+   private String copyBlobFromURL(Supplier<URI> source, String toContainer, String toName, BlobMetadata toBlob) {
+      long contentLength = checkNotNull(toBlob.getContentMetadata().getContentLength(),
+            "must provide content-length to copy in parallel");
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
+            getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
+      long blockSize = algorithm.calculateChunkSize(contentLength);
+
+      List<ListenableFuture<String>> blocks = Lists.newArrayList();
+      List<String> blockIds;
+      try {
+         PartWindow window = new PartWindow();
+         int blockNumber = 0;
+         for (long offset = 0; offset < contentLength && window.acquire(copyConcurrency); offset += blockSize) {
+            long end = Math.min(offset + blockSize, contentLength) - 1;
+            ListenableFuture<String> block = userExecutor.submit(new BlockCopier(source, toContainer, toName,
+                  blockNumber++, offset, end));
+            Futures.addCallback(block, window);
+            blocks.add(block);
+         }
+         blockIds = Futures.getUnchecked(Futures.allAsList(blocks));
+      } catch (RuntimeException e) {
+         for (ListenableFuture<String> block : blocks) {
+            block.cancel(true);
+         }
+         throw e;
+      }
+      return putBlockList(toContainer, toName, toBlob, blockIds);
+   }
+
+   private final class BlockCopier implements Callable<String> {
+      private final Supplier<URI> source;
+      private final String container;
+      private final String name;
+      private final int blockNumber;
+      private final long begin;
+      private final long end;
+
+      BlockCopier(Supplier<URI> source, String container, String name, int blockNumber, long begin, long end) {
+         this.source = source;
+         this.container = container;
+         this.name = name;
+         this.blockNumber = blockNumber;
+         this.begin = begin;
+         this.end = end;
+      }
+
+      @Override
+      public String call() {
+         String blockId = BaseEncoding.base64().encode(Ints.toByteArray(blockNumber));
+         sync.putBlockFromURL(container, name, blockId, source.get(), begin, end);
+         return blockId;
+      }
+   }
+
    /**
     * This implementation invokes {@link AzureBlobClient#deleteObject}
     *
@@ -422,22 +529,27 @@ public class AzureBlobStore extends BaseBlobStore {
 
    @Override
    public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      ImmutableList.Builder<String> blocks = ImmutableList.builder();
+      for (MultipartPart part : parts) {
+         String blockId = BaseEncoding.base64().encode(Ints.toByteArray(part.partNumber()));
+         blocks.add(blockId);
+      }
+      return putBlockList(mpu.containerName(), mpu.blobName(), mpu.blobMetadata(), blocks.build());
+   }
+
+   private String putBlockList(String container, String name, BlobMetadata blobMetadata, List<String> blockIds) {
       AzureBlob azureBlob = sync.newBlob();
 
       // fake values to satisfy BindAzureBlobMetadataToMultipartRequest
       azureBlob.setPayload(new byte[0]);
-      azureBlob.getProperties().setContainer(mpu.containerName());
-      azureBlob.getProperties().setName(mpu.blobName());
+      azureBlob.getProperties().setContainer(container);
+      azureBlob.getProperties().setName(name);
 
-      azureBlob.getProperties().setContentMetadata((MutableContentMetadata) mpu.blobMetadata().getContentMetadata());
-      azureBlob.getProperties().setMetadata(mpu.blobMetadata().getUserMetadata());
+      azureBlob.getProperties().setContentMetadata(
+            BaseMutableContentMetadata.fromContentMetadata(blobMetadata.getContentMetadata()));
+      azureBlob.getProperties().setMetadata(blobMetadata.getUserMetadata());
 
-      ImmutableList.Builder<String> blocks = ImmutableList.builder();
-      for (MultipartPart part : parts) {
-         String blockId = BaseEncoding.base64().encode(Ints.toByteArray(part.partNumber()));
-         blocks.add(blockId);
-      }
-      return sync.putBlockList(mpu.containerName(), azureBlob, blocks.build());
+      return sync.putBlockList(container, azureBlob, blockIds);
    }
 
    @Override
@@ -21,7 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.CaseFormat;
 
 public enum BlobType {
-   BLOCK_BLOB, PAGE_BLOB, UNRECOGNIZED;
+   BLOCK_BLOB, PAGE_BLOB, APPEND_BLOB, UNRECOGNIZED;
 
    public String value() {
       return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, name());
@@ -27,6 +27,11 @@ import com.google.inject.ImplementedBy;
 
 @ImplementedBy(MutableBlobPropertiesImpl.class)
 public interface MutableBlobProperties extends BlobProperties {
+   /**
+    * @see BlobProperties#getType
+    */
+   void setType(BlobType type);
+
    /**
     * @see ListableContainerProperties#getUrl
     */
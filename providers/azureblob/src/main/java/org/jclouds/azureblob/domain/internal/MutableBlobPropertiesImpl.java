@@ -77,6 +77,7 @@ public class MutableBlobPropertiesImpl implements MutableBlobProperties {
    /**
     * Set the blob type.
     */
+   @Override
    public void setType(BlobType type) {
       this.type = type;
    }
@@ -22,6 +22,7 @@ import javax.inject.Inject;
 
 import org.jclouds.azureblob.blobstore.functions.BlobMetadataToBlobProperties;
 import org.jclouds.azureblob.domain.AccessTier;
+import org.jclouds.azureblob.domain.BlobType;
 import org.jclouds.azureblob.domain.MutableBlobProperties;
 import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.functions.ParseSystemAndUserMetadataFromHeaders;
@@ -56,6 +57,10 @@ public class ParseBlobPropertiesFromHeaders implements Function<HttpResponse, Mu
       BlobMetadata base = blobMetadataParser.apply(from);
       MutableBlobProperties to = blobToBlobProperties.apply(base);
       to.setContainer(container);
+      String type = from.getFirstHeaderOrNull("x-ms-blob-type");
+      if (type != null) {
+         to.setType(BlobType.fromValue(type));
+      }
       String tier = from.getFirstHeaderOrNull("x-ms-access-tier");
       if (tier != null) {
          to.setTier(AccessTier.fromValue(tier));
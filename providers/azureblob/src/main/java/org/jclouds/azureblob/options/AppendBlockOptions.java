@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.options;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.jclouds.azure.storage.reference.AzureStorageHeaders;
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Contains options supported in the REST API for the Append Block operation. <h2>
+ * Usage</h2> The recommended way to instantiate an AppendBlockOptions object is to statically
+ * import AppendBlockOptions.Builder.* and invoke a static creation method followed by an instance
+ * mutator (if needed):
+ * <p/>
+ * <code>
+ * import static org.jclouds.azureblob.options.AppendBlockOptions.Builder.*
+ * import org.jclouds.azureblob.AzureBlobClient;
+ * <p/>
+ * AzureBlobClient connection = // get connection
+ * String eTag = connection.appendBlock("containerName", "log", payload, appendPosition(1024));
+ * <code> *
+ *
+ * @see <a href="https://docs.microsoft.com/en-us/rest/api/storageservices/append-block" />
+ */
+public class AppendBlockOptions extends BaseHttpRequestOptions {
+   public static final AppendBlockOptions NONE = new AppendBlockOptions();
+
+   /**
+    * Only appends the block if the blob is exactly this long, so that a retried or concurrent
+    * append cannot be written twice or out of order. Otherwise the service responds with 412
+    * (Precondition Failed).
+    */
+   public AppendBlockOptions appendPosition(long position) {
+      checkArgument(position >= 0, "position must be non-negative");
+      replaceHeader(AzureStorageHeaders.APPEND_POSITION, Long.toString(position));
+      return this;
+   }
+
+   /**
+    * Only appends the block if the blob will be at most this long afterwards. Otherwise the service
+    * responds with 412 (Precondition Failed).
+    */
+   public AppendBlockOptions maxSize(long maxSize) {
+      checkArgument(maxSize >= 0, "maxSize must be non-negative");
+      replaceHeader(AzureStorageHeaders.MAX_SIZE, Long.toString(maxSize));
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see AppendBlockOptions#appendPosition
+       */
+      public static AppendBlockOptions appendPosition(long position) {
+         AppendBlockOptions options = new AppendBlockOptions();
+         return options.appendPosition(position);
+      }
+
+      /**
+       * @see AppendBlockOptions#maxSize
+       */
+      public static AppendBlockOptions maxSize(long maxSize) {
+         AppendBlockOptions options = new AppendBlockOptions();
+         return options.maxSize(maxSize);
+      }
+
+   }
+}
@@ -17,6 +17,7 @@
 package org.jclouds.azureblob;
 
 import static org.jclouds.azure.storage.options.ListOptions.Builder.maxResults;
+import static org.jclouds.azureblob.options.AppendBlockOptions.Builder.appendPosition;
 import static org.jclouds.azureblob.options.CreateContainerOptions.Builder.withPublicAccess;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
@@ -35,11 +36,13 @@ import org.jclouds.azure.storage.options.ListOptions;
 import org.jclouds.azureblob.AzureBlobFallbacks.FalseIfContainerAlreadyExists;
 import org.jclouds.azureblob.domain.AccessTier;
 import org.jclouds.azureblob.domain.AzureBlob;
+import org.jclouds.azureblob.domain.BlobType;
 import org.jclouds.azureblob.domain.ListBlobsInclude;
 import org.jclouds.azureblob.domain.PublicAccess;
 import org.jclouds.azureblob.functions.ParseBlobFromHeadersAndHttpContent;
 import org.jclouds.azureblob.functions.ParseContainerPropertiesFromHeaders;
 import org.jclouds.azureblob.functions.ParsePublicAccessHeader;
+import org.jclouds.azureblob.options.AppendBlockOptions;
 import org.jclouds.azureblob.options.CopyBlobOptions;
 import org.jclouds.azureblob.options.CreateContainerOptions;
 import org.jclouds.azureblob.options.ListBlobsOptions;
@@ -55,6 +58,8 @@ import org.jclouds.http.functions.ReturnTrueIf2xx;
 import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.ContentMetadataBuilder;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
 import org.jclouds.rest.internal.BaseRestAnnotationProcessingTest;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 import org.testng.annotations.Test;
@@ -397,6 +402,89 @@ public class AzureBlobClientTest extends BaseRestAnnotationProcessingTest<AzureB
       assertFallbackClassEquals(method, null);
    }
 
+   public void testPutBlockFromURL() throws Exception {
+      Invokable<?, ?> method = method(AzureBlobClient.class, "putBlockFromURL", String.class, String.class,
+            String.class, URI.class, long.class, long.class);
+      GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of(
+               "tocontainer", "toblob", "AAAAAQ==", URI.create("https://identity.blob.core.windows.net/fromcontainer/fromblob"),
+               100L, 199L));
+
+      assertRequestLineEquals(request,
+               "PUT https://identity.blob.core.windows.net/tocontainer/toblob?comp=block&blockid=AAAAAQ%3D%3D HTTP/1.1");
+      checkFilters(request);
+      assertNonPayloadHeadersEqual(request,
+               "x-ms-copy-source: https://identity.blob.core.windows.net/fromcontainer/fromblob\n" +
+               "x-ms-source-range: bytes=100-199\n" +
+               "x-ms-version: 2018-03-28\n");
+      assertPayloadEquals(request, null, null, false);
+   }
+
+   public void testPutAppendBlob() throws Exception {
+      Invokable<?, ?> method = method(AzureBlobClient.class, "putBlob", String.class, AzureBlob.class);
+      AzureBlob object = getAzureBlobClient().newBlob();
+      object.setPayload(new byte[0]);
+      object.getProperties().setName("log");
+      object.getProperties().setType(BlobType.APPEND_BLOB);
+      GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of("container", object));
+
+      assertRequestLineEquals(request, "PUT https://identity.blob.core.windows.net/container/log HTTP/1.1");
+      assertNonPayloadHeadersEqual(request,
+            "x-ms-blob-type: AppendBlob\n" +
+            "x-ms-version: 2017-04-17\n");
+      assertPayloadEquals(request, "", "application/unknown", false);
+   }
+
+   public void testAppendBlock() throws Exception {
+      Invokable<?, ?> method = method(AzureBlobClient.class, "appendBlock", String.class, String.class,
+            Payload.class, AppendBlockOptions[].class);
+      GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of(
+               "container", "log", Payloads.newStringPayload("line\n"), appendPosition(1024).maxSize(4096)));
+
+      assertRequestLineEquals(request,
+               "PUT https://identity.blob.core.windows.net/container/log?comp=appendblock HTTP/1.1");
+      checkFilters(request);
+      assertNonPayloadHeadersEqual(request,
+               "x-ms-blob-condition-appendpos: 1024\n" +
+               "x-ms-blob-condition-maxsize: 4096\n" +
+               "x-ms-version: 2017-04-17\n");
+      assertPayloadEquals(request, "line\n", "application/unknown", false);
+
+      assertResponseParserClassEquals(method, request, ParseETagHeader.class);
+      assertFallbackClassEquals(method, null);
+   }
+
+   public void testPutPages() throws Exception {
+      Invokable<?, ?> method = method(AzureBlobClient.class, "putPages", String.class, String.class, long.class,
+            long.class, Payload.class);
+      GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of(
+               "container", "disk", 512L, 1023L, Payloads.newByteArrayPayload(new byte[512])));
+
+      assertRequestLineEquals(request, "PUT https://identity.blob.core.windows.net/container/disk?comp=page HTTP/1.1");
+      checkFilters(request);
+      assertNonPayloadHeadersEqual(request,
+               "x-ms-page-write: update\n" +
+               "x-ms-range: bytes=512-1023\n" +
+               "x-ms-version: 2017-04-17\n");
+      assertEquals(request.getPayload().getContentMetadata().getContentLength(), Long.valueOf(512));
+
+      assertResponseParserClassEquals(method, request, ParseETagHeader.class);
+   }
+
+   public void testClearPages() throws Exception {
+      Invokable<?, ?> method = method(AzureBlobClient.class, "clearPages", String.class, String.class, long.class,
+            long.class);
+      GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of(
+               "container", "disk", 0L, 511L));
+
+      assertRequestLineEquals(request, "PUT https://identity.blob.core.windows.net/container/disk?comp=page HTTP/1.1");
+      checkFilters(request);
+      assertNonPayloadHeadersEqual(request,
+               "x-ms-page-write: clear\n" +
+               "x-ms-range: bytes=0-511\n" +
+               "x-ms-version: 2017-04-17\n");
+      assertPayloadEquals(request, null, null, false);
+   }
+
    public void testCopyBlob() throws Exception {
       Invokable<?, ?> method = method(AzureBlobClient.class, "copyBlob", URI.class, String.class, String.class, CopyBlobOptions.class);
       GeneratedHttpRequest request = processor.createRequest(method, ImmutableList.<Object> of(
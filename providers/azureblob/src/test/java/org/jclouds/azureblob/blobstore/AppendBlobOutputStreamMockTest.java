@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.blobstore;
+
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.azureblob.AzureBlobClient;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "AppendBlobOutputStreamMockTest", singleThreaded = true)
+public class AppendBlobOutputStreamMockTest {
+
+   private static final String LAST_MODIFIED = "Sun, 25 Mar 2018 14:19:38 GMT";
+   private static final String CONDITION_NOT_MET = "<?xml version=\"1.0\" encoding=\"utf-8\"?><Error>"
+         + "<Code>AppendPositionConditionNotMet</Code><Message>The append position condition specified was not met."
+         + "</Message></Error>";
+
+   public void testCreatesMissingBlobAndCoalescesWritesIntoBlocks() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setResponseCode(404));
+      server.enqueue(created());
+      server.enqueue(created());
+      server.enqueue(created());
+      server.enqueue(created());
+      server.play();
+
+      try {
+         AppendBlobOutputStream out = AppendBlobOutputStream.open(client(server), "container", "log", 10);
+         for (int i = 0; i < 5; i++) {
+            out.write("hello".getBytes(Charsets.UTF_8));
+         }
+         assertEquals(out.getPosition(), 25);
+         out.close();
+         assertEquals(server.getRequestCount(), 5);
+
+         assertEquals(server.takeRequest().getRequestLine(), "HEAD /container/log HTTP/1.1");
+         RecordedRequest create = server.takeRequest();
+         assertEquals(create.getRequestLine(), "PUT /container/log HTTP/1.1");
+         assertEquals(create.getHeader("x-ms-blob-type"), "AppendBlob");
+         assertEquals(create.getBody().length, 0);
+
+         assertAppend(server.takeRequest(), 0, "hellohello");
+         assertAppend(server.takeRequest(), 10, "hellohello");
+         assertAppend(server.takeRequest(), 20, "hello");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testAppendsToExistingBlobAndAcceptsRetriedBlockThatLanded() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(appendBlobProperties(100));
+      server.enqueue(new MockResponse().setResponseCode(412).addHeader("Content-Type", "application/xml")
+            .setBody(CONDITION_NOT_MET));
+      server.enqueue(appendBlobProperties(105));
+      server.enqueue(created());
+      server.play();
+
+      try {
+         AppendBlobOutputStream out = AppendBlobOutputStream.open(client(server), "container", "log");
+         out.write("hello".getBytes(Charsets.UTF_8));
+         out.flush();
+         out.write('!');
+         out.close();
+
+         server.takeRequest();
+         assertAppend(server.takeRequest(), 100, "hello");
+         server.takeRequest();
+         assertAppend(server.takeRequest(), 105, "!");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testFailsWhenAnotherWriterAppended() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(appendBlobProperties(100));
+      server.enqueue(new MockResponse().setResponseCode(412).addHeader("Content-Type", "application/xml")
+            .setBody(CONDITION_NOT_MET));
+      server.enqueue(appendBlobProperties(150));
+      server.play();
+
+      try {
+         AppendBlobOutputStream out = AppendBlobOutputStream.open(client(server), "container", "log");
+         out.write("hello".getBytes(Charsets.UTF_8));
+         try {
+            out.flush();
+            fail("expected IOException");
+         } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("150 bytes long rather than 105"), expected.getMessage());
+         }
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testFailsEveryWriteAfterAFailedAppend() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(appendBlobProperties(100));
+      server.enqueue(new MockResponse().setResponseCode(412).addHeader("Content-Type", "application/xml")
+            .setBody(CONDITION_NOT_MET));
+      server.enqueue(appendBlobProperties(150));
+      server.play();
+
+      try {
+         AppendBlobOutputStream out = AppendBlobOutputStream.open(client(server), "container", "log", 5);
+         try {
+            out.write("hello".getBytes(Charsets.UTF_8));
+            fail("expected IOException");
+         } catch (IOException expected) {
+         }
+         // the buffer is still full, so this must not be buffered, let alone appended
+         try {
+            out.write('!');
+            fail("expected IOException");
+         } catch (IOException expected) {
+         }
+         try {
+            out.flush();
+            fail("expected IOException");
+         } catch (IOException expected) {
+         }
+         out.close();
+         assertEquals(server.getRequestCount(), 3);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testRejectsBlockBlob() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().addHeader("x-ms-blob-type", "BlockBlob")
+            .addHeader("Last-Modified", LAST_MODIFIED));
+      server.play();
+
+      try {
+         AppendBlobOutputStream.open(client(server), "container", "log");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static void assertAppend(RecordedRequest request, long position, String content) {
+      assertEquals(request.getRequestLine(), "PUT /container/log?comp=appendblock HTTP/1.1");
+      assertEquals(request.getHeader("x-ms-blob-condition-appendpos"), Long.toString(position));
+      assertEquals(new String(request.getBody(), Charsets.UTF_8), content);
+   }
+
+   private static MockResponse created() {
+      return new MockResponse().setResponseCode(201).addHeader("ETag", "\"0x8D5925F1C5D12D8\"");
+   }
+
+   private static MockResponse appendBlobProperties(long length) {
+      return new MockResponse().addHeader("x-ms-blob-type", "AppendBlob").addHeader("Last-Modified", LAST_MODIFIED)
+            .setHeader("Content-Length", length);
+   }
+
+   private static AzureBlobClient client(MockWebServer server) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+      return ContextBuilder.newBuilder("azureblob")
+            .credentials("identity", "YWNjZXNzS2V5")
+            .endpoint(server.getUrl("/").toString())
+            .overrides(overrides)
+            .buildApi(AzureBlobClient.class);
+   }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.blobstore;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_BLOBSTORE_COPY_CONCURRENCY;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "AzureBlobStoreMockTest", singleThreaded = true)
+public class AzureBlobStoreMockTest {
+
+   private static final URI SOURCE = URI.create("https://other.blob.core.windows.net/fromcontainer/fromblob?sig=abc");
+
+   public void testCopyBlobFromURLCopiesRangesIntoBlocksAndCommitsThem() throws Exception {
+      long contentLength = 250L * 1024 * 1024;
+      long blockSize = new MultipartUploadSlicingAlgorithm(1, 100 * 1024 * 1024, 50 * 1000)
+            .calculateChunkSize(contentLength);
+      int blockCount = (int) ((contentLength + blockSize - 1) / blockSize);
+      assertTrue(blockCount > 1, "test needs more than one block");
+
+      MockWebServer server = new MockWebServer();
+      for (int i = 0; i < blockCount; i++) {
+         server.enqueue(new MockResponse().setResponseCode(201));
+      }
+      // binding the blob metadata to the commit looks up whether the container is public
+      server.enqueue(new MockResponse().setResponseCode(200));
+      server.enqueue(new MockResponse().setResponseCode(201).addHeader("ETag", "\"0x8CB171BA9E94B0B\""));
+      server.play();
+
+      try {
+         AzureBlobStore blobStore = blobStore(server);
+         BlobMetadata toBlob = blobStore.blobBuilder("toblob").payload(new byte[0]).contentLength(contentLength)
+               .contentType("text/plain").userMetadata(ImmutableMap.of("foo", "bar")).build().getMetadata();
+
+         assertEquals(blobStore.copyBlobFromURL(SOURCE, "tocontainer", toBlob), "\"0x8CB171BA9E94B0B\"");
+         assertEquals(server.getRequestCount(), blockCount + 2);
+
+         List<String> blockIds = Lists.newArrayList();
+         long nextByte = 0;
+         for (int i = 0; i < blockCount; i++) {
+            RecordedRequest block = server.takeRequest();
+            assertEquals(block.getMethod(), "PUT");
+            assertTrue(block.getPath().startsWith("/tocontainer/toblob?comp=block&blockid="), block.getPath());
+            assertEquals(block.getHeader("x-ms-copy-source"), SOURCE.toString());
+            assertEquals(block.getHeader("x-ms-version"), "2018-03-28");
+            assertEquals(block.getBody().length, 0);
+            long lastByte = Math.min(nextByte + blockSize, contentLength) - 1;
+            assertEquals(block.getHeader("x-ms-source-range"), "bytes=" + nextByte + "-" + lastByte);
+            nextByte = lastByte + 1;
+            blockIds.add(block.getPath().substring(block.getPath().indexOf("blockid=") + "blockid=".length())
+                  .replace("%3D", "="));
+         }
+         assertEquals(nextByte, contentLength);
+
+         assertEquals(server.takeRequest().getRequestLine(), "HEAD /tocontainer?restype=container&comp=acl HTTP/1.1");
+         RecordedRequest commit = server.takeRequest();
+         assertEquals(commit.getRequestLine(), "PUT /tocontainer/toblob?comp=blocklist HTTP/1.1");
+         assertEquals(commit.getHeader("x-ms-blob-content-type"), "text/plain");
+         assertEquals(commit.getHeader("x-ms-meta-foo"), "bar");
+         String blockList = new String(commit.getBody(), Charsets.UTF_8);
+         int previous = -1;
+         for (String blockId : blockIds) {
+            int index = blockList.indexOf("<Latest>" + blockId + "</Latest>");
+            assertTrue(index > previous, blockList);
+            previous = index;
+         }
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCopyBlobFromURLCopiesAtMostTheConfiguredNumberOfBlocksAtOnce() throws Exception {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+      final AtomicInteger copied = new AtomicInteger();
+      MockWebServer server = new MockWebServer();
+      server.setDispatcher(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (request.getPath().contains("comp=block&")) {
+               int running = inFlight.incrementAndGet();
+               while (running > maxInFlight.get()) {
+                  maxInFlight.compareAndSet(maxInFlight.get(), running);
+               }
+               Thread.sleep(50);
+               inFlight.decrementAndGet();
+               copied.incrementAndGet();
+               return new MockResponse().setResponseCode(201);
+            } else if (request.getPath().contains("comp=blocklist")) {
+               return new MockResponse().setResponseCode(201).addHeader("ETag", "\"0x8CB171BA9E94B0B\"");
+            }
+            return new MockResponse().setResponseCode(200);
+         }
+      });
+      server.play();
+
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(PROPERTY_BLOBSTORE_COPY_CONCURRENCY, "2");
+         AzureBlobStore blobStore = blobStore(server, overrides, executor);
+         long contentLength = 100L * 1024 * 1024;
+         BlobMetadata toBlob = blobStore.blobBuilder("toblob").payload(new byte[0]).contentLength(contentLength)
+               .build().getMetadata();
+
+         assertEquals(blobStore.copyBlobFromURL(SOURCE, "tocontainer", toBlob), "\"0x8CB171BA9E94B0B\"");
+         assertTrue(copied.get() > 2, "test needs more than two blocks, copied " + copied.get());
+         assertEquals(maxInFlight.get(), 2);
+      } finally {
+         executor.shutdownNow();
+         server.shutdown();
+      }
+   }
+
+   public void testPutMultipartBlobSlicesPartsOfConfiguredSize() throws Exception {
+      MockWebServer server = new MockWebServer();
+      for (int i = 0; i < 3; i++) {
+         server.enqueue(new MockResponse().setResponseCode(201));
+      }
+      server.enqueue(new MockResponse().setResponseCode(200));
+      server.enqueue(new MockResponse().setResponseCode(201).addHeader("ETag", "\"0x8CB171BA9E94B0B\""));
+      server.play();
+
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty("jclouds.mpu.parts.size", "1000");
+         AzureBlobStore blobStore = blobStore(server, overrides);
+         Blob blob = blobStore.blobBuilder("toblob").payload(new byte[2500]).build();
+
+         assertEquals(blobStore.putBlob("tocontainer", blob, multipart()), "\"0x8CB171BA9E94B0B\"");
+
+         for (int size : new int[] { 1000, 1000, 500 }) {
+            RecordedRequest block = server.takeRequest();
+            assertTrue(block.getPath().startsWith("/tocontainer/toblob?comp=block&blockid="), block.getPath());
+            assertEquals(block.getBody().length, size);
+         }
+         server.takeRequest();
+         assertEquals(server.takeRequest().getRequestLine(), "PUT /tocontainer/toblob?comp=blocklist HTTP/1.1");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static AzureBlobStore blobStore(MockWebServer server) {
+      return blobStore(server, new Properties());
+   }
+
+   private static AzureBlobStore blobStore(MockWebServer server, Properties overrides) {
+      return blobStore(server, overrides, newDirectExecutorService());
+   }
+
+   private static AzureBlobStore blobStore(MockWebServer server, Properties overrides,
+         ListeningExecutorService userExecutor) {
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+      return ContextBuilder.newBuilder("azureblob")
+            .credentials("identity", "YWNjZXNzS2V5")
+            .endpoint(server.getUrl("/").toString())
+            .overrides(overrides)
+            .modules(ImmutableList.<Module> of(new ExecutorServiceModule(userExecutor)))
+            .buildView(BlobStoreContext.class)
+            .utils().injector().getInstance(AzureBlobStore.class);
+   }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azureblob.options;
+
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.azure.storage.reference.AzureStorageHeaders;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests behavior of {@code AppendBlockOptions}
+ */
+@Test(groups = "unit")
+public class AppendBlockOptionsTest {
+
+   public void testAppendPosition() {
+      AppendBlockOptions options = new AppendBlockOptions().appendPosition(1024);
+      assertEquals(ImmutableList.of("1024"), options.buildRequestHeaders().get(AzureStorageHeaders.APPEND_POSITION));
+   }
+
+   public void testAppendPositionStatic() {
+      AppendBlockOptions options = AppendBlockOptions.Builder.appendPosition(0);
+      assertEquals(ImmutableList.of("0"), options.buildRequestHeaders().get(AzureStorageHeaders.APPEND_POSITION));
+   }
+
+   public void testAppendPositionReplacesPrevious() {
+      AppendBlockOptions options = AppendBlockOptions.Builder.appendPosition(0).appendPosition(512);
+      assertEquals(ImmutableList.of("512"), options.buildRequestHeaders().get(AzureStorageHeaders.APPEND_POSITION));
+   }
+
+   public void testMaxSizeStatic() {
+      AppendBlockOptions options = AppendBlockOptions.Builder.maxSize(4096);
+      assertEquals(ImmutableList.of("4096"), options.buildRequestHeaders().get(AzureStorageHeaders.MAX_SIZE));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testNegativeAppendPosition() {
+      AppendBlockOptions.Builder.appendPosition(-1);
+   }
+}
@@ -36,6 +36,7 @@ import org.jclouds.azurecompute.arm.domain.Vault;
 import org.jclouds.azurecompute.arm.domain.VirtualMachineInstance;
 import org.jclouds.azurecompute.arm.functions.ParseJobStatus;
 import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.compute.strategy.OperationPoller;
 import org.jclouds.azurecompute.arm.domain.Key.DeletedKeyBundle;
 import org.jclouds.azurecompute.arm.domain.Key.KeyBundle;
 import org.jclouds.azurecompute.arm.domain.Secret.DeletedSecretBundle;
@@ -64,6 +65,7 @@ import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.VAULT_C
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.VAULT_CERTIFICATE_OPERATION_STATUS;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class AzurePredicatesModule extends AbstractModule {
     protected void configure() {
@@ -79,26 +81,21 @@ public class AzurePredicatesModule extends AbstractModule {
 
     @Provides
     @Named(TIMEOUT_NODE_TERMINATED)
-    protected Predicate<URI> provideNodeTerminatedPredicate(final AzureComputeApi api, final ComputeServiceConstants.Timeouts timeouts,
-                                                            final PollPeriod pollPeriod) {
-        return retry(new ActionDonePredicate(api), timeouts.nodeTerminated, pollPeriod.pollInitialPeriod,
-                pollPeriod.pollMaxPeriod);
+    protected Predicate<URI> provideNodeTerminatedPredicate(final OperationPoller poller, final ComputeServiceConstants.Timeouts timeouts) {
+        return new ActionDonePredicate(poller, timeouts.nodeTerminated);
     }
 
     @Provides
     @Named(TIMEOUT_IMAGE_AVAILABLE)
-    protected Predicate<URI> provideImageCapturedPredicate(final AzureComputeApi api, final ComputeServiceConstants.Timeouts timeouts,
-                                                           final PollPeriod pollPeriod) {
-        return retry(new ImageCapturedPredicate(api), timeouts.imageAvailable, pollPeriod.pollInitialPeriod,
-                pollPeriod.pollMaxPeriod);
+    protected Predicate<URI> provideImageCapturedPredicate(final AzureComputeApi api, final OperationPoller poller,
+                                                           final ComputeServiceConstants.Timeouts timeouts) {
+        return new ImageCapturedPredicate(api, poller, timeouts.imageAvailable);
     }
 
     @Provides
     @Named(TIMEOUT_RESOURCE_DELETED)
-    protected Predicate<URI> provideResourceDeletedPredicate(final AzureComputeApi api, final ComputeServiceConstants.Timeouts timeouts,
-                                                             final PollPeriod pollPeriod) {
-        return retry(new ActionDonePredicate(api), timeouts.nodeTerminated, pollPeriod.pollInitialPeriod,
-                pollPeriod.pollMaxPeriod);
+    protected Predicate<URI> provideResourceDeletedPredicate(final OperationPoller poller, final ComputeServiceConstants.Timeouts timeouts) {
+        return new ActionDonePredicate(poller, timeouts.nodeTerminated);
     }
 
     @Provides
@@ -135,20 +132,25 @@ public class AzurePredicatesModule extends AbstractModule {
                 pollPeriod.pollMaxPeriod);
     }
 
+    /**
+     * Waits for a long-running operation to succeed. The calling thread blocks on the {@link OperationPoller}
+     * future rather than polling itself.
+     */
     @VisibleForTesting
     static class ActionDonePredicate implements Predicate<URI> {
 
-        private final AzureComputeApi api;
+        private final OperationPoller poller;
+        private final long timeout;
 
-        public ActionDonePredicate(final AzureComputeApi api) {
-            this.api = checkNotNull(api, "api must not be null");
+        public ActionDonePredicate(final OperationPoller poller, final long timeout) {
+            this.poller = checkNotNull(poller, "poller must not be null");
+            this.timeout = timeout;
         }
 
         @Override
         public boolean apply(final URI uri) {
             checkNotNull(uri, "uri cannot be null");
-            return ParseJobStatus.JobStatus.DONE == api.getJobApi().jobStatus(uri)
-                    || ParseJobStatus.JobStatus.NO_CONTENT == api.getJobApi().jobStatus(uri);
+            return OperationPoller.succeeded(poller.await(uri, timeout, MILLISECONDS));
         }
     }
 
@@ -156,15 +158,19 @@ public class AzurePredicatesModule extends AbstractModule {
     static class ImageCapturedPredicate implements Predicate<URI> {
 
         private final AzureComputeApi api;
+        private final OperationPoller poller;
+        private final long timeout;
 
-        public ImageCapturedPredicate(final AzureComputeApi api) {
+        public ImageCapturedPredicate(final AzureComputeApi api, final OperationPoller poller, final long timeout) {
             this.api = checkNotNull(api, "api must not be null");
+            this.poller = checkNotNull(poller, "poller must not be null");
+            this.timeout = timeout;
         }
 
         @Override
         public boolean apply(final URI uri) {
             checkNotNull(uri, "uri cannot be null");
-            if (api.getJobApi().jobStatus(uri) != ParseJobStatus.JobStatus.DONE) {
+            if (poller.await(uri, timeout, MILLISECONDS) != ParseJobStatus.JobStatus.DONE) {
                 return false;
             }
             List<ResourceDefinition> definitions = api.getJobApi().captureStatus(uri);
@@ -16,18 +16,19 @@
  */
 package org.jclouds.azurecompute.arm.compute.strategy;
 
-import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Maps.filterValues;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.jclouds.azurecompute.arm.compute.AzureComputeServiceAdapter.AUTOGENERATED_IP_KEY;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.TIMEOUT_RESOURCE_DELETED;
 import static org.jclouds.azurecompute.arm.domain.IdReference.extractName;
 import static org.jclouds.azurecompute.arm.domain.IdReference.extractResourceGroup;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,14 +52,18 @@ import org.jclouds.azurecompute.arm.domain.OSDisk;
 import org.jclouds.azurecompute.arm.domain.PublicIPAddress;
 import org.jclouds.azurecompute.arm.domain.VirtualMachine;
 import org.jclouds.azurecompute.arm.features.NetworkSecurityGroupApi;
+import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
 import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 
 @Singleton
 public class CleanupResources {
@@ -69,13 +74,17 @@ public class CleanupResources {
 
    private final AzureComputeApi api;
    private final Predicate<URI> resourceDeleted;
+   private final OperationPoller operations;
+   private final long deleteTimeout;
    private final GroupNamingConvention.Factory namingConvention;
 
    @Inject
    CleanupResources(AzureComputeApi azureComputeApi, @Named(TIMEOUT_RESOURCE_DELETED) Predicate<URI> resourceDeleted,
-         GroupNamingConvention.Factory namingConvention) {
+         OperationPoller operations, Timeouts timeouts, GroupNamingConvention.Factory namingConvention) {
       this.api = azureComputeApi;
       this.resourceDeleted = resourceDeleted;
+      this.operations = operations;
+      this.deleteTimeout = timeouts.nodeTerminated;
       this.namingConvention = namingConvention;
    }
 
@@ -102,34 +111,40 @@ public class CleanupResources {
    }
 
    public boolean cleanupVirtualMachineNICs(VirtualMachine virtualMachine) {
-      boolean deleted = true;
+      // The NICs are deleted together, and their public IPs once they are all gone, as an IP
+      // cannot be deleted while it is attached
+      Map<String, ListenableFuture<JobStatus>> deleteJobs = new HashMap<String, ListenableFuture<JobStatus>>();
+      List<IdReference> publicIps = new ArrayList<IdReference>();
       for (NetworkInterface nicRef : virtualMachine.properties().networkProfile().networkInterfaces()) {
          String nicResourceGroup = extractResourceGroup(nicRef.id());
          String nicName = extractName(nicRef.id());
          NetworkInterfaceCard nic = api.getNetworkInterfaceCardApi(nicResourceGroup).get(nicName);
 
-         Iterable<IdReference> publicIps = getPublicIps(nic);
+         Iterables.addAll(publicIps, getPublicIps(nic));
 
          logger.debug(">> destroying nic %s...", nicName);
          URI nicDeletionURI = api.getNetworkInterfaceCardApi(nicResourceGroup).delete(nicName);
-         deleted &= nicDeletionURI == null || resourceDeleted.apply(nicDeletionURI);
+         if (nicDeletionURI != null) {
+            deleteJobs.put(nicName, operations.poll(nicDeletionURI, deleteTimeout, MILLISECONDS));
+         }
+      }
 
-         for (IdReference publicIp : publicIps) {
-            String publicIpResourceGroup = publicIp.resourceGroup();
-            String publicIpName = publicIp.name();
+      boolean deleted = notDeleted(deleteJobs).isEmpty();
+      for (IdReference publicIp : publicIps) {
+         String publicIpResourceGroup = publicIp.resourceGroup();
+         String publicIpName = publicIp.name();
 
-            PublicIPAddress ip = api.getPublicIPAddressApi(publicIpResourceGroup).get(publicIpName);
-            if (ip.tags() != null && Boolean.parseBoolean(ip.tags().get(AUTOGENERATED_IP_KEY))) {
-               logger.debug(">> deleting public ip %s...", publicIpName);
-               deleted &= api.getPublicIPAddressApi(publicIpResourceGroup).delete(publicIpName);
-            }
+         PublicIPAddress ip = api.getPublicIPAddressApi(publicIpResourceGroup).get(publicIpName);
+         if (ip.tags() != null && Boolean.parseBoolean(ip.tags().get(AUTOGENERATED_IP_KEY))) {
+            logger.debug(">> deleting public ip %s...", publicIpName);
+            deleted &= api.getPublicIPAddressApi(publicIpResourceGroup).delete(publicIpName);
          }
       }
       return deleted;
    }
 
    public boolean cleanupManagedDisks(VirtualMachine virtualMachine) {
-      Map<String, URI> deleteJobs = new HashMap<String, URI>();
+      Map<String, ListenableFuture<JobStatus>> deleteJobs = new HashMap<String, ListenableFuture<JobStatus>>();
 
       OSDisk osDisk = virtualMachine.properties().storageProfile().osDisk();
       deleteManagedDisk(osDisk.managedDiskParameters(), deleteJobs);
@@ -138,7 +153,7 @@ public class CleanupResources {
          deleteManagedDisk(dataDisk.managedDiskParameters(), deleteJobs);
       }
 
-      Set<String> nonDeletedDisks = filterValues(deleteJobs, not(resourceDeleted)).keySet();
+      Set<String> nonDeletedDisks = notDeleted(deleteJobs);
       if (!nonDeletedDisks.isEmpty()) {
          logger.warn(">> could not delete disks: %s", Joiner.on(',').join(nonDeletedDisks));
       }
@@ -146,13 +161,14 @@ public class CleanupResources {
       return nonDeletedDisks.isEmpty();
    }
 
-   private void deleteManagedDisk(@Nullable ManagedDiskParameters managedDisk, Map<String, URI> deleteJobs) {
+   private void deleteManagedDisk(@Nullable ManagedDiskParameters managedDisk,
+         Map<String, ListenableFuture<JobStatus>> deleteJobs) {
       if (managedDisk != null) {
          IdReference diskRef = IdReference.create(managedDisk.id());
          logger.debug(">> deleting managed disk %s...", diskRef.name());
          URI uri = api.getDiskApi(diskRef.resourceGroup()).delete(diskRef.name());
          if (uri != null) {
-            deleteJobs.put(diskRef.name(), uri);
+            deleteJobs.put(diskRef.name(), operations.poll(uri, deleteTimeout, MILLISECONDS));
          }
       }
    }
@@ -230,6 +246,16 @@ public class CleanupResources {
                   .virtualMachines().isEmpty());
    }
 
+   private static Set<String> notDeleted(Map<String, ListenableFuture<JobStatus>> deleteJobs) {
+      Set<String> notDeleted = new HashSet<String>();
+      for (Map.Entry<String, ListenableFuture<JobStatus>> job : deleteJobs.entrySet()) {
+         if (!OperationPoller.succeeded(OperationPoller.getStatus(job.getValue()))) {
+            notDeleted.add(job.getKey());
+         }
+      }
+      return notDeleted;
+   }
+
    private boolean deleteVirtualMachine(String group, VirtualMachine virtualMachine) {
       return resourceDeleted.apply(api.getVirtualMachineApi(group).delete(virtualMachine.name()));
    }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.azurecompute.arm.AzureComputeApi;
+import org.jclouds.azurecompute.arm.domain.JobProgress;
+import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Polls the {@code Location} and {@code Azure-AsyncOperation} URIs of long-running operations without holding a
+ * thread per operation.
+ * <p>
+ * Each poll runs on the user executor, and the wait until the next one is left to a single timer thread, which is
+ * started on first use and stopped when the context is closed. The service's {@code Retry-After} header is honored
+ * when present; otherwise the period grows from the initial to the max poll period, as with
+ * {@link org.jclouds.util.Predicates2#retry}.
+ */
+@Singleton
+public class OperationPoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final AzureComputeApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long initialPeriod;
+   private final long maxPeriod;
+   private final Closer closer;
+   private final Set<Poll> pending = Sets.newConcurrentHashSet();
+   private ScheduledExecutorService timer;
+
+   @Inject
+   OperationPoller(AzureComputeApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         PollPeriod pollPeriod, Closer closer) {
+      this.api = api;
+      this.userExecutor = userExecutor;
+      this.initialPeriod = pollPeriod.pollInitialPeriod;
+      this.maxPeriod = pollPeriod.pollMaxPeriod;
+      this.closer = closer;
+   }
+
+   /**
+    * Polls an operation until it leaves {@link JobStatus#IN_PROGRESS} or the timeout elapses.
+    *
+    * @return the last status seen, which is {@link JobStatus#IN_PROGRESS} if the operation timed out. Cancelling the
+    *         future stops the polling, and closing the context cancels it.
+    */
+   public ListenableFuture<JobStatus> poll(URI operation, long timeout, TimeUnit unit) {
+      final Poll poll = new Poll(checkNotNull(operation, "operation"), System.nanoTime() + unit.toNanos(timeout));
+      pending.add(poll);
+      poll.status.addListener(new Runnable() {
+         @Override
+         public void run() {
+            pending.remove(poll);
+         }
+      }, MoreExecutors.sameThreadExecutor());
+      submit(poll);
+      return poll.status;
+   }
+
+   /**
+    * Polls an operation and blocks until it leaves {@link JobStatus#IN_PROGRESS} or the timeout elapses.
+    */
+   public JobStatus await(URI operation, long timeout, TimeUnit unit) {
+      return getStatus(poll(operation, timeout, unit));
+   }
+
+   /**
+    * Blocks until a future returned by {@link #poll} completes, rethrowing failures to poll as they were thrown by
+    * the api.
+    */
+   public static JobStatus getStatus(ListenableFuture<JobStatus> status) {
+      try {
+         return Uninterruptibles.getUninterruptibly(status);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Whether an operation that is no longer in progress succeeded.
+    */
+   public static boolean succeeded(JobStatus status) {
+      return status == JobStatus.DONE || status == JobStatus.NO_CONTENT;
+   }
+
+   private final class Poll implements Runnable {
+      private final URI operation;
+      private final long deadline;
+      private final SettableFuture<JobStatus> status = SettableFuture.create();
+      private long period = initialPeriod;
+
+      private Poll(URI operation, long deadline) {
+         this.operation = operation;
+         this.deadline = deadline;
+      }
+
+      @Override
+      public void run() {
+         if (status.isDone()) {
+            return;
+         }
+         try {
+            JobProgress progress = api.getJobApi().jobProgress(operation);
+            long remaining = MILLISECONDS.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (progress.status() != JobStatus.IN_PROGRESS || remaining <= 0) {
+               status.set(progress.status());
+               return;
+            }
+            long delay = nextDelay(progress.retryAfter());
+            logger.trace("<< operation %s in progress, polling again in %sms", operation, delay);
+            schedule(this, Math.min(delay, remaining));
+         } catch (RuntimeException e) {
+            status.setException(e);
+         }
+      }
+
+      private long nextDelay(Integer retryAfter) {
+         if (retryAfter != null) {
+            return SECONDS.toMillis(retryAfter);
+         }
+         long delay = period;
+         period = Math.min(period * 3 / 2, maxPeriod);
+         return delay;
+      }
+
+      @Override
+      public String toString() {
+         return "poll(" + operation + ")";
+      }
+   }
+
+   private void submit(Poll poll) {
+      try {
+         userExecutor.execute(poll);
+      } catch (RejectedExecutionException e) {
+         poll.status.setException(e);
+      }
+   }
+
+   private void schedule(final Poll poll, long delay) {
+      try {
+         timer().schedule(new Runnable() {
+            @Override
+            public void run() {
+               submit(poll);
+            }
+         }, delay, MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         poll.status.setException(e);
+      }
+   }
+
+   private synchronized ScheduledExecutorService timer() {
+      if (timer == null) {
+         final ScheduledExecutorService started = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+               .setNameFormat("azure operation poller %d").setDaemon(true).build());
+         closer.addToClose(new Closeable() {
+            @Override
+            public void close() {
+               started.shutdownNow();
+               for (Poll poll : pending) {
+                  poll.status.cancel(false);
+               }
+            }
+         });
+         timer = started;
+      }
+      return timer;
+   }
+}
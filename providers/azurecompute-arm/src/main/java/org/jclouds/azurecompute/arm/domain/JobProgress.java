@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.domain;
+
+import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Status of a long-running operation, and how long the service asks clients to wait before polling it again.
+ */
+@AutoValue
+public abstract class JobProgress {
+
+   public abstract JobStatus status();
+
+   /**
+    * Seconds from the {@code Retry-After} header, if the service sent one.
+    */
+   @Nullable
+   public abstract Integer retryAfter();
+
+   public static JobProgress create(final JobStatus status, final Integer retryAfter) {
+      return new AutoValue_JobProgress(status, retryAfter);
+   }
+}
@@ -25,7 +25,9 @@ import javax.ws.rs.GET;
 import javax.ws.rs.core.MediaType;
 
 import org.jclouds.Fallbacks;
+import org.jclouds.azurecompute.arm.domain.JobProgress;
 import org.jclouds.azurecompute.arm.domain.ResourceDefinition;
+import org.jclouds.azurecompute.arm.functions.ParseJobProgress;
 import org.jclouds.azurecompute.arm.functions.ParseJobStatus;
 import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
 import org.jclouds.oauth.v2.filters.OAuthFilter;
@@ -46,6 +48,13 @@ public interface JobApi extends Closeable {
    @ResponseParser(ParseJobStatus.class)
    JobStatus jobStatus(@EndpointParam URI jobURI);
 
+   /**
+    * Get status of the job together with the delay the service asks for before it is polled again
+    */
+   @GET
+   @ResponseParser(ParseJobProgress.class)
+   JobProgress jobProgress(@EndpointParam URI jobURI);
+
    /**
     * Get status of captured custom image after capture call
     */
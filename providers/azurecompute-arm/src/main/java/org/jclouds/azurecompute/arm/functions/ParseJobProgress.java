@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.functions;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.azurecompute.arm.domain.JobProgress;
+import org.jclouds.http.HttpResponse;
+
+import com.google.common.base.Function;
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Ints;
+
+/**
+ * Parses job status and the {@code Retry-After} header from http response
+ */
+@Singleton
+public class ParseJobProgress implements Function<HttpResponse, JobProgress> {
+
+   private final ParseJobStatus parseJobStatus;
+
+   @Inject
+   ParseJobProgress(ParseJobStatus parseJobStatus) {
+      this.parseJobStatus = parseJobStatus;
+   }
+
+   public JobProgress apply(final HttpResponse from) {
+      // Resource Manager sends delta seconds, never an HTTP date
+      String retryAfter = from.getFirstHeaderOrNull(HttpHeaders.RETRY_AFTER);
+      Integer seconds = retryAfter == null ? null : Ints.tryParse(retryAfter.trim());
+      return JobProgress.create(parseJobStatus.apply(from), seconds == null || seconds < 0 ? null : seconds);
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
+import org.jclouds.azurecompute.arm.internal.BaseAzureComputeApiMockTest;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+
+@Test(groups = "unit", testName = "OperationPollerTest", singleThreaded = true)
+public class OperationPollerTest extends BaseAzureComputeApiMockTest {
+
+   private Closer closer;
+   private OperationPoller poller;
+   private URI operation;
+
+   @BeforeMethod
+   public void createPoller() {
+      closer = new Closer();
+      poller = new OperationPoller(api, sameThreadExecutor(), new PollPeriod(), closer);
+      operation = URI.create(url("/operationresults/job-1?api-version=2014-04-01"));
+   }
+
+   public void testHonorsRetryAfter() throws InterruptedException {
+      server.enqueue(response202().addHeader("Retry-After", "1"));
+      server.enqueue(response200());
+
+      long start = System.nanoTime();
+      JobStatus status = poller.await(operation, 1, MINUTES);
+
+      assertEquals(status, JobStatus.DONE);
+      assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(900), "polled again before Retry-After");
+      assertSent(server, "GET", "/operationresults/job-1?api-version=2014-04-01");
+      assertSent(server, "GET", "/operationresults/job-1?api-version=2014-04-01");
+   }
+
+   public void testReturnsInProgressOnTimeout() {
+      for (int i = 0; i < 10; i++) {
+         server.enqueue(response202());
+      }
+
+      assertEquals(poller.await(operation, 100, MILLISECONDS), JobStatus.IN_PROGRESS);
+   }
+
+   public void testPollsOperationsConcurrently() {
+      server.enqueue(response202().addHeader("Retry-After", "1"));
+      server.enqueue(response202().addHeader("Retry-After", "1"));
+      server.enqueue(response204());
+      server.enqueue(response200());
+
+      long start = System.nanoTime();
+      ListenableFuture<JobStatus> first = poller.poll(operation, 1, MINUTES);
+      ListenableFuture<JobStatus> second = poller.poll(URI.create(url("/operationresults/job-2")), 1, MINUTES);
+
+      assertTrue(OperationPoller.succeeded(OperationPoller.getStatus(first)));
+      assertTrue(OperationPoller.succeeded(OperationPoller.getStatus(second)));
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "operations were polled one after another");
+   }
+
+   public void testCloseCancelsPendingPolls() throws IOException {
+      server.enqueue(new MockResponse().setStatus("HTTP/1.1 202 Accepted").addHeader("Retry-After", "60"));
+
+      ListenableFuture<JobStatus> status = poller.poll(operation, 1, MINUTES);
+      closer.close();
+
+      assertTrue(status.isCancelled());
+   }
+}
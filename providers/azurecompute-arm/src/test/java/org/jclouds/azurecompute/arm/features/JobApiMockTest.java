@@ -20,12 +20,14 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
+import org.jclouds.azurecompute.arm.domain.JobProgress;
 import org.jclouds.azurecompute.arm.domain.ResourceDefinition;
 import org.jclouds.azurecompute.arm.functions.ParseJobStatus.JobStatus;
 import org.jclouds.azurecompute.arm.internal.BaseAzureComputeApiMockTest;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @Test(groups = "unit", testName = "JobApiMockTest", singleThreaded = true)
@@ -73,6 +75,28 @@ public class JobApiMockTest extends BaseAzureComputeApiMockTest {
       assertSent(server, "GET", requestUrl);
    }
 
+   public void testGetJobProgressWithRetryAfter() throws InterruptedException {
+      server.enqueue(response202WithHeader().addHeader("Retry-After", "15"));
+
+      JobProgress progress = api.getJobApi().jobProgress(URI.create(requestUrl));
+
+      assertEquals(progress.status(), JobStatus.IN_PROGRESS);
+      assertEquals(progress.retryAfter(), Integer.valueOf(15));
+
+      assertSent(server, "GET", requestUrl);
+   }
+
+   public void testGetJobProgressWithoutRetryAfter() throws InterruptedException {
+      server.enqueue(response200());
+
+      JobProgress progress = api.getJobApi().jobProgress(URI.create(requestUrl));
+
+      assertEquals(progress.status(), JobStatus.DONE);
+      assertNull(progress.retryAfter());
+
+      assertSent(server, "GET", requestUrl);
+   }
+
    public void testCaptureJobStatus() throws IOException, InterruptedException {
       server.enqueue(jsonResponse("/resourceDefinition.json").setResponseCode(200));
 
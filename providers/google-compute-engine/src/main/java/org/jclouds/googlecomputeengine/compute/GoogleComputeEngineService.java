@@ -53,6 +53,7 @@ import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.compute.strategy.RebootNodeStrategy;
 import org.jclouds.compute.strategy.ResumeNodeStrategy;
 import org.jclouds.compute.strategy.SuspendNodeStrategy;
+import org.jclouds.concurrent.LocationFanOut;
 import org.jclouds.domain.Credentials;
 import org.jclouds.domain.Location;
 import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
@@ -103,6 +104,7 @@ public final class GoogleComputeEngineService extends BaseComputeService {
                                         PersistNodeCredentials persistNodeCredentials,
                                         ComputeServiceConstants.Timeouts timeouts,
                                         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+                                        LocationFanOut fanOut,
                                         Optional<ImageExtension> imageExtension,
                                         Optional<SecurityGroupExtension> securityGroupExtension,
                                         Function<Set<? extends NodeMetadata>, Set<String>> findOrphanedGroups,
@@ -113,7 +115,7 @@ public final class GoogleComputeEngineService extends BaseComputeService {
               getNodeMetadataStrategy, runNodesAndAddToSetStrategy, rebootNodeStrategy, destroyNodeStrategy,
               resumeNodeStrategy, suspendNodeStrategy, templateBuilderProvider, templateOptionsProvider, nodeRunning,
               nodeTerminated, nodeSuspended, initScriptRunnerFactory, initAdminAccess, runScriptOnNodeFactory,
-              persistNodeCredentials, timeouts, userExecutor, imageExtension, securityGroupExtension);
+              persistNodeCredentials, timeouts, userExecutor, fanOut, imageExtension, securityGroupExtension);
       this.findOrphanedGroups = findOrphanedGroups;
       this.namingConvention = namingConvention;
       this.api = api;
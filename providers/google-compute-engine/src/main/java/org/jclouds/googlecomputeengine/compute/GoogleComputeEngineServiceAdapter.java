@@ -22,12 +22,14 @@ import static com.google.common.collect.Iterables.filter;
 import static java.lang.String.format;
 import static org.jclouds.googlecloud.internal.ListPages.concat;
 import static org.jclouds.googlecomputeengine.compute.domain.internal.RegionAndName.fromRegionAndName;
+import static org.jclouds.googlecomputeengine.compute.functions.NameFilters.nameIn;
 import static org.jclouds.googlecomputeengine.compute.strategy.CreateNodesWithGroupEncodedIntoNameThenAddToSet.nameFromNetworkString;
 import static org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties.IMAGE_PROJECTS;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
@@ -63,6 +65,7 @@ import org.jclouds.googlecomputeengine.domain.Subnetwork;
 import org.jclouds.googlecomputeengine.domain.Tags;
 import org.jclouds.googlecomputeengine.domain.Zone;
 import org.jclouds.googlecomputeengine.features.InstanceApi;
+import org.jclouds.googlecomputeengine.options.ListOptions;
 import org.jclouds.location.suppliers.all.JustProvider;
 
 import com.google.common.base.Function;
@@ -73,8 +76,10 @@ import com.google.common.base.Strings;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.UncheckedTimeoutException;
 
@@ -270,12 +275,22 @@ public final class GoogleComputeEngineServiceAdapter
       return concat(api.aggregatedList().instances());
    }
 
+   /** Lists the instances by name on the server, then drops instances of the same name in other zones. */
    @Override public Iterable<Instance> listNodesByIds(final Iterable<String> selfLinks) {
-      return filter(listNodes(), new Predicate<Instance>() { // TODO: convert to server-side filter
-         @Override public boolean apply(Instance instance) {
-            return Iterables.contains(selfLinks, instance.selfLink().toString());
-         }
-      });
+      final Set<String> ids = ImmutableSet.copyOf(selfLinks);
+      Set<String> names = Sets.newLinkedHashSet();
+      for (String selfLink : ids) {
+         names.add(toName(URI.create(selfLink)));
+      }
+      ImmutableList.Builder<Instance> instances = ImmutableList.builder();
+      for (ListOptions byName : nameIn(names)) {
+         instances.addAll(filter(concat(api.aggregatedList().instances(byName)), new Predicate<Instance>() {
+            @Override public boolean apply(Instance instance) {
+               return ids.contains(instance.selfLink().toString());
+            }
+         }));
+      }
+      return instances.build();
    }
 
    @Override public void destroyNode(String selfLink) {
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.compute.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import org.jclouds.googlecomputeengine.options.ListOptions;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+/** Server-side {@link ListOptions#filter(String) filters} that match resources by name. */
+public final class NameFilters {
+
+   /** Names per filter, which keeps the request line short. */
+   static final int NAMES_PER_FILTER = 50;
+
+   /** Returns one filter per batch of names, matching any of the names. Empty if there are no names. */
+   public static List<ListOptions> nameIn(Iterable<String> names) {
+      ImmutableList.Builder<ListOptions> filters = ImmutableList.builder();
+      for (List<String> batch : Iterables.partition(ImmutableSet.copyOf(names), NAMES_PER_FILTER)) {
+         StringBuilder regex = new StringBuilder();
+         for (String name : batch) {
+            regex.append(regex.length() == 0 ? "" : "|").append(quote(name));
+         }
+         filters.add(ListOptions.Builder.filter("name eq '(" + regex + ")'"));
+      }
+      return filters.build();
+   }
+
+   /** Returns a filter matching the names that start with {@code prefix}. */
+   public static ListOptions nameStartsWith(String prefix) {
+      checkArgument(!checkNotNull(prefix, "prefix").isEmpty(), "prefix must not be empty");
+      return ListOptions.Builder.filter("name eq '" + quote(prefix) + ".*'");
+   }
+
+   /** Escapes the RE2 metacharacters in a literal, as filter values are regular expressions. */
+   static String quote(String literal) {
+      StringBuilder quoted = new StringBuilder(literal.length());
+      for (char c : literal.toCharArray()) {
+         if ("\\.+*?()|[]{}^$".indexOf(c) != -1) {
+            quoted.append('\\');
+         }
+         quoted.append(c);
+      }
+      return quoted.toString();
+   }
+
+   private NameFilters() {
+   }
+}
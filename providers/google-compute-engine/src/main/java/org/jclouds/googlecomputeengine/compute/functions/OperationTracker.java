@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.googlecloud.internal.ListPages.concat;
+import static org.jclouds.googlecomputeengine.compute.functions.NameFilters.nameIn;
+import static org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties.OPERATION_COMPLETE_INTERVAL;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.googlecomputeengine.options.ListOptions;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+
+/**
+ * Returns the current state of an operation, polling the operations of a zone, a region or the global scope together.
+ * <p/>
+ * Callers waiting on operations of the same scope share a single list call, filtered to the names of those
+ * operations, at most once per {@link org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties#OPERATION_COMPLETE_INTERVAL
+ * interval}. An operation is returned unchanged the first time it is seen, so that it is included in the next poll
+ * of its scope, and is fetched by self-link if that poll did not return it.
+ */
+@Singleton
+public final class OperationTracker implements Function<Operation, Operation> {
+
+   /** An operation nobody asked for in this many intervals is no longer polled. */
+   static final int ABANDONED_INTERVALS = 20;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final GoogleComputeEngineApi api;
+   private final Resources resources;
+   private final long intervalNanos;
+   private final ConcurrentMap<String, Scope> scopes = Maps.newConcurrentMap();
+
+   @Inject OperationTracker(GoogleComputeEngineApi api, Resources resources,
+         @Named(OPERATION_COMPLETE_INTERVAL) long intervalMillis) {
+      this.api = api;
+      this.resources = resources;
+      this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+   }
+
+   @Override public Operation apply(Operation operation) {
+      checkNotNull(operation, "operation");
+      Scope scope = scope(operation.zone() != null ? operation.zone() : operation.region(),
+            operation.zone() != null);
+      synchronized (scope) {
+         return scope.refresh(operation);
+      }
+   }
+
+   private Scope scope(URI location, boolean zone) {
+      String key = location == null ? "global" : location.toString();
+      Scope scope = scopes.get(key);
+      if (scope == null) {
+         Scope created = new Scope(location == null ? null : toName(location), zone);
+         scope = scopes.putIfAbsent(key, created);
+         if (scope == null) {
+            scope = created;
+         }
+      }
+      return scope;
+   }
+
+   /** The operations of one zone, region or the global scope. Guarded by itself. */
+   private final class Scope {
+      private final String name;
+      private final boolean zone;
+      /** Operation names, with when they were last asked for. */
+      private final Map<String, Long> waiting = Maps.newLinkedHashMap();
+      private final Map<String, Operation> polled = Maps.newHashMap();
+      private long lastPoll;
+      private boolean everPolled;
+
+      private Scope(String name, boolean zone) {
+         this.name = name;
+         this.zone = zone;
+      }
+
+      private Operation refresh(Operation operation) {
+         long now = System.nanoTime();
+         boolean seen = waiting.containsKey(operation.name());
+         waiting.put(operation.name(), now);
+         if (!seen && !polled.containsKey(operation.name())) {
+            return operation;
+         }
+         if (!everPolled || now - lastPoll >= intervalNanos) {
+            poll(now);
+         }
+         Operation current = polled.get(operation.name());
+         if (current == null) {
+            current = resources.operation(operation.selfLink());
+         }
+         if (current == null || current.status() == Operation.Status.DONE) {
+            waiting.remove(operation.name());
+            polled.remove(operation.name());
+         }
+         return current;
+      }
+
+      private void poll(long now) {
+         for (Iterator<Long> lastAsked = waiting.values().iterator(); lastAsked.hasNext();) {
+            if (now - lastAsked.next() > ABANDONED_INTERVALS * intervalNanos) {
+               lastAsked.remove();
+            }
+         }
+         polled.clear();
+         lastPoll = now;
+         everPolled = true;
+         try {
+            for (ListOptions byName : nameIn(waiting.keySet())) {
+               for (Operation operation : concat(list(byName))) {
+                  polled.put(operation.name(), operation);
+               }
+            }
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< could not list operations in %s, getting them one by one", this);
+         }
+         logger.trace("<< polled %s of %s operations in %s", polled.size(), waiting.size(), this);
+      }
+
+      private Iterator<ListPage<Operation>> list(ListOptions options) {
+         if (name == null) {
+            return api.operations().list(options);
+         }
+         return zone ? api.operations().listInZone(name, options) : api.operations().listInRegion(name, options);
+      }
+
+      @Override public String toString() {
+         return name == null ? "global" : name;
+      }
+   }
+
+   private static String toName(URI link) {
+      String path = link.getPath();
+      return path.substring(path.lastIndexOf('/') + 1);
+   }
+}
@@ -18,11 +18,14 @@ package org.jclouds.googlecomputeengine.compute.predicates;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties.COALESCE_OPERATION_POLLING;
 
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.googlecomputeengine.compute.functions.OperationTracker;
 import org.jclouds.googlecomputeengine.compute.functions.Resources;
 import org.jclouds.googlecomputeengine.domain.Operation;
 
@@ -31,14 +34,20 @@ import com.google.common.base.Predicate;
 public final class AtomicOperationDone implements Predicate<AtomicReference<Operation>> {
 
    private final Resources resources;
+   private final OperationTracker operationTracker;
+   private final boolean coalesce;
 
-   @Inject AtomicOperationDone(Resources resources) {
+   @Inject AtomicOperationDone(Resources resources, OperationTracker operationTracker,
+         @Named(COALESCE_OPERATION_POLLING) boolean coalesce) {
       this.resources = resources;
+      this.operationTracker = operationTracker;
+      this.coalesce = coalesce;
    }
 
    @Override public boolean apply(AtomicReference<Operation> input) {
       checkNotNull(input.get(), "operation");
-      Operation current = resources.operation(input.get().selfLink());
+      Operation current = coalesce ? operationTracker.apply(input.get()) : resources.operation(input.get().selfLink());
+      checkNotNull(current, "operation %s not found", input.get().selfLink());
       input.set(current);
       checkState(current.error().errors().isEmpty(), "Task ended in error %s", current); // ISE will break the loop.
       switch (current.status()) {
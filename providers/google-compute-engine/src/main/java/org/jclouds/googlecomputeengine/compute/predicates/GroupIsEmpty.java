@@ -20,23 +20,43 @@ import static com.google.common.collect.Iterables.isEmpty;
 import static com.google.common.collect.Sets.filter;
 import static org.jclouds.compute.predicates.NodePredicates.all;
 import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.jclouds.compute.util.ComputeServiceUtils.groupFromMapOrName;
+import static org.jclouds.googlecloud.internal.ListPages.concat;
+import static org.jclouds.googlecomputeengine.compute.functions.NameFilters.nameStartsWith;
 
 import javax.inject.Inject;
 
 import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.domain.Instance;
 
 import com.google.common.base.Predicate;
 
+/**
+ * True if no node is in the group. The instances whose names start with the group name, as is the case for the
+ * instances jclouds names itself, are listed first with a server side filter. Only if none of them is in the group
+ * are all nodes listed, so that instances created with custom node names are still found by their group metadata.
+ */
 public final class GroupIsEmpty implements Predicate<String> {
 
    private final ComputeService computeService;
+   private final GoogleComputeEngineApi api;
+   private final GroupNamingConvention namingConvention;
 
-   @Inject GroupIsEmpty(ComputeService computeService) {
+   @Inject GroupIsEmpty(ComputeService computeService, GoogleComputeEngineApi api,
+         GroupNamingConvention.Factory namingConvention) {
       this.computeService = computeService;
+      this.api = api;
+      this.namingConvention = namingConvention.createWithoutPrefix();
    }
 
-
    @Override public boolean apply(String groupName) {
+      for (Instance instance : concat(api.aggregatedList().instances(nameStartsWith(groupName)))) {
+         if (groupName.equals(groupFromMapOrName(instance.metadata().asMap(), instance.name(), namingConvention))) {
+            return false;
+         }
+      }
       return isEmpty(filter(computeService.listNodesDetailsMatching(all()), inGroup(groupName)));
    }
 }
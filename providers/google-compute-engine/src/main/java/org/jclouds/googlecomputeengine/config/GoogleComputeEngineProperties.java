@@ -30,6 +30,12 @@ public final class GoogleComputeEngineProperties {
    /** The interval, in msecs, between calls to check whether an operation has completed. */
    @Beta
    public static final String OPERATION_COMPLETE_INTERVAL = "jclouds.google-compute-engine.operation-complete-interval";
+   /**
+    * Whether operations are polled together, with one list call per zone, region or the global scope for all the
+    * operations being waited for, rather than one get call per operation. Defaults to false.
+    */
+   @Beta
+   public static final String COALESCE_OPERATION_POLLING = "jclouds.google-compute-engine.coalesce-operation-polling";
    /** The list of projects that will be scanned looking for images. */
    @Beta
    public static final String IMAGE_PROJECTS = "jclouds.google-compute-engine.image-projects";
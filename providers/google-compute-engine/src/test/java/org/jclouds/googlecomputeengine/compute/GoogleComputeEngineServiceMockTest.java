@@ -23,6 +23,7 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 import org.jclouds.compute.ComputeService;
@@ -37,6 +38,7 @@ import org.jclouds.googlecomputeengine.domain.Instance;
 import org.jclouds.googlecomputeengine.internal.BaseGoogleComputeEngineApiMockTest;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 
@@ -80,7 +82,8 @@ public class GoogleComputeEngineServiceMockTest extends BaseGoogleComputeEngineA
       server.enqueue(jsonResponse("/operation.json")); // instance delete
       server.enqueue(jsonResponse("/zone_operation.json"));
       server.enqueue(response404()); // deleted instance no longer exists
-      server.enqueue(aggregatedListInstanceEmpty());
+      server.enqueue(aggregatedListInstanceEmpty()); // no instance named after the group
+      server.enqueue(aggregatedListInstanceEmpty()); // no instance with the group in its metadata
       server.enqueue(jsonResponse("/firewall_list_compute.json"));
       server.enqueue(jsonResponse("/operation.json"));
       server.enqueue(jsonResponse("/zone_operation.json"));
@@ -96,6 +99,7 @@ public class GoogleComputeEngineServiceMockTest extends BaseGoogleComputeEngineA
       assertSent(server, "DELETE", "/jclouds/zones/us-central1-a/instances/test-delete-1"); // instance delete
       assertSent(server, "GET", "/projects/party/zones/us-central1-a/operations/operation-1354084865060");
       assertSent(server, "GET", "/projects/party/zones/us-central1-a/instances/test-delete-1"); // get instance
+      assertSent(server, "GET", "/projects/party/aggregated/instances?filter=name%20eq%20%27test-delete.%2A%27");
       assertSent(server, "GET", "/projects/party/aggregated/instances");
       assertSent(server, "GET", "/projects/party/global/firewalls");
       assertSent(server, "DELETE", "/projects/party/global/firewalls/jclouds-test-delete-34sf");
@@ -167,6 +171,20 @@ public class GoogleComputeEngineServiceMockTest extends BaseGoogleComputeEngineA
 
 
 
+   public void listNodesByIdsFiltersByNameOnTheServer() throws Exception {
+      server.enqueue(aggregatedListWithInstanceNetworkAndStatus("test-0", "test-network", RUNNING));
+
+      GoogleComputeEngineServiceAdapter adapter = computeService().getContext().utils().injector()
+            .getInstance(GoogleComputeEngineServiceAdapter.class);
+      List<Instance> instances = ImmutableList.copyOf(adapter.listNodesByIds(ImmutableSet.of(
+            url("/projects/party/zones/us-central1-a/instances/test-0"),
+            url("/projects/party/zones/us-central1-b/instances/test-0"))));
+      assertEquals(instances.size(), 1);
+      assertEquals(instances.get(0).name(), "test-0");
+
+      assertSent(server, "GET", "/projects/party/aggregated/instances?filter=name%20eq%20%27%28test-0%29%27");
+   }
+
    public void createNodeWhenFirewallDoesNotExist() throws Exception {
       server.enqueue(singleRegionSingleZoneResponse());
       server.enqueue(jsonResponse("/image_list.json"));
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.compute.functions;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.jclouds.googlecloud.domain.ForwardingListPage;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.googlecomputeengine.features.OperationApi;
+import org.jclouds.googlecomputeengine.options.ListOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+@Test(groups = "unit", testName = "OperationTrackerTest")
+public class OperationTrackerTest {
+
+   private static final String ZONE = "https://www.googleapis.com/compute/v1/projects/party/zones/us-central1-a";
+
+   public void testOperationsInAZoneShareOneListCall() {
+      Operation first = operation("operation-1", Operation.Status.PENDING);
+      Operation second = operation("operation-2", Operation.Status.PENDING);
+
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      OperationApi operationApi = createMock(OperationApi.class);
+      Resources resources = createMock(Resources.class);
+      expect(api.operations()).andReturn(operationApi).anyTimes();
+      expect(operationApi.listInZone(eq("us-central1-a"), anyObject(ListOptions.class))).andReturn(
+            page(operation("operation-1", Operation.Status.RUNNING), operation("operation-2", Operation.Status.DONE)));
+      replay(api, operationApi, resources);
+
+      OperationTracker tracker = new OperationTracker(api, resources, 60000);
+      // not polled until asked for again
+      assertSame(tracker.apply(first), first);
+      assertSame(tracker.apply(second), second);
+
+      assertEquals(tracker.apply(first).status(), Operation.Status.RUNNING);
+      // answered from the same poll
+      assertEquals(tracker.apply(second).status(), Operation.Status.DONE);
+      verify(api, operationApi, resources);
+   }
+
+   public void testOperationMissingFromTheListingIsFetched() {
+      Operation first = operation("operation-1", Operation.Status.PENDING);
+
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      OperationApi operationApi = createMock(OperationApi.class);
+      Resources resources = createMock(Resources.class);
+      expect(api.operations()).andReturn(operationApi).anyTimes();
+      expect(operationApi.listInZone(eq("us-central1-a"), anyObject(ListOptions.class))).andReturn(page());
+      expect(resources.operation(first.selfLink())).andReturn(operation("operation-1", Operation.Status.DONE));
+      replay(api, operationApi, resources);
+
+      OperationTracker tracker = new OperationTracker(api, resources, 60000);
+      tracker.apply(first);
+      assertEquals(tracker.apply(first).status(), Operation.Status.DONE);
+      verify(api, operationApi, resources);
+   }
+
+   private static Iterator<ListPage<Operation>> page(Operation... operations) {
+      return Iterators.singletonIterator(ForwardingListPage.create(ImmutableList.copyOf(operations), null));
+   }
+
+   private static Operation operation(String name, Operation.Status status) {
+      return Operation.create(name, null, URI.create(ZONE + "/operations/" + name), name, null,
+            URI.create(ZONE + "/instances/test-1"), null, null, status, null, null, null, new Date(), null, null, null, null,
+            "insert", null, null, null, URI.create(ZONE));
+   }
+}
@@ -19,9 +19,12 @@ package org.jclouds.googlecomputeengine.compute.functions;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Iterator;
 import java.util.Set;
 
 import org.easymock.EasyMock;
@@ -29,12 +32,24 @@ import org.jclouds.compute.ComputeService;
 import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.internal.NodeMetadataImpl;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.googlecloud.domain.ForwardingListPage;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
 import org.jclouds.googlecomputeengine.compute.predicates.GroupIsEmpty;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.googlecomputeengine.domain.Metadata;
+import org.jclouds.googlecomputeengine.features.AggregatedListApi;
+import org.jclouds.googlecomputeengine.options.ListOptions;
+import org.jclouds.googlecomputeengine.parse.ParseInstanceTest;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -162,10 +177,74 @@ public class OrphanedGroupsFromDeadNodesTest {
       assertTrue(orphanedGroups.contains("2"));
    }
 
+   @Test
+   public void testGroupFoundByNameFilterIsNotListedAgain() {
+      ComputeService computeService = createMock(ComputeService.class);
+      AggregatedListApi aggregatedList = createMock(AggregatedListApi.class);
+      expect(aggregatedList.instances(EasyMock.<ListOptions>anyObject())).andReturn(instancesInGroup("1", "1-a1b"));
+      replay(computeService, aggregatedList);
+
+      assertFalse(allNodesInGroupTerminated(computeService, aggregatedList).apply("1"));
+      verify(computeService, aggregatedList);
+   }
+
+   @Test
+   public void testGroupOfNodesWithCustomNamesIsFoundByFullListing() {
+      // created with TemplateOptions.nodeNames, so the name filter does not match the group
+      Set<NodeMetadata> customNamedNodes = ImmutableSet.<NodeMetadata> builder()
+              .add(new IdAndGroupOnlyNodeMetadata("web-server", "1", NodeMetadata.Status.RUNNING)).build();
+
+      ComputeService computeService = createMock(ComputeService.class);
+      expect(computeService.listNodesDetailsMatching(EasyMock.<Predicate<ComputeMetadata>>anyObject()))
+              .andReturn((Set) customNamedNodes).once();
+      AggregatedListApi aggregatedList = createMock(AggregatedListApi.class);
+      expect(aggregatedList.instances(EasyMock.<ListOptions>anyObject())).andReturn(noInstances());
+      replay(computeService, aggregatedList);
+
+      assertFalse(allNodesInGroupTerminated(computeService, aggregatedList).apply("1"));
+      verify(computeService, aggregatedList);
+   }
+
+   private static Iterator<ListPage<Instance>> instancesInGroup(String group, String name) {
+      Instance instance = new ParseInstanceTest().expected();
+      Metadata metadata = Metadata.create().put(ComputeServiceConstants.NODE_GROUP_KEY, group);
+      Instance inGroup = Instance.create(instance.id(), instance.creationTimestamp(), instance.selfLink(), name,
+            instance.description(), instance.tags(), instance.machineType(), instance.status(),
+            instance.statusMessage(), instance.zone(), instance.canIpForward(), instance.networkInterfaces(),
+            instance.disks(), metadata, instance.serviceAccounts(), instance.scheduling());
+      return Iterators.singletonIterator(ForwardingListPage.create(ImmutableList.of(inGroup), null));
+   }
+
+   private static Iterator<ListPage<Instance>> noInstances() {
+      return Iterators.singletonIterator(ForwardingListPage.create(ImmutableList.<Instance>of(), null));
+   }
+
+   /** the server side name filter finds no instance, so every group is checked by listing all nodes */
    private Predicate<String> allNodesInGroupTerminated(final ComputeService mock) {
+      AggregatedListApi aggregatedList = createMock(AggregatedListApi.class);
+      expect(aggregatedList.instances(EasyMock.<ListOptions>anyObject())).andReturn(noInstances()).anyTimes();
+      replay(aggregatedList);
+      return allNodesInGroupTerminated(mock, aggregatedList);
+   }
+
+   private Predicate<String> allNodesInGroupTerminated(final ComputeService mock,
+         AggregatedListApi aggregatedList) {
+      final GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      expect(api.aggregatedList()).andReturn(aggregatedList).anyTimes();
+      replay(api);
       return Guice.createInjector(new AbstractModule() {
          @Override protected void configure() {
             bind(ComputeService.class).toInstance(mock);
+            bind(GoogleComputeEngineApi.class).toInstance(api);
+            bind(GroupNamingConvention.Factory.class).toInstance(new GroupNamingConvention.Factory() {
+               @Override public GroupNamingConvention createWithoutPrefix() {
+                  return create();
+               }
+
+               @Override public GroupNamingConvention create() {
+                  return new InstanceToNodeMetadataTest.FixedGroupNamingConvention(null);
+               }
+            });
          }
       }).getInstance(GroupIsEmpty.class); // rather than opening ctor.
    }